@@ -0,0 +1,65 @@
+package minevalley.regions.benchmark;
+
+import minevalley.regions.api.core.Area;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Cuboid area that keeps its bounds as primitives.
+ */
+record BoxArea(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) implements Area {
+
+    BoxArea(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.world = world;
+        this.minX = Math.min(minX, maxX);
+        this.minY = Math.min(minY, maxY);
+        this.minZ = Math.min(minZ, maxZ);
+        this.maxX = Math.max(minX, maxX);
+        this.maxY = Math.max(minY, maxY);
+        this.maxZ = Math.max(minZ, maxZ);
+    }
+
+    @Nonnull
+    @Override
+    public Block minBlock() {
+        return Fakes.block(world, minX, minY, minZ);
+    }
+
+    @Nonnull
+    @Override
+    public Block maxBlock() {
+        return Fakes.block(world, maxX, maxY, maxZ);
+    }
+
+    @Nonnull
+    @Override
+    public List<Block> getBlocks() {
+        throw new UnsupportedOperationException("Use blockKeys() instead");
+    }
+
+    @Nonnull
+    @Override
+    public List<Chunk> getChunks() {
+        throw new UnsupportedOperationException("Use chunkKeys() instead");
+    }
+
+    @Override
+    public long volume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    @Override
+    public boolean contains(@Nullable Block block) {
+        return block != null && contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+}
@@ -0,0 +1,51 @@
+package minevalley.regions.benchmark;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Region consisting of {@link BoxArea}s. Users are never inside it.
+ */
+record BoxRegion(int id, List<Area> included, List<Area> excluded) implements Region {
+
+    @Nonnull
+    @Override
+    public List<Chunk> chunks() {
+        throw new UnsupportedOperationException("Use chunkKeys() instead");
+    }
+
+    @Override
+    public boolean contains(@Nullable Location location) {
+        return location != null && contains(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Override
+    public boolean contains(@Nullable Block block) {
+        return block != null && contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    @Nonnull
+    @Override
+    public Stream<OnlineUser> getUsersInRegion() {
+        return Stream.empty();
+    }
+
+    @Override
+    public void kickUser(@Nonnull OnlineUser user, @Nonnull Location target) {
+        throw new IllegalStateException("User is not inside the region");
+    }
+
+    @Override
+    public void update(@Nonnull List<Area> included, @Nonnull List<Area> excluded) {
+        throw new UnsupportedOperationException("Regions of the benchmark workload are immutable");
+    }
+}
@@ -0,0 +1,99 @@
+package minevalley.regions.benchmark;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for Bukkit and API objects that are normally provided by the server.
+ * <p>
+ * The fakes are dynamic proxies that only answer the methods the lookups need. Default methods are delegated to their
+ * default implementation, every other method throws an {@link UnsupportedOperationException}.
+ * <p>
+ * <b>Note:</b> Calls on proxies are slower than calls on real objects. Benchmarks taking blocks therefore include a
+ * constant overhead, which is why every lookup is also benchmarked with primitive coordinates.
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    /**
+     * Creates a fake world whose blocks are fake blocks as well.
+     */
+    @Nonnull
+    static World world(@Nonnull String name) {
+        final UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+        final World[] world = new World[1];
+        world[0] = proxy(World.class, Map.of(
+                "getUID", args -> id,
+                "getName", args -> name,
+                "getBlockAt", args -> block(world[0], (int) args[0], (int) args[1], (int) args[2]),
+                "getMinHeight", args -> -64,
+                "getMaxHeight", args -> 320), id.hashCode(), name);
+        return world[0];
+    }
+
+    /**
+     * Creates a fake block. Two fake blocks are equal, if their world and coordinates are equal.
+     */
+    @Nonnull
+    static Block block(@Nonnull World world, int x, int y, int z) {
+        final InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                return switch (method.getName()) {
+                    case "getX" -> x;
+                    case "getY" -> y;
+                    case "getZ" -> z;
+                    case "getWorld" -> world;
+                    case "equals" -> args[0] instanceof Block other && Proxy.isProxyClass(other.getClass())
+                            && other.getX() == x && other.getY() == y && other.getZ() == z && other.getWorld().equals(world);
+                    case "hashCode" -> Objects.hash(world, x, y, z);
+                    case "toString" -> "FakeBlock{" + world.getName() + ", " + x + ", " + y + ", " + z + "}";
+                    default -> fallback(proxy, method, args);
+                };
+            }
+        };
+        return (Block) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[]{Block.class}, handler);
+    }
+
+    /**
+     * Creates a fake implementation of the given interface, answering the given methods by their name.
+     * Equality is identity.
+     */
+    @Nonnull
+    static <T> T proxy(@Nonnull Class<T> type, @Nonnull Map<String, Function<Object[], Object>> methods) {
+        return proxy(type, methods, null, type.getSimpleName());
+    }
+
+    @Nonnull
+    private static <T> T proxy(@Nonnull Class<T> type, @Nonnull Map<String, Function<Object[], Object>> methods,
+                               Integer hashCode, @Nonnull String name) {
+        final InvocationHandler handler = (proxy, method, args) -> {
+            final Function<Object[], Object> answer = methods.get(method.getName());
+            if (answer != null) return answer.apply(args);
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> hashCode == null ? System.identityHashCode(proxy) : hashCode;
+                case "toString" -> "Fake" + name;
+                default -> fallback(proxy, method, args);
+            };
+        };
+        return type.cast(Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object fallback(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+        throw new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + "#" + method.getName()
+                + " is not supported by the fake");
+    }
+}
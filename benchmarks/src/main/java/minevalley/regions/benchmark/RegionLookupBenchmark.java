@@ -0,0 +1,132 @@
+package minevalley.regions.benchmark;
+
+import minevalley.regions.api.Regions;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.residence.Apartment;
+import minevalley.regions.api.residence.Plot;
+import minevalley.regions.api.residence.Residence;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the region lookups on a synthetic {@link Workload}.
+ * <p>
+ * Every invocation queries the next of a fixed sequence of random positions, so the lookups hit different chunks and
+ * regions, just like on a live server. Run with {@code -prof gc} (the default of {@link BenchmarkRunner}) to see the
+ * allocation rate of each lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionLookupBenchmark {
+
+    private static final int QUERIES = 1 << 14;
+
+    @Param("42")
+    public long seed;
+
+    @Param({"1000", "10000"})
+    public int plots;
+
+    @Param({"0", "0.25"})
+    public double overlapDensity;
+
+    @Param({"0", "2"})
+    public int mergeRegionsPerPlot;
+
+    @Param({"0", "8"})
+    public int apartmentsPerBlock;
+
+    private Workload workload;
+    private final List<Region> buffer = new ArrayList<>();
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.generate(seed, plots, overlapDensity, mergeRegionsPerPlot, apartmentsPerBlock, QUERIES);
+        workload.install();
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<Region> getRegionsByBlock() {
+        return Regions.getRegions(workload.blocks[next()]);
+    }
+
+    @Benchmark
+    public List<Region> getRegionsByCoordinates() {
+        final int i = next();
+        return Regions.getRegions(workload.world, workload.xs[i], workload.ys[i], workload.zs[i]);
+    }
+
+    @Benchmark
+    public int getRegionsIntoBuffer() {
+        final int i = next();
+        return Regions.getRegions(workload.world, workload.xs[i], workload.ys[i], workload.zs[i], buffer);
+    }
+
+    @Benchmark
+    public void forEachRegion(Blackhole blackhole) {
+        final int i = next();
+        Regions.forEachRegion(workload.world, workload.xs[i], workload.ys[i], workload.zs[i], blackhole::consume);
+    }
+
+    @Benchmark
+    public Residence getDominantResidenceByBlock() {
+        return Regions.getDominantResidence(workload.blocks[next()]);
+    }
+
+    @Benchmark
+    public Residence getDominantResidenceByCoordinates() {
+        final int i = next();
+        return Regions.getDominantResidence(workload.world, workload.xs[i], workload.ys[i], workload.zs[i]);
+    }
+
+    @Benchmark
+    public Plot getPlot() {
+        return Regions.getPlot(workload.blocks[next()]);
+    }
+
+    @Benchmark
+    public Apartment getApartment() {
+        return Regions.getApartment(workload.blocks[next()]);
+    }
+
+    @Benchmark
+    public boolean areaContainsBlock() {
+        final int i = next();
+        final Area area = workload.regionsToCheck[i].included().get(0);
+        return area.contains(workload.blocks[i]);
+    }
+
+    @Benchmark
+    public boolean areaContainsCoordinates() {
+        final int i = next();
+        final Area area = workload.regionsToCheck[i].included().get(0);
+        return area.contains(workload.world, workload.xs[i], workload.ys[i], workload.zs[i]);
+    }
+
+    @Benchmark
+    public boolean regionContainsBlock() {
+        final int i = next();
+        return workload.regionsToCheck[i].contains(workload.blocks[i]);
+    }
+
+    @Benchmark
+    public boolean regionContainsCoordinates() {
+        final int i = next();
+        return workload.regionsToCheck[i].contains(workload.world, workload.xs[i], workload.ys[i], workload.zs[i]);
+    }
+}
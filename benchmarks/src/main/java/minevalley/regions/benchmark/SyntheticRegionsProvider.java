@@ -0,0 +1,226 @@
+package minevalley.regions.benchmark;
+
+import minevalley.core.api.Registrant;
+import minevalley.core.api.corporation.RealEstateGroup;
+import minevalley.regions.api.RegionsProvider;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.index.RegionIndex;
+import minevalley.regions.api.residence.*;
+import minevalley.regions.api.snapshot.RegionsSnapshot;
+import minevalley.regions.api.structure.District;
+import minevalley.regions.api.structure.RadioMast;
+import minevalley.regions.api.structure.Street;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * In-memory provider serving the regions and residences of a {@link Workload}.
+ * <p>
+ * Region lookups go through a {@link RegionIndex}, residences are looked up by hash maps. Everything that needs a
+ * running server (creating regions, moving areas, users, ...) is not supported.
+ */
+final class SyntheticRegionsProvider implements RegionsProvider {
+
+    private final RegionIndex index = new RegionIndex();
+    private final Map<Integer, Region> regions = new HashMap<>();
+    private final Map<Integer, Residence> residences = new HashMap<>();
+    private final Map<Integer, Residence> residencesByRegion = new HashMap<>();
+    private final Map<Integer, PlotTile> plotTilesByRegion = new HashMap<>();
+    private final Map<Integer, ApartmentBlock> apartmentBlocks = new HashMap<>();
+    private long version;
+    private boolean transitionBatching;
+
+    void addRegion(@Nonnull Region region) {
+        regions.put(region.id(), region);
+        index.add(region);
+    }
+
+    void addPlot(@Nonnull Plot plot) {
+        residences.put(plot.id(), plot);
+        for (PlotTile tile : plot.getTiles()) {
+            residencesByRegion.put(tile.region().id(), plot);
+            plotTilesByRegion.put(tile.region().id(), tile);
+        }
+        for (Region region : plot.getMergeRegions()) residencesByRegion.put(region.id(), plot);
+    }
+
+    void addApartment(@Nonnull Apartment apartment) {
+        residences.put(apartment.id(), apartment);
+        residencesByRegion.put(apartment.region().id(), apartment);
+    }
+
+    void addApartmentBlock(@Nonnull ApartmentBlock apartmentBlock) {
+        apartmentBlocks.put(apartmentBlock.id(), apartmentBlock);
+    }
+
+    @Nullable
+    @Override
+    public Region getRegion(int id) {
+        return regions.get(id);
+    }
+
+    @Nonnull
+    @Override
+    public List<Region> getRegions(@Nonnull Block block) {
+        return index.getRegions(block);
+    }
+
+    @Override
+    public int getRegions(@Nonnull World world, int x, int y, int z, @Nonnull List<? super Region> buffer) {
+        return index.getRegions(world, x, y, z, buffer);
+    }
+
+    @Override
+    public void forEachRegion(@Nonnull World world, int x, int y, int z, @Nonnull Consumer<? super Region> consumer) {
+        index.forEachRegion(world, x, y, z, consumer);
+    }
+
+    @Override
+    public boolean hasRegions(@Nonnull World world, int chunkX, int chunkZ) {
+        return index.hasRegions(world, chunkX, chunkZ);
+    }
+
+    @Nonnull
+    @Override
+    public Region createRegion(@Nonnull List<Area> included, @Nonnull List<Area> excluded) {
+        throw new UnsupportedOperationException("Regions of the benchmark workload are generated up front");
+    }
+
+    @Nullable
+    @Override
+    public Residence getResidence(int id) {
+        return residences.get(id);
+    }
+
+    @Nullable
+    @Override
+    public Residence getResidence(@Nullable Region region) {
+        return region == null ? null : residencesByRegion.get(region.id());
+    }
+
+    @Nonnull
+    @Override
+    public List<Residence> getResidences(@Nonnull Registrant registrant) {
+        return new ArrayList<>(0);
+    }
+
+    @Nonnull
+    @Override
+    public List<Residence> getResidences() {
+        return new ArrayList<>(residences.values());
+    }
+
+    @Nullable
+    @Override
+    public Plot getPlot(int id) {
+        return residences.get(id) instanceof Plot plot ? plot : null;
+    }
+
+    @Nullable
+    @Override
+    public PlotTile getPlotTile(@Nullable Region region) {
+        return region == null ? null : plotTilesByRegion.get(region.id());
+    }
+
+    @Nullable
+    @Override
+    public Apartment getApartment(int id) {
+        return residences.get(id) instanceof Apartment apartment ? apartment : null;
+    }
+
+    @Nonnull
+    @Override
+    public List<ApartmentBlock> getApartmentBlocks() {
+        return new ArrayList<>(apartmentBlocks.values());
+    }
+
+    @Nonnull
+    @Override
+    public List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup) {
+        return new ArrayList<>(0);
+    }
+
+    @Nullable
+    @Override
+    public ApartmentBlock getApartmentBlock(int id) {
+        return apartmentBlocks.get(id);
+    }
+
+    @Nonnull
+    @Override
+    public List<Street> getStreets() {
+        return new ArrayList<>(0);
+    }
+
+    @Nullable
+    @Override
+    public Street getStreet(int id) {
+        return null;
+    }
+
+    @Nonnull
+    @Override
+    public List<District> getDistricts() {
+        return new ArrayList<>(0);
+    }
+
+    @Nullable
+    @Override
+    public District getDistrict(int id) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public District getDistrict(@Nullable Chunk chunk) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public RadioMast getNearestRadioMast(@Nullable Location location) {
+        return null;
+    }
+
+    @Nonnull
+    @Override
+    public RegionsSnapshot snapshot() {
+        return RegionsSnapshot.capture(++version, regions.values(), residences.values(), List.of());
+    }
+
+    @Override
+    public void setTransitionBatching(boolean enabled) {
+        transitionBatching = enabled;
+    }
+
+    @Override
+    public boolean isTransitionBatching() {
+        return transitionBatching;
+    }
+
+    @Nonnull
+    @Override
+    public Area getArea(@Nonnull Block loc1, @Nonnull Block loc2) {
+        return new BoxArea(loc1.getWorld(), loc1.getX(), loc1.getY(), loc1.getZ(), loc2.getX(), loc2.getY(), loc2.getZ());
+    }
+
+    @Override
+    public void loadPreset(@Nonnull Area presetArea, @Nonnull Block presetPivot, @Nonnull Block mainWorldPivot) {
+        throw new UnsupportedOperationException("There is no world to load the preset into");
+    }
+
+    @Nonnull
+    @Override
+    public Area moveArea(@Nonnull World world, @Nonnull Area sourceArea, int dx, int dy, int dz, boolean moveEntities,
+                         float teleportationMargin) {
+        throw new UnsupportedOperationException("There is no world to move the area in");
+    }
+}
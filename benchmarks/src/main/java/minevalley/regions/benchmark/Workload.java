@@ -0,0 +1,180 @@
+package minevalley.regions.benchmark;
+
+import minevalley.regions.api.Regions;
+import minevalley.regions.api.RegionsProvider;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.residence.Apartment;
+import minevalley.regions.api.residence.ApartmentBlock;
+import minevalley.regions.api.residence.Plot;
+import minevalley.regions.api.residence.PlotTile;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded, synthetic city the benchmarks run their lookups on.
+ * <p>
+ * Plots are laid out on a square grid of {@value #CELL}x{@value #CELL} block cells, each plot covering
+ * {@value #PLOT}x{@value #PLOT} blocks of its cell over the full world height. On top of that, there are:
+ * <ul>
+ *     <li>merge regions, which split the gap next to each plot into strips and belong to that plot,</li>
+ *     <li>apartments, stacked as floors inside of an apartment block standing on each plot,</li>
+ *     <li>overlay regions, which span random cuboids over multiple cells and don't belong to any residence.</li>
+ * </ul>
+ * The same parameters and seed always produce the same workload, including the positions that are queried.
+ */
+final class Workload {
+
+    static final int CELL = 40;
+    static final int PLOT = 32;
+    static final int MIN_Y = -64;
+    static final int MAX_Y = 319;
+    static final int FLOOR_HEIGHT = 6;
+
+    final World world;
+    final SyntheticRegionsProvider provider;
+    final List<Region> regions;
+    final int[] xs, ys, zs;
+    final Block[] blocks;
+    final Region[] regionsToCheck;
+
+    private Workload(World world, SyntheticRegionsProvider provider, List<Region> regions, int[] xs, int[] ys, int[] zs,
+                     Block[] blocks, Region[] regionsToCheck) {
+        this.world = world;
+        this.provider = provider;
+        this.regions = regions;
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.blocks = blocks;
+        this.regionsToCheck = regionsToCheck;
+    }
+
+    /**
+     * Generates a workload.
+     *
+     * @param seed                seed of the random generator
+     * @param plots               amount of plots
+     * @param overlapDensity      amount of overlay regions per plot
+     * @param mergeRegionsPerPlot amount of merge regions per plot
+     * @param apartmentsPerBlock  amount of apartments in the apartment block on each plot (0 for no apartment blocks)
+     * @param queries             amount of positions to query, must be a power of two
+     * @return generated workload
+     */
+    @Nonnull
+    static Workload generate(long seed, int plots, double overlapDensity, int mergeRegionsPerPlot, int apartmentsPerBlock,
+                             int queries) {
+        if (Integer.bitCount(queries) != 1) throw new IllegalArgumentException("Queries must be a power of two");
+        final SplittableRandom random = new SplittableRandom(seed);
+        final World world = Fakes.world("benchmark");
+        final SyntheticRegionsProvider provider = new SyntheticRegionsProvider();
+        final List<Region> regions = new ArrayList<>();
+        final int side = (int) Math.ceil(Math.sqrt(plots));
+        int nextRegionId = 1, nextResidenceId = 1;
+
+        for (int i = 0; i < plots; i++) {
+            final int minX = (i % side) * CELL, minZ = (i / side) * CELL;
+            final Region main = region(nextRegionId++, new BoxArea(world, minX, MIN_Y, minZ, minX + PLOT - 1, MAX_Y, minZ + PLOT - 1));
+            regions.add(main);
+
+            final List<Region> mergeRegions = new ArrayList<>(mergeRegionsPerPlot);
+            for (int m = 0; m < mergeRegionsPerPlot; m++) {
+                final int from = minZ + m * PLOT / mergeRegionsPerPlot;
+                final int to = minZ + (m + 1) * PLOT / mergeRegionsPerPlot - 1;
+                final Region merge = region(nextRegionId++, new BoxArea(world, minX + PLOT, MIN_Y, from, minX + CELL - 1, MAX_Y, to));
+                mergeRegions.add(merge);
+                regions.add(merge);
+            }
+
+            final int plotId = nextResidenceId++;
+            final Plot[] plot = new Plot[1];
+            final PlotTile tile = Fakes.proxy(PlotTile.class, Map.of(
+                    "region", args -> main,
+                    "plot", args -> plot[0],
+                    "houseNumber", args -> plotId));
+            plot[0] = Fakes.proxy(Plot.class, Map.of(
+                    "id", args -> plotId,
+                    "getMainTile", args -> tile,
+                    "getTiles", args -> List.of(tile),
+                    "getMergeRegions", args -> mergeRegions,
+                    "contains", args -> args[0] instanceof Block block
+                            && (main.contains(block) || mergeRegions.stream().anyMatch(region -> region.contains(block)))));
+            provider.addPlot(plot[0]);
+
+            if (apartmentsPerBlock > 0) {
+                final List<Apartment> apartments = new ArrayList<>(apartmentsPerBlock);
+                final ApartmentBlock apartmentBlock = Fakes.proxy(ApartmentBlock.class, Map.of(
+                        "id", args -> plotId,
+                        "apartments", args -> apartments,
+                        "floors", args -> apartmentsPerBlock));
+                for (int a = 0; a < apartmentsPerBlock; a++) {
+                    final int floorY = 64 + a * FLOOR_HEIGHT;
+                    final Region region = region(nextRegionId++, new BoxArea(world, minX + 4, floorY, minZ + 4,
+                            minX + PLOT - 5, floorY + FLOOR_HEIGHT - 1, minZ + PLOT - 5));
+                    regions.add(region);
+                    final int apartmentId = nextResidenceId++;
+                    final Apartment apartment = Fakes.proxy(Apartment.class, Map.of(
+                            "id", args -> apartmentId,
+                            "region", args -> region,
+                            "getHolder", args -> apartmentBlock,
+                            "contains", args -> args[0] instanceof Block block && region.contains(block)));
+                    apartments.add(apartment);
+                    provider.addApartment(apartment);
+                }
+                provider.addApartmentBlock(apartmentBlock);
+            }
+        }
+
+        final int overlays = (int) Math.round(plots * overlapDensity);
+        final int width = side * CELL;
+        for (int i = 0; i < overlays; i++) {
+            final int minX = random.nextInt(width), minZ = random.nextInt(width);
+            final int sizeX = CELL + random.nextInt(3 * CELL), sizeZ = CELL + random.nextInt(3 * CELL);
+            final int minY = MIN_Y + random.nextInt(MAX_Y - MIN_Y), maxY = minY + random.nextInt(MAX_Y - minY + 1);
+            regions.add(region(nextRegionId++, new BoxArea(world, minX, minY, minZ, minX + sizeX - 1, maxY, minZ + sizeZ - 1)));
+        }
+
+        for (Region region : regions) provider.addRegion(region);
+
+        final int[] xs = new int[queries], ys = new int[queries], zs = new int[queries];
+        final Block[] blocks = new Block[queries];
+        final Region[] regionsToCheck = new Region[queries];
+        for (int i = 0; i < queries; i++) {
+            xs[i] = random.nextInt(width);
+            ys[i] = MIN_Y + random.nextInt(MAX_Y - MIN_Y + 1);
+            zs[i] = random.nextInt(width);
+            blocks[i] = Fakes.block(world, xs[i], ys[i], zs[i]);
+            // mostly check regions that contain the position, so both outcomes of contains are measured
+            final List<Region> containing = provider.getRegions(world, xs[i], ys[i], zs[i]);
+            regionsToCheck[i] = containing.isEmpty() || random.nextInt(4) == 0
+                    ? regions.get(random.nextInt(regions.size()))
+                    : containing.get(random.nextInt(containing.size()));
+        }
+        return new Workload(world, provider, regions, xs, ys, zs, blocks, regionsToCheck);
+    }
+
+    /**
+     * Installs this workload's provider, so it is used by {@link Regions}.
+     */
+    void install() {
+        try {
+            final Field field = Regions.class.getDeclaredField("provider");
+            field.setAccessible(true);
+            field.set(null, provider);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not install the " + RegionsProvider.class.getSimpleName(), e);
+        }
+    }
+
+    @Nonnull
+    private static Region region(int id, @Nonnull Area area) {
+        return new BoxRegion(id, List.of(area), List.of());
+    }
+}
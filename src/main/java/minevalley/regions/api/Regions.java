@@ -5,6 +5,7 @@ import minevalley.core.api.corporation.RealEstateGroup;
 import minevalley.regions.api.core.Area;
 import minevalley.regions.api.core.Region;
 import minevalley.regions.api.residence.*;
+import minevalley.regions.api.snapshot.RegionsSnapshot;
 import minevalley.regions.api.structure.District;
 import minevalley.regions.api.structure.RadioMast;
 import minevalley.regions.api.structure.Street;
@@ -15,11 +16,12 @@ import org.bukkit.block.Block;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.Contract;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
@@ -43,6 +45,10 @@ public class Regions {
      * Gets the regions in which this block lies in.
      * <br>
      * <b>Note:</b> regions may overlap, that's why this method returns a list of regions.
+     * The regions are ordered by their size, starting with the smallest one.
+     * <p>
+     * Implementations are expected to answer this lookup from a spatial index, so that only the regions overlapping the
+     * block's chunk are tested.
      *
      * @param block block to get regions from
      * @return list of all regions in which this block lies in
@@ -58,6 +64,7 @@ public class Regions {
      * Gets the regions in which this location lies in.
      * <br>
      * <b>Note:</b> regions may overlap, that's why this method returns a list of regions.
+     * The regions are ordered by their size, starting with the smallest one.
      *
      * @param location location to get regions from
      * @return list of all regions in which this location lies in
@@ -69,8 +76,87 @@ public class Regions {
         return getRegions(location.getBlock());
     }
 
+    /**
+     * Gets the regions in which the given block coordinates lie in.
+     * <br>
+     * <b>Note:</b> regions may overlap, that's why this method returns a list of regions.
+     * The regions are ordered by their size, starting with the smallest one.
+     *
+     * @param world world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return list of all regions in which the coordinates lie in
+     * @throws IllegalArgumentException if world is null
+     * @see #getRegions(World, int, int, int, List)
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static List<Region> getRegions(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        return provider.getRegions(world, x, y, z);
+    }
+
+    /**
+     * Writes the regions in which the given block coordinates lie in into the given buffer.
+     * <p>
+     * The buffer is cleared before, so it can be reused for every lookup, which makes this the preferred lookup for hot
+     * paths such as protection checks.
+     * The regions are ordered by their size, starting with the smallest one.
+     *
+     * @param world  world of the block
+     * @param x      x coordinate of the block
+     * @param y      y coordinate of the block
+     * @param z      z coordinate of the block
+     * @param buffer reusable list to write the regions into
+     * @return amount of regions in which the coordinates lie in
+     * @throws IllegalArgumentException if world or buffer is null
+     */
+    public static int getRegions(@Nonnull World world, int x, int y, int z, @Nonnull List<? super Region> buffer)
+            throws IllegalArgumentException {
+        return provider.getRegions(world, x, y, z, buffer);
+    }
+
+    /**
+     * Passes every region in which the given block coordinates lie in to the given consumer.
+     * <p>
+     * The regions are passed ordered by their size, starting with the smallest one. No list is allocated for the result.
+     *
+     * @param world    world of the block
+     * @param x        x coordinate of the block
+     * @param y        y coordinate of the block
+     * @param z        z coordinate of the block
+     * @param consumer consumer to pass the regions to
+     * @throws IllegalArgumentException if world or consumer is null
+     */
+    public static void forEachRegion(@Nonnull World world, int x, int y, int z, @Nonnull Consumer<? super Region> consumer)
+            throws IllegalArgumentException {
+        provider.forEachRegion(world, x, y, z, consumer);
+    }
+
+    /**
+     * Checks whether any region overlaps the given chunk.
+     * <br>
+     * If this returns false, no block of the chunk lies in a region. This can be used to skip protection checks for
+     * unprotected terrain (e.g. wilderness) entirely.
+     * <p>
+     * <b>Note:</b> This does not load the chunk.
+     *
+     * @param world  world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return true, if at least one region overlaps the chunk
+     * @throws IllegalArgumentException if world is null
+     */
+    @Contract(pure = true)
+    public static boolean hasRegions(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        return provider.hasRegions(world, chunkX, chunkZ);
+    }
+
     /**
      * Creates a region with the specific parameters.
+     * <p>
+     * Implementations have to make the region visible to the lookups immediately, so it is found by
+     * {@link #getRegions(Block)} right away.
      *
      * @param included included areas
      * @param excluded excluded areas
@@ -133,7 +219,26 @@ public class Regions {
     @Nullable
     @Contract("null -> null")
     public static Residence getDominantResidence(@Nullable Block block) throws IllegalArgumentException {
-        return Optional.ofNullable((Residence) getApartment(block)).orElse(getPlot(block));
+        if (block == null) return null;
+        return getDominantResidence(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Gets the most dominant residence at the given block coordinates.
+     * <br>
+     * Apartments dominate the plots they lie on.
+     *
+     * @param world world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return the most dominant residence in which the given coordinates lie in
+     * @throws IllegalArgumentException if world is null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static Residence getDominantResidence(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        return provider.getDominantResidence(world, x, y, z);
     }
 
     /**
@@ -180,6 +285,27 @@ public class Regions {
         return provider.getResidences(registrant);
     }
 
+    /**
+     * Gets all residences on which the given registrant has exactly the given permission.
+     * The owner of a plot and the renter of an apartment have the {@link Residence.Permission#OWNER} permission.
+     * <p>
+     * <b>Note:</b> Permissions inherited by group membership are not considered. Providers that index permissions, like
+     * the in-memory provider, only look at the registrant's residences. Otherwise, finding the residences with the
+     * {@link Residence.Permission#ADMINISTRATOR} or {@link Residence.Permission#PERMISSIONED} permission scans all
+     * residences, which takes time linear in their amount.
+     *
+     * @param registrant registrant to get the residences of
+     * @param permission permission the registrant has on the residences
+     * @return stream of all residences on which the registrant has the given permission
+     * @throws IllegalArgumentException if registrant or permission is null
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static Stream<Residence> getResidences(@Nonnull Registrant registrant, @Nonnull Residence.Permission permission)
+            throws IllegalArgumentException {
+        return provider.getResidences(registrant, permission);
+    }
+
     /**
      * Gets all existing residences.
      *
@@ -191,6 +317,23 @@ public class Regions {
         return provider.getResidences();
     }
 
+    /**
+     * Gets a page of the apartment blocks that are owned by a given real estate group.
+     * The order of the apartment blocks is stable as long as the group's apartment blocks don't change.
+     *
+     * @param realEstateGroup real estate group to the get their apartment blocks of
+     * @param offset          amount of apartment blocks to skip
+     * @param limit           maximum amount of apartment blocks to return
+     * @return list of at most {@code limit} apartment blocks owned by the given real estate group
+     * @throws IllegalArgumentException if the real estate group is null, or offset or limit is negative
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup, @Nonnegative int offset,
+                                                          @Nonnegative int limit) throws IllegalArgumentException {
+        return provider.getApartmentBlocks(realEstateGroup, offset, limit);
+    }
+
     /**
      * Gets the apartment block with the given id, if existing.
      *
@@ -391,8 +534,29 @@ public class Regions {
         return provider.getDistrict(chunk);
     }
 
+    /**
+     * Gets the district that contains the chunk at the given coordinates.
+     * <p>
+     * The chunk itself is not loaded. If the provider has no index of the districts' chunks, though, it scans
+     * {@link District#chunkKeys()} of every district, which loads the district's chunks unless the district precomputes
+     * its keys. Providers with such an index, like the in-memory provider, can be called on every chunk crossing.
+     *
+     * @param world  world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return district that contains the chunk, or null if there is none
+     * @throws IllegalArgumentException if the world is null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static District getDistrict(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        return provider.getDistrict(world, chunkX, chunkZ);
+    }
+
     /**
      * Gets the district that contains the given block
+     * <p>
+     * The chunk of the block is not loaded, see {@link #getDistrict(World, int, int)}.
      *
      * @param block block to get district from
      * @return district that contains the given block
@@ -401,11 +565,13 @@ public class Regions {
     @Contract("null -> null")
     public static District getDistrict(@Nullable Block block) {
         if (block == null) return null;
-        return getDistrict(block.getChunk());
+        return getDistrict(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
     }
 
     /**
      * Gets the district that contains the given location
+     * <p>
+     * The chunk of the location is not loaded, see {@link #getDistrict(World, int, int)}.
      *
      * @param location location to get district from
      * @return district that contains the given location
@@ -413,8 +579,20 @@ public class Regions {
     @Nullable
     @Contract("null -> null")
     public static District getDistrict(@Nullable Location location) {
-        if (location == null) return null;
-        return getDistrict(location.getChunk());
+        if (location == null || location.getWorld() == null) return null;
+        return getDistrict(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    /**
+     * Gets a list of all radio masts.
+     *
+     * @return list of all radio masts
+     * @throws UnsupportedOperationException if the provider cannot list its radio masts
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static List<RadioMast> getRadioMasts() throws UnsupportedOperationException {
+        return provider.getRadioMasts();
     }
 
     /**
@@ -431,6 +609,64 @@ public class Regions {
         return provider.getNearestRadioMast(location);
     }
 
+    /**
+     * Gets the nearest radio mast to the specific coordinates.
+     * <p>
+     * The distance is measured in two dimensions, regardless of the radio masts' ranges. If the provider cannot
+     * {@link #getRadioMasts() list} its radio masts, this falls back to {@link #getNearestRadioMast(Location)} at height 0.
+     *
+     * @param world world of the coordinates
+     * @param x     x coordinate
+     * @param z     z coordinate
+     * @return nearest radio mast, or null if there is no radio mast in the world
+     * @throws IllegalArgumentException if the world is null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static RadioMast getNearestRadioMast(@Nonnull World world, int x, int z) throws IllegalArgumentException {
+        return provider.getNearestRadioMast(world, x, z);
+    }
+
+    /**
+     * Gets the latest snapshot of all regions, residences and districts.
+     * <p>
+     * In contrast to all other methods, the snapshot is safe to query from any thread. It is replaced by a new one at most
+     * once per tick, and only if something changed. Compare {@link RegionsSnapshot#version()} to tell whether a snapshot is outdated.
+     *
+     * @return latest snapshot
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static RegionsSnapshot snapshot() {
+        return provider.snapshot();
+    }
+
+    /**
+     * Sets whether movement-derived transitions are batched.
+     * <p>
+     * If enabled, the transitions of all users are collected during a tick and dispatched once per tick as a single
+     * {@link minevalley.regions.api.event.UserRegionTransitionsEvent} instead of individual
+     * {@link minevalley.regions.api.event.UserEnterChunkEvent}s, {@link minevalley.regions.api.event.UserEnterRegionEvent}s
+     * and {@link minevalley.regions.api.event.UserLeaveRegionEvent}s.
+     *
+     * @param enabled whether transitions should be batched
+     * @throws UnsupportedOperationException if batching is enabled but not supported by the provider
+     */
+    public static void setTransitionBatching(boolean enabled) throws UnsupportedOperationException {
+        provider.setTransitionBatching(enabled);
+    }
+
+    /**
+     * Gets whether movement-derived transitions are batched.
+     *
+     * @return true, if transitions are batched
+     * @see #setTransitionBatching(boolean)
+     */
+    @Contract(pure = true)
+    public static boolean isTransitionBatching() {
+        return provider.isTransitionBatching();
+    }
+
     /**
      * Gets an area object with the given locations.
      *
@@ -466,8 +702,9 @@ public class Regions {
      * @param presetArea     area to load
      * @param presetPivot    pivot of the area in the presets world
      * @param mainWorldPivot pivot of the area in the main world
-     * @throws IllegalArgumentException if the area or pivot is null
-     * @throws IllegalStateException    if the method is called on any server but the main server
+     * @throws IllegalArgumentException      if the area or pivot is null
+     * @throws IllegalStateException         if the method is called on any server but the main server
+     * @throws UnsupportedOperationException if the provider holds no block contents, like the in-memory provider
      */
     public static void loadPreset(@Nonnull Area presetArea, @Nonnull Block presetPivot, @Nonnull Block mainWorldPivot)
             throws IllegalArgumentException, IllegalStateException {
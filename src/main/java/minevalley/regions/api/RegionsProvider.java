@@ -3,8 +3,10 @@ package minevalley.regions.api;
 import minevalley.core.api.Registrant;
 import minevalley.core.api.corporation.RealEstateGroup;
 import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.ChunkKeySet;
 import minevalley.regions.api.core.Region;
 import minevalley.regions.api.residence.*;
+import minevalley.regions.api.snapshot.RegionsSnapshot;
 import minevalley.regions.api.structure.District;
 import minevalley.regions.api.structure.RadioMast;
 import minevalley.regions.api.structure.Street;
@@ -15,9 +17,13 @@ import org.bukkit.block.Block;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApiStatus.Internal
 public interface RegionsProvider {
@@ -30,6 +36,36 @@ public interface RegionsProvider {
     @Contract(pure = true)
     List<Region> getRegions(@Nonnull Block block) throws IllegalArgumentException;
 
+    @Nonnull
+    @Contract(pure = true)
+    default List<Region> getRegions(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        final List<Region> regions = new ArrayList<>();
+        getRegions(world, x, y, z, regions);
+        return regions;
+    }
+
+    default int getRegions(@Nonnull World world, int x, int y, int z, @Nonnull List<? super Region> buffer)
+            throws IllegalArgumentException {
+        if (buffer == null) throw new IllegalArgumentException("Buffer cannot be null");
+        buffer.clear();
+        forEachRegion(world, x, y, z, buffer::add);
+        return buffer.size();
+    }
+
+    default void forEachRegion(@Nonnull World world, int x, int y, int z, @Nonnull Consumer<? super Region> consumer)
+            throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        if (consumer == null) throw new IllegalArgumentException("Consumer cannot be null");
+        getRegions(world.getBlockAt(x, y, z)).forEach(consumer);
+    }
+
+    @Contract(pure = true)
+    default boolean hasRegions(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        // without an index, assume the chunk is protected, so the fast path is never taken wrongly
+        return true;
+    }
+
     @Nonnull
     @Contract("_, _ -> new")
     Region createRegion(@Nonnull List<Area> included, @Nonnull List<Area> excluded) throws IllegalArgumentException;
@@ -42,6 +78,18 @@ public interface RegionsProvider {
     @Contract("null -> null")
     Residence getResidence(@Nullable Region region);
 
+    @Nullable
+    @Contract(pure = true)
+    default Residence getDominantResidence(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        Residence plot = null;
+        for (Region region : getRegions(world, x, y, z)) {
+            final Residence residence = getResidence(region);
+            if (residence instanceof Apartment) return residence;
+            if (plot == null && residence instanceof Plot) plot = residence;
+        }
+        return plot;
+    }
+
     @Nonnull
     @Contract(pure = true)
     List<Residence> getResidences(@Nonnull Registrant registrant) throws IllegalArgumentException;
@@ -50,6 +98,20 @@ public interface RegionsProvider {
     @Contract(pure = true)
     List<Residence> getResidences();
 
+    @Nonnull
+    @Contract(pure = true)
+    default Stream<Residence> getResidences(@Nonnull Registrant registrant, @Nonnull Residence.Permission permission)
+            throws IllegalArgumentException {
+        if (registrant == null) throw new IllegalArgumentException("Registrant cannot be null");
+        if (permission == null) throw new IllegalArgumentException("Permission cannot be null");
+        // without a permission index, administrators and permissioned registrants are found in O(residences)
+        return switch (permission) {
+            case OWNER -> getResidences(registrant).stream();
+            case ADMINISTRATOR -> getResidences().stream().filter(residence -> residence.getAdmins().contains(registrant));
+            case PERMISSIONED -> getResidences().stream().filter(residence -> residence.getPermissioned().contains(registrant));
+        };
+    }
+
     @Nullable
     @Contract(pure = true)
     Plot getPlot(int id);
@@ -71,6 +133,17 @@ public interface RegionsProvider {
     List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup)
             throws IllegalArgumentException;
 
+    @Nonnull
+    @Contract(pure = true)
+    default List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup, @Nonnegative int offset,
+                                                    @Nonnegative int limit) throws IllegalArgumentException {
+        if (offset < 0) throw new IllegalArgumentException("Offset cannot be negative");
+        if (limit < 0) throw new IllegalArgumentException("Limit cannot be negative");
+        final List<ApartmentBlock> apartmentBlocks = getApartmentBlocks(realEstateGroup);
+        if (offset >= apartmentBlocks.size()) return new ArrayList<>(0);
+        return new ArrayList<>(apartmentBlocks.subList(offset, (int) Math.min(apartmentBlocks.size(), (long) offset + limit)));
+    }
+
     @Nullable
     @Contract(pure = true)
     ApartmentBlock getApartmentBlock(int id);
@@ -95,10 +168,82 @@ public interface RegionsProvider {
     @Contract("null -> null")
     District getDistrict(@Nullable Chunk chunk);
 
+    @Nullable
+    @Contract(pure = true)
+    default District getDistrict(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        // a loaded chunk can be passed to the provider's own lookup without loading anything
+        if (world.isChunkLoaded(chunkX, chunkZ)) return getDistrict(world.getChunkAt(chunkX, chunkZ));
+        // otherwise, scan the districts' chunk keys. this only avoids loading chunks if the districts precompute their keys
+        for (District district : getDistricts()) {
+            final ChunkKeySet chunkKeys = district.chunkKeys();
+            if (chunkKeys.contains(chunkX, chunkZ) && district.world().equals(world)) return district;
+        }
+        return null;
+    }
+
+    @Nonnull
+    @Contract(pure = true)
+    default List<RadioMast> getRadioMasts() throws UnsupportedOperationException {
+        // providers are expected to list their radio masts, so the coordinate lookup can measure in two dimensions
+        throw new UnsupportedOperationException("Radio masts cannot be listed by this provider");
+    }
+
     @Nullable
     @Contract("null -> null")
     RadioMast getNearestRadioMast(@Nullable Location location);
 
+    @Nullable
+    @Contract(pure = true)
+    default RadioMast getNearestRadioMast(@Nonnull World world, int x, int z) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final List<RadioMast> radioMasts;
+        try {
+            radioMasts = getRadioMasts();
+        } catch (UnsupportedOperationException e) {
+            // providers that cannot list their radio masts keep answering through the location lookup
+            return getNearestRadioMast(new Location(world, x, 0, z));
+        }
+        // without an index, scan the radio masts, measuring in two dimensions like the index would
+        RadioMast nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (RadioMast radioMast : radioMasts) {
+            if (!radioMast.world().equals(world)) continue;
+            final int distance = radioMast.distance(x, z);
+            if (distance < nearestDistance) {
+                nearest = radioMast;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    @Nonnull
+    @Contract(pure = true)
+    default RegionsSnapshot snapshot() {
+        // without a publisher, the regions of all residences are captured on every call, reading the live objects
+        final List<Region> regions = new ArrayList<>();
+        for (Residence residence : getResidences()) {
+            if (residence instanceof Plot plot) {
+                for (PlotTile tile : plot.getTiles()) regions.add(tile.region());
+                regions.addAll(plot.getMergeRegions());
+            } else if (residence instanceof Apartment apartment) {
+                regions.add(apartment.region());
+            }
+        }
+        return RegionsSnapshot.capture(0, regions, getResidences(), getDistricts());
+    }
+
+    default void setTransitionBatching(boolean enabled) throws UnsupportedOperationException {
+        // without batching support, transitions are always dispatched individually
+        if (enabled) throw new UnsupportedOperationException("Transition batching is not supported by this provider");
+    }
+
+    @Contract(pure = true)
+    default boolean isTransitionBatching() {
+        return false;
+    }
+
     @Nonnull
     @Contract("_, _ -> new")
     Area getArea(@Nonnull Block loc1, @Nonnull Block loc2) throws IllegalArgumentException;
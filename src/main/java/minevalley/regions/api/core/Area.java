@@ -8,7 +8,12 @@ import org.jetbrains.annotations.Contract;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public interface Area {
@@ -47,13 +52,110 @@ public interface Area {
      *
      * @return list of all blocks contained by this area.
      * @see #contains(Block)
+     * @see #blockKeys()
+     * @see #chunkSlices()
      */
     @Nonnull
     @Contract(pure = true)
     List<Block> getBlocks();
 
+    /**
+     * Gets the amount of blocks contained by this area.
+     *
+     * @return amount of blocks
+     */
+    @Contract(pure = true)
+    default long volume() {
+        final Block min = minBlock();
+        final Block max = maxBlock();
+        return (long) (max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1);
+    }
+
+    /**
+     * Gets a splittable iterator over the packed keys of all blocks contained by this area.
+     * <p>
+     * In contrast to {@link #getBlocks()}, the blocks are enumerated lazily and no block objects are created.
+     *
+     * @return spliterator of packed block keys
+     * @see Block#getBlockKey(int, int, int)
+     */
+    @Nonnull
+    @Contract(value = "-> new", pure = true)
+    default Spliterator.OfLong blockKeySpliterator() {
+        final Block min = minBlock();
+        final Block max = maxBlock();
+        return new AreaSpliterator(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
+    }
+
+    /**
+     * Gets a lazy stream of the packed keys of all blocks contained by this area.
+     * <p>
+     * The stream can be processed in parallel and uses constant memory, regardless of this area's size.
+     * Use {@link Block#getBlockKeyX(long)}, {@link Block#getBlockKeyY(long)} and {@link Block#getBlockKeyZ(long)} to unpack the keys.
+     *
+     * @param parallel whether the stream should be parallel
+     * @return stream of packed block keys
+     */
+    @Nonnull
+    @Contract(value = "_ -> new", pure = true)
+    default LongStream blockKeys(boolean parallel) {
+        return StreamSupport.longStream(blockKeySpliterator(), parallel);
+    }
+
+    /**
+     * Gets a lazy, sequential stream of the packed keys of all blocks contained by this area.
+     *
+     * @return stream of packed block keys
+     * @see #blockKeys(boolean)
+     */
+    @Nonnull
+    @Contract(value = "-> new", pure = true)
+    default LongStream blockKeys() {
+        return blockKeys(false);
+    }
+
+    /**
+     * Gets a lazy iterator over the parts of this area that lie in the individual chunks.
+     * <p>
+     * The slices are handed out chunk by chunk, so huge areas can be processed one chunk at a time. No chunk is loaded.
+     *
+     * @return iterator of chunk slices
+     */
+    @Nonnull
+    @Contract(value = "-> new", pure = true)
+    default Iterator<ChunkSlice> chunkSlices() {
+        final Block min = minBlock();
+        final Block max = maxBlock();
+        final int minX = min.getX(), minY = min.getY(), minZ = min.getZ();
+        final int maxX = max.getX(), maxY = max.getY(), maxZ = max.getZ();
+        return new Iterator<>() {
+            private int chunkX = minX >> 4;
+            private int chunkZ = minZ >> 4;
+
+            @Override
+            public boolean hasNext() {
+                return chunkX <= maxX >> 4;
+            }
+
+            @Override
+            public ChunkSlice next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                final ChunkSlice slice = new ChunkSlice(chunkX, chunkZ,
+                        Math.max(minX, chunkX << 4), minY, Math.max(minZ, chunkZ << 4),
+                        Math.min(maxX, (chunkX << 4) + 15), maxY, Math.min(maxZ, (chunkZ << 4) + 15));
+                if (++chunkZ > maxZ >> 4) {
+                    chunkZ = minZ >> 4;
+                    chunkX++;
+                }
+                return slice;
+            }
+        };
+    }
+
     /**
      * Gets a list of all the chunks, this area lies in.
+     * <p>
+     * <b>Note:</b> Getting a chunk might load it. Use {@link #chunkKeys()} if the chunks themselves are not needed.
      *
      * @return list of all the chunks this area lies in.
      */
@@ -61,6 +163,22 @@ public interface Area {
     @Contract(pure = true)
     List<Chunk> getChunks();
 
+    /**
+     * Gets the keys of all the chunks, this area lies in.
+     * <p>
+     * The keys are derived from this area's bounds, so no chunk is loaded. Since areas are immutable, implementations
+     * must compute this set only once, e.g. when the area is created.
+     *
+     * @return set of the keys of all the chunks this area lies in
+     */
+    @Nonnull
+    @Contract(pure = true)
+    default ChunkKeySet chunkKeys() {
+        final Block min = minBlock();
+        final Block max = maxBlock();
+        return ChunkKeySet.ofRange(min.getX() >> 4, min.getZ() >> 4, max.getX() >> 4, max.getZ() >> 4);
+    }
+
     /**
      * Checks whether the given block is contained by the area.
      *
@@ -70,6 +188,39 @@ public interface Area {
     @Contract(value = "null -> false", pure = true)
     boolean contains(@Nullable Block block);
 
+    /**
+     * Checks whether the given block coordinates are contained by the area.
+     * <p>
+     * The coordinates are assumed to lie in this area's world. Use {@link #contains(World, int, int, int)} if this is not certain.
+     *
+     * @param x x coordinate of the block
+     * @param y y coordinate of the block
+     * @param z z coordinate of the block
+     * @return true, if the coordinates are contained by the area.
+     */
+    @Contract(pure = true)
+    default boolean contains(int x, int y, int z) {
+        final Block min = minBlock();
+        final Block max = maxBlock();
+        return x >= min.getX() && x <= max.getX()
+                && y >= min.getY() && y <= max.getY()
+                && z >= min.getZ() && z <= max.getZ();
+    }
+
+    /**
+     * Checks whether the given block coordinates in the given world are contained by the area.
+     *
+     * @param world world of the block (might be null)
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return true, if the coordinates are contained by the area.
+     */
+    @Contract(value = "null, _, _, _ -> false", pure = true)
+    default boolean contains(@Nullable World world, int x, int y, int z) {
+        return world != null && world.equals(world()) && contains(x, y, z);
+    }
+
     /**
      * Checks whether the given location is contained by the area.
      *
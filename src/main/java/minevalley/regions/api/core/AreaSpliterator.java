@@ -0,0 +1,88 @@
+package minevalley.regions.api.core;
+
+import org.bukkit.block.Block;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Splittable iterator over the packed block keys of a cuboid.
+ * <p>
+ * Blocks are enumerated by a running index, with x changing fastest and y changing slowest. Splitting halves the
+ * remaining index range, so the cuboid can be processed in parallel without materializing any block.
+ *
+ * @see Block#getBlockKey(int, int, int)
+ */
+final class AreaSpliterator implements Spliterator.OfLong {
+
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeZ;
+    private long index;
+    private final long end;
+
+    AreaSpliterator(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this(minX, minY, minZ, maxX - minX + 1, maxZ - minZ + 1, 0,
+                (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1));
+    }
+
+    private AreaSpliterator(int minX, int minY, int minZ, int sizeX, int sizeZ, long index, long end) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (index >= end) return false;
+        action.accept(key(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        final long layer = (long) sizeX * sizeZ;
+        long i = index;
+        while (i < end) {
+            final int y = minY + (int) (i / layer);
+            final long inLayer = i % layer;
+            int z = (int) (inLayer / sizeX);
+            int x = (int) (inLayer % sizeX);
+            for (; z < sizeZ && i < end; z++, x = 0) {
+                for (; x < sizeX && i < end; x++, i++) {
+                    action.accept(Block.getBlockKey(minX + x, y, minZ + z));
+                }
+            }
+        }
+        index = end;
+    }
+
+    @Override
+    public OfLong trySplit() {
+        final long remaining = end - index;
+        if (remaining < 2) return null;
+        final long mid = index + (remaining >>> 1);
+        final AreaSpliterator prefix = new AreaSpliterator(minX, minY, minZ, sizeX, sizeZ, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private long key(long index) {
+        final long layer = (long) sizeX * sizeZ;
+        final long inLayer = index % layer;
+        return Block.getBlockKey(minX + (int) (inLayer % sizeX), minY + (int) (index / layer), minZ + (int) (inLayer / sizeX));
+    }
+}
@@ -0,0 +1,227 @@
+package minevalley.regions.api.core;
+
+import org.bukkit.Chunk;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable set of packed chunk keys.
+ * <p>
+ * The keys are stored as a sorted primitive array, so a set neither boxes its keys nor references any chunk object.
+ * Working with chunk keys therefore never loads a chunk.
+ *
+ * @see Chunk#getChunkKey(int, int)
+ */
+@SuppressWarnings("unused")
+public final class ChunkKeySet {
+
+    private static final ChunkKeySet EMPTY = new ChunkKeySet(new long[0]);
+
+    private final long[] keys;
+
+    private ChunkKeySet(long[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Gets the empty chunk key set.
+     *
+     * @return empty set
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static ChunkKeySet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a set of the given chunk keys. Duplicates are removed.
+     *
+     * @param keys packed chunk keys
+     * @return set of the given keys
+     * @throws IllegalArgumentException if keys is null
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static ChunkKeySet of(@Nonnull long... keys) throws IllegalArgumentException {
+        if (keys == null) throw new IllegalArgumentException("Keys cannot be null");
+        if (keys.length == 0) return EMPTY;
+        final long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) sorted[size++] = sorted[i];
+        }
+        return new ChunkKeySet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    /**
+     * Creates a set of all the chunks in the given inclusive range of chunk coordinates.
+     *
+     * @param minChunkX smallest chunk x coordinate
+     * @param minChunkZ smallest chunk z coordinate
+     * @param maxChunkX highest chunk x coordinate
+     * @param maxChunkZ highest chunk z coordinate
+     * @return set of all chunks in the range
+     * @throws IllegalArgumentException if the minimum exceeds the maximum
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static ChunkKeySet ofRange(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ)
+            throws IllegalArgumentException {
+        if (minChunkX > maxChunkX || minChunkZ > maxChunkZ) throw new IllegalArgumentException("Minimum exceeds maximum");
+        final long[] keys = new long[(maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1)];
+        int index = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                keys[index++] = Chunk.getChunkKey(chunkX, chunkZ);
+            }
+        }
+        return of(keys);
+    }
+
+    /**
+     * Gets the union of the given sets.
+     *
+     * @param sets sets to unite
+     * @return set containing the keys of all given sets
+     * @throws IllegalArgumentException if sets is null
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public static ChunkKeySet union(@Nonnull ChunkKeySet... sets) throws IllegalArgumentException {
+        if (sets == null) throw new IllegalArgumentException("Sets cannot be null");
+        if (sets.length == 1) return sets[0];
+        int size = 0;
+        for (ChunkKeySet set : sets) size += set.keys.length;
+        final long[] keys = new long[size];
+        int offset = 0;
+        for (ChunkKeySet set : sets) {
+            System.arraycopy(set.keys, 0, keys, offset, set.keys.length);
+            offset += set.keys.length;
+        }
+        return of(keys);
+    }
+
+    /**
+     * Checks whether the given chunk key is part of this set.
+     *
+     * @param key packed chunk key
+     * @return true, if the key is part of this set
+     */
+    @Contract(pure = true)
+    public boolean contains(long key) {
+        return Arrays.binarySearch(keys, key) >= 0;
+    }
+
+    /**
+     * Checks whether the chunk with the given coordinates is part of this set.
+     *
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return true, if the chunk is part of this set
+     */
+    @Contract(pure = true)
+    public boolean contains(int chunkX, int chunkZ) {
+        return contains(Chunk.getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Gets the amount of keys in this set.
+     *
+     * @return size of this set
+     */
+    @Contract(pure = true)
+    public int size() {
+        return keys.length;
+    }
+
+    @Contract(pure = true)
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Gets the key at the given position. The keys are sorted in ascending order.
+     *
+     * @param index position of the key
+     * @return packed chunk key
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    @Contract(pure = true)
+    public long get(int index) throws IndexOutOfBoundsException {
+        return keys[index];
+    }
+
+    /**
+     * Passes every key of this set to the given consumer, in ascending order.
+     *
+     * @param consumer consumer to pass the keys to
+     */
+    public void forEach(@Nonnull LongConsumer consumer) {
+        for (long key : keys) consumer.accept(key);
+    }
+
+    /**
+     * Gets a stream of the keys of this set, in ascending order.
+     *
+     * @return stream of packed chunk keys
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public LongStream stream() {
+        return Arrays.stream(keys);
+    }
+
+    /**
+     * Gets a copy of the keys of this set, in ascending order.
+     *
+     * @return array of packed chunk keys
+     */
+    @Nonnull
+    @Contract(value = "-> new", pure = true)
+    public long[] toArray() {
+        return keys.clone();
+    }
+
+    /**
+     * Gets the x coordinate of the chunk with the given key.
+     *
+     * @param key packed chunk key
+     * @return x coordinate of the chunk
+     */
+    @Contract(pure = true)
+    public static int chunkX(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Gets the z coordinate of the chunk with the given key.
+     *
+     * @param key packed chunk key
+     * @return z coordinate of the chunk
+     */
+    @Contract(pure = true)
+    public static int chunkZ(long key) {
+        return (int) (key >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ChunkKeySet set && Arrays.equals(keys, set.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(keys);
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkKeySet{size=" + keys.length + "}";
+    }
+}
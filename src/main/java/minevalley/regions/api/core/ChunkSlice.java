@@ -0,0 +1,78 @@
+package minevalley.regions.api.core;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The part of an area that lies in a single chunk, given as an inclusive range of block coordinates.
+ * <p>
+ * A chunk slice only holds coordinates and does not load the chunk it lies in.
+ *
+ * @param chunkX x coordinate of the chunk
+ * @param chunkZ z coordinate of the chunk
+ * @param minX   smallest x coordinate in this slice
+ * @param minY   smallest y coordinate in this slice
+ * @param minZ   smallest z coordinate in this slice
+ * @param maxX   highest x coordinate in this slice
+ * @param maxY   highest y coordinate in this slice
+ * @param maxZ   highest z coordinate in this slice
+ */
+public record ChunkSlice(int chunkX, int chunkZ, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+
+    public ChunkSlice {
+        if (minX > maxX || minY > maxY || minZ > maxZ) throw new IllegalArgumentException("Minimum exceeds maximum");
+        if (minX >> 4 != chunkX || maxX >> 4 != chunkX || minZ >> 4 != chunkZ || maxZ >> 4 != chunkZ) {
+            throw new IllegalArgumentException("Slice exceeds its chunk");
+        }
+    }
+
+    /**
+     * Gets the key of the chunk this slice lies in.
+     *
+     * @return packed chunk key
+     * @see Chunk#getChunkKey(int, int)
+     */
+    @Contract(pure = true)
+    public long chunkKey() {
+        return Chunk.getChunkKey(chunkX, chunkZ);
+    }
+
+    /**
+     * Gets the amount of blocks in this slice.
+     *
+     * @return amount of blocks
+     */
+    @Contract(pure = true)
+    public long volume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    /**
+     * Checks whether the given block coordinates lie in this slice.
+     *
+     * @param x x coordinate of the block
+     * @param y y coordinate of the block
+     * @param z z coordinate of the block
+     * @return true, if the coordinates lie in this slice
+     */
+    @Contract(pure = true)
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Gets the chunk this slice lies in.
+     * <p>
+     * <b>Note:</b> This might load the chunk.
+     *
+     * @param world world of the chunk
+     * @return chunk this slice lies in
+     */
+    @Nonnull
+    public Chunk getChunk(@Nonnull World world) {
+        return world.getChunkAt(chunkX, chunkZ);
+    }
+}
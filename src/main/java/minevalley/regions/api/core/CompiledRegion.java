@@ -0,0 +1,316 @@
+package minevalley.regions.api.core;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Compact, immutable representation of a region's geometry in one world.
+ * <p>
+ * The x and z boundaries of all included and excluded areas split the region's footprint into a grid of cells, in which
+ * every column has the same vertical layout. Each cell refers to a run-length-encoded list of the y-intervals that are
+ * part of the region; identical layouts are shared. A containment check is therefore two binary searches over the (few)
+ * cell boundaries and a couple of array reads, no matter how many areas the region consists of.
+ * <p>
+ * A compiled region does not reflect later changes made via {@link Region#update(List, List)}; it has to be compiled again.
+ */
+@SuppressWarnings("unused")
+public final class CompiledRegion {
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int OBJECT_BYTES = 40;
+
+    private final UUID world;
+    private final int[] xs;
+    private final int[] zs;
+    private final int[] cellLayouts;
+    private final int[] layoutOffsets;
+    private final int[] intervals;
+
+    private CompiledRegion(@Nonnull UUID world, int[] xs, int[] zs, int[] cellLayouts, int[] layoutOffsets, int[] intervals) {
+        this.world = world;
+        this.xs = xs;
+        this.zs = zs;
+        this.cellLayouts = cellLayouts;
+        this.layoutOffsets = layoutOffsets;
+        this.intervals = intervals;
+    }
+
+    /**
+     * Compiles the given region in the world of its first included area.
+     *
+     * @param region region to compile
+     * @return compiled region
+     * @throws IllegalArgumentException if the region is null or has no included areas
+     */
+    @Nonnull
+    @Contract("_ -> new")
+    public static CompiledRegion compile(@Nonnull Region region) throws IllegalArgumentException {
+        if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        if (region.included().isEmpty()) throw new IllegalArgumentException("Region must include at least one area");
+        return compile(region.included(), region.excluded(), region.included().get(0).world());
+    }
+
+    /**
+     * Compiles the given region's areas that lie in the given world.
+     *
+     * @param region region to compile
+     * @param world  world to compile the region in
+     * @return compiled region
+     * @throws IllegalArgumentException if the region or world is null
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public static CompiledRegion compile(@Nonnull Region region, @Nonnull World world) throws IllegalArgumentException {
+        if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        return compile(region.included(), region.excluded(), world);
+    }
+
+    /**
+     * Compiles the given included areas minus the given excluded areas. Areas in other worlds are ignored.
+     *
+     * @param included included areas
+     * @param excluded excluded areas
+     * @param world    world to compile the areas in
+     * @return compiled region
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    @Nonnull
+    @Contract("_, _, _ -> new")
+    public static CompiledRegion compile(@Nonnull List<Area> included, @Nonnull List<Area> excluded, @Nonnull World world)
+            throws IllegalArgumentException {
+        if (included == null) throw new IllegalArgumentException("Included areas cannot be null");
+        if (excluded == null) throw new IllegalArgumentException("Excluded areas cannot be null");
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+
+        final List<int[]> includedBoxes = boxes(included, world);
+        final List<int[]> excludedBoxes = boxes(excluded, world);
+        if (includedBoxes.isEmpty()) {
+            return new CompiledRegion(world.getUID(), new int[0], new int[0], new int[0], new int[]{0}, new int[0]);
+        }
+
+        final int[] xs = boundaries(includedBoxes, excludedBoxes, 0);
+        final int[] zs = boundaries(includedBoxes, excludedBoxes, 2);
+        final int columns = zs.length - 1;
+        final int[] cellLayouts = new int[(xs.length - 1) * columns];
+
+        final Map<Layout, Integer> layouts = new LinkedHashMap<>();
+        for (int i = 0; i < xs.length - 1; i++) {
+            for (int j = 0; j < columns; j++) {
+                final Layout layout = layout(includedBoxes, excludedBoxes, xs[i], zs[j]);
+                Integer index = layouts.get(layout);
+                if (index == null) layouts.put(layout, index = layouts.size());
+                cellLayouts[i * columns + j] = index;
+            }
+        }
+
+        final int[] layoutOffsets = new int[layouts.size() + 1];
+        int length = 0;
+        for (Layout layout : layouts.keySet()) length += layout.intervals().length;
+        final int[] intervals = new int[length];
+        int index = 0, offset = 0;
+        for (Layout layout : layouts.keySet()) {
+            layoutOffsets[index++] = offset;
+            System.arraycopy(layout.intervals(), 0, intervals, offset, layout.intervals().length);
+            offset += layout.intervals().length;
+        }
+        layoutOffsets[index] = offset;
+        return new CompiledRegion(world.getUID(), xs, zs, cellLayouts, layoutOffsets, intervals);
+    }
+
+    /**
+     * Gets the id of the world this region was compiled in.
+     *
+     * @return world id
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public UUID worldId() {
+        return world;
+    }
+
+    /**
+     * Checks whether the given block coordinates are inside this region.
+     * <p>
+     * The coordinates are assumed to lie in the world this region was compiled in.
+     *
+     * @param x x coordinate of the block
+     * @param y y coordinate of the block
+     * @param z z coordinate of the block
+     * @return true if the coordinates are inside the region, false otherwise
+     */
+    @Contract(pure = true)
+    public boolean contains(int x, int y, int z) {
+        if (xs.length == 0 || x < xs[0] || x >= xs[xs.length - 1] || z < zs[0] || z >= zs[zs.length - 1]) return false;
+        final int layout = cellLayouts[cell(xs, x) * (zs.length - 1) + cell(zs, z)];
+        for (int i = layoutOffsets[layout]; i < layoutOffsets[layout + 1]; i += 2) {
+            if (y < intervals[i]) return false;
+            if (y <= intervals[i + 1]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the given block coordinates in the given world are inside this region.
+     *
+     * @param world world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return true if the coordinates are inside the region, false otherwise
+     */
+    @Contract(value = "null, _, _, _ -> false", pure = true)
+    public boolean contains(@Nullable World world, int x, int y, int z) {
+        return world != null && this.world.equals(world.getUID()) && contains(x, y, z);
+    }
+
+    /**
+     * Checks whether the given block is inside this region.
+     *
+     * @param block block to check
+     * @return true if the block is inside the region, false otherwise
+     */
+    @Contract(value = "null -> false", pure = true)
+    public boolean contains(@Nullable Block block) {
+        return block != null && contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Gets the amount of grid cells this region is split into.
+     *
+     * @return amount of cells
+     */
+    @Contract(pure = true)
+    public int cells() {
+        return cellLayouts.length;
+    }
+
+    /**
+     * Gets the amount of distinct vertical layouts this region consists of.
+     *
+     * @return amount of distinct layouts
+     */
+    @Contract(pure = true)
+    public int layouts() {
+        return layoutOffsets.length - 1;
+    }
+
+    /**
+     * Gets the approximate amount of heap memory used by this compiled region.
+     *
+     * @return footprint in bytes
+     */
+    @Contract(pure = true)
+    public long footprint() {
+        return OBJECT_BYTES + arrayBytes(xs) + arrayBytes(zs) + arrayBytes(cellLayouts) + arrayBytes(layoutOffsets)
+                + arrayBytes(intervals);
+    }
+
+    private static long arrayBytes(int[] array) {
+        return ARRAY_HEADER_BYTES + 4L * array.length;
+    }
+
+    /**
+     * Gets the index of the cell that contains the given coordinate, i.e. the last boundary not greater than the coordinate.
+     */
+    private static int cell(int[] boundaries, int coordinate) {
+        int low = 0, high = boundaries.length - 2;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (boundaries[mid] <= coordinate) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Converts the areas in the given world into boxes of the form {minX, minY, minZ, maxX, maxY, maxZ}.
+     */
+    @Nonnull
+    private static List<int[]> boxes(@Nonnull List<Area> areas, @Nonnull World world) {
+        final List<int[]> boxes = new ArrayList<>(areas.size());
+        for (Area area : areas) {
+            if (!world.equals(area.world())) continue;
+            final Block min = area.minBlock();
+            final Block max = area.maxBlock();
+            boxes.add(new int[]{min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ()});
+        }
+        return boxes;
+    }
+
+    @Nonnull
+    private static int[] boundaries(@Nonnull List<int[]> included, @Nonnull List<int[]> excluded, int axis) {
+        final TreeSet<Integer> boundaries = new TreeSet<>();
+        for (int[] box : included) {
+            boundaries.add(box[axis]);
+            boundaries.add(box[axis + 3] + 1);
+        }
+        for (int[] box : excluded) {
+            boundaries.add(box[axis]);
+            boundaries.add(box[axis + 3] + 1);
+        }
+        return boundaries.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Computes the sorted, disjoint y-intervals of the column at the given coordinates.
+     */
+    @Nonnull
+    private static Layout layout(@Nonnull List<int[]> included, @Nonnull List<int[]> excluded, int x, int z) {
+        final List<int[]> ranges = new ArrayList<>();
+        for (int[] box : included) {
+            if (covers(box, x, z)) ranges.add(new int[]{box[1], box[4]});
+        }
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+
+        final List<int[]> merged = new ArrayList<>();
+        for (int[] range : ranges) {
+            final int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) last[1] = Math.max(last[1], range[1]);
+            else merged.add(range.clone());
+        }
+
+        for (int[] box : excluded) {
+            if (!covers(box, x, z)) continue;
+            final List<int[]> remaining = new ArrayList<>(merged.size() + 1);
+            for (int[] range : merged) {
+                if (box[4] < range[0] || box[1] > range[1]) {
+                    remaining.add(range);
+                    continue;
+                }
+                if (range[0] < box[1]) remaining.add(new int[]{range[0], box[1] - 1});
+                if (range[1] > box[4]) remaining.add(new int[]{box[4] + 1, range[1]});
+            }
+            merged.clear();
+            merged.addAll(remaining);
+        }
+
+        final int[] intervals = new int[merged.size() * 2];
+        for (int i = 0; i < merged.size(); i++) {
+            intervals[i * 2] = merged.get(i)[0];
+            intervals[i * 2 + 1] = merged.get(i)[1];
+        }
+        return new Layout(intervals);
+    }
+
+    private static boolean covers(int[] box, int x, int z) {
+        return x >= box[0] && x <= box[3] && z >= box[2] && z <= box[5];
+    }
+
+    private record Layout(int[] intervals) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Layout layout && Arrays.equals(intervals, layout.intervals);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(intervals);
+        }
+    }
+}
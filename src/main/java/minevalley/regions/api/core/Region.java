@@ -3,6 +3,7 @@ package minevalley.regions.api.core;
 import minevalley.core.api.user.OnlineUser;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.jetbrains.annotations.Contract;
 
@@ -37,14 +38,46 @@ public interface Region {
     @Nonnull
     List<Area> excluded();
 
+    /**
+     * Gets the world this region lies in.
+     *
+     * @return world of this region
+     */
+    @Nonnull
+    @Contract(pure = true)
+    default World world() {
+        return included().get(0).world();
+    }
+
     /**
      * Gets a list with the chunks that this region lies in.
+     * <p>
+     * <b>Note:</b> Getting a chunk might load it. Use {@link #chunkKeys()} if the chunks themselves are not needed.
      *
      * @return a list of chunks this region lies in
      */
     @Nonnull
     List<Chunk> chunks();
 
+    /**
+     * Gets the keys of the chunks that this region lies in.
+     * <p>
+     * The keys are derived from the bounds of the included areas, so no chunk is loaded. This set is read whenever the
+     * region is indexed or snapshotted, so implementations must cache it: compute it once and recompute it only when the
+     * region is {@link #update(List, List) updated}. The default implementation computes it on every call and is only
+     * meant to fill such a cache.
+     *
+     * @return set of the keys of the chunks this region lies in
+     */
+    @Nonnull
+    @Contract(pure = true)
+    default ChunkKeySet chunkKeys() {
+        final List<Area> included = included();
+        final ChunkKeySet[] sets = new ChunkKeySet[included.size()];
+        for (int i = 0; i < sets.length; i++) sets[i] = included.get(i).chunkKeys();
+        return ChunkKeySet.union(sets);
+    }
+
     /**
      * Checks whether the given location is inside this region.
      *
@@ -63,6 +96,36 @@ public interface Region {
     @Contract(value = "null -> false", pure = true)
     boolean contains(@Nullable Block block);
 
+    /**
+     * Checks whether the given block coordinates in the given world are inside this region.
+     * <p>
+     * In contrast to {@link #contains(Block)}, this method does not need a block object.
+     *
+     * @param world world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return true if the coordinates are inside the region, false otherwise
+     */
+    @Contract(value = "null, _, _, _ -> false", pure = true)
+    default boolean contains(@Nullable World world, int x, int y, int z) {
+        if (world == null) return false;
+        final List<Area> included = included();
+        boolean contained = false;
+        for (int i = 0; i < included.size(); i++) {
+            if (included.get(i).contains(world, x, y, z)) {
+                contained = true;
+                break;
+            }
+        }
+        if (!contained) return false;
+        final List<Area> excluded = excluded();
+        for (int i = 0; i < excluded.size(); i++) {
+            if (excluded.get(i).contains(world, x, y, z)) return false;
+        }
+        return true;
+    }
+
     /**
      * Gets a stream of all the users that are currently in the region.
      *
@@ -94,6 +157,8 @@ public interface Region {
 
     /**
      * Updates the areas of this region.
+     * <p>
+     * The region is re-indexed with its new areas, so lookups reflect the change immediately.
      *
      * @param included the areas that make up the region
      * @param excluded the areas explicitly excluded from the region
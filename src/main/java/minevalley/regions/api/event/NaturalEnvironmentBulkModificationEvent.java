@@ -0,0 +1,307 @@
+package minevalley.regions.api.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Bulk variant of {@link NaturalEnvironmentModificationEvent} for natural modifications that affect many blocks at once,
+ * e.g. explosions, pistons or fluids.
+ * <p>
+ * The affected blocks are grouped by chunk and each chunk's regions are resolved only once. Listeners can allow or deny
+ * the modification for all blocks, for single blocks or for all blocks in a specific region. The allowance of each block
+ * follows the same semantics as {@link NaturalEnvironmentModificationEvent#allow()},
+ * {@link NaturalEnvironmentModificationEvent#deny()} and {@link NaturalEnvironmentModificationEvent#isFinallyAllowed()}.
+ */
+@Getter
+@SuppressWarnings("unused")
+public class NaturalEnvironmentBulkModificationEvent extends Event {
+
+    public static final HandlerList HANDLER_LIST = new HandlerList();
+
+    /**
+     * Affected blocks, in the order they were given, without duplicates.
+     */
+    private final List<Block> blocks;
+
+    /**
+     * Affected blocks grouped by their chunk.
+     */
+    private final List<ChunkBlocks> chunks;
+
+    private final boolean nativelyInterrupted;
+    private final Event underlyingEvent;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Block, Integer> indices;
+
+    @Getter(AccessLevel.NONE)
+    private final List<List<Region>> regions;
+
+    @Getter(AccessLevel.NONE)
+    private final boolean[] overwrite;
+
+    /**
+     * Creates a new bulk modification event.
+     *
+     * @param blocks              affected blocks
+     * @param nativelyInterrupted whether the underlying event was interrupted natively
+     * @param underlyingEvent     event that caused the modification
+     * @param candidates          resolves the regions that overlap a chunk, e.g. from a spatial index
+     */
+    public NaturalEnvironmentBulkModificationEvent(@Nonnull Collection<Block> blocks, boolean nativelyInterrupted,
+                                                   @Nonnull Event underlyingEvent, @Nonnull CandidateResolver candidates) {
+        this.blocks = List.copyOf(new LinkedHashSet<>(blocks));
+        this.nativelyInterrupted = nativelyInterrupted;
+        this.underlyingEvent = underlyingEvent;
+        this.indices = new HashMap<>(this.blocks.size() * 2);
+        this.regions = new ArrayList<>(Collections.nCopies(this.blocks.size(), Collections.emptyList()));
+        this.overwrite = new boolean[this.blocks.size()];
+        Arrays.fill(overwrite, nativelyInterrupted);
+
+        final Map<World, Long2ObjectHashMap<List<Block>>> blocksByChunk = new HashMap<>();
+        final List<ChunkBlocks> chunks = new ArrayList<>();
+        final List<Region> buffer = new ArrayList<>();
+        for (int i = 0; i < this.blocks.size(); i++) {
+            final Block block = this.blocks.get(i);
+            indices.put(block, i);
+
+            final World world = block.getWorld();
+            final int chunkX = block.getX() >> 4, chunkZ = block.getZ() >> 4;
+            final Long2ObjectHashMap<List<Block>> worldChunks = blocksByChunk.computeIfAbsent(world, w -> new Long2ObjectHashMap<>());
+            List<Block> chunkBlocks = worldChunks.get(Chunk.getChunkKey(chunkX, chunkZ));
+            if (chunkBlocks == null) {
+                chunkBlocks = new ArrayList<>();
+                worldChunks.put(Chunk.getChunkKey(chunkX, chunkZ), chunkBlocks);
+                chunks.add(new ChunkBlocks(world, chunkX, chunkZ, Collections.unmodifiableList(chunkBlocks),
+                        candidates.getCandidates(world, chunkX, chunkZ)));
+            }
+            chunkBlocks.add(block);
+        }
+        for (ChunkBlocks chunk : chunks) {
+            for (Block block : chunk.blocks()) {
+                buffer.clear();
+                for (Region region : chunk.regions()) {
+                    if (region.contains(block.getWorld(), block.getX(), block.getY(), block.getZ())) buffer.add(region);
+                }
+                if (!buffer.isEmpty()) regions.set(indices.get(block), List.copyOf(buffer));
+            }
+        }
+        this.chunks = Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * Gets the regions in which the given block lies in, ordered by their size (smallest first).
+     *
+     * @param block affected block
+     * @return unmodifiable list of the block's regions
+     * @throws IllegalArgumentException if the block is not affected by this event
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Region> getRegions(@Nonnull Block block) throws IllegalArgumentException {
+        return regions.get(indexOf(block));
+    }
+
+    /**
+     * Gets all regions in which at least one of the affected blocks lies in.
+     *
+     * @return list of the affected regions
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Region> getRegions() {
+        final Set<Region> affected = new LinkedHashSet<>();
+        for (List<Region> blockRegions : regions) affected.addAll(blockRegions);
+        return new ArrayList<>(affected);
+    }
+
+    /**
+     * Allows the modification of all affected blocks. This even overrides the internal regions decision.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours changing it.
+     */
+    public void allow() {
+        Arrays.fill(overwrite, true);
+    }
+
+    /**
+     * Prevents the modification of all affected blocks. This even overrides the internal regions decision.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours changing it.
+     */
+    public void deny() {
+        Arrays.fill(overwrite, false);
+    }
+
+    /**
+     * Allows the modification of the given block. This even overrides the internal regions decision.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours changing it.
+     *
+     * @param block affected block
+     * @throws IllegalArgumentException if the block is not affected by this event
+     */
+    public void allow(@Nonnull Block block) throws IllegalArgumentException {
+        overwrite[indexOf(block)] = true;
+    }
+
+    /**
+     * Prevents the modification of the given block. This even overrides the internal regions decision.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours changing it.
+     *
+     * @param block affected block
+     * @throws IllegalArgumentException if the block is not affected by this event
+     */
+    public void deny(@Nonnull Block block) throws IllegalArgumentException {
+        overwrite[indexOf(block)] = false;
+    }
+
+    /**
+     * Allows the modification of all affected blocks that lie in the given region.
+     * This even overrides the internal regions decision.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours changing it.
+     *
+     * @param region region to allow the modification in
+     */
+    public void allow(@Nullable Region region) {
+        set(region, true);
+    }
+
+    /**
+     * Prevents the modification of all affected blocks that lie in the given region.
+     * This even overrides the internal regions decision.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours changing it.
+     *
+     * @param region region to prevent the modification in
+     */
+    public void deny(@Nullable Region region) {
+        set(region, false);
+    }
+
+    /**
+     * Gets whether the modification of the given block will be executed.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours checking it.
+     *
+     * @param block affected block
+     * @return true, if the modification of the block will be executed
+     * @throws IllegalArgumentException if the block is not affected by this event
+     */
+    public boolean isFinallyAllowed(@Nonnull Block block) throws IllegalArgumentException {
+        return overwrite[indexOf(block)];
+    }
+
+    /**
+     * Gets whether the modification of all affected blocks will be executed.
+     * <p>
+     * <b>Note:</b> Other listeners might change the state of allowance after yours checking it.
+     *
+     * @return true, if no block is denied
+     */
+    public boolean isFinallyAllowed() {
+        for (boolean allowed : overwrite) if (!allowed) return false;
+        return true;
+    }
+
+    /**
+     * Gets all affected blocks whose modification will be executed.
+     *
+     * @return list of the allowed blocks
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Block> getAllowedBlocks() {
+        return filter(true);
+    }
+
+    /**
+     * Gets all affected blocks whose modification will be prevented.
+     *
+     * @return list of the denied blocks
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Block> getDeniedBlocks() {
+        return filter(false);
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+
+    @Override
+    public @Nonnull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    private int indexOf(@Nonnull Block block) throws IllegalArgumentException {
+        final Integer index = block == null ? null : indices.get(block);
+        if (index == null) throw new IllegalArgumentException("Block is not affected by this event");
+        return index;
+    }
+
+    private void set(@Nullable Region region, boolean allowed) {
+        if (region == null) return;
+        for (ChunkBlocks chunk : chunks) {
+            if (!chunk.regions().contains(region)) continue;
+            for (Block block : chunk.blocks()) {
+                final int index = indices.get(block);
+                if (regions.get(index).contains(region)) overwrite[index] = allowed;
+            }
+        }
+    }
+
+    @Nonnull
+    private List<Block> filter(boolean allowed) {
+        final List<Block> result = new ArrayList<>();
+        for (int i = 0; i < overwrite.length; i++) if (overwrite[i] == allowed) result.add(blocks.get(i));
+        return result;
+    }
+
+    /**
+     * Affected blocks of a single chunk, together with the regions overlapping that chunk.
+     *
+     * @param world   world of the chunk
+     * @param chunkX  x coordinate of the chunk
+     * @param chunkZ  z coordinate of the chunk
+     * @param blocks  affected blocks in the chunk
+     * @param regions regions overlapping the chunk, ordered by their size (smallest first).
+     *                Not every block of the chunk necessarily lies in all of them.
+     */
+    public record ChunkBlocks(@Nonnull World world, int chunkX, int chunkZ, @Nonnull List<Block> blocks,
+                              @Nonnull List<Region> regions) {
+    }
+
+    /**
+     * Resolves the regions that overlap a chunk.
+     */
+    @FunctionalInterface
+    public interface CandidateResolver {
+
+        /**
+         * Gets the regions that overlap the given chunk, ordered by their size (smallest first).
+         *
+         * @param world  world of the chunk
+         * @param chunkX x coordinate of the chunk
+         * @param chunkZ z coordinate of the chunk
+         * @return list of the regions overlapping the chunk
+         */
+        @Nonnull
+        List<Region> getCandidates(@Nonnull World world, int chunkX, int chunkZ);
+    }
+}
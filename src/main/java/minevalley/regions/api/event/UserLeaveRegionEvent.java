@@ -0,0 +1,31 @@
+package minevalley.regions.api.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.event.OnlineUserEvent;
+import minevalley.regions.api.core.Region;
+import org.bukkit.event.Cancellable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This event is called when a user leaves a region.
+ */
+@Getter
+@SuppressWarnings("unused")
+public class UserLeaveRegionEvent extends OnlineUserEvent implements Cancellable {
+
+    @Setter
+    private boolean cancelled = false;
+
+    /**
+     * Region this user leaves
+     */
+    private final Region region;
+
+    public UserLeaveRegionEvent(@Nonnull OnlineUser user, @Nonnull Region region) {
+        super(user);
+        this.region = region;
+    }
+}
@@ -0,0 +1,38 @@
+package minevalley.regions.api.event;
+
+import lombok.Getter;
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.event.OnlineUserEvent;
+import minevalley.regions.api.structure.RadioMast;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * This event is called when a user connects to a radio mast, either because they are handed over from another mast with
+ * a weaker signal, or because they had no signal before.
+ *
+ * @see UserRadioSignalLostEvent
+ */
+@Getter
+@SuppressWarnings("unused")
+public class UserRadioMastHandoverEvent extends OnlineUserEvent {
+
+    /**
+     * Radio mast the user was connected to before. This is null, if the user had no signal.
+     */
+    @Nullable
+    private final RadioMast previous;
+
+    /**
+     * Radio mast the user is connected to now.
+     */
+    @Nonnull
+    private final RadioMast radioMast;
+
+    public UserRadioMastHandoverEvent(@Nonnull OnlineUser user, @Nullable RadioMast previous, @Nonnull RadioMast radioMast) {
+        super(user);
+        this.previous = previous;
+        this.radioMast = radioMast;
+    }
+}
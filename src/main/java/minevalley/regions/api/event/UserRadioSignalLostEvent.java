@@ -0,0 +1,29 @@
+package minevalley.regions.api.event;
+
+import lombok.Getter;
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.event.OnlineUserEvent;
+import minevalley.regions.api.structure.RadioMast;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This event is called when a user leaves the range of the radio mast they are connected to, and no other radio mast is
+ * in range.
+ *
+ * @see UserRadioMastHandoverEvent
+ */
+@Getter
+@SuppressWarnings("unused")
+public class UserRadioSignalLostEvent extends OnlineUserEvent {
+
+    /**
+     * Radio mast the user was connected to.
+     */
+    private final RadioMast radioMast;
+
+    public UserRadioSignalLostEvent(@Nonnull OnlineUser user, @Nonnull RadioMast radioMast) {
+        super(user);
+        this.radioMast = radioMast;
+    }
+}
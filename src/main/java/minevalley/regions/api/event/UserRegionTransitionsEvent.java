@@ -0,0 +1,64 @@
+package minevalley.regions.api.event;
+
+import lombok.Getter;
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.movement.RegionTransition;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * This event is called once per tick if transitions are batched, carrying all region and chunk transitions of that tick.
+ * <p>
+ * While batching is enabled, the individual {@link UserEnterChunkEvent}s, {@link UserEnterRegionEvent}s and
+ * {@link UserLeaveRegionEvent}s are not called. Instead, each transition can be cancelled individually, which has the
+ * same effect as cancelling the corresponding individual event: the user is sent back to where they came from.
+ * <p>
+ * Each user has at most one transition per tick, leading from where they were at the start of the tick to where they
+ * are at its end.
+ *
+ * @see minevalley.regions.api.Regions#setTransitionBatching(boolean)
+ */
+@Getter
+@SuppressWarnings("unused")
+public class UserRegionTransitionsEvent extends Event {
+
+    public static final HandlerList HANDLER_LIST = new HandlerList();
+
+    /**
+     * Transitions of this tick.
+     */
+    private final List<RegionTransition> transitions;
+
+    public UserRegionTransitionsEvent(@Nonnull List<RegionTransition> transitions) {
+        this.transitions = List.copyOf(transitions);
+    }
+
+    /**
+     * Gets the transition of the given user in this tick.
+     *
+     * @param user user to get the transition of
+     * @return transition of the user, or null if the user has none
+     */
+    @Nullable
+    @Contract(pure = true)
+    public RegionTransition getTransition(@Nullable OnlineUser user) {
+        for (RegionTransition transition : transitions) {
+            if (transition.getUser().equals(user)) return transition;
+        }
+        return null;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+
+    @Override
+    public @Nonnull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+}
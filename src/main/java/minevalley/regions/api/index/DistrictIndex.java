@@ -0,0 +1,143 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.core.ChunkKeySet;
+import minevalley.regions.api.structure.District;
+import minevalley.regions.api.util.Int2ObjectHashMap;
+import minevalley.regions.api.util.Long2IntHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index mapping the keys of chunks to the districts they belong to (see {@link District#chunkKeys()}).
+ * <p>
+ * Each world has a flat primitive map from chunk key to district id, so a lookup by chunk coordinates neither loads the
+ * chunk nor allocates. This makes it cheap enough to be called on every chunk crossing, e.g. to fire
+ * {@link minevalley.regions.api.event.UserEnterDistrictEvent}s.
+ * <p>
+ * The index has to be kept consistent by the provider: Every district is {@link #add(District) added} when it is loaded
+ * and re-added whenever its chunks change. A chunk belongs to at most one district; adding a district reassigns the
+ * chunks of other districts it overlaps.
+ * <p>
+ * <b>Note:</b> This index is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class DistrictIndex {
+
+    /**
+     * Id returned for chunks that do not belong to any district.
+     */
+    public static final int NONE = -1;
+
+    private final Map<UUID, Long2IntHashMap> worlds = new HashMap<>();
+    private final Int2ObjectHashMap<Placement> placements = new Int2ObjectHashMap<>();
+
+    /**
+     * Adds the given district to this index. If the district is already indexed, it is re-indexed.
+     *
+     * @param district district to add
+     * @throws IllegalArgumentException if the district is null or its id is {@link #NONE}
+     */
+    public void add(@Nonnull District district) throws IllegalArgumentException {
+        if (district == null) throw new IllegalArgumentException("District cannot be null");
+        if (district.id() == NONE) throw new IllegalArgumentException("District id cannot be " + NONE);
+        remove(district.id());
+
+        final ChunkKeySet chunkKeys = district.chunkKeys();
+        if (chunkKeys.isEmpty()) {
+            placements.put(district.id(), new Placement(district, null, chunkKeys));
+            return;
+        }
+        final UUID world = district.world().getUID();
+        final Long2IntHashMap chunks = worlds.computeIfAbsent(world, uid -> new Long2IntHashMap(NONE, chunkKeys.size()));
+        for (int i = 0; i < chunkKeys.size(); i++) chunks.put(chunkKeys.get(i), district.id());
+        placements.put(district.id(), new Placement(district, world, chunkKeys));
+    }
+
+    /**
+     * Removes the district with the given id from this index.
+     * <p>
+     * The district is removed from the chunks it was indexed with, regardless of its current chunks. Chunks that have been
+     * reassigned to another district in the meantime are kept.
+     *
+     * @param districtId id of the district to remove
+     * @return true, if the district was indexed
+     */
+    public boolean remove(int districtId) {
+        final Placement placement = placements.remove(districtId);
+        if (placement == null) return false;
+        if (placement.world() == null) return true;
+
+        final Long2IntHashMap chunks = worlds.get(placement.world());
+        if (chunks == null) return true;
+        final ChunkKeySet chunkKeys = placement.chunkKeys();
+        for (int i = 0; i < chunkKeys.size(); i++) {
+            final long chunkKey = chunkKeys.get(i);
+            if (chunks.get(chunkKey) == districtId) chunks.remove(chunkKey);
+        }
+        if (chunks.isEmpty()) worlds.remove(placement.world());
+        return true;
+    }
+
+    /**
+     * Removes all districts from this index.
+     */
+    public void clear() {
+        worlds.clear();
+        placements.clear();
+    }
+
+    /**
+     * Gets the amount of indexed districts.
+     *
+     * @return amount of indexed districts
+     */
+    @Contract(pure = true)
+    public int size() {
+        return placements.size();
+    }
+
+    /**
+     * Gets the id of the district that contains the given chunk.
+     *
+     * @param world  id of the world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return id of the district, or {@link #NONE}
+     */
+    @Contract(pure = true)
+    public int getDistrictId(@Nonnull UUID world, int chunkX, int chunkZ) {
+        final Long2IntHashMap chunks = worlds.get(world);
+        return chunks == null ? NONE : chunks.get(Chunk.getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Gets the district that contains the given chunk.
+     *
+     * @param world  world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return district that contains the chunk, or null if there is none
+     * @throws IllegalArgumentException if the world is null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public District getDistrict(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final int id = getDistrictId(world.getUID(), chunkX, chunkZ);
+        if (id == NONE) return null;
+        final Placement placement = placements.get(id);
+        return placement == null ? null : placement.district();
+    }
+
+    private record Placement(District district, UUID world, ChunkKeySet chunkKeys) {
+    }
+}
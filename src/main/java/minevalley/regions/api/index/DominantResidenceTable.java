@@ -0,0 +1,340 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Lookup table from block positions to the id of the dominant residence at that position.
+ * <p>
+ * The table is split into chunk sections (16x16x16 blocks) that are built lazily on their first lookup, from the
+ * residence regions the given {@link Resolver} reports for the section's chunk. Sections that no residence region
+ * reaches, or that are fully covered by the most dominant one reaching them, collapse to a single entry without looking
+ * at any block. All others check each block against the regions reaching the section and store a small palette of
+ * residence ids. Once a section is built, a lookup is a hash lookup followed by an array read.
+ * <p>
+ * The amount of built sections is bounded. When the bound is exceeded, all sections are dropped and built again on
+ * demand.
+ * <p>
+ * Sections have to be invalidated whenever the residences in them might have changed: Use {@link #invalidate(Region)}
+ * before and after a region's areas are updated, and {@link #invalidateResidence(int)} when a residence is reset.
+ * <p>
+ * <b>Note:</b> This table is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class DominantResidenceTable {
+
+    /**
+     * Id returned for positions that are not covered by any residence.
+     */
+    public static final int NO_RESIDENCE = -1;
+
+    /**
+     * Id returned by {@link #getUniform(World, int, int, int)} for sections that are not covered by a single residence.
+     */
+    public static final int MIXED = -2;
+
+    /**
+     * Amount of sections a table holds at most, unless specified otherwise. A section takes up to about 4 KiB, most of
+     * them only a few bytes.
+     */
+    public static final int DEFAULT_MAX_SECTIONS = 1 << 16;
+
+    private final Resolver resolver;
+    private final int maxSections;
+    private final Map<UUID, Long2ObjectHashMap<Section>> worlds = new HashMap<>();
+    private final Map<Integer, Set<SectionRef>> sectionsByResidence = new HashMap<>();
+    private int size;
+
+    public DominantResidenceTable(@Nonnull Resolver resolver) throws IllegalArgumentException {
+        this(resolver, DEFAULT_MAX_SECTIONS);
+    }
+
+    public DominantResidenceTable(@Nonnull Resolver resolver, int maxSections) throws IllegalArgumentException {
+        if (resolver == null) throw new IllegalArgumentException("Resolver cannot be null");
+        if (maxSections <= 0) throw new IllegalArgumentException("Maximum amount of sections must be positive");
+        this.resolver = resolver;
+        this.maxSections = maxSections;
+    }
+
+    /**
+     * Gets the id of the dominant residence at the given block coordinates.
+     * <p>
+     * If the section containing the coordinates is not built yet, it is built now.
+     *
+     * @param world world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return id of the dominant residence, or {@link #NO_RESIDENCE}
+     * @throws IllegalArgumentException if the world is null
+     */
+    public int get(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        return getSection(world, x, y, z).get(x, y, z);
+    }
+
+    /**
+     * Gets the id of the residence that covers the whole section containing the given block coordinates.
+     * <p>
+     * If a section is fully owned by a single residence (or by none), every block in it has the same dominant residence,
+     * so checks for other blocks of that section can skip the region lookup entirely.
+     * If the section containing the coordinates is not built yet, it is built now.
+     *
+     * @param world world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return id of the residence covering the whole section, {@link #NO_RESIDENCE} if no block of the section is
+     * covered by a residence, or {@link #MIXED}
+     * @throws IllegalArgumentException if the world is null
+     */
+    public int getUniform(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        final Section section = getSection(world, x, y, z);
+        return section.palette() == null && section.ids() == null ? section.uniform() : MIXED;
+    }
+
+    /**
+     * Invalidates all sections that intersect one of the given region's areas.
+     * <p>
+     * When a region's areas are updated, this has to be called with both, the old and the new areas.
+     *
+     * @param region region to invalidate the sections of
+     * @throws IllegalArgumentException if the region is null
+     */
+    public void invalidate(@Nonnull Region region) throws IllegalArgumentException {
+        if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        for (Area area : region.included()) invalidate(area);
+    }
+
+    /**
+     * Invalidates all sections that intersect the given area.
+     *
+     * @param area area to invalidate the sections of
+     * @throws IllegalArgumentException if the area is null
+     */
+    public void invalidate(@Nonnull Area area) throws IllegalArgumentException {
+        if (area == null) throw new IllegalArgumentException("Area cannot be null");
+        final UUID worldId = area.world().getUID();
+        final Long2ObjectHashMap<Section> sections = worlds.get(worldId);
+        if (sections == null) return;
+
+        final Block min = area.minBlock();
+        final Block max = area.maxBlock();
+        for (int sectionX = min.getX() >> 4; sectionX <= max.getX() >> 4; sectionX++) {
+            for (int sectionZ = min.getZ() >> 4; sectionZ <= max.getZ() >> 4; sectionZ++) {
+                for (int sectionY = min.getY() >> 4; sectionY <= max.getY() >> 4; sectionY++) {
+                    final long key = sectionKey(sectionX, sectionY, sectionZ);
+                    final Section section = sections.remove(key);
+                    if (section != null) unregister(worldId, key, section);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates all sections in which the residence with the given id was dominant at the time they were built.
+     *
+     * @param residenceId id of the residence
+     */
+    public void invalidateResidence(int residenceId) {
+        final Set<SectionRef> refs = sectionsByResidence.remove(residenceId);
+        if (refs == null) return;
+        for (SectionRef ref : refs) {
+            final Long2ObjectHashMap<Section> sections = worlds.get(ref.world());
+            if (sections == null) continue;
+            final Section section = sections.remove(ref.key());
+            if (section != null) unregister(ref.world(), ref.key(), section);
+        }
+    }
+
+    /**
+     * Invalidates all sections.
+     */
+    public void clear() {
+        worlds.clear();
+        sectionsByResidence.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the amount of sections that are currently built.
+     *
+     * @return amount of built sections
+     */
+    @Contract(pure = true)
+    public int size() {
+        return size;
+    }
+
+    @Nonnull
+    private Section getSection(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final UUID worldId = world.getUID();
+        Long2ObjectHashMap<Section> sections = worlds.get(worldId);
+        final long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        Section section = sections == null ? null : sections.get(key);
+        if (section != null) return section;
+
+        section = build(world, x >> 4, y >> 4, z >> 4);
+        if (size >= maxSections) clear();
+        sections = worlds.get(worldId);
+        if (sections == null) worlds.put(worldId, sections = new Long2ObjectHashMap<>());
+        sections.put(key, section);
+        register(worldId, key, section);
+        return section;
+    }
+
+    @Nonnull
+    private Section build(@Nonnull World world, int sectionX, int sectionY, int sectionZ) {
+        final int baseX = sectionX << 4, baseY = sectionY << 4, baseZ = sectionZ << 4;
+        final List<Candidate> candidates = new ArrayList<>();
+        for (Candidate candidate : resolver.resolve(world, sectionX, sectionZ)) {
+            if (reaches(candidate.region().included(), baseX, baseY, baseZ)) candidates.add(candidate);
+        }
+        if (candidates.isEmpty()) return new Section(NO_RESIDENCE, null, null, null);
+        if (covers(candidates.get(0).region(), baseX, baseY, baseZ)) {
+            return new Section(candidates.get(0).residenceId(), null, null, null);
+        }
+
+        final int[] ids = new int[4096];
+        boolean uniform = true;
+        for (int index = 0; index < ids.length; index++) {
+            ids[index] = resolve(world, candidates, baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15));
+            uniform &= ids[index] == ids[0];
+        }
+        if (uniform) return new Section(ids[0], null, null, null);
+
+        final Map<Integer, Integer> paletteIndices = new LinkedHashMap<>();
+        for (int id : ids) paletteIndices.putIfAbsent(id, paletteIndices.size());
+        if (paletteIndices.size() > 256) return new Section(NO_RESIDENCE, null, null, ids);
+
+        final int[] palette = new int[paletteIndices.size()];
+        paletteIndices.forEach((id, index) -> palette[index] = id);
+        final byte[] indices = new byte[ids.length];
+        for (int index = 0; index < ids.length; index++) indices[index] = (byte) (int) paletteIndices.get(ids[index]);
+        return new Section(NO_RESIDENCE, palette, indices, null);
+    }
+
+    private static int resolve(@Nonnull World world, @Nonnull List<Candidate> candidates, int x, int y, int z) {
+        for (int i = 0; i < candidates.size(); i++) {
+            final Candidate candidate = candidates.get(i);
+            if (candidate.region().contains(world, x, y, z)) return candidate.residenceId();
+        }
+        return NO_RESIDENCE;
+    }
+
+    /**
+     * Checks whether any of the given areas intersects the section with the given minimum block coordinates.
+     */
+    private static boolean reaches(@Nonnull List<Area> areas, int baseX, int baseY, int baseZ) {
+        for (int i = 0; i < areas.size(); i++) {
+            final Block min = areas.get(i).minBlock();
+            final Block max = areas.get(i).maxBlock();
+            if (min.getX() <= baseX + 15 && max.getX() >= baseX && min.getY() <= baseY + 15 && max.getY() >= baseY
+                    && min.getZ() <= baseZ + 15 && max.getZ() >= baseZ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a single included area of the given region contains the whole section with the given minimum block
+     * coordinates, and none of its excluded areas intersects it.
+     */
+    private static boolean covers(@Nonnull Region region, int baseX, int baseY, int baseZ) {
+        if (reaches(region.excluded(), baseX, baseY, baseZ)) return false;
+        for (Area area : region.included()) {
+            final Block min = area.minBlock();
+            final Block max = area.maxBlock();
+            if (min.getX() <= baseX && max.getX() >= baseX + 15 && min.getY() <= baseY && max.getY() >= baseY + 15
+                    && min.getZ() <= baseZ && max.getZ() >= baseZ + 15) return true;
+        }
+        return false;
+    }
+
+    private void register(@Nonnull UUID world, long key, @Nonnull Section section) {
+        size++;
+        section.forEachResidence(id -> sectionsByResidence.computeIfAbsent(id, i -> new HashSet<>()).add(new SectionRef(world, key)));
+    }
+
+    private void unregister(@Nonnull UUID world, long key, @Nonnull Section section) {
+        size--;
+        final SectionRef ref = new SectionRef(world, key);
+        section.forEachResidence(id -> {
+            final Set<SectionRef> refs = sectionsByResidence.get(id);
+            if (refs != null && refs.remove(ref) && refs.isEmpty()) sectionsByResidence.remove(id);
+        });
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) | ((long) sectionZ & 0x3FFFFFL) << 22 | ((long) sectionY & 0xFFFFFL) << 44;
+    }
+
+    /**
+     * Resolves the residences that might be dominant in a chunk without using the table.
+     */
+    @FunctionalInterface
+    public interface Resolver {
+
+        /**
+         * Gets the regions of all residences that overlap the given chunk, ordered by dominance: Where regions overlap,
+         * the residence of the region that comes first is dominant.
+         * <p>
+         * The regions do not need to contain every block of the chunk, e.g. they can be taken from the chunk's bucket of
+         * a {@link RegionIndex}.
+         *
+         * @param world  world of the chunk
+         * @param chunkX x coordinate of the chunk
+         * @param chunkZ z coordinate of the chunk
+         * @return list of the candidates, ordered by dominance
+         */
+        @Nonnull
+        List<Candidate> resolve(@Nonnull World world, int chunkX, int chunkZ);
+    }
+
+    /**
+     * A region of a residence that might be dominant in a chunk.
+     *
+     * @param residenceId id of the residence
+     * @param region      region of the residence
+     */
+    public record Candidate(int residenceId, @Nonnull Region region) {
+
+        public Candidate {
+            if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        }
+    }
+
+    private record SectionRef(UUID world, long key) {
+    }
+
+    /**
+     * A built section. If neither a palette nor ids are present, the whole section is covered by the uniform id.
+     */
+    private record Section(int uniform, int[] palette, byte[] indices, int[] ids) {
+
+        int get(int x, int y, int z) {
+            if (palette != null) return palette[indices[(y & 15) << 8 | (z & 15) << 4 | (x & 15)] & 0xFF];
+            if (ids != null) return ids[(y & 15) << 8 | (z & 15) << 4 | (x & 15)];
+            return uniform;
+        }
+
+        void forEachResidence(@Nonnull IntConsumer consumer) {
+            if (palette != null) {
+                for (int id : palette) if (id != NO_RESIDENCE) consumer.accept(id);
+            } else if (ids != null) {
+                Arrays.stream(ids).distinct().filter(id -> id != NO_RESIDENCE).forEach(consumer);
+            } else if (uniform != NO_RESIDENCE) {
+                consumer.accept(uniform);
+            }
+        }
+    }
+}
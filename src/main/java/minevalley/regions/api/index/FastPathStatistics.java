@@ -0,0 +1,104 @@
+package minevalley.regions.api.index;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how protection checks (e.g. for {@link minevalley.regions.api.event.UserInteractEnvironmentEvent}) are answered.
+ * <p>
+ * A check can take one of three paths:
+ * <ul>
+ *     <li><b>region-free chunk:</b> No region overlaps the chunk (see {@link RegionIndex#hasRegions}), so no event is constructed at all.</li>
+ *     <li><b>single-owner section:</b> The chunk section is fully owned by a single residence (see
+ *     {@link DominantResidenceTable#getUniform}), so the region lookup is skipped.</li>
+ *     <li><b>full lookup:</b> Neither fast path applies and the block is looked up in its section.</li>
+ * </ul>
+ * The in-memory provider records its checks in such statistics (see
+ * {@link minevalley.regions.api.memory.InMemoryRegionsProvider#getFastPathStatistics()}).
+ * The counters can be recorded on the main thread and read from any other thread, e.g. by a metrics exporter.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class FastPathStatistics {
+
+    private final LongAdder regionFreeChunks = new LongAdder();
+    private final LongAdder singleOwnerSections = new LongAdder();
+    private final LongAdder fullLookups = new LongAdder();
+
+    /**
+     * Records a check that was answered because no region overlaps the chunk.
+     */
+    public void recordRegionFreeChunk() {
+        regionFreeChunks.increment();
+    }
+
+    /**
+     * Records a check that was answered because the section is owned by a single residence.
+     */
+    public void recordSingleOwnerSection() {
+        singleOwnerSections.increment();
+    }
+
+    /**
+     * Records a check that needed a full region lookup.
+     */
+    public void recordFullLookup() {
+        fullLookups.increment();
+    }
+
+    /**
+     * Gets the current values of all counters.
+     * <p>
+     * <b>Note:</b> If checks are recorded concurrently, the values might not be consistent with each other.
+     *
+     * @return current counter values
+     */
+    @Nonnull
+    @Contract(value = "-> new", pure = true)
+    public Snapshot snapshot() {
+        return new Snapshot(regionFreeChunks.sum(), singleOwnerSections.sum(), fullLookups.sum());
+    }
+
+    /**
+     * Resets all counters to zero.
+     */
+    public void reset() {
+        regionFreeChunks.reset();
+        singleOwnerSections.reset();
+        fullLookups.reset();
+    }
+
+    /**
+     * Values of the counters at a specific point in time.
+     *
+     * @param regionFreeChunks    amount of checks answered because no region overlaps the chunk
+     * @param singleOwnerSections amount of checks answered because the section is owned by a single residence
+     * @param fullLookups         amount of checks that needed a full region lookup
+     */
+    public record Snapshot(long regionFreeChunks, long singleOwnerSections, long fullLookups) {
+
+        /**
+         * Gets the total amount of recorded checks.
+         *
+         * @return amount of checks
+         */
+        @Contract(pure = true)
+        public long total() {
+            return regionFreeChunks + singleOwnerSections + fullLookups;
+        }
+
+        /**
+         * Gets the share of checks that took one of the fast paths.
+         *
+         * @return value between 0 and 1, or 0 if no checks were recorded
+         */
+        @Contract(pure = true)
+        public double fastPathRatio() {
+            final long total = total();
+            return total == 0 ? 0 : (double) (regionFreeChunks + singleOwnerSections) / total;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Per-world grid of navigation points, answering nearest-point queries without scanning all navigation points.
+ * <p>
+ * The grid consists of square cells whose size is a power of two. Each cell stores the horizontal coordinates of its
+ * navigation points in a primitive array, so a query compares squared distances without touching the navigation points
+ * or their locations. The cells around the queried coordinates are searched ring by ring, until no further ring can
+ * contain a nearer navigation point or the search radius is exceeded.
+ * <p>
+ * The index has to be kept consistent by the provider: Every navigation point is {@link #add(NavigationPoint) added} when
+ * it is created and {@link #remove(NavigationPoint) removed} when it is removed.
+ * <p>
+ * <b>Note:</b> Navigation points are looked up by identity, since their equality depends on their connections.
+ * <p>
+ * <b>Note:</b> This index is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class NavigationPointIndex {
+
+    private static final int DEFAULT_CELL_SHIFT = 6;
+
+    private final int cellShift;
+    private final Map<UUID, Grid> worlds = new HashMap<>();
+    private final Map<NavigationPoint, Placement> placements = new IdentityHashMap<>();
+
+    /**
+     * Creates an index with cells of 64 × 64 blocks.
+     */
+    public NavigationPointIndex() {
+        this(DEFAULT_CELL_SHIFT);
+    }
+
+    /**
+     * Creates an index with cells of {@code 2^cellShift} × {@code 2^cellShift} blocks.
+     * <p>
+     * The cell size should be in the order of the typical distance between neighbouring navigation points.
+     *
+     * @param cellShift binary logarithm of the cell size in blocks
+     * @throws IllegalArgumentException if the cell shift is not between 2 and 16
+     */
+    public NavigationPointIndex(int cellShift) throws IllegalArgumentException {
+        if (cellShift < 2 || cellShift > 16) throw new IllegalArgumentException("Cell shift must be between 2 and 16");
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * Adds the given navigation point to this index. If the navigation point is already indexed, it is re-indexed.
+     *
+     * @param navigationPoint navigation point to add
+     * @throws IllegalArgumentException if the navigation point or its world is null
+     */
+    public void add(@Nonnull NavigationPoint navigationPoint) throws IllegalArgumentException {
+        if (navigationPoint == null) throw new IllegalArgumentException("Navigation point cannot be null");
+        final Location location = navigationPoint.location();
+        if (location == null || location.getWorld() == null) {
+            throw new IllegalArgumentException("Navigation point must have a location with a world");
+        }
+        remove(navigationPoint);
+
+        final UUID world = location.getWorld().getUID();
+        final Grid grid = worlds.computeIfAbsent(world, uid -> new Grid());
+        final int cellX = cell(location.getX());
+        final int cellZ = cell(location.getZ());
+        final long key = cellKey(cellX, cellZ);
+        Cell cell = grid.cells.get(key);
+        if (cell == null) grid.cells.put(key, cell = new Cell());
+        cell.add(navigationPoint, location.getX(), location.getZ());
+        grid.include(cellX, cellZ);
+        placements.put(navigationPoint, new Placement(world, key));
+    }
+
+    /**
+     * Removes the given navigation point from this index.
+     * <p>
+     * The navigation point is removed from the cell it was indexed in, regardless of its current location.
+     *
+     * @param navigationPoint navigation point to remove
+     * @return true, if the navigation point was indexed
+     */
+    public boolean remove(@Nullable NavigationPoint navigationPoint) {
+        final Placement placement = navigationPoint == null ? null : placements.remove(navigationPoint);
+        if (placement == null) return false;
+
+        final Grid grid = worlds.get(placement.world());
+        final Cell cell = grid == null ? null : grid.cells.get(placement.cell());
+        if (cell == null) return true;
+        cell.remove(navigationPoint);
+        if (cell.size == 0) grid.cells.remove(placement.cell());
+        if (grid.cells.isEmpty()) worlds.remove(placement.world());
+        return true;
+    }
+
+    /**
+     * Removes all navigation points from this index.
+     */
+    public void clear() {
+        worlds.clear();
+        placements.clear();
+    }
+
+    /**
+     * Gets the amount of indexed navigation points.
+     *
+     * @return amount of indexed navigation points
+     */
+    @Contract(pure = true)
+    public int size() {
+        return placements.size();
+    }
+
+    /**
+     * Gets whether the given navigation point is indexed.
+     *
+     * @param navigationPoint navigation point to check
+     * @return true, if the navigation point is indexed
+     */
+    @Contract(pure = true)
+    public boolean contains(@Nullable NavigationPoint navigationPoint) {
+        return navigationPoint != null && placements.containsKey(navigationPoint);
+    }
+
+    /**
+     * Gets the navigation point nearest to the given coordinates, regardless of its distance.
+     *
+     * @param world world of the coordinates
+     * @param x     x coordinate
+     * @param z     z coordinate
+     * @return nearest navigation point, or null if there is no navigation point in the world
+     * @throws IllegalArgumentException if the world is null
+     * @see #getNearest(World, double, double, double)
+     */
+    @Nullable
+    @Contract(pure = true)
+    public NavigationPoint getNearest(@Nonnull World world, double x, double z) throws IllegalArgumentException {
+        return getNearest(world, x, z, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Gets the navigation point nearest to the given coordinates within the given distance.
+     * <p>
+     * The distance is measured in two dimensions, ignoring the height. Only the cells that can contain a navigation
+     * point within the distance are searched, so a small distance keeps queries cheap in sparse areas.
+     *
+     * @param world       world of the coordinates
+     * @param x           x coordinate
+     * @param z           z coordinate
+     * @param maxDistance maximum distance of the navigation point in blocks
+     * @return nearest navigation point, or null if there is none within the distance
+     * @throws IllegalArgumentException if the world is null or the distance is negative
+     */
+    @Nullable
+    @Contract(pure = true)
+    public NavigationPoint getNearest(@Nonnull World world, double x, double z, @Nonnegative double maxDistance)
+            throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        if (!(maxDistance >= 0)) throw new IllegalArgumentException("Max distance cannot be negative");
+        final Grid grid = worlds.get(world.getUID());
+        if (grid == null) return null;
+
+        final int cellX = cell(x);
+        final int cellZ = cell(z);
+        long rings = Math.max(Math.max((long) cellX - grid.minCellX, (long) grid.maxCellX - cellX),
+                Math.max((long) cellZ - grid.minCellZ, (long) grid.maxCellZ - cellZ));
+        if (maxDistance < Double.POSITIVE_INFINITY) rings = Math.min(rings, (long) (maxDistance / (1 << cellShift)) + 1);
+
+        final Nearest nearest = new Nearest(x, z, maxDistance);
+        for (int ring = 0; ring <= rings; ring++) {
+            // only visit the cells of the ring that lie within the bounds of the navigation points
+            final long minI = Math.max(-ring, (long) grid.minCellX - cellX), maxI = Math.min(ring, (long) grid.maxCellX - cellX);
+            final long minJ = Math.max(-ring, (long) grid.minCellZ - cellZ), maxJ = Math.min(ring, (long) grid.maxCellZ - cellZ);
+            for (long i = minI; i <= maxI; i++) {
+                if (i == -ring || i == ring) {
+                    for (long j = minJ; j <= maxJ; j++) nearest.visit(grid.cells.get(cellKey(cellX + i, cellZ + j)));
+                    continue;
+                }
+                if (minJ == -ring) nearest.visit(grid.cells.get(cellKey(cellX + i, cellZ - ring)));
+                if (maxJ == ring && ring != 0) nearest.visit(grid.cells.get(cellKey(cellX + i, cellZ + ring)));
+            }
+            // navigation points in the next ring are at least this far away
+            final double reach = (double) ring * (1 << cellShift);
+            if (nearest.point != null && nearest.distance <= reach * reach) break;
+        }
+        return nearest.point;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate) >> cellShift;
+    }
+
+    private static long cellKey(long cellX, long cellZ) {
+        return (cellZ << 32) | (cellX & 0xFFFFFFFFL);
+    }
+
+    private record Placement(UUID world, long cell) {
+    }
+
+    private static final class Grid {
+
+        private final Long2ObjectHashMap<Cell> cells = new Long2ObjectHashMap<>();
+        // bounds of all cells that ever held a navigation point, clipping the ring search
+        private int minCellX = Integer.MAX_VALUE, maxCellX = Integer.MIN_VALUE;
+        private int minCellZ = Integer.MAX_VALUE, maxCellZ = Integer.MIN_VALUE;
+
+        private void include(int cellX, int cellZ) {
+            minCellX = Math.min(minCellX, cellX);
+            maxCellX = Math.max(maxCellX, cellX);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+    }
+
+    private static final class Nearest {
+
+        private final double x;
+        private final double z;
+        private NavigationPoint point;
+        private double distance;
+
+        private Nearest(double x, double z, double maxDistance) {
+            this.x = x;
+            this.z = z;
+            this.distance = maxDistance * maxDistance;
+        }
+
+        private void visit(@Nullable Cell cell) {
+            if (cell == null) return;
+            for (int i = 0; i < cell.size; i++) {
+                final double dx = cell.coordinates[i << 1] - x;
+                final double dz = cell.coordinates[(i << 1) + 1] - z;
+                final double candidate = dx * dx + dz * dz;
+                if (candidate <= distance) {
+                    point = cell.points[i];
+                    distance = candidate;
+                }
+            }
+        }
+    }
+
+    private static final class Cell {
+
+        private NavigationPoint[] points = new NavigationPoint[4];
+        private double[] coordinates = new double[8];
+        private int size;
+
+        private void add(@Nonnull NavigationPoint point, double x, double z) {
+            if (size == points.length) {
+                points = Arrays.copyOf(points, size << 1);
+                coordinates = Arrays.copyOf(coordinates, size << 2);
+            }
+            points[size] = point;
+            coordinates[size << 1] = x;
+            coordinates[(size << 1) + 1] = z;
+            size++;
+        }
+
+        private void remove(@Nonnull NavigationPoint point) {
+            for (int i = 0; i < size; i++) {
+                if (points[i] != point) continue;
+                // move the last navigation point into the gap
+                size--;
+                points[i] = points[size];
+                coordinates[i << 1] = coordinates[size << 1];
+                coordinates[(i << 1) + 1] = coordinates[(size << 1) + 1];
+                points[size] = null;
+                return;
+            }
+        }
+    }
+}
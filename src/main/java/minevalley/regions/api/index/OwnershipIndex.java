@@ -0,0 +1,240 @@
+package minevalley.regions.api.index;
+
+import minevalley.core.api.Registrant;
+import minevalley.core.api.corporation.RealEstateGroup;
+import minevalley.regions.api.residence.Apartment;
+import minevalley.regions.api.residence.ApartmentBlock;
+import minevalley.regions.api.residence.Plot;
+import minevalley.regions.api.residence.Residence;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Reverse index from registrants to the residences they have a permission on, and from real estate groups to the
+ * apartment blocks they own.
+ * <p>
+ * The owner of a plot and the renter of an apartment are both indexed with {@link Residence.Permission#OWNER}.
+ * Queries answer in time proportional to the amount of results, without scanning all residences.
+ * <p>
+ * The index has to be kept consistent by the provider: Residences are {@link #add(Residence) added} when they are loaded,
+ * and every permission change (including ownership transfers and rental changes) is passed to
+ * {@link #setPermission(Residence, Registrant, Residence.Permission)}.
+ * <p>
+ * <b>Note:</b> This index is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class OwnershipIndex {
+
+    private final Map<Registrant, EnumMap<Residence.Permission, Set<Residence>>> residencesByRegistrant = new HashMap<>();
+    private final Map<Integer, Map<Registrant, Residence.Permission>> permissionsByResidence = new HashMap<>();
+    private final Map<RealEstateGroup, Set<ApartmentBlock>> apartmentBlocksByOwner = new HashMap<>();
+    private final Map<Integer, RealEstateGroup> ownersByApartmentBlock = new HashMap<>();
+
+    /**
+     * Indexes the given residence with its current owner (or renter), admins and permissioned registrants.
+     * If the residence is already indexed, it is re-indexed.
+     *
+     * @param residence residence to add
+     * @throws IllegalArgumentException if the residence is null
+     */
+    public void add(@Nonnull Residence residence) throws IllegalArgumentException {
+        if (residence == null) throw new IllegalArgumentException("Residence cannot be null");
+        remove(residence);
+        for (Registrant registrant : residence.getPermissioned()) {
+            setPermission(residence, registrant, Residence.Permission.PERMISSIONED);
+        }
+        for (Registrant registrant : residence.getAdmins()) {
+            setPermission(residence, registrant, Residence.Permission.ADMINISTRATOR);
+        }
+        final Registrant owner = switch (residence) {
+            case Plot plot -> plot.getOwner();
+            case Apartment apartment -> apartment.getRenter();
+            default -> null;
+        };
+        if (owner != null) setPermission(residence, owner, Residence.Permission.OWNER);
+    }
+
+    /**
+     * Removes the given residence from this index.
+     *
+     * @param residence residence to remove
+     * @throws IllegalArgumentException if the residence is null
+     */
+    public void remove(@Nonnull Residence residence) throws IllegalArgumentException {
+        if (residence == null) throw new IllegalArgumentException("Residence cannot be null");
+        final Map<Registrant, Residence.Permission> permissions = permissionsByResidence.remove(residence.id());
+        if (permissions == null) return;
+        permissions.forEach((registrant, permission) -> unlink(registrant, permission, residence));
+    }
+
+    /**
+     * Sets the permission of the given registrant on the given residence, replacing any previous permission.
+     *
+     * @param residence  residence to set the permission on
+     * @param registrant registrant to set the permission of
+     * @param permission permission to set, or null to remove the registrant's permission
+     * @throws IllegalArgumentException if the residence or registrant is null
+     */
+    public void setPermission(@Nonnull Residence residence, @Nonnull Registrant registrant,
+                              @Nullable Residence.Permission permission) throws IllegalArgumentException {
+        if (residence == null) throw new IllegalArgumentException("Residence cannot be null");
+        if (registrant == null) throw new IllegalArgumentException("Registrant cannot be null");
+
+        Map<Registrant, Residence.Permission> permissions = permissionsByResidence.get(residence.id());
+        if (permissions == null) {
+            if (permission == null) return;
+            permissionsByResidence.put(residence.id(), permissions = new HashMap<>());
+        }
+        final Residence.Permission previous = permission == null ? permissions.remove(registrant) : permissions.put(registrant, permission);
+        if (previous == permission) return;
+        if (previous != null) unlink(registrant, previous, residence);
+        if (permission != null) {
+            residencesByRegistrant.computeIfAbsent(registrant, r -> new EnumMap<>(Residence.Permission.class))
+                    .computeIfAbsent(permission, p -> new LinkedHashSet<>()).add(residence);
+        }
+        if (permissions.isEmpty()) permissionsByResidence.remove(residence.id());
+    }
+
+    /**
+     * Gets the permission the given registrant has on the given residence, according to this index.
+     * <p>
+     * <b>Note:</b> Permissions inherited by group membership are not considered.
+     *
+     * @param residence  residence to get the permission on
+     * @param registrant registrant to get the permission of
+     * @return permission of the registrant, or null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public Residence.Permission getPermission(@Nonnull Residence residence, @Nonnull Registrant registrant) {
+        final Map<Registrant, Residence.Permission> permissions = permissionsByResidence.get(residence.id());
+        return permissions == null ? null : permissions.get(registrant);
+    }
+
+    /**
+     * Gets the residences on which the given registrant has exactly the given permission.
+     *
+     * @param registrant registrant to get the residences of
+     * @param permission permission to look for
+     * @return unmodifiable collection of the residences
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public Collection<Residence> getResidences(@Nonnull Registrant registrant, @Nonnull Residence.Permission permission) {
+        final EnumMap<Residence.Permission, Set<Residence>> residences = residencesByRegistrant.get(registrant);
+        if (residences == null) return Collections.emptySet();
+        final Set<Residence> result = residences.get(permission);
+        return result == null ? Collections.emptySet() : Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Gets the residences owned (plots) or rented (apartments) by the given registrant.
+     *
+     * @param registrant registrant to get the residences of
+     * @return list of the owned or rented residences
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Residence> getResidences(@Nonnull Registrant registrant) {
+        return new ArrayList<>(getResidences(registrant, Residence.Permission.OWNER));
+    }
+
+    /**
+     * Indexes the given apartment block with its current owner. If the block is already indexed, it is re-indexed.
+     *
+     * @param apartmentBlock apartment block to add
+     * @throws IllegalArgumentException if the apartment block is null
+     */
+    public void add(@Nonnull ApartmentBlock apartmentBlock) throws IllegalArgumentException {
+        if (apartmentBlock == null) throw new IllegalArgumentException("Apartment block cannot be null");
+        setOwner(apartmentBlock, apartmentBlock.getOwner());
+    }
+
+    /**
+     * Sets the owner of the given apartment block, e.g. after an ownership transfer.
+     *
+     * @param apartmentBlock apartment block to set the owner of
+     * @param owner          new owner, or null to remove the apartment block from this index
+     * @throws IllegalArgumentException if the apartment block is null
+     */
+    public void setOwner(@Nonnull ApartmentBlock apartmentBlock, @Nullable RealEstateGroup owner) throws IllegalArgumentException {
+        if (apartmentBlock == null) throw new IllegalArgumentException("Apartment block cannot be null");
+        final RealEstateGroup previous = owner == null
+                ? ownersByApartmentBlock.remove(apartmentBlock.id())
+                : ownersByApartmentBlock.put(apartmentBlock.id(), owner);
+        if (previous != null) {
+            final Set<ApartmentBlock> blocks = apartmentBlocksByOwner.get(previous);
+            if (blocks != null && blocks.remove(apartmentBlock) && blocks.isEmpty()) apartmentBlocksByOwner.remove(previous);
+        }
+        if (owner != null) apartmentBlocksByOwner.computeIfAbsent(owner, o -> new LinkedHashSet<>()).add(apartmentBlock);
+    }
+
+    /**
+     * Gets the apartment blocks owned by the given real estate group.
+     *
+     * @param realEstateGroup real estate group to get the apartment blocks of
+     * @return list of the owned apartment blocks
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup) {
+        final Set<ApartmentBlock> blocks = apartmentBlocksByOwner.get(realEstateGroup);
+        return blocks == null ? new ArrayList<>(0) : new ArrayList<>(blocks);
+    }
+
+    /**
+     * Gets a page of the apartment blocks owned by the given real estate group, in the order they were indexed.
+     *
+     * @param realEstateGroup real estate group to get the apartment blocks of
+     * @param offset          amount of apartment blocks to skip
+     * @param limit           maximum amount of apartment blocks to return
+     * @return list of at most {@code limit} owned apartment blocks
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup, @Nonnegative int offset,
+                                                   @Nonnegative int limit) {
+        return streamApartmentBlocks(realEstateGroup).skip(offset).limit(limit).toList();
+    }
+
+    /**
+     * Gets a stream of the apartment blocks owned by the given real estate group, without copying them.
+     * <p>
+     * <b>Note:</b> The stream must be consumed before the index changes.
+     *
+     * @param realEstateGroup real estate group to get the apartment blocks of
+     * @return stream of the owned apartment blocks
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public Stream<ApartmentBlock> streamApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup) {
+        final Set<ApartmentBlock> blocks = apartmentBlocksByOwner.get(realEstateGroup);
+        return blocks == null ? Stream.empty() : blocks.stream();
+    }
+
+    /**
+     * Removes all residences and apartment blocks from this index.
+     */
+    public void clear() {
+        residencesByRegistrant.clear();
+        permissionsByResidence.clear();
+        apartmentBlocksByOwner.clear();
+        ownersByApartmentBlock.clear();
+    }
+
+    private void unlink(@Nonnull Registrant registrant, @Nonnull Residence.Permission permission, @Nonnull Residence residence) {
+        final EnumMap<Residence.Permission, Set<Residence>> residences = residencesByRegistrant.get(registrant);
+        if (residences == null) return;
+        final Set<Residence> set = residences.get(permission);
+        if (set == null || !set.remove(residence)) return;
+        if (set.isEmpty()) residences.remove(permission);
+        if (residences.isEmpty()) residencesByRegistrant.remove(registrant);
+    }
+}
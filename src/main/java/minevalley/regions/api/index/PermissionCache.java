@@ -0,0 +1,236 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.residence.Residence;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the permission a user effectively has on a residence, so that repeated checks (e.g. for every block interaction)
+ * are answered by a hash lookup instead of evaluating the residence's permission lists and the user's group memberships.
+ * <p>
+ * Every residence has a generation counter that is incremented by {@link #invalidate(int)}. A cached decision is only
+ * valid as long as the generation it was made in is current, so invalidating a residence is O(1), regardless of how
+ * many users have a cached decision on it. The provider has to invalidate a residence whenever its permissions change,
+ * i.e. on {@link Residence#setPermission}, when it is locked or unlocked, reset by a teamler, or when an apartment's renter
+ * changes. Changes of a user's group memberships are covered by {@link #invalidateUser(Object)}.
+ * <p>
+ * Decisions are computed by a {@link Resolver}, which typically looks up the registrant directly via an
+ * {@link OwnershipIndex}, whose per-residence permission maps are keyed by registrant, and only falls back to the groups
+ * the user is a member of.
+ * <p>
+ * The amount of cached decisions is bounded. If it is exceeded, all decisions of the least recently active user are
+ * dropped.
+ * <p>
+ * <b>Note:</b> This cache is not thread-safe and is meant to be accessed from the main thread only.
+ *
+ * @param <K> type of the keys identifying the users, e.g. their unique id
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class PermissionCache<K> {
+
+    private static final int DEFAULT_CAPACITY = 65536;
+
+    private final Resolver<K> resolver;
+    private final int capacity;
+    private final Long2ObjectHashMap<Generation> generations = new Long2ObjectHashMap<>();
+    private final Map<K, Long2ObjectHashMap<Decision>> decisions = new LinkedHashMap<>(16, 0.75f, true);
+    private int decisionCount;
+    private int globalGeneration;
+
+    public PermissionCache(@Nonnull Resolver<K> resolver) throws IllegalArgumentException {
+        this(DEFAULT_CAPACITY, resolver);
+    }
+
+    /**
+     * Creates a cache holding at most the given amount of decisions.
+     *
+     * @param capacity maximum amount of cached decisions
+     * @param resolver resolver computing the decisions
+     * @throws IllegalArgumentException if the capacity is not positive or the resolver is null
+     */
+    public PermissionCache(int capacity, @Nonnull Resolver<K> resolver) throws IllegalArgumentException {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        if (resolver == null) throw new IllegalArgumentException("Resolver cannot be null");
+        this.capacity = capacity;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Gets the permission the given user effectively has on the given residence, including permissions inherited by
+     * group membership.
+     *
+     * @param user      key of the user
+     * @param residence residence to get the permission on
+     * @return permission of the user, or null if the user has no permission
+     * @throws IllegalArgumentException if the user or residence is null
+     */
+    @Nullable
+    public Residence.Permission getPermission(@Nonnull K user, @Nonnull Residence residence) throws IllegalArgumentException {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        if (residence == null) throw new IllegalArgumentException("Residence cannot be null");
+
+        Long2ObjectHashMap<Decision> userDecisions = decisions.get(user);
+        if (userDecisions != null) {
+            final Decision decision = userDecisions.get(residence.id());
+            if (decision != null && decision.isValid(globalGeneration)) return decision.permission;
+        } else {
+            userDecisions = new Long2ObjectHashMap<>();
+            decisions.put(user, userDecisions);
+        }
+
+        Generation generation = generations.get(residence.id());
+        if (generation == null) {
+            generation = new Generation();
+            generations.put(residence.id(), generation);
+        }
+        final Residence.Permission permission = resolver.resolve(user, residence);
+        if (userDecisions.put(residence.id(), new Decision(generation, generation.value, globalGeneration, permission)) == null) {
+            decisionCount++;
+            evict();
+        }
+        return permission;
+    }
+
+    /**
+     * Checks whether the given user has at least the given permission on the given residence.
+     * Permissions are ordered as {@code PERMISSIONED < ADMINISTRATOR < OWNER}.
+     *
+     * @param user       key of the user
+     * @param residence  residence to check the permission on
+     * @param permission minimum permission the user needs
+     * @return true, if the user has the given or a higher permission
+     * @throws IllegalArgumentException if the user, residence or permission is null
+     */
+    public boolean hasPermission(@Nonnull K user, @Nonnull Residence residence, @Nonnull Residence.Permission permission)
+            throws IllegalArgumentException {
+        if (permission == null) throw new IllegalArgumentException("Permission cannot be null");
+        final Residence.Permission actual = getPermission(user, residence);
+        return actual != null && actual.ordinal() >= permission.ordinal();
+    }
+
+    /**
+     * Invalidates all cached decisions on the given residence.
+     *
+     * @param residence residence whose permissions changed
+     * @throws IllegalArgumentException if the residence is null
+     */
+    public void invalidate(@Nonnull Residence residence) throws IllegalArgumentException {
+        if (residence == null) throw new IllegalArgumentException("Residence cannot be null");
+        invalidate(residence.id());
+    }
+
+    /**
+     * Invalidates all cached decisions on the residence with the given id.
+     *
+     * @param residenceId id of the residence whose permissions changed
+     */
+    public void invalidate(int residenceId) {
+        final Generation generation = generations.get(residenceId);
+        if (generation != null) generation.value++;
+    }
+
+    /**
+     * Invalidates all cached decisions of the given user, e.g. when they join or leave a group.
+     * Also used to release the user's decisions when they quit.
+     *
+     * @param user key of the user
+     */
+    public void invalidateUser(@Nonnull K user) {
+        final Long2ObjectHashMap<Decision> userDecisions = decisions.remove(user);
+        if (userDecisions != null) decisionCount -= userDecisions.size();
+    }
+
+    /**
+     * Invalidates all cached decisions, e.g. when a group that has permissions on residences changes its members.
+     */
+    public void invalidateAll() {
+        globalGeneration++;
+    }
+
+    /**
+     * Removes all cached decisions and generation counters.
+     */
+    public void clear() {
+        decisions.clear();
+        decisionCount = 0;
+        generations.clear();
+        globalGeneration++;
+    }
+
+    /**
+     * Gets the amount of users that have cached decisions.
+     *
+     * @return amount of users
+     */
+    @Contract(pure = true)
+    public int size() {
+        return decisions.size();
+    }
+
+    /**
+     * Gets the amount of cached decisions of all users.
+     *
+     * @return amount of decisions
+     */
+    @Contract(pure = true)
+    public int decisionCount() {
+        return decisionCount;
+    }
+
+    /**
+     * Gets the maximum amount of cached decisions.
+     *
+     * @return capacity of this cache
+     */
+    @Contract(pure = true)
+    public int capacity() {
+        return capacity;
+    }
+
+    private void evict() {
+        // the most recently active user is the last one, so their decisions are kept
+        final Iterator<Long2ObjectHashMap<Decision>> eldest = decisions.values().iterator();
+        while (decisionCount > capacity && decisions.size() > 1) {
+            decisionCount -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Computes the permission a user effectively has on a residence.
+     *
+     * @param <K> type of the keys identifying the users
+     */
+    @FunctionalInterface
+    public interface Resolver<K> {
+
+        /**
+         * Computes the permission the given user effectively has on the given residence.
+         *
+         * @param user      key of the user
+         * @param residence residence to compute the permission on
+         * @return permission of the user, or null if the user has no permission
+         */
+        @Nullable
+        Residence.Permission resolve(@Nonnull K user, @Nonnull Residence residence);
+    }
+
+    private static final class Generation {
+        private int value;
+    }
+
+    private record Decision(Generation generation, int value, int globalGeneration, Residence.Permission permission) {
+
+        boolean isValid(int currentGlobalGeneration) {
+            return generation.value == value && globalGeneration == currentGlobalGeneration;
+        }
+    }
+}
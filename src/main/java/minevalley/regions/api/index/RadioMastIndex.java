@@ -0,0 +1,444 @@
+package minevalley.regions.api.index;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.structure.RadioMast;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.bukkit.World;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Per-world grid of radio masts, answering nearest-mast and coverage queries without scanning all masts, and tracking
+ * which users are in range of which masts.
+ * <p>
+ * The grid consists of square cells whose size is a power of two. Every mast is put into two grids: the cell of its
+ * position, which is searched ring by ring for {@link #getNearest(World, int, int) nearest-mast} queries, and every cell
+ * its {@link RadioMast#range() range} overlaps, so a {@link #getCovering(World, int, int, List) coverage} query only has to
+ * test the masts of a single cell.
+ * <p>
+ * The users in range are maintained incrementally: The provider passes every movement of a user to
+ * {@link #updateUser(OnlineUser, World, int, int)}, which only re-evaluates the masts covering the user's new cell, and
+ * removes users that quit via {@link #removeUser(OnlineUser)}. {@link #getUsersInRange(RadioMast)} is then answered from
+ * the index, which is what implementations of {@link RadioMast#getOnlineUsersInRange()} are meant to use.
+ * <p>
+ * <b>Note:</b> This index is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class RadioMastIndex {
+
+    private static final int DEFAULT_CELL_SHIFT = 8;
+    private static final RadioMast[] NO_MASTS = new RadioMast[0];
+
+    private final int cellShift;
+    private final Map<UUID, Grid> worlds = new HashMap<>();
+    private final Map<RadioMast, Placement> placements = new HashMap<>();
+    private final Map<OnlineUser, Coverage> users = new HashMap<>();
+    private final Map<RadioMast, Set<OnlineUser>> usersByMast = new HashMap<>();
+
+    /**
+     * Creates an index with cells of 256 × 256 blocks.
+     */
+    public RadioMastIndex() {
+        this(DEFAULT_CELL_SHIFT);
+    }
+
+    /**
+     * Creates an index with cells of {@code 2^cellShift} × {@code 2^cellShift} blocks.
+     * <p>
+     * The cell size should be in the order of the masts' typical range.
+     *
+     * @param cellShift binary logarithm of the cell size in blocks
+     * @throws IllegalArgumentException if the cell shift is not between 4 and 16
+     */
+    public RadioMastIndex(int cellShift) throws IllegalArgumentException {
+        if (cellShift < 4 || cellShift > 16) throw new IllegalArgumentException("Cell shift must be between 4 and 16");
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * Adds the given radio mast to this index. If the mast is already indexed, it is re-indexed, e.g. after its position
+     * or range changed.
+     * <p>
+     * Tracked users that are in range of the mast are added to its users.
+     *
+     * @param radioMast radio mast to add
+     * @throws IllegalArgumentException if the radio mast is null
+     */
+    public void add(@Nonnull RadioMast radioMast) throws IllegalArgumentException {
+        if (radioMast == null) throw new IllegalArgumentException("Radio mast cannot be null");
+        remove(radioMast);
+
+        final Placement placement = new Placement(radioMast.world().getUID(), radioMast.x(), radioMast.z(), radioMast.range());
+        final Grid grid = worlds.computeIfAbsent(placement.world(), uid -> new Grid());
+        final int cellX = placement.x() >> cellShift;
+        final int cellZ = placement.z() >> cellShift;
+        grid.positions.put(cellKey(cellX, cellZ), with(grid.positions.get(cellKey(cellX, cellZ)), radioMast));
+        grid.include(cellX, cellZ);
+        forEachCoveredCell(placement, key -> grid.coverage.put(key, with(grid.coverage.get(key), radioMast)));
+        placements.put(radioMast, placement);
+
+        for (Map.Entry<OnlineUser, Coverage> entry : users.entrySet()) {
+            final Coverage coverage = entry.getValue();
+            if (!coverage.world().equals(placement.world()) || !radioMast.isInRange(coverage.x(), coverage.z())) continue;
+            entry.setValue(new Coverage(coverage.world(), coverage.x(), coverage.z(), with(coverage.masts(), radioMast)));
+            usersByMast.computeIfAbsent(radioMast, mast -> new LinkedHashSet<>()).add(entry.getKey());
+        }
+    }
+
+    /**
+     * Removes the given radio mast from this index, together with its users.
+     * <p>
+     * The mast is removed from the cells it was indexed with, regardless of its current position and range.
+     *
+     * @param radioMast radio mast to remove
+     * @return true, if the radio mast was indexed
+     */
+    public boolean remove(@Nullable RadioMast radioMast) {
+        final Placement placement = radioMast == null ? null : placements.remove(radioMast);
+        if (placement == null) return false;
+
+        final Grid grid = worlds.get(placement.world());
+        if (grid != null) {
+            final long positionKey = cellKey(placement.x() >> cellShift, placement.z() >> cellShift);
+            put(grid.positions, positionKey, without(grid.positions.get(positionKey), radioMast));
+            forEachCoveredCell(placement, key -> put(grid.coverage, key, without(grid.coverage.get(key), radioMast)));
+            if (grid.positions.isEmpty()) worlds.remove(placement.world());
+        }
+
+        final Set<OnlineUser> inRange = usersByMast.remove(radioMast);
+        if (inRange != null) {
+            for (OnlineUser user : inRange) {
+                users.computeIfPresent(user, (u, coverage) -> new Coverage(coverage.world(), coverage.x(), coverage.z(),
+                        without(coverage.masts(), radioMast)));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all radio masts and users from this index.
+     */
+    public void clear() {
+        worlds.clear();
+        placements.clear();
+        users.clear();
+        usersByMast.clear();
+    }
+
+    /**
+     * Gets the amount of indexed radio masts.
+     *
+     * @return amount of indexed radio masts
+     */
+    @Contract(pure = true)
+    public int size() {
+        return placements.size();
+    }
+
+    /**
+     * Gets all indexed radio masts.
+     *
+     * @return list of all indexed radio masts
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<RadioMast> getRadioMasts() {
+        return new ArrayList<>(placements.keySet());
+    }
+
+    /**
+     * Gets the radio mast nearest to the given coordinates, regardless of its range.
+     * <p>
+     * The distance is measured in two dimensions. The cells around the coordinates are searched ring by ring, until no
+     * further ring can contain a nearer mast.
+     *
+     * @param world world of the coordinates
+     * @param x     x coordinate
+     * @param z     z coordinate
+     * @return nearest radio mast, or null if there is no radio mast in the world
+     * @throws IllegalArgumentException if the world is null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public RadioMast getNearest(@Nonnull World world, int x, int z) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final Grid grid = worlds.get(world.getUID());
+        if (grid == null) return null;
+
+        final int cellX = x >> cellShift;
+        final int cellZ = z >> cellShift;
+        final int rings = Math.max(Math.max(cellX - grid.minCellX, grid.maxCellX - cellX),
+                Math.max(cellZ - grid.minCellZ, grid.maxCellZ - cellZ));
+        final Nearest nearest = new Nearest(x, z);
+        for (int ring = 0; ring <= rings; ring++) {
+            // only visit the cells of the ring that lie within the bounds of the mast positions
+            final int minI = Math.max(-ring, grid.minCellX - cellX), maxI = Math.min(ring, grid.maxCellX - cellX);
+            final int minJ = Math.max(-ring, grid.minCellZ - cellZ), maxJ = Math.min(ring, grid.maxCellZ - cellZ);
+            for (int i = minI; i <= maxI; i++) {
+                if (i == -ring || i == ring) {
+                    for (int j = minJ; j <= maxJ; j++) nearest.visit(grid.positions.get(cellKey(cellX + i, cellZ + j)));
+                    continue;
+                }
+                if (minJ == -ring) nearest.visit(grid.positions.get(cellKey(cellX + i, cellZ - ring)));
+                if (maxJ == ring && ring != 0) nearest.visit(grid.positions.get(cellKey(cellX + i, cellZ + ring)));
+            }
+            // masts in the next ring are at least this far away
+            final long reach = (long) ring << cellShift;
+            if (nearest.mast != null && nearest.distance <= reach * reach) break;
+        }
+        return nearest.mast;
+    }
+
+    /**
+     * Writes the radio masts in whose range the given coordinates lie into the given buffer, in no particular order.
+     * <p>
+     * The buffer is cleared before. As long as the buffer is large enough, this method does not allocate.
+     *
+     * @param world  world of the coordinates
+     * @param x      x coordinate
+     * @param z      z coordinate
+     * @param buffer reusable list to write the radio masts into
+     * @return amount of radio masts in whose range the coordinates lie
+     * @throws IllegalArgumentException if world or buffer is null
+     */
+    public int getCovering(@Nonnull World world, int x, int z, @Nonnull List<? super RadioMast> buffer)
+            throws IllegalArgumentException {
+        if (buffer == null) throw new IllegalArgumentException("Buffer cannot be null");
+        buffer.clear();
+        for (RadioMast mast : getCoverageCell(world, x, z)) {
+            if (mast.isInRange(x, z)) buffer.add(mast);
+        }
+        return buffer.size();
+    }
+
+    /**
+     * Passes every radio mast in whose range the given coordinates lie to the given consumer, in no particular order.
+     *
+     * @param world    world of the coordinates
+     * @param x        x coordinate
+     * @param z        z coordinate
+     * @param consumer consumer to pass the radio masts to
+     * @throws IllegalArgumentException if world or consumer is null
+     */
+    public void forEachCovering(@Nonnull World world, int x, int z, @Nonnull Consumer<? super RadioMast> consumer)
+            throws IllegalArgumentException {
+        if (consumer == null) throw new IllegalArgumentException("Consumer cannot be null");
+        for (RadioMast mast : getCoverageCell(world, x, z)) {
+            if (mast.isInRange(x, z)) consumer.accept(mast);
+        }
+    }
+
+    /**
+     * Updates the position of the given user and the radio masts it is in range of.
+     * <p>
+     * If the user did not leave its block column, nothing has to be re-evaluated.
+     *
+     * @param user  user that moved
+     * @param world world the user is in
+     * @param x     x coordinate of the user's block
+     * @param z     z coordinate of the user's block
+     * @return true, if the radio masts in range of the user changed
+     * @throws IllegalArgumentException if user or world is null
+     */
+    public boolean updateUser(@Nonnull OnlineUser user, @Nonnull World world, int x, int z) throws IllegalArgumentException {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final Coverage previous = users.get(user);
+        final UUID worldId = world.getUID();
+        if (previous != null && previous.x() == x && previous.z() == z && previous.world().equals(worldId)) return false;
+
+        RadioMast[] masts = NO_MASTS;
+        for (RadioMast mast : getCoverageCell(world, x, z)) {
+            if (mast.isInRange(x, z)) masts = with(masts, mast);
+        }
+        final RadioMast[] before = previous == null ? NO_MASTS : previous.masts();
+        users.put(user, new Coverage(worldId, x, z, masts));
+        if (sameMasts(before, masts)) return false;
+
+        for (RadioMast mast : before) {
+            if (contains(masts, mast)) continue;
+            final Set<OnlineUser> inRange = usersByMast.get(mast);
+            if (inRange != null && inRange.remove(user) && inRange.isEmpty()) usersByMast.remove(mast);
+        }
+        for (RadioMast mast : masts) {
+            if (!contains(before, mast)) usersByMast.computeIfAbsent(mast, m -> new LinkedHashSet<>()).add(user);
+        }
+        return true;
+    }
+
+    /**
+     * Stops tracking the given user, e.g. when it quits.
+     *
+     * @param user user to remove
+     * @return true, if the user was tracked
+     */
+    public boolean removeUser(@Nullable OnlineUser user) {
+        final Coverage coverage = user == null ? null : users.remove(user);
+        if (coverage == null) return false;
+        for (RadioMast mast : coverage.masts()) {
+            final Set<OnlineUser> inRange = usersByMast.get(mast);
+            if (inRange != null && inRange.remove(user) && inRange.isEmpty()) usersByMast.remove(mast);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the radio masts the given user was in range of at its last {@link #updateUser update}.
+     *
+     * @param user user to get the radio masts of
+     * @return unmodifiable list of the radio masts in range, in no particular order
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<RadioMast> getMastsInRange(@Nullable OnlineUser user) {
+        final Coverage coverage = user == null ? null : users.get(user);
+        return coverage == null ? List.of() : List.of(coverage.masts());
+    }
+
+    /**
+     * Gets the tracked users that are in range of the given radio mast.
+     *
+     * @param radioMast radio mast to get the users of
+     * @return unmodifiable view of the users in range
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public Set<OnlineUser> getUsersInRange(@Nullable RadioMast radioMast) {
+        final Set<OnlineUser> inRange = radioMast == null ? null : usersByMast.get(radioMast);
+        return inRange == null ? Set.of() : Collections.unmodifiableSet(inRange);
+    }
+
+    @Nonnull
+    private RadioMast[] getCoverageCell(@Nonnull World world, int x, int z) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final Grid grid = worlds.get(world.getUID());
+        if (grid == null) return NO_MASTS;
+        final RadioMast[] masts = grid.coverage.get(cellKey(x >> cellShift, z >> cellShift));
+        return masts == null ? NO_MASTS : masts;
+    }
+
+    private void forEachCoveredCell(@Nonnull Placement placement, @Nonnull LongConsumer consumer) {
+        // one block of slack, since RadioMast#distance is rounded
+        final long reach = placement.range() + 1L;
+        final int minCellX = (int) ((placement.x() - reach) >> cellShift);
+        final int maxCellX = (int) ((placement.x() + reach) >> cellShift);
+        final int minCellZ = (int) ((placement.z() - reach) >> cellShift);
+        final int maxCellZ = (int) ((placement.z() + reach) >> cellShift);
+        final int cellSize = 1 << cellShift;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                final long dx = Math.max(0, Math.max(((long) cellX << cellShift) - placement.x(),
+                        placement.x() - (((long) cellX << cellShift) + cellSize - 1)));
+                final long dz = Math.max(0, Math.max(((long) cellZ << cellShift) - placement.z(),
+                        placement.z() - (((long) cellZ << cellShift) + cellSize - 1)));
+                if (dx * dx + dz * dz <= reach * reach) consumer.accept(cellKey(cellX, cellZ));
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellZ << 32) | (cellX & 0xFFFFFFFFL);
+    }
+
+    private static void put(@Nonnull Long2ObjectHashMap<RadioMast[]> cells, long key, @Nonnull RadioMast[] masts) {
+        if (masts.length == 0) cells.remove(key);
+        else cells.put(key, masts);
+    }
+
+    @Nonnull
+    private static RadioMast[] with(@Nullable RadioMast[] masts, @Nonnull RadioMast mast) {
+        if (masts == null) return new RadioMast[]{mast};
+        final RadioMast[] extended = Arrays.copyOf(masts, masts.length + 1);
+        extended[masts.length] = mast;
+        return extended;
+    }
+
+    @Nonnull
+    private static RadioMast[] without(@Nullable RadioMast[] masts, @Nonnull RadioMast mast) {
+        if (masts == null) return NO_MASTS;
+        for (int i = 0; i < masts.length; i++) {
+            if (masts[i] != mast) continue;
+            final RadioMast[] remaining = new RadioMast[masts.length - 1];
+            System.arraycopy(masts, 0, remaining, 0, i);
+            System.arraycopy(masts, i + 1, remaining, i, remaining.length - i);
+            return remaining;
+        }
+        return masts;
+    }
+
+    private static boolean contains(@Nonnull RadioMast[] masts, @Nonnull RadioMast mast) {
+        for (RadioMast candidate : masts) {
+            if (candidate == mast) return true;
+        }
+        return false;
+    }
+
+    private static boolean sameMasts(@Nonnull RadioMast[] a, @Nonnull RadioMast[] b) {
+        if (a.length != b.length) return false;
+        for (RadioMast mast : a) {
+            if (!contains(b, mast)) return false;
+        }
+        return true;
+    }
+
+    private record Placement(UUID world, int x, int z, int range) {
+    }
+
+    private final class Nearest {
+
+        private final int x;
+        private final int z;
+        private RadioMast mast;
+        private long distance = Long.MAX_VALUE;
+
+        private Nearest(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        private void visit(@Nullable RadioMast[] masts) {
+            if (masts == null) return;
+            for (RadioMast candidate : masts) {
+                final Placement placement = placements.get(candidate);
+                final long dx = placement.x() - x;
+                final long dz = placement.z() - z;
+                final long candidateDistance = dx * dx + dz * dz;
+                if (candidateDistance < distance) {
+                    mast = candidate;
+                    distance = candidateDistance;
+                }
+            }
+        }
+    }
+
+    private record Coverage(UUID world, int x, int z, RadioMast[] masts) {
+    }
+
+    private static final class Grid {
+
+        private final Long2ObjectHashMap<RadioMast[]> positions = new Long2ObjectHashMap<>();
+        private final Long2ObjectHashMap<RadioMast[]> coverage = new Long2ObjectHashMap<>();
+        private int minCellX = Integer.MAX_VALUE;
+        private int minCellZ = Integer.MAX_VALUE;
+        private int maxCellX = Integer.MIN_VALUE;
+        private int maxCellZ = Integer.MIN_VALUE;
+
+        /**
+         * Extends the bounds of the mast positions. Bounds are never shrunk, which only makes nearest-mast queries search
+         * a few empty rings more.
+         */
+        private void include(int cellX, int cellZ) {
+            minCellX = Math.min(minCellX, cellX);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellX = Math.max(maxCellX, cellX);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.ChunkKeySet;
+import minevalley.regions.api.core.CompiledRegion;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.util.Int2ObjectHashMap;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Spatial index that buckets regions by the keys of the chunks they lie in (see {@link Region#chunkKeys()}).
+ * <p>
+ * The buckets are kept per world. A region whose included areas lie in several worlds is indexed in each of them, with the
+ * chunks and the compiled geometry of its areas in that world.
+ * <p>
+ * Each bucket holds the regions overlapping one chunk, ordered by their size (smallest first). A lookup therefore only
+ * tests the few regions overlapping the chunk of the requested block instead of every existing region. The regions are
+ * tested against their {@link CompiledRegion compiled} geometry, which is built when a region is added.
+ * <p>
+ * The index has to be kept consistent by the provider: Every region that is created must be {@link #add(Region) added}
+ * and every region whose areas are changed via {@link Region#update(List, List)} must be {@link #update(Region) updated}.
+ * <p>
+ * <b>Note:</b> This index is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class RegionIndex {
+
+    private static final Comparator<Entry> BY_SIZE = Comparator.comparingLong(Entry::volume)
+            .thenComparingInt(entry -> entry.region().id());
+
+    private final Map<UUID, Long2ObjectHashMap<Bucket>> worlds = new HashMap<>();
+    private final Int2ObjectHashMap<Placement> placements = new Int2ObjectHashMap<>();
+
+    /**
+     * Adds the given region to this index. If the region is already indexed, it is re-indexed.
+     *
+     * @param region region to add
+     * @throws IllegalArgumentException if the region is null
+     */
+    public void add(@Nonnull Region region) throws IllegalArgumentException {
+        if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        remove(region.id());
+
+        final Map<UUID, List<Area>> areasByWorld = new LinkedHashMap<>(2);
+        for (Area area : region.included()) {
+            areasByWorld.computeIfAbsent(area.world().getUID(), uid -> new ArrayList<>()).add(area);
+        }
+        final long volume = volume(region);
+        final Part[] parts = new Part[areasByWorld.size()];
+        int i = 0;
+        for (List<Area> areas : areasByWorld.values()) {
+            final World world = areas.get(0).world();
+            // regions usually lie in a single world, whose chunk keys are cached by the region itself
+            final ChunkKeySet chunkKeys = parts.length == 1 ? region.chunkKeys() : chunkKeys(areas);
+            final CompiledRegion compiled = CompiledRegion.compile(region, world);
+            final Entry entry = new Entry(region, compiled, volume);
+
+            final Long2ObjectHashMap<Bucket> buckets = worlds.computeIfAbsent(world.getUID(), uid -> new Long2ObjectHashMap<>());
+            for (int j = 0; j < chunkKeys.size(); j++) {
+                final long chunkKey = chunkKeys.get(j);
+                final Bucket bucket = buckets.get(chunkKey);
+                buckets.put(chunkKey, bucket == null ? Bucket.of(entry) : bucket.with(entry));
+            }
+            parts[i++] = new Part(world.getUID(), chunkKeys, compiled);
+        }
+        placements.put(region.id(), new Placement(region, parts));
+    }
+
+    /**
+     * Re-indexes the given region after its areas have changed.
+     *
+     * @param region region to re-index
+     * @throws IllegalArgumentException if the region is null
+     */
+    public void update(@Nonnull Region region) throws IllegalArgumentException {
+        add(region);
+    }
+
+    /**
+     * Removes the given region from this index.
+     *
+     * @param region region to remove
+     * @return true, if the region was indexed
+     * @throws IllegalArgumentException if the region is null
+     */
+    public boolean remove(@Nonnull Region region) throws IllegalArgumentException {
+        if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        return remove(region.id());
+    }
+
+    /**
+     * Removes the region with the given id from this index.
+     * <p>
+     * The region is removed from the chunks it was indexed with, regardless of its current areas.
+     *
+     * @param regionId id of the region to remove
+     * @return true, if the region was indexed
+     */
+    public boolean remove(int regionId) {
+        final Placement placement = placements.remove(regionId);
+        if (placement == null) return false;
+
+        for (Part part : placement.parts()) {
+            final Long2ObjectHashMap<Bucket> buckets = worlds.get(part.world());
+            if (buckets == null) continue;
+            final ChunkKeySet chunkKeys = part.chunkKeys();
+            for (int i = 0; i < chunkKeys.size(); i++) {
+                final long chunkKey = chunkKeys.get(i);
+                final Bucket bucket = buckets.get(chunkKey);
+                if (bucket == null) continue;
+                final Bucket remaining = bucket.without(regionId);
+                if (remaining == null) buckets.remove(chunkKey);
+                else buckets.put(chunkKey, remaining);
+            }
+            if (buckets.isEmpty()) worlds.remove(part.world());
+        }
+        return true;
+    }
+
+    /**
+     * Removes all regions from this index.
+     */
+    public void clear() {
+        worlds.clear();
+        placements.clear();
+    }
+
+    /**
+     * Gets the amount of indexed regions.
+     *
+     * @return amount of indexed regions
+     */
+    @Contract(pure = true)
+    public int size() {
+        return placements.size();
+    }
+
+    /**
+     * Gets the approximate amount of heap memory used by the compiled geometry of the region with the given id.
+     *
+     * @param regionId id of the region
+     * @return footprint in bytes, or 0 if the region is not indexed
+     * @see CompiledRegion#footprint()
+     */
+    @Contract(pure = true)
+    public long getFootprint(int regionId) {
+        final Placement placement = placements.get(regionId);
+        return placement == null ? 0 : placement.footprint();
+    }
+
+    /**
+     * Gets the approximate amount of heap memory used by the compiled geometry of all indexed regions.
+     *
+     * @return footprint in bytes
+     */
+    @Contract(pure = true)
+    public long getFootprint() {
+        final long[] footprint = new long[1];
+        placements.forEachValue(placement -> footprint[0] += placement.footprint());
+        return footprint[0];
+    }
+
+    /**
+     * Checks whether any region overlaps the given chunk.
+     * <p>
+     * If not, no block of the chunk lies in a region and any further region lookup can be skipped.
+     *
+     * @param world  world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return true, if at least one region overlaps the chunk
+     * @throws IllegalArgumentException if the world is null
+     */
+    @Contract(pure = true)
+    public boolean hasRegions(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        return getBucket(world, chunkX, chunkZ) != null;
+    }
+
+    /**
+     * Gets the regions that overlap the given chunk, ordered by their size (smallest first).
+     * <p>
+     * <b>Note:</b> The regions in this list do not necessarily contain every block of the chunk.
+     * The returned list is unmodifiable and is not updated when the index changes.
+     *
+     * @param world  world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return unmodifiable list of the regions overlapping the chunk
+     * @throws IllegalArgumentException if the world is null
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Region> getCandidates(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        final Bucket bucket = getBucket(world, chunkX, chunkZ);
+        return bucket == null ? Collections.emptyList() : bucket.view();
+    }
+
+    /**
+     * Gets the regions in which the given block lies in, ordered by their size (smallest first).
+     *
+     * @param block block to get the regions from
+     * @return list of all regions in which this block lies in
+     * @throws IllegalArgumentException if the block is null
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Region> getRegions(@Nonnull Block block) throws IllegalArgumentException {
+        if (block == null) throw new IllegalArgumentException("Block cannot be null");
+        final List<Region> regions = new ArrayList<>(4);
+        getRegions(block.getWorld(), block.getX(), block.getY(), block.getZ(), regions);
+        return regions;
+    }
+
+    /**
+     * Writes the regions in which the given block coordinates lie in into the given buffer, ordered by their size
+     * (smallest first).
+     * <p>
+     * The buffer is cleared before. As long as the buffer is large enough, this method does not allocate.
+     *
+     * @param world  world of the block
+     * @param x      x coordinate of the block
+     * @param y      y coordinate of the block
+     * @param z      z coordinate of the block
+     * @param buffer reusable list to write the regions into
+     * @return amount of regions in which the coordinates lie in
+     * @throws IllegalArgumentException if world or buffer is null
+     */
+    public int getRegions(@Nonnull World world, int x, int y, int z, @Nonnull List<? super Region> buffer)
+            throws IllegalArgumentException {
+        if (buffer == null) throw new IllegalArgumentException("Buffer cannot be null");
+        buffer.clear();
+        final Bucket bucket = getBucket(world, x >> 4, z >> 4);
+        if (bucket == null) return 0;
+        for (Entry entry : bucket.entries()) {
+            if (entry.compiled().contains(x, y, z)) buffer.add(entry.region());
+        }
+        return buffer.size();
+    }
+
+    /**
+     * Passes every region in which the given block coordinates lie in to the given consumer, ordered by their size
+     * (smallest first).
+     *
+     * @param world    world of the block
+     * @param x        x coordinate of the block
+     * @param y        y coordinate of the block
+     * @param z        z coordinate of the block
+     * @param consumer consumer to pass the regions to
+     * @throws IllegalArgumentException if world or consumer is null
+     */
+    public void forEachRegion(@Nonnull World world, int x, int y, int z, @Nonnull Consumer<? super Region> consumer)
+            throws IllegalArgumentException {
+        if (consumer == null) throw new IllegalArgumentException("Consumer cannot be null");
+        final Bucket bucket = getBucket(world, x >> 4, z >> 4);
+        if (bucket == null) return;
+        for (Entry entry : bucket.entries()) {
+            if (entry.compiled().contains(x, y, z)) consumer.accept(entry.region());
+        }
+    }
+
+    @Nullable
+    private Bucket getBucket(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final Long2ObjectHashMap<Bucket> buckets = worlds.get(world.getUID());
+        return buckets == null ? null : buckets.get(Chunk.getChunkKey(chunkX, chunkZ));
+    }
+
+
+    private static long volume(@Nonnull Region region) {
+        long volume = 0;
+        for (Area area : region.included()) volume += area.volume();
+        return volume;
+    }
+
+    @Nonnull
+    private static ChunkKeySet chunkKeys(@Nonnull List<Area> areas) {
+        final ChunkKeySet[] sets = new ChunkKeySet[areas.size()];
+        for (int i = 0; i < sets.length; i++) sets[i] = areas.get(i).chunkKeys();
+        return ChunkKeySet.union(sets);
+    }
+
+    private record Placement(Region region, Part[] parts) {
+
+        long footprint() {
+            long footprint = 0;
+            for (Part part : parts) footprint += part.compiled().footprint();
+            return footprint;
+        }
+    }
+
+    private record Part(UUID world, ChunkKeySet chunkKeys, CompiledRegion compiled) {
+    }
+
+    private record Entry(Region region, CompiledRegion compiled, long volume) {
+    }
+
+    private record Bucket(Entry[] entries, List<Region> view) {
+
+        static Bucket of(Entry... entries) {
+            final Region[] regions = new Region[entries.length];
+            for (int i = 0; i < entries.length; i++) regions[i] = entries[i].region();
+            return new Bucket(entries, Collections.unmodifiableList(Arrays.asList(regions)));
+        }
+
+        Bucket with(Entry entry) {
+            final Entry[] entries = Arrays.copyOf(this.entries, this.entries.length + 1);
+            entries[entries.length - 1] = entry;
+            Arrays.sort(entries, BY_SIZE);
+            return of(entries);
+        }
+
+        Bucket without(int regionId) {
+            int index = -1;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].region().id() == regionId) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == -1) return this;
+            if (entries.length == 1) return null;
+
+            final Entry[] remaining = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, remaining, 0, index);
+            System.arraycopy(entries, index + 1, remaining, index, remaining.length - index);
+            return of(remaining);
+        }
+    }
+}
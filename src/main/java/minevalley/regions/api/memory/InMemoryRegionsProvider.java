@@ -0,0 +1,800 @@
+package minevalley.regions.api.memory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import minevalley.core.api.Registrant;
+import minevalley.core.api.corporation.RealEstateGroup;
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.User;
+import minevalley.regions.api.Regions;
+import minevalley.regions.api.RegionsProvider;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.index.DistrictIndex;
+import minevalley.regions.api.index.DominantResidenceTable;
+import minevalley.regions.api.index.FastPathStatistics;
+import minevalley.regions.api.index.OwnershipIndex;
+import minevalley.regions.api.index.PermissionCache;
+import minevalley.regions.api.index.RadioMastIndex;
+import minevalley.regions.api.index.RegionIndex;
+import minevalley.regions.api.movement.RadioCoverageChange;
+import minevalley.regions.api.movement.RadioCoverageTracker;
+import minevalley.regions.api.residence.*;
+import minevalley.regions.api.snapshot.BinarySnapshot;
+import minevalley.regions.api.snapshot.RegionsSnapshot;
+import minevalley.regions.api.snapshot.SnapshotPublisher;
+import minevalley.regions.api.structure.District;
+import minevalley.regions.api.structure.RadioMast;
+import minevalley.regions.api.structure.Street;
+import minevalley.regions.api.util.Int2ObjectHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Reference implementation of {@link RegionsProvider} that keeps everything in memory.
+ * <p>
+ * Regions are created by this provider (see {@link #createRegion(List, List)}) and looked up through a {@link RegionIndex}.
+ * Residences, apartment blocks, streets, districts and radio masts are implemented by the caller and registered here,
+ * after the regions they consist of have been created. Registrants and real estate groups are looked up through an
+ * {@link OwnershipIndex}, so whenever permissions, renters or owners change, the residence or apartment block has to be
+ * registered again. The dominant residence at a position is answered by a {@link DominantResidenceTable}, and the
+ * permissions of users by a {@link PermissionCache}.
+ * <p>
+ * The regions can be {@link #save(Writer) saved} as JSON and {@link #load(Reader, Function) loaded} again, e.g. to use a
+ * snapshot of the live regions in tests or benchmarks. The whole model can also be captured as a {@link BinarySnapshot}
+ * (see {@link #captureBinary(Collection)}), whose regions can be {@link #load(BinarySnapshot, Function) loaded} again.
+ * <p>
+ * The provider holds no block contents and tracks no users, so editing the world only moves areas geometrically, presets
+ * cannot be {@link #loadPreset(Area, Block, Block) loaded}, and no user is ever inside a region. Consequently, there are no region transitions to {@link #setTransitionBatching(boolean) batch}.
+ * The radio coverage of users is tracked by a {@link RadioCoverageTracker}, though, as long as their movements are passed
+ * to {@link #moveUser(OnlineUser, World, int, int)}.
+ * <p>
+ * <b>Note:</b> This provider is not thread-safe and is meant to be accessed from the main thread only. Use {@link #snapshot()}
+ * to query regions from other threads, and call {@link #publishSnapshot()} on the main thread (e.g. once per tick) to
+ * replace it after changes.
+ */
+@SuppressWarnings("unused")
+public class InMemoryRegionsProvider implements RegionsProvider {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // created first, without taking a snapshot, so that nothing can capture one before the publisher exists
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(this::captureSnapshot,
+            RegionsSnapshot.capture(0, List.of(), List.of(), List.of()));
+    private final RegionIndex index = new RegionIndex();
+    private final OwnershipIndex ownership = new OwnershipIndex();
+    private final PermissionCache<User> permissions = new PermissionCache<>(this::resolvePermission);
+    private final Int2ObjectHashMap<SimpleRegion> regions = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<Residence> residences = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<Residence> residencesByRegion = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<PlotTile> plotTilesByRegion = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<ApartmentBlock> apartmentBlocks = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<Street> streets = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<District> districts = new Int2ObjectHashMap<>();
+    private final DistrictIndex districtIndex = new DistrictIndex();
+    private final RadioMastIndex radioMasts = new RadioMastIndex();
+    private final RadioCoverageTracker radioCoverage = new RadioCoverageTracker(radioMasts);
+    private final DominantResidenceTable dominantResidences = new DominantResidenceTable(this::resolveDominantResidences);
+    private final FastPathStatistics fastPaths = new FastPathStatistics();
+    private final Set<Integer> changedRegions = new HashSet<>();
+    private int nextRegionId = 1;
+
+    /**
+     * Makes this provider the one used by {@link Regions}.
+     * <p>
+     * <b>Note:</b> This is meant for tests and benchmarks. On a server, the provider is installed by the server itself.
+     *
+     * @throws IllegalStateException if the provider could not be installed
+     */
+    @ApiStatus.Internal
+    @VisibleForTesting
+    public void install() throws IllegalStateException {
+        try {
+            final Field field = Regions.class.getDeclaredField("provider");
+            field.setAccessible(true);
+            field.set(null, this);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not install the provider", e);
+        }
+    }
+
+    // Regions
+
+    @Nullable
+    @Override
+    public Region getRegion(int id) {
+        return regions.get(id);
+    }
+
+    @Nonnull
+    @Override
+    public List<Region> getRegions(@Nonnull Block block) throws IllegalArgumentException {
+        return index.getRegions(block);
+    }
+
+    @Override
+    public int getRegions(@Nonnull World world, int x, int y, int z, @Nonnull List<? super Region> buffer)
+            throws IllegalArgumentException {
+        return index.getRegions(world, x, y, z, buffer);
+    }
+
+    @Override
+    public void forEachRegion(@Nonnull World world, int x, int y, int z, @Nonnull Consumer<? super Region> consumer)
+            throws IllegalArgumentException {
+        index.forEachRegion(world, x, y, z, consumer);
+    }
+
+    @Override
+    public boolean hasRegions(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        if (index.hasRegions(world, chunkX, chunkZ)) return true;
+        fastPaths.recordRegionFreeChunk();
+        return false;
+    }
+
+    @Nonnull
+    @Override
+    public Region createRegion(@Nonnull List<Area> included, @Nonnull List<Area> excluded) throws IllegalArgumentException {
+        return createRegion(nextRegionId, included, excluded);
+    }
+
+    /**
+     * Creates a region with the given id, e.g. to recreate the regions of a live server.
+     *
+     * @param id       id of the region
+     * @param included areas that make up the region
+     * @param excluded areas explicitly excluded from the region
+     * @return created region
+     * @throws IllegalArgumentException if included or excluded is null, included is empty, or the id is already taken
+     */
+    @Nonnull
+    @Contract("_, _, _ -> new")
+    public Region createRegion(int id, @Nonnull List<Area> included, @Nonnull List<Area> excluded)
+            throws IllegalArgumentException {
+        if (regions.containsKey(id)) throw new IllegalArgumentException("Region id " + id + " is already taken");
+        final SimpleRegion region = new SimpleRegion(id, this, included, excluded);
+        regions.put(id, region);
+        index.add(region);
+        nextRegionId = Math.max(nextRegionId, id + 1);
+        changedRegions.add(id);
+        snapshots.markDirty();
+        return region;
+    }
+
+    /**
+     * Removes the given region. The residence it belongs to (if any) has to be unregistered before.
+     *
+     * @param region region to remove
+     * @return true, if the region existed
+     * @throws IllegalArgumentException if the region is null
+     * @throws IllegalStateException    if the region still belongs to a residence
+     */
+    public boolean removeRegion(@Nonnull Region region) throws IllegalArgumentException, IllegalStateException {
+        if (region == null) throw new IllegalArgumentException("Region cannot be null");
+        if (residencesByRegion.containsKey(region.id())) {
+            throw new IllegalStateException("Region " + region.id() + " still belongs to a residence");
+        }
+        if (regions.remove(region.id()) == null) return false;
+        index.remove(region.id());
+        changedRegions.remove(region.id());
+        snapshots.markDirty();
+        return true;
+    }
+
+    void reindex(@Nonnull SimpleRegion region) {
+        if (regions.get(region.id()) != region) return;
+        index.update(region);
+        changedRegions.add(region.id());
+        final Residence residence = residencesByRegion.get(region.id());
+        if (residence != null) {
+            // the sections of the old areas are found through the residence, those of the new areas through the region
+            dominantResidences.invalidateResidence(residence.id());
+            dominantResidences.invalidate(region);
+        }
+        snapshots.markDirty();
+    }
+
+    // Residences
+
+    /**
+     * Registers the given plot, together with its tiles and merge regions.
+     *
+     * @param plot plot to register
+     * @throws IllegalArgumentException if the plot is null, or one of its regions was not created by this provider
+     */
+    public void registerPlot(@Nonnull Plot plot) throws IllegalArgumentException {
+        if (plot == null) throw new IllegalArgumentException("Plot cannot be null");
+        unregisterResidence(plot);
+        for (PlotTile tile : plot.getTiles()) {
+            link(plot, tile.region());
+            plotTilesByRegion.put(tile.region().id(), tile);
+        }
+        for (Region region : plot.getMergeRegions()) link(plot, region);
+        residences.put(plot.id(), plot);
+        ownership.add(plot);
+        permissions.invalidate(plot.id());
+        snapshots.markDirty();
+    }
+
+    /**
+     * Registers the given apartment.
+     *
+     * @param apartment apartment to register
+     * @throws IllegalArgumentException if the apartment is null, or its region was not created by this provider
+     */
+    public void registerApartment(@Nonnull Apartment apartment) throws IllegalArgumentException {
+        if (apartment == null) throw new IllegalArgumentException("Apartment cannot be null");
+        unregisterResidence(apartment);
+        link(apartment, apartment.region());
+        residences.put(apartment.id(), apartment);
+        ownership.add(apartment);
+        permissions.invalidate(apartment.id());
+        snapshots.markDirty();
+    }
+
+    /**
+     * Registers the given apartment block, together with all of its apartments.
+     *
+     * @param apartmentBlock apartment block to register
+     * @throws IllegalArgumentException if the apartment block is null, or one of its apartments' regions was not created
+     *                                  by this provider
+     */
+    public void registerApartmentBlock(@Nonnull ApartmentBlock apartmentBlock) throws IllegalArgumentException {
+        if (apartmentBlock == null) throw new IllegalArgumentException("Apartment block cannot be null");
+        for (Apartment apartment : apartmentBlock.apartments()) registerApartment(apartment);
+        apartmentBlocks.put(apartmentBlock.id(), apartmentBlock);
+        ownership.add(apartmentBlock);
+    }
+
+    /**
+     * Unregisters the given residence. Its regions are kept.
+     *
+     * @param residence residence to unregister
+     * @return true, if the residence was registered
+     * @throws IllegalArgumentException if the residence is null
+     */
+    public boolean unregisterResidence(@Nonnull Residence residence) throws IllegalArgumentException {
+        if (residence == null) throw new IllegalArgumentException("Residence cannot be null");
+        final Residence registered = residences.remove(residence.id());
+        if (registered == null) return false;
+        residencesByRegion.removeIf(r -> r == registered);
+        dominantResidences.invalidateResidence(registered.id());
+        permissions.invalidate(registered.id());
+        if (registered instanceof Plot plot) {
+            for (PlotTile tile : plot.getTiles()) plotTilesByRegion.remove(tile.region().id());
+        }
+        ownership.remove(registered);
+        snapshots.markDirty();
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public Residence getResidence(int id) {
+        return residences.get(id);
+    }
+
+    @Nullable
+    @Override
+    public Residence getResidence(@Nullable Region region) {
+        return region == null ? null : residencesByRegion.get(region.id());
+    }
+
+    /**
+     * Gets the most dominant residence at the given block coordinates, see {@link Regions#getDominantResidence(World, int, int, int)}.
+     * <p>
+     * The lookup is backed by a per-chunk-section {@link DominantResidenceTable} that is kept up to date by this
+     * provider, so apart from building a section on its first lookup, it does not scan the regions at the given
+     * coordinates.
+     */
+    @Nullable
+    @Override
+    public Residence getDominantResidence(@Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        if (!index.hasRegions(world, x >> 4, z >> 4)) {
+            fastPaths.recordRegionFreeChunk();
+            return null;
+        }
+        int id = dominantResidences.getUniform(world, x, y, z);
+        if (id != DominantResidenceTable.MIXED) {
+            fastPaths.recordSingleOwnerSection();
+        } else {
+            fastPaths.recordFullLookup();
+            id = dominantResidences.get(world, x, y, z);
+        }
+        return id == DominantResidenceTable.NO_RESIDENCE ? null : residences.get(id);
+    }
+
+    /**
+     * Gets the permission the given user effectively has on the given residence, including permissions inherited by group
+     * membership. Repeated checks are answered from the {@link #getPermissionCache() permission cache}.
+     *
+     * @param user      user to get the permission of
+     * @param residence residence to get the permission on
+     * @return permission of the user, or null if the user has no permission
+     * @throws IllegalArgumentException if the user or residence is null
+     */
+    @Nullable
+    public Residence.Permission getPermission(@Nonnull User user, @Nonnull Residence residence) throws IllegalArgumentException {
+        return permissions.getPermission(user, residence);
+    }
+
+    /**
+     * Gets the cache of the users' permissions, e.g. to invalidate a user whose group memberships changed.
+     *
+     * @return permission cache of this provider
+     */
+    @Nonnull
+    public PermissionCache<User> getPermissionCache() {
+        return permissions;
+    }
+
+    @Nonnull
+    @Override
+    public List<Residence> getResidences(@Nonnull Registrant registrant) throws IllegalArgumentException {
+        if (registrant == null) throw new IllegalArgumentException("Registrant cannot be null");
+        return ownership.getResidences(registrant);
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Residence> getResidences(@Nonnull Registrant registrant, @Nonnull Residence.Permission permission)
+            throws IllegalArgumentException {
+        if (registrant == null) throw new IllegalArgumentException("Registrant cannot be null");
+        if (permission == null) throw new IllegalArgumentException("Permission cannot be null");
+        // answered from the ownership index, so only the registrant's own residences are visited
+        return new ArrayList<>(ownership.getResidences(registrant, permission)).stream();
+    }
+
+    @Nonnull
+    @Override
+    public List<Residence> getResidences() {
+        return residences.values();
+    }
+
+    @Nullable
+    @Override
+    public Plot getPlot(int id) {
+        return residences.get(id) instanceof Plot plot ? plot : null;
+    }
+
+    @Nullable
+    @Override
+    public PlotTile getPlotTile(@Nullable Region region) {
+        return region == null ? null : plotTilesByRegion.get(region.id());
+    }
+
+    @Nullable
+    @Override
+    public Apartment getApartment(int id) {
+        return residences.get(id) instanceof Apartment apartment ? apartment : null;
+    }
+
+    @Nonnull
+    @Override
+    public List<ApartmentBlock> getApartmentBlocks() {
+        return apartmentBlocks.values();
+    }
+
+    @Nonnull
+    @Override
+    public List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup) throws IllegalArgumentException {
+        if (realEstateGroup == null) throw new IllegalArgumentException("Real estate group cannot be null");
+        return ownership.getApartmentBlocks(realEstateGroup);
+    }
+
+    @Nonnull
+    @Override
+    public List<ApartmentBlock> getApartmentBlocks(@Nonnull RealEstateGroup realEstateGroup, @Nonnegative int offset,
+                                                   @Nonnegative int limit) throws IllegalArgumentException {
+        if (realEstateGroup == null) throw new IllegalArgumentException("Real estate group cannot be null");
+        if (offset < 0) throw new IllegalArgumentException("Offset cannot be negative");
+        if (limit < 0) throw new IllegalArgumentException("Limit cannot be negative");
+        return ownership.getApartmentBlocks(realEstateGroup, offset, limit);
+    }
+
+    @Nullable
+    @Override
+    public ApartmentBlock getApartmentBlock(int id) {
+        return apartmentBlocks.get(id);
+    }
+
+    // Structures
+
+    /**
+     * Registers the given street.
+     *
+     * @param street street to register
+     * @throws IllegalArgumentException if the street is null
+     */
+    public void registerStreet(@Nonnull Street street) throws IllegalArgumentException {
+        if (street == null) throw new IllegalArgumentException("Street cannot be null");
+        streets.put(street.id(), street);
+    }
+
+    /**
+     * Registers the given district. Chunks that are already part of another district are reassigned.
+     *
+     * @param district district to register
+     * @throws IllegalArgumentException if the district is null
+     */
+    public void registerDistrict(@Nonnull District district) throws IllegalArgumentException {
+        if (district == null) throw new IllegalArgumentException("District cannot be null");
+        districts.put(district.id(), district);
+        districtIndex.add(district);
+        snapshots.markDirty();
+    }
+
+    /**
+     * Registers the given radio mast. Users without signal that are well inside its range are connected to it.
+     *
+     * @param radioMast radio mast to register
+     * @throws IllegalArgumentException if the radio mast is null
+     */
+    public void registerRadioMast(@Nonnull RadioMast radioMast) throws IllegalArgumentException {
+        if (radioMast == null) throw new IllegalArgumentException("Radio mast cannot be null");
+        radioCoverage.addMast(radioMast);
+    }
+
+    /**
+     * Unregisters the given radio mast. Its users are handed over to other radio masts in range, or lose the signal.
+     *
+     * @param radioMast radio mast to unregister
+     * @return true, if the radio mast was registered
+     */
+    public boolean unregisterRadioMast(@Nullable RadioMast radioMast) {
+        final int registered = radioMasts.size();
+        radioCoverage.removeMast(radioMast);
+        return radioMasts.size() < registered;
+    }
+
+    /**
+     * Updates the radio coverage of the given user, who moved to the given block column. If the user is handed over to
+     * another radio mast or loses the signal, the corresponding event is dispatched.
+     *
+     * @param user  user that moves
+     * @param world world the user moves in
+     * @param x     x coordinate of the block the user moves to
+     * @param z     z coordinate of the block the user moves to
+     * @return the detected change, or null if the user stays connected to the same radio mast
+     * @throws IllegalArgumentException if the user or world is null
+     * @see RadioCoverageTracker#update(OnlineUser, World, int, int)
+     */
+    @Nullable
+    public RadioCoverageChange moveUser(@Nonnull OnlineUser user, @Nonnull World world, int x, int z)
+            throws IllegalArgumentException {
+        return radioCoverage.update(user, world, x, z);
+    }
+
+    /**
+     * Stops tracking the radio coverage of the given user, e.g. when they quit.
+     *
+     * @param user user to stop tracking
+     */
+    public void removeUser(@Nullable OnlineUser user) {
+        radioCoverage.remove(user);
+    }
+
+    /**
+     * Gets the counters of how the protection checks of this provider ({@link #hasRegions(World, int, int)} and
+     * {@link #getDominantResidence(World, int, int, int)}) were answered.
+     *
+     * @return fast path statistics of this provider
+     */
+    @Nonnull
+    public FastPathStatistics getFastPathStatistics() {
+        return fastPaths;
+    }
+
+    /**
+     * Gets the tracker of the users' radio coverage, e.g. to implement {@link RadioMast#getConnectedUsers()}.
+     *
+     * @return radio coverage tracker of this provider
+     */
+    @Nonnull
+    public RadioCoverageTracker getRadioCoverage() {
+        return radioCoverage;
+    }
+
+    @Nonnull
+    @Override
+    public List<Street> getStreets() {
+        return streets.values();
+    }
+
+    @Nullable
+    @Override
+    public Street getStreet(int id) {
+        return streets.get(id);
+    }
+
+    @Nonnull
+    @Override
+    public List<District> getDistricts() {
+        return districts.values();
+    }
+
+    @Nullable
+    @Override
+    public District getDistrict(int id) {
+        return districts.get(id);
+    }
+
+    @Nullable
+    @Override
+    public District getDistrict(@Nullable Chunk chunk) {
+        return chunk == null ? null : districtIndex.getDistrict(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @Nullable
+    @Override
+    public District getDistrict(@Nonnull World world, int chunkX, int chunkZ) throws IllegalArgumentException {
+        return districtIndex.getDistrict(world, chunkX, chunkZ);
+    }
+
+    @Nonnull
+    @Override
+    public List<RadioMast> getRadioMasts() {
+        return radioMasts.getRadioMasts();
+    }
+
+    @Nullable
+    @Override
+    public RadioMast getNearestRadioMast(@Nullable Location location) {
+        if (location == null || location.getWorld() == null) return null;
+        return radioMasts.getNearest(location.getWorld(), location.getBlockX(), location.getBlockZ());
+    }
+
+    @Nullable
+    @Override
+    public RadioMast getNearestRadioMast(@Nonnull World world, int x, int z) throws IllegalArgumentException {
+        return radioMasts.getNearest(world, x, z);
+    }
+
+    // Snapshots & transitions
+
+    @Nonnull
+    @Override
+    public RegionsSnapshot snapshot() {
+        return snapshots.get();
+    }
+
+    /**
+     * Publishes a new snapshot, if anything changed since the last one.
+     * <p>
+     * <b>Note:</b> This method has to be called on the main thread, e.g. once per tick.
+     *
+     * @return true, if a new snapshot was published
+     */
+    public boolean publishSnapshot() {
+        return snapshots.publish();
+    }
+
+    // World editing
+
+    @Nonnull
+    @Override
+    public Area getArea(@Nonnull Block loc1, @Nonnull Block loc2) throws IllegalArgumentException {
+        return SimpleArea.of(loc1, loc2);
+    }
+
+    @Override
+    public void loadPreset(@Nonnull Area presetArea, @Nonnull Block presetPivot, @Nonnull Block mainWorldPivot)
+            throws IllegalArgumentException, UnsupportedOperationException {
+        if (presetArea == null) throw new IllegalArgumentException("Preset area cannot be null");
+        if (presetPivot == null || mainWorldPivot == null) throw new IllegalArgumentException("Pivots cannot be null");
+        // no block contents are held, so there is nothing that could be copied
+        throw new UnsupportedOperationException("Presets cannot be loaded by this provider");
+    }
+
+    @Nonnull
+    @Override
+    public Area moveArea(@Nonnull World world, @Nonnull Area sourceArea, int dx, int dy, int dz, boolean moveEntities,
+                         float teleportationMargin) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        if (sourceArea == null) throw new IllegalArgumentException("Source area cannot be null");
+        // neither blocks nor entities are held, so only the area itself is moved
+        final Block min = sourceArea.minBlock();
+        final Block max = sourceArea.maxBlock();
+        return new SimpleArea(world, min.getX() + dx, min.getY() + dy, min.getZ() + dz, max.getX() + dx, max.getY() + dy,
+                max.getZ() + dz);
+    }
+
+    // Serialization
+
+    /**
+     * Writes all regions of this provider as JSON to the given writer.
+     * <p>
+     * Only the regions' geometry is written, since residences and structures are implemented by the caller.
+     *
+     * @param writer writer to write the JSON to
+     * @throws IllegalArgumentException if the writer is null
+     * @throws IOException              if the JSON could not be written
+     */
+    public void save(@Nonnull Writer writer) throws IllegalArgumentException, IOException {
+        if (writer == null) throw new IllegalArgumentException("Writer cannot be null");
+        final List<RegionData> data = new ArrayList<>(regions.size());
+        regions.forEachValue(region -> data.add(new RegionData(region.id(), region.world().getUID(),
+                boxes(region.included()), boxes(region.excluded()))));
+        data.sort(Comparator.comparingInt(RegionData::id));
+        GSON.toJson(new SnapshotData(FORMAT_VERSION, data), writer);
+        writer.flush();
+    }
+
+    /**
+     * Creates a provider containing the regions read as JSON from the given reader.
+     *
+     * @param reader reader to read the JSON from
+     * @param worlds resolves the worlds by their id, e.g. {@code Bukkit::getWorld}
+     * @return provider containing the read regions
+     * @throws IllegalArgumentException if the reader or world resolver is null, the JSON is malformed or a world could not be resolved
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public static InMemoryRegionsProvider load(@Nonnull Reader reader, @Nonnull Function<UUID, World> worlds)
+            throws IllegalArgumentException {
+        if (reader == null) throw new IllegalArgumentException("Reader cannot be null");
+        if (worlds == null) throw new IllegalArgumentException("World resolver cannot be null");
+        final SnapshotData data;
+        try {
+            data = GSON.fromJson(reader, SnapshotData.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed regions snapshot", e);
+        }
+        if (data == null || data.regions() == null) throw new IllegalArgumentException("Regions snapshot is empty");
+        if (data.formatVersion() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported regions snapshot format " + data.formatVersion());
+        }
+
+        final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+        for (RegionData region : data.regions()) {
+            final World world = worlds.apply(region.world());
+            if (world == null) throw new IllegalArgumentException("Unknown world " + region.world());
+            provider.createRegion(region.id(), areas(world, region.included()), areas(world, region.excluded()));
+        }
+        return provider;
+    }
+
+    /**
+     * Captures a binary snapshot of all regions, residences and districts of this provider, together with the given
+     * navigation points.
+     *
+     * @param navigationPoints all existing navigation points
+     * @return binary snapshot of this provider
+     * @throws IllegalArgumentException if the navigation points are null or cannot be captured
+     * @see BinarySnapshot#capture(long, Collection, Collection, Collection, Collection)
+     */
+    @Nonnull
+    @Contract("_ -> new")
+    public BinarySnapshot captureBinary(@Nonnull Collection<Street.NavigationPoint> navigationPoints)
+            throws IllegalArgumentException {
+        publishSnapshot();
+        return BinarySnapshot.capture(snapshot().version(), regions.values(), residences.values(), navigationPoints,
+                districts.values());
+    }
+
+    /**
+     * Creates a provider containing the regions of the given binary snapshot.
+     * <p>
+     * Residences, navigation points and districts are implemented by the caller, who can recreate them from the snapshot
+     * and register them afterwards.
+     *
+     * @param snapshot snapshot to read the regions from
+     * @param worlds   resolves the worlds by their id, e.g. {@code Bukkit::getWorld}
+     * @return provider containing the snapshot's regions
+     * @throws IllegalArgumentException if the snapshot or world resolver is null, or a world could not be resolved
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public static InMemoryRegionsProvider load(@Nonnull BinarySnapshot snapshot, @Nonnull Function<UUID, World> worlds)
+            throws IllegalArgumentException {
+        if (snapshot == null) throw new IllegalArgumentException("Snapshot cannot be null");
+        if (worlds == null) throw new IllegalArgumentException("World resolver cannot be null");
+        final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+        for (BinarySnapshot.RegionRecord region : snapshot.regions()) {
+            provider.createRegion(region.id(), areas(worlds, region.includedWorlds(), region.included()),
+                    areas(worlds, region.excludedWorlds(), region.excluded()));
+        }
+        return provider;
+    }
+
+    @Nonnull
+    private RegionsSnapshot captureSnapshot(long version) {
+        final RegionsSnapshot snapshot = RegionsSnapshot.capture(version, new ArrayList<>(regions.values()),
+                residences.values(), districts.values(), snapshots.get(), changedRegions::contains);
+        changedRegions.clear();
+        return snapshot;
+    }
+
+    @Nullable
+    private Residence.Permission resolvePermission(@Nonnull User user, @Nonnull Residence residence) {
+        // direct permissions are a hash lookup, the groups of the user are only checked if they could grant more
+        final Residence.Permission direct = ownership.getPermission(residence, user);
+        if (direct == Residence.Permission.OWNER || direct == Residence.Permission.ADMINISTRATOR) return direct;
+        if (residence.isAdmin(user)) return Residence.Permission.ADMINISTRATOR;
+        if (direct != null || residence.isPermissioned(user)) return Residence.Permission.PERMISSIONED;
+        return null;
+    }
+
+    private void link(@Nonnull Residence residence, @Nonnull Region region) throws IllegalArgumentException {
+        if (regions.get(region.id()) != region) {
+            throw new IllegalArgumentException("Region " + region.id() + " was not created by this provider");
+        }
+        residencesByRegion.put(region.id(), residence);
+        dominantResidences.invalidate(region);
+    }
+
+    @Nonnull
+    private List<DominantResidenceTable.Candidate> resolveDominantResidences(@Nonnull World world, int chunkX, int chunkZ) {
+        final List<Region> regions = index.getCandidates(world, chunkX, chunkZ);
+        final List<DominantResidenceTable.Candidate> apartments = new ArrayList<>(0);
+        final List<DominantResidenceTable.Candidate> plots = new ArrayList<>(0);
+        // apartments dominate the plots they lie on, otherwise the smallest region wins
+        for (Region region : regions) {
+            final Residence residence = residencesByRegion.get(region.id());
+            if (residence instanceof Apartment) apartments.add(new DominantResidenceTable.Candidate(residence.id(), region));
+            else if (residence instanceof Plot) plots.add(new DominantResidenceTable.Candidate(residence.id(), region));
+        }
+        apartments.addAll(plots);
+        return apartments;
+    }
+
+    @Nonnull
+    private static List<int[]> boxes(@Nonnull List<Area> areas) {
+        final List<int[]> boxes = new ArrayList<>(areas.size());
+        for (Area area : areas) {
+            final Block min = area.minBlock();
+            final Block max = area.maxBlock();
+            boxes.add(new int[]{min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ()});
+        }
+        return boxes;
+    }
+
+    @Nonnull
+    private static List<Area> areas(@Nonnull World world, @Nullable List<int[]> boxes) throws IllegalArgumentException {
+        if (boxes == null) return List.of();
+        final List<Area> areas = new ArrayList<>(boxes.size());
+        for (int[] box : boxes) {
+            if (box == null || box.length != 6) throw new IllegalArgumentException("Areas must consist of 6 coordinates");
+            areas.add(new SimpleArea(world, box[0], box[1], box[2], box[3], box[4], box[5]));
+        }
+        return areas;
+    }
+
+    @Nonnull
+    private static List<Area> areas(@Nonnull Function<UUID, World> worlds, @Nonnull UUID[] worldIds, @Nonnull int[] boxes)
+            throws IllegalArgumentException {
+        final List<Area> areas = new ArrayList<>(worldIds.length);
+        for (int i = 0; i < worldIds.length; i++) {
+            final World world = worlds.apply(worldIds[i]);
+            if (world == null) throw new IllegalArgumentException("Unknown world " + worldIds[i]);
+            final int offset = i * 6;
+            areas.add(new SimpleArea(world, boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3],
+                    boxes[offset + 4], boxes[offset + 5]));
+        }
+        return areas;
+    }
+
+    private record SnapshotData(int formatVersion, List<RegionData> regions) {
+    }
+
+    private record RegionData(int id, UUID world, List<int[]> included, List<int[]> excluded) {
+    }
+}
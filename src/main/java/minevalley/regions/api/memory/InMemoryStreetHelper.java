@@ -0,0 +1,271 @@
+package minevalley.regions.api.memory;
+
+import minevalley.regions.api.index.NavigationPointIndex;
+import minevalley.regions.api.routing.Route;
+import minevalley.regions.api.routing.RouteCache;
+import minevalley.regions.api.routing.RoutingEngine;
+import minevalley.regions.api.routing.RoutingGraph;
+import minevalley.regions.api.routing.RoutingGraphStore;
+import minevalley.regions.api.structure.Street;
+import minevalley.regions.api.structure.Street.Connection;
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import minevalley.regions.api.structure.Street.OneWayConnection;
+import minevalley.regions.api.structure.Street.TwoWayConnection;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reference implementation of {@link Street.IStreetHelper} that keeps all navigation points in memory.
+ * <p>
+ * Nearest-point queries are answered by a {@link NavigationPointIndex}, which is updated whenever a navigation point is
+ * added or removed. Every edit of navigation points or connections runs in a transaction of a {@link RoutingGraphStore},
+ * whose current graph a {@link RoutingEngine} computes the routes on. Use
+ * {@link #runTransaction(Runnable)} to publish a batch of edits as a single version. Computed routes are kept in a
+ * {@link RouteCache}, which every edit invalidates precisely.
+ * <p>
+ * Connections that are added to or removed from navigation points directly, through {@link Connection#add()},
+ * {@link Connection#remove()} or {@link NavigationPoint#addConnection(Connection)}, are tracked as well, as long as this
+ * helper is the one used by {@link Street.StreetHelper}. Custom {@link Connection} implementations are not tracked; call
+ * {@link #invalidateRoutes()} after changing them, so that a new graph is published.
+ * <p>
+ * <b>Note:</b> This helper is not thread-safe and is meant to be accessed from the main thread only. Only the routes are
+ * computed on other threads.
+ */
+@SuppressWarnings("unused")
+public class InMemoryStreetHelper implements Street.IStreetHelper {
+
+    private static final int DEFAULT_ROUTE_CACHE_CAPACITY = 1024;
+
+    private final List<NavigationPoint> navigationPoints = new ArrayList<>();
+    private final Map<Street, List<NavigationPoint>> navigationPointsByStreet = new HashMap<>();
+    private final NavigationPointIndex index = new NavigationPointIndex();
+    private final RoutingGraphStore graphs = new RoutingGraphStore(() -> navigationPoints);
+    private final RoutingEngine routing = new RoutingEngine(graphs);
+    private final RouteCache routes;
+    private boolean editing;
+
+    /**
+     * Creates a helper caching up to 1024 routes.
+     */
+    public InMemoryStreetHelper() {
+        this(DEFAULT_ROUTE_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a helper caching up to the given amount of routes.
+     *
+     * @param routeCacheCapacity maximum amount of cached routes
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public InMemoryStreetHelper(int routeCacheCapacity) throws IllegalArgumentException {
+        this.routes = new RouteCache(routeCacheCapacity, graphs.current().weightPerBlock());
+    }
+
+    /**
+     * Makes this helper the one used by {@link Street.StreetHelper}.
+     * <p>
+     * <b>Note:</b> This is meant for tests and benchmarks. On a server, the helper is installed by the server itself.
+     *
+     * @throws IllegalStateException if the helper could not be installed
+     */
+    @ApiStatus.Internal
+    @VisibleForTesting
+    public void install() throws IllegalStateException {
+        try {
+            final Field field = Street.StreetHelper.class.getDeclaredField("helper");
+            field.setAccessible(true);
+            field.set(null, this);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not install the helper", e);
+        }
+    }
+
+    @Override
+    public List<NavigationPoint> getAllNavigationPoints() {
+        return Collections.unmodifiableList(navigationPoints);
+    }
+
+    @Override
+    public List<NavigationPoint> getNavigationPoints(Street street) {
+        final List<NavigationPoint> points = navigationPointsByStreet.get(street);
+        return points == null ? List.of() : Collections.unmodifiableList(points);
+    }
+
+    @Override
+    public void addNavigationPoint(NavigationPoint navigationPoint) {
+        if (index.contains(navigationPoint)) return;
+        runTransaction(() -> {
+            index.add(navigationPoint);
+            navigationPoints.add(navigationPoint);
+            navigationPointsByStreet.computeIfAbsent(navigationPoint.street(), street -> new ArrayList<>())
+                    .add(navigationPoint);
+            // the point may already carry connections to existing points, which can shorten cached routes
+            for (Connection connection : navigationPoint.connections()) routes.invalidateAdded(connection);
+            graphs.markDirty();
+        });
+    }
+
+    @Override
+    public void removeNavigationPoint(NavigationPoint navigationPoint) {
+        if (!index.contains(navigationPoint)) return;
+        runTransaction(() -> {
+            index.remove(navigationPoint);
+            removeIdentical(navigationPoints, navigationPoint);
+            final List<NavigationPoint> points = navigationPointsByStreet.get(navigationPoint.street());
+            if (points != null && removeIdentical(points, navigationPoint) && points.isEmpty()) {
+                navigationPointsByStreet.remove(navigationPoint.street());
+            }
+            for (Connection connection : navigationPoint.connections()) {
+                edit(connection::remove);
+                routes.invalidate(connection);
+            }
+            routes.invalidate(navigationPoint);
+            graphs.markDirty();
+        });
+    }
+
+    @Override
+    public void addConnection(@Nonnull Connection connection) throws IllegalArgumentException {
+        if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+        edit(connection::add);
+        connectionAdded(connection);
+    }
+
+    @Override
+    public void removeConnection(@Nonnull Connection connection) throws IllegalArgumentException {
+        if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+        edit(connection::remove);
+        connectionRemoved(connection);
+    }
+
+    @Override
+    public void onConnectionAdded(@Nonnull Connection connection) {
+        // edits made by this helper itself are handled right where they are made
+        if (!editing) connectionAdded(connection);
+    }
+
+    @Override
+    public void onConnectionRemoved(@Nonnull Connection connection) {
+        if (!editing) connectionRemoved(connection);
+    }
+
+    @Override
+    public void runTransaction(@Nonnull Runnable edits) throws IllegalArgumentException {
+        final long version = graphs.version();
+        try {
+            graphs.transaction(edits);
+        } finally {
+            // a failed transaction still publishes the edits that happened before the failure
+            final RoutingGraph current = graphs.current();
+            if (current.version() != version) routes.setWeightPerBlock(current.weightPerBlock());
+        }
+    }
+
+    @Override
+    public NavigationPoint getNearest(Location location) {
+        if (location == null) throw new IllegalArgumentException("Location cannot be null");
+        return index.getNearest(location.getWorld(), location.getX(), location.getZ());
+    }
+
+    @Nullable
+    @Override
+    public NavigationPoint getNearest(@Nonnull World world, double x, double z) throws IllegalArgumentException {
+        return index.getNearest(world, x, z);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Route> findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to)
+            throws IllegalArgumentException {
+        // inside a transaction, routes are computed on the last published version and must not be cached
+        if (graphs.isInTransaction()) return routing.findRouteAsync(from, to);
+        final Route cached = routes.get(from, to, null);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        final long epoch = routes.epoch();
+        return routing.findRouteAsync(from, to).thenApply(route -> {
+            routes.put(null, route, epoch);
+            return route;
+        });
+    }
+
+    /**
+     * Gets the cache of the computed routes, e.g. to read its hit rate.
+     *
+     * @return route cache of this helper
+     */
+    @Nonnull
+    public RouteCache getRouteCache() {
+        return routes;
+    }
+
+    /**
+     * Gets the store holding the published versions of the road network.
+     *
+     * @return graph store of this helper
+     */
+    @Nonnull
+    public RoutingGraphStore getGraphStore() {
+        return graphs;
+    }
+
+    /**
+     * Publishes a new version of the road network, e.g. after connections of a custom {@link Connection} implementation
+     * have been changed.
+     */
+    public void invalidateRoutes() {
+        routes.clear();
+        runTransaction(graphs::markDirty);
+    }
+
+    private void connectionAdded(@Nonnull Connection connection) {
+        if (!affectsGraph(connection)) return;
+        runTransaction(() -> {
+            routes.invalidateAdded(connection);
+            graphs.markDirty();
+        });
+    }
+
+    private void connectionRemoved(@Nonnull Connection connection) {
+        if (!affectsGraph(connection)) return;
+        runTransaction(() -> {
+            routes.invalidate(connection);
+            graphs.markDirty();
+        });
+    }
+
+    private void edit(@Nonnull Runnable edit) {
+        editing = true;
+        try {
+            edit.run();
+        } finally {
+            editing = false;
+        }
+    }
+
+    private boolean affectsGraph(@Nonnull Connection connection) {
+        // connections between navigation points that have not been added, e.g. while restoring a snapshot, are not routed
+        return switch (connection) {
+            case OneWayConnection oneWay -> index.contains(oneWay.from()) && index.contains(oneWay.to());
+            case TwoWayConnection twoWay -> index.contains(twoWay.point1()) && index.contains(twoWay.point2());
+            default -> true;
+        };
+    }
+
+    private static boolean removeIdentical(@Nonnull List<NavigationPoint> points, @Nonnull NavigationPoint navigationPoint) {
+        // navigation points are compared by identity, since their equality depends on their connections
+        for (int i = 0; i < points.size(); i++) {
+            if (points.get(i) != navigationPoint) continue;
+            points.remove(i);
+            return true;
+        }
+        return false;
+    }
+}
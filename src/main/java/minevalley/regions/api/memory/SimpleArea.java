@@ -0,0 +1,205 @@
+package minevalley.regions.api.memory;
+
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.ChunkKeySet;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cuboid area that keeps its bounds as primitives, so containment checks neither touch the world nor allocate.
+ * <p>
+ * The keys of the chunks the area lies in are computed once on creation.
+ */
+@SuppressWarnings("unused")
+public final class SimpleArea implements Area {
+
+    private final World world;
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+    private final ChunkKeySet chunkKeys;
+
+    /**
+     * Creates an area spanning the two given corners, in any order.
+     *
+     * @param world world this area lies in
+     * @param x1    x coordinate of the first corner
+     * @param y1    y coordinate of the first corner
+     * @param z1    z coordinate of the first corner
+     * @param x2    x coordinate of the second corner
+     * @param y2    y coordinate of the second corner
+     * @param z2    z coordinate of the second corner
+     * @throws IllegalArgumentException if the world is null
+     */
+    public SimpleArea(@Nonnull World world, int x1, int y1, int z1, int x2, int y2, int z2) throws IllegalArgumentException {
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        this.world = world;
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+        this.maxZ = Math.max(z1, z2);
+        this.chunkKeys = ChunkKeySet.ofRange(minX >> 4, minZ >> 4, maxX >> 4, maxZ >> 4);
+    }
+
+    /**
+     * Creates an area spanning the two given blocks.
+     *
+     * @param block1 first corner
+     * @param block2 second corner
+     * @return area spanning both blocks
+     * @throws IllegalArgumentException if a block is null or the blocks lie in different worlds
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public static SimpleArea of(@Nonnull Block block1, @Nonnull Block block2) throws IllegalArgumentException {
+        if (block1 == null || block2 == null) throw new IllegalArgumentException("Blocks cannot be null");
+        if (!block1.getWorld().equals(block2.getWorld())) {
+            throw new IllegalArgumentException("Blocks must be in the same world");
+        }
+        return new SimpleArea(block1.getWorld(), block1.getX(), block1.getY(), block1.getZ(),
+                block2.getX(), block2.getY(), block2.getZ());
+    }
+
+    @Nonnull
+    @Override
+    public World world() {
+        return world;
+    }
+
+    /**
+     * Gets the smallest x coordinate of this area.
+     *
+     * @return smallest x coordinate
+     */
+    @Contract(pure = true)
+    public int minX() {
+        return minX;
+    }
+
+    /**
+     * Gets the smallest y coordinate of this area.
+     *
+     * @return smallest y coordinate
+     */
+    @Contract(pure = true)
+    public int minY() {
+        return minY;
+    }
+
+    /**
+     * Gets the smallest z coordinate of this area.
+     *
+     * @return smallest z coordinate
+     */
+    @Contract(pure = true)
+    public int minZ() {
+        return minZ;
+    }
+
+    /**
+     * Gets the largest x coordinate of this area.
+     *
+     * @return largest x coordinate
+     */
+    @Contract(pure = true)
+    public int maxX() {
+        return maxX;
+    }
+
+    /**
+     * Gets the largest y coordinate of this area.
+     *
+     * @return largest y coordinate
+     */
+    @Contract(pure = true)
+    public int maxY() {
+        return maxY;
+    }
+
+    /**
+     * Gets the largest z coordinate of this area.
+     *
+     * @return largest z coordinate
+     */
+    @Contract(pure = true)
+    public int maxZ() {
+        return maxZ;
+    }
+
+    @Nonnull
+    @Override
+    public Block minBlock() {
+        return world.getBlockAt(minX, minY, minZ);
+    }
+
+    @Nonnull
+    @Override
+    public Block maxBlock() {
+        return world.getBlockAt(maxX, maxY, maxZ);
+    }
+
+    @Nonnull
+    @Override
+    public List<Block> getBlocks() {
+        final List<Block> blocks = new ArrayList<>((int) Math.min(volume(), Integer.MAX_VALUE - 8));
+        blockKeys().forEach(key -> blocks.add(world.getBlockAt(Block.getBlockKeyX(key), Block.getBlockKeyY(key), Block.getBlockKeyZ(key))));
+        return blocks;
+    }
+
+    @Nonnull
+    @Override
+    public List<Chunk> getChunks() {
+        final List<Chunk> chunks = new ArrayList<>();
+        chunkKeys().forEach(key -> chunks.add(world.getChunkAt(ChunkKeySet.chunkX(key), ChunkKeySet.chunkZ(key))));
+        return chunks;
+    }
+
+    @Nonnull
+    @Override
+    public ChunkKeySet chunkKeys() {
+        return chunkKeys;
+    }
+
+    @Override
+    public long volume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    @Override
+    public boolean contains(@Nullable Block block) {
+        return block != null && contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SimpleArea area)) return false;
+        return world.equals(area.world) && minX == area.minX && minY == area.minY && minZ == area.minZ
+                && maxX == area.maxX && maxY == area.maxY && maxZ == area.maxZ;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(world, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleArea[world=" + world + ", minX=" + minX + ", minY=" + minY + ", minZ=" + minZ + ", maxX=" + maxX
+                + ", maxY=" + maxY + ", maxZ=" + maxZ + "]";
+    }
+}
@@ -0,0 +1,122 @@
+package minevalley.regions.api.memory;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.ChunkKeySet;
+import minevalley.regions.api.core.Region;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Region of an {@link InMemoryRegionsProvider}.
+ * <p>
+ * Since the provider does not track users, nobody is ever inside this region.
+ */
+@SuppressWarnings("unused")
+public final class SimpleRegion implements Region {
+
+    private final int id;
+    private final InMemoryRegionsProvider provider;
+    private List<Area> included;
+    private List<Area> excluded;
+    private ChunkKeySet chunkKeys;
+
+    SimpleRegion(int id, @Nonnull InMemoryRegionsProvider provider, @Nonnull List<Area> included,
+                 @Nonnull List<Area> excluded) throws IllegalArgumentException {
+        this.id = id;
+        this.provider = provider;
+        setAreas(included, excluded);
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int id() {
+        return id;
+    }
+
+    @Nonnull
+    @Override
+    public List<Area> included() {
+        return included;
+    }
+
+    @Nonnull
+    @Override
+    public List<Area> excluded() {
+        return excluded;
+    }
+
+    @Nonnull
+    @Override
+    public List<Chunk> chunks() {
+        final World world = world();
+        final List<Chunk> chunks = new ArrayList<>(chunkKeys.size());
+        chunkKeys.forEach(key -> chunks.add(world.getChunkAt(ChunkKeySet.chunkX(key), ChunkKeySet.chunkZ(key))));
+        return chunks;
+    }
+
+    @Nonnull
+    @Override
+    public ChunkKeySet chunkKeys() {
+        return chunkKeys;
+    }
+
+    @Override
+    public boolean contains(@Nullable Location location) {
+        return location != null && contains(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Override
+    public boolean contains(@Nullable Block block) {
+        return block != null && contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    @Nonnull
+    @Override
+    public Stream<OnlineUser> getUsersInRegion() {
+        return Stream.empty();
+    }
+
+    @Override
+    public void kickUser(@Nonnull OnlineUser user, @Nonnull Location target) throws IllegalStateException,
+            IllegalArgumentException {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        if (target == null) throw new IllegalArgumentException("Target cannot be null");
+        if (!world().equals(target.getWorld())) throw new IllegalArgumentException("Target must be in the region's world");
+        // users are not tracked, so nobody can be inside this region
+        throw new IllegalStateException("User is not inside the region");
+    }
+
+    @Override
+    public void update(@Nonnull List<Area> included, @Nonnull List<Area> excluded) throws IllegalArgumentException {
+        setAreas(included, excluded);
+        provider.reindex(this);
+    }
+
+    private void setAreas(@Nonnull List<Area> included, @Nonnull List<Area> excluded) throws IllegalArgumentException {
+        if (included == null) throw new IllegalArgumentException("Included areas cannot be null");
+        if (excluded == null) throw new IllegalArgumentException("Excluded areas cannot be null");
+        if (included.isEmpty()) throw new IllegalArgumentException("Included areas cannot be empty");
+        final World world = included.get(0).world();
+        for (Area area : included) {
+            if (!area.world().equals(world)) throw new IllegalArgumentException("All areas must lie in the same world");
+        }
+        this.included = List.copyOf(included);
+        this.excluded = List.copyOf(excluded);
+        this.chunkKeys = Region.super.chunkKeys();
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleRegion{id=" + id + ", included=" + included + ", excluded=" + excluded + "}";
+    }
+}
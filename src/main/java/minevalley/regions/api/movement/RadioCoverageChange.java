@@ -0,0 +1,51 @@
+package minevalley.regions.api.movement;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.event.OnlineUserEvent;
+import minevalley.regions.api.event.UserRadioMastHandoverEvent;
+import minevalley.regions.api.event.UserRadioSignalLostEvent;
+import minevalley.regions.api.structure.RadioMast;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A change of the radio mast a user is connected to, detected by a {@link RadioCoverageTracker}.
+ * <p>
+ * In contrast to region transitions, coverage changes cannot be cancelled and take effect right away.
+ *
+ * @param user     user whose connection changed
+ * @param previous radio mast the user was connected to, or null if the user had no signal
+ * @param next     radio mast the user is connected to now, or null if the user lost the signal
+ */
+@SuppressWarnings("unused")
+public record RadioCoverageChange(@Nonnull OnlineUser user, @Nullable RadioMast previous, @Nullable RadioMast next) {
+
+    public RadioCoverageChange {
+        if (user == null) throw new IllegalArgumentException("user cannot be null");
+        if (previous == next) throw new IllegalArgumentException("previous and next cannot be the same");
+    }
+
+    /**
+     * Gets whether the user lost the signal, i.e. is not connected to any radio mast anymore.
+     *
+     * @return true, if the user lost the signal
+     */
+    @Contract(pure = true)
+    public boolean isSignalLost() {
+        return next == null;
+    }
+
+    /**
+     * Creates the event announcing this change: a {@link UserRadioSignalLostEvent} if the user lost the signal, and a
+     * {@link UserRadioMastHandoverEvent} otherwise.
+     *
+     * @return event announcing this change
+     */
+    @Nonnull
+    @Contract("-> new")
+    public OnlineUserEvent toEvent() {
+        return next == null ? new UserRadioSignalLostEvent(user, previous) : new UserRadioMastHandoverEvent(user, previous, next);
+    }
+}
@@ -0,0 +1,241 @@
+package minevalley.regions.api.movement;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.index.RadioMastIndex;
+import minevalley.regions.api.structure.RadioMast;
+import org.bukkit.World;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Keeps track of the radio mast each user is connected to, and detects handovers between masts and signal losses.
+ * <p>
+ * The provider passes every movement of a user to {@link #update(OnlineUser, World, int, int)}. For every detected
+ * {@link RadioCoverageChange}, the tracker dispatches a {@link minevalley.regions.api.event.UserRadioMastHandoverEvent} or a
+ * {@link minevalley.regions.api.event.UserRadioSignalLostEvent} (see {@link RadioCoverageChange#toEvent()}) before
+ * returning the change. Features like phones and radios can therefore listen to these events instead of polling
+ * {@link RadioMast#isInRange(int, int)} for every user every tick.
+ * <p>
+ * The signal of a mast is measured by how far a user is inside its range ({@code range - distance}). To keep users at the
+ * edge of a mast's coverage from flapping, connections are subject to a hysteresis:
+ * <ul>
+ *     <li>A user without signal only connects to a mast once they are at least the hysteresis inside its range. For masts
+ *     with a range of less than twice the hysteresis, half their range is required instead.</li>
+ *     <li>A connected user stays connected to their mast as long as they are in its range, and is only handed over to
+ *     another mast whose signal is stronger by at least the hysteresis.</li>
+ *     <li>A user who leaves the range of their mast is handed over to the strongest other mast in range, or loses the
+ *     signal if there is none.</li>
+ * </ul>
+ * The masts in range are taken from a {@link RadioMastIndex}, whose users in range are updated along the way.
+ * <p>
+ * <b>Note:</b> This tracker is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class RadioCoverageTracker {
+
+    private static final int DEFAULT_HYSTERESIS = 16;
+
+    private final RadioMastIndex index;
+    private final int hysteresis;
+    private final Map<OnlineUser, State> states = new HashMap<>();
+    private final Map<RadioMast, Set<OnlineUser>> connectedUsers = new HashMap<>();
+
+    /**
+     * Creates a tracker with a hysteresis of 16 blocks.
+     *
+     * @param index index to take the masts in range from
+     * @throws IllegalArgumentException if the index is null
+     */
+    public RadioCoverageTracker(@Nonnull RadioMastIndex index) throws IllegalArgumentException {
+        this(index, DEFAULT_HYSTERESIS);
+    }
+
+    /**
+     * Creates a tracker with the given hysteresis.
+     *
+     * @param index      index to take the masts in range from
+     * @param hysteresis signal difference in blocks required to connect to or switch to a mast
+     * @throws IllegalArgumentException if the index is null or the hysteresis is negative
+     */
+    public RadioCoverageTracker(@Nonnull RadioMastIndex index, @Nonnegative int hysteresis) throws IllegalArgumentException {
+        if (index == null) throw new IllegalArgumentException("Index cannot be null");
+        if (hysteresis < 0) throw new IllegalArgumentException("Hysteresis cannot be negative");
+        this.index = index;
+        this.hysteresis = hysteresis;
+    }
+
+    /**
+     * Updates the position of the given user and checks whether they are handed over to another mast or lose the signal.
+     * <p>
+     * If the user did not leave their block column, nothing has to be re-evaluated.
+     *
+     * @param user  user that moves
+     * @param world world the user moves in
+     * @param x     x coordinate of the block the user moves to
+     * @param z     z coordinate of the block the user moves to
+     * @return the detected change, or null if the user stays connected to the same mast
+     * @throws IllegalArgumentException if the user or world is null
+     */
+    @Nullable
+    public RadioCoverageChange update(@Nonnull OnlineUser user, @Nonnull World world, int x, int z)
+            throws IllegalArgumentException {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+        final State current = states.get(user);
+        final UUID worldId = world.getUID();
+        if (current != null && current.x() == x && current.z() == z && current.world().equals(worldId)) return null;
+
+        index.updateUser(user, world, x, z);
+        final RadioMast previous = current == null ? null : current.mast();
+        final RadioMast next = select(index.getMastsInRange(user), previous, x, z);
+        states.put(user, new State(worldId, x, z, next));
+        return connect(user, previous, next);
+    }
+
+    /**
+     * Gets the radio mast the given user is currently connected to.
+     *
+     * @param user user to get the radio mast of
+     * @return connected radio mast, or null if the user has no signal
+     */
+    @Nullable
+    @Contract(pure = true)
+    public RadioMast getMast(@Nullable OnlineUser user) {
+        final State state = user == null ? null : states.get(user);
+        return state == null ? null : state.mast();
+    }
+
+    /**
+     * Gets the users currently connected to the given radio mast.
+     * <p>
+     * This is what implementations of {@link RadioMast#getConnectedUsers()} are meant to use.
+     *
+     * @param radioMast radio mast to get the users of
+     * @return unmodifiable view of the connected users
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public Set<OnlineUser> getConnectedUsers(@Nullable RadioMast radioMast) {
+        final Set<OnlineUser> users = radioMast == null ? null : connectedUsers.get(radioMast);
+        return users == null ? Set.of() : Collections.unmodifiableSet(users);
+    }
+
+    /**
+     * Adds the given radio mast to the index and connects users without signal that are now well inside its range.
+     * <p>
+     * Connected users are not handed over until they move.
+     *
+     * @param radioMast radio mast to add
+     * @return changes caused by the new mast
+     * @throws IllegalArgumentException if the radio mast is null
+     */
+    @Nonnull
+    public List<RadioCoverageChange> addMast(@Nonnull RadioMast radioMast) throws IllegalArgumentException {
+        index.add(radioMast);
+        final List<RadioCoverageChange> changes = new ArrayList<>(0);
+        for (OnlineUser user : index.getUsersInRange(radioMast)) {
+            final State state = states.get(user);
+            if (state == null || state.mast() != null) continue;
+            final RadioMast next = select(index.getMastsInRange(user), null, state.x(), state.z());
+            if (next == null) continue;
+            states.put(user, new State(state.world(), state.x(), state.z(), next));
+            changes.add(connect(user, null, next));
+        }
+        return changes;
+    }
+
+    /**
+     * Removes the given radio mast from the index and hands its users over to other masts in range, if possible.
+     *
+     * @param radioMast radio mast to remove
+     * @return changes caused by the removal, one for every user that was connected to the mast
+     */
+    @Nonnull
+    public List<RadioCoverageChange> removeMast(@Nullable RadioMast radioMast) {
+        if (!index.remove(radioMast)) return List.of();
+        final Set<OnlineUser> users = connectedUsers.get(radioMast);
+        if (users == null) return List.of();
+        final List<RadioCoverageChange> changes = new ArrayList<>(users.size());
+        for (OnlineUser user : List.copyOf(users)) {
+            final State state = states.get(user);
+            // the user was connected, so the strongest remaining mast in range takes over without hysteresis
+            final RadioMast next = strongest(index.getMastsInRange(user), state.x(), state.z());
+            states.put(user, new State(state.world(), state.x(), state.z(), next));
+            changes.add(connect(user, radioMast, next));
+        }
+        return changes;
+    }
+
+    /**
+     * Stops tracking the given user, e.g. when they quit. No change is reported.
+     *
+     * @param user user to stop tracking
+     */
+    public void remove(@Nullable OnlineUser user) {
+        final State state = user == null ? null : states.remove(user);
+        if (state == null) return;
+        index.removeUser(user);
+        disconnect(user, state.mast());
+    }
+
+    /**
+     * Stops tracking all users.
+     */
+    public void clear() {
+        for (OnlineUser user : states.keySet()) index.removeUser(user);
+        states.clear();
+        connectedUsers.clear();
+    }
+
+    @Nullable
+    private RadioMast select(@Nonnull List<RadioMast> inRange, @Nullable RadioMast current, int x, int z) {
+        final RadioMast strongest = strongest(inRange, x, z);
+        if (strongest == null) return null;
+        if (current == null) return signal(strongest, x, z) >= Math.min(hysteresis, strongest.range() / 2) ? strongest : null;
+        if (!inRange.contains(current)) return strongest;
+        return signal(strongest, x, z) - signal(current, x, z) >= hysteresis ? strongest : current;
+    }
+
+    @Nullable
+    private static RadioMast strongest(@Nonnull List<RadioMast> inRange, int x, int z) {
+        RadioMast strongest = null;
+        int strongestSignal = Integer.MIN_VALUE;
+        for (int i = 0; i < inRange.size(); i++) {
+            final int signal = signal(inRange.get(i), x, z);
+            if (signal > strongestSignal) {
+                strongest = inRange.get(i);
+                strongestSignal = signal;
+            }
+        }
+        return strongest;
+    }
+
+    private static int signal(@Nonnull RadioMast radioMast, int x, int z) {
+        return radioMast.range() - radioMast.distance(x, z);
+    }
+
+    @Nullable
+    private RadioCoverageChange connect(@Nonnull OnlineUser user, @Nullable RadioMast previous, @Nullable RadioMast next) {
+        if (previous == next) return null;
+        disconnect(user, previous);
+        if (next != null) connectedUsers.computeIfAbsent(next, mast -> new LinkedHashSet<>()).add(user);
+        final RadioCoverageChange change = new RadioCoverageChange(user, previous, next);
+        change.toEvent().callEvent();
+        return change;
+    }
+
+    private void disconnect(@Nonnull OnlineUser user, @Nullable RadioMast radioMast) {
+        if (radioMast == null) return;
+        final Set<OnlineUser> users = connectedUsers.get(radioMast);
+        if (users != null && users.remove(user) && users.isEmpty()) connectedUsers.remove(radioMast);
+    }
+
+    private record State(UUID world, int x, int z, RadioMast mast) {
+    }
+}
@@ -0,0 +1,156 @@
+package minevalley.regions.api.movement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.event.OnlineUserEvent;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.event.UserEnterChunkEvent;
+import minevalley.regions.api.event.UserEnterDistrictEvent;
+import minevalley.regions.api.event.UserEnterRegionEvent;
+import minevalley.regions.api.event.UserLeaveRegionEvent;
+import minevalley.regions.api.structure.District;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.Cancellable;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A change of the regions and/or the chunk a user is in, detected by a {@link RegionTransitionTracker}.
+ * <p>
+ * A transition does not take effect in the tracker until it is {@link RegionTransitionTracker#accept(RegionTransition) accepted}.
+ * If the transition is cancelled (e.g. because one of its events was cancelled), it must not be accepted and the user
+ * is sent back to where they came from. Unless transitions are batched, each transition is announced by individual events
+ * (see {@link #callEvents(District, District)}).
+ */
+@Getter
+@SuppressWarnings("unused")
+public final class RegionTransition implements Cancellable {
+
+    @Setter
+    private boolean cancelled = false;
+
+    /**
+     * User whose regions changed.
+     */
+    private final OnlineUser user;
+
+    /**
+     * World the user is in after the transition.
+     */
+    private final World world;
+
+    /**
+     * Whether this is the first transition of the user, e.g. after joining or changing worlds.
+     * If so, the chunk the user comes from is meaningless.
+     */
+    private final boolean initial;
+
+    private final int fromChunkX;
+    private final int fromChunkZ;
+    private final int toChunkX;
+    private final int toChunkZ;
+
+    /**
+     * Regions the user enters, ordered by their id.
+     */
+    private final List<Region> entered;
+
+    /**
+     * Regions the user leaves, ordered by their id.
+     */
+    private final List<Region> left;
+
+    @Getter(AccessLevel.NONE)
+    final RegionTransitionTracker.State target;
+
+    RegionTransition(@Nonnull OnlineUser user, @Nonnull World world, boolean initial, int fromChunkX, int fromChunkZ,
+                     int toChunkX, int toChunkZ, @Nonnull List<Region> entered, @Nonnull List<Region> left,
+                     @Nonnull RegionTransitionTracker.State target) {
+        this.user = user;
+        this.world = world;
+        this.initial = initial;
+        this.fromChunkX = fromChunkX;
+        this.fromChunkZ = fromChunkZ;
+        this.toChunkX = toChunkX;
+        this.toChunkZ = toChunkZ;
+        this.entered = entered;
+        this.left = left;
+        this.target = target;
+    }
+
+    /**
+     * Checks whether the user enters a different chunk with this transition.
+     *
+     * @return true, if the chunk changes
+     */
+    @Contract(pure = true)
+    public boolean isChunkChanged() {
+        return initial || fromChunkX != toChunkX || fromChunkZ != toChunkZ;
+    }
+
+    /**
+     * Checks whether the user enters or leaves any region with this transition.
+     *
+     * @return true, if the regions change
+     */
+    @Contract(pure = true)
+    public boolean isRegionsChanged() {
+        return !entered.isEmpty() || !left.isEmpty();
+    }
+
+    /**
+     * Creates the events announcing this transition, in the order they are to be called: a {@link UserLeaveRegionEvent}
+     * for every region the user leaves, a {@link UserEnterChunkEvent} if the chunk changes, a {@link UserEnterDistrictEvent}
+     * if the district changes along with it, and a {@link UserEnterRegionEvent} for every region the user enters.
+     * <p>
+     * Transitions do not know about districts, so the districts of the chunks the user comes from and enters are passed
+     * in by the caller. For an {@link #isInitial() initial} transition, the chunk event comes from the chunk entered.
+     *
+     * @param fromDistrict district of the chunk the user comes from, or null if there is none
+     * @param toDistrict   district of the chunk the user enters, or null if there is none
+     * @return list of the events announcing this transition
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public List<OnlineUserEvent> toEvents(@Nullable District fromDistrict, @Nullable District toDistrict) {
+        final List<OnlineUserEvent> events = new ArrayList<>(left.size() + entered.size() + 2);
+        for (Region region : left) events.add(new UserLeaveRegionEvent(user, region));
+        if (isChunkChanged()) {
+            final Chunk from = world.getChunkAt(fromChunkX, fromChunkZ);
+            events.add(new UserEnterChunkEvent(user, from, world.getChunkAt(toChunkX, toChunkZ)));
+            if (toDistrict != null && (fromDistrict == null || fromDistrict.id() != toDistrict.id() || initial)) {
+                events.add(new UserEnterDistrictEvent(user, toDistrict));
+            }
+        }
+        for (Region region : entered) events.add(new UserEnterRegionEvent(user, region));
+        return events;
+    }
+
+    /**
+     * Calls the events announcing this transition (see {@link #toEvents(District, District)}) one after another.
+     * <p>
+     * As soon as one of the events is cancelled, this transition is cancelled as well and the remaining events are not
+     * called. Otherwise, the caller is to {@link RegionTransitionTracker#accept(RegionTransition) accept} the transition.
+     *
+     * @param fromDistrict district of the chunk the user comes from, or null if there is none
+     * @param toDistrict   district of the chunk the user enters, or null if there is none
+     * @return true, if none of the events was cancelled
+     */
+    public boolean callEvents(@Nullable District fromDistrict, @Nullable District toDistrict) {
+        for (OnlineUserEvent event : toEvents(fromDistrict, toDistrict)) {
+            event.callEvent();
+            if (event instanceof Cancellable cancellable && cancellable.isCancelled()) {
+                cancelled = true;
+                return false;
+            }
+        }
+        return true;
+    }
+}
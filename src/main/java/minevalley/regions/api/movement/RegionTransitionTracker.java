@@ -0,0 +1,195 @@
+package minevalley.regions.api.movement;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.index.RegionIndex;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Keeps track of the regions each user is in and detects when a user crosses a region or chunk boundary.
+ * <p>
+ * For every user, the tracker remembers the block where the regions were last evaluated, together with the distance
+ * from that block to the nearest region boundary (or chunk border, whichever is closer). As long as the user stays
+ * within that distance, neither the regions nor the chunk can have changed and {@link #check(OnlineUser, World, int, int, int)}
+ * returns after a couple of comparisons. Only when the user could have crossed a boundary, the regions are looked up again.
+ * <p>
+ * Transitions are applied in two steps: {@link #check(OnlineUser, World, int, int, int)} detects a transition and
+ * {@link #accept(RegionTransition)} applies it once its events have been dispatched and not been cancelled.
+ * Whenever regions are created, updated or removed, {@link #invalidate()} has to be called.
+ * <p>
+ * <b>Note:</b> This tracker is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class RegionTransitionTracker {
+
+    private static final Comparator<Region> BY_ID = Comparator.comparingInt(Region::id);
+    private static final Region[] NO_REGIONS = new Region[0];
+
+    private final RegionIndex index;
+    private final Map<OnlineUser, State> states = new HashMap<>();
+    private final List<Region> buffer = new ArrayList<>();
+
+    public RegionTransitionTracker(@Nonnull RegionIndex index) throws IllegalArgumentException {
+        if (index == null) throw new IllegalArgumentException("Index cannot be null");
+        this.index = index;
+    }
+
+    /**
+     * Checks whether the given user changes their regions or chunk by moving to the given block coordinates.
+     * <p>
+     * If neither changes, null is returned. A changed position without a transition is remembered right away.
+     *
+     * @param user  user that moves
+     * @param world world the user moves in
+     * @param x     x coordinate of the block the user moves to
+     * @param y     y coordinate of the block the user moves to
+     * @param z     z coordinate of the block the user moves to
+     * @return the detected transition, or null if there is none
+     * @throws IllegalArgumentException if the user or world is null
+     */
+    @Nullable
+    public RegionTransition check(@Nonnull OnlineUser user, @Nonnull World world, int x, int y, int z)
+            throws IllegalArgumentException {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        if (world == null) throw new IllegalArgumentException("World cannot be null");
+
+        final State current = states.get(user);
+        final boolean initial = current == null || !current.world.equals(world.getUID());
+        if (!initial && Math.max(Math.abs(x - current.x), Math.max(Math.abs(y - current.y), Math.abs(z - current.z))) <= current.safeDistance) {
+            return null;
+        }
+
+        index.getRegions(world, x, y, z, buffer);
+        final Region[] regions = buffer.isEmpty() ? NO_REGIONS : buffer.toArray(NO_REGIONS);
+        Arrays.sort(regions, BY_ID);
+        final State target = new State(world.getUID(), x, y, z, safeDistance(world, x, y, z), regions);
+
+        final List<Region> entered = new ArrayList<>(0);
+        final List<Region> left = new ArrayList<>(0);
+        diff(initial ? NO_REGIONS : current.regions, regions, entered, left);
+
+        if (!initial && entered.isEmpty() && left.isEmpty() && current.x >> 4 == x >> 4 && current.z >> 4 == z >> 4) {
+            states.put(user, target);
+            return null;
+        }
+        return new RegionTransition(user, world, initial,
+                initial ? x >> 4 : current.x >> 4, initial ? z >> 4 : current.z >> 4, x >> 4, z >> 4,
+                Collections.unmodifiableList(entered), Collections.unmodifiableList(left), target);
+    }
+
+    /**
+     * Applies the given transition, so the tracker considers the user to be in the transition's target regions.
+     *
+     * @param transition transition to apply
+     * @throws IllegalArgumentException if the transition is null
+     */
+    public void accept(@Nonnull RegionTransition transition) throws IllegalArgumentException {
+        if (transition == null) throw new IllegalArgumentException("Transition cannot be null");
+        states.put(transition.getUser(), transition.target);
+    }
+
+    /**
+     * Gets the regions the given user is currently in, ordered by their id.
+     *
+     * @param user user to get the regions of
+     * @return unmodifiable list of the user's regions
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<Region> getRegions(@Nonnull OnlineUser user) {
+        final State state = states.get(user);
+        return state == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(state.regions));
+    }
+
+    /**
+     * Gets the distance (in blocks, per axis) the given user can move away from the block where their regions were last
+     * evaluated, without possibly crossing a region boundary or chunk border.
+     *
+     * @param user user to get the distance of
+     * @return safe distance in blocks, or -1 if the user is not tracked
+     */
+    @Contract(pure = true)
+    public int getSafeDistance(@Nonnull OnlineUser user) {
+        final State state = states.get(user);
+        return state == null ? -1 : state.safeDistance;
+    }
+
+    /**
+     * Forces the regions of all users to be evaluated on their next move, e.g. after regions have changed.
+     * The regions the users are currently in are kept, so the next transitions are still detected correctly.
+     */
+    public void invalidate() {
+        states.replaceAll((user, state) -> new State(state.world, state.x, state.y, state.z, -1, state.regions));
+    }
+
+    /**
+     * Stops tracking the given user, e.g. when they quit.
+     *
+     * @param user user to stop tracking
+     */
+    public void remove(@Nonnull OnlineUser user) {
+        states.remove(user);
+    }
+
+    /**
+     * Stops tracking all users.
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    /**
+     * Computes the Chebyshev distance by which the given position can move without crossing the border of its chunk or
+     * the boundary of an area of any region overlapping its chunk.
+     */
+    private int safeDistance(@Nonnull World world, int x, int y, int z) {
+        int distance = Math.min(Math.min(x & 15, 15 - (x & 15)), Math.min(z & 15, 15 - (z & 15)));
+        final List<Region> candidates = index.getCandidates(world, x >> 4, z >> 4);
+        for (int i = 0; i < candidates.size() && distance > 0; i++) {
+            final Region region = candidates.get(i);
+            distance = Math.min(distance, safeDistance(region.included(), x, y, z));
+            distance = Math.min(distance, safeDistance(region.excluded(), x, y, z));
+        }
+        return distance;
+    }
+
+    private static int safeDistance(@Nonnull List<Area> areas, int x, int y, int z) {
+        int distance = Integer.MAX_VALUE;
+        for (int i = 0; i < areas.size(); i++) {
+            final Block min = areas.get(i).minBlock();
+            final Block max = areas.get(i).maxBlock();
+            final int gapX = Math.max(min.getX() - x, x - max.getX());
+            final int gapY = Math.max(min.getY() - y, y - max.getY());
+            final int gapZ = Math.max(min.getZ() - z, z - max.getZ());
+            // outside of the area, the largest gap is the distance to it. inside, it is the negated distance to the nearest face
+            final int gap = Math.max(gapX, Math.max(gapY, gapZ));
+            distance = Math.min(distance, gap > 0 ? gap - 1 : -gap);
+        }
+        return distance;
+    }
+
+    private static void diff(@Nonnull Region[] from, @Nonnull Region[] to, @Nonnull List<Region> entered,
+                             @Nonnull List<Region> left) {
+        int i = 0, j = 0;
+        while (i < from.length || j < to.length) {
+            if (j == to.length || (i < from.length && from[i].id() < to[j].id())) left.add(from[i++]);
+            else if (i == from.length || to[j].id() < from[i].id()) entered.add(to[j++]);
+            else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    record State(UUID world, int x, int y, int z, int safeDistance, Region[] regions) {
+    }
+}
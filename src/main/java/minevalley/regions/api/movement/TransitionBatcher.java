@@ -0,0 +1,96 @@
+package minevalley.regions.api.movement;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.event.UserRegionTransitionsEvent;
+import org.bukkit.World;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the transitions detected by a {@link RegionTransitionTracker} during a tick and dispatches them once per tick
+ * as a single {@link UserRegionTransitionsEvent}.
+ * <p>
+ * Transitions of the same user within a tick are coalesced: Since the tracker only applies a transition once it is
+ * accepted, every further move of that user in the same tick is compared to where the user was at the start of the tick.
+ * The latest transition therefore always spans the whole tick, and a user returning to where they started ends up
+ * without any transition.
+ * <p>
+ * <b>Note:</b> This batcher is not thread-safe and is meant to be accessed from the main thread only.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class TransitionBatcher {
+
+    private final RegionTransitionTracker tracker;
+    private final Map<OnlineUser, RegionTransition> pending = new LinkedHashMap<>();
+
+    public TransitionBatcher(@Nonnull RegionTransitionTracker tracker) throws IllegalArgumentException {
+        if (tracker == null) throw new IllegalArgumentException("Tracker cannot be null");
+        this.tracker = tracker;
+    }
+
+    /**
+     * Records a move of the given user to the given block coordinates.
+     *
+     * @param user  user that moves
+     * @param world world the user moves in
+     * @param x     x coordinate of the block the user moves to
+     * @param y     y coordinate of the block the user moves to
+     * @param z     z coordinate of the block the user moves to
+     * @throws IllegalArgumentException if the user or world is null
+     * @see RegionTransitionTracker#check(OnlineUser, World, int, int, int)
+     */
+    public void move(@Nonnull OnlineUser user, @Nonnull World world, int x, int y, int z) throws IllegalArgumentException {
+        final RegionTransition transition = tracker.check(user, world, x, y, z);
+        if (transition == null) pending.remove(user);
+        else pending.put(user, transition);
+    }
+
+    /**
+     * Discards the pending transition of the given user, e.g. when they quit.
+     *
+     * @param user user to discard the transition of
+     */
+    public void remove(@Nonnull OnlineUser user) {
+        pending.remove(user);
+    }
+
+    /**
+     * Gets the amount of transitions collected in the current tick.
+     *
+     * @return amount of pending transitions
+     */
+    @Contract(pure = true)
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Dispatches all transitions collected in the current tick as a single {@link UserRegionTransitionsEvent}.
+     * <p>
+     * Transitions that were not cancelled by any listener are accepted by the tracker. The cancelled ones are returned,
+     * so the provider can send their users back to where they came from.
+     *
+     * @return list of the cancelled transitions
+     */
+    @Nonnull
+    public List<RegionTransition> flush() {
+        if (pending.isEmpty()) return new ArrayList<>(0);
+        final UserRegionTransitionsEvent event = new UserRegionTransitionsEvent(new ArrayList<>(pending.values()));
+        pending.clear();
+        event.callEvent();
+
+        final List<RegionTransition> cancelled = new ArrayList<>(0);
+        for (RegionTransition transition : event.getTransitions()) {
+            if (transition.isCancelled()) cancelled.add(transition);
+            else tracker.accept(transition);
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,64 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.Connection;
+import minevalley.regions.api.structure.Street.NavigationHint;
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * A route between two navigation points, as found by a {@link RoutingGraph}.
+ *
+ * @param points navigation points along the route, starting with the start and ending with the destination
+ * @param steps  steps between consecutive navigation points, one less than there are points
+ * @param weight total weight of all connections used
+ */
+@SuppressWarnings("unused")
+public record Route(@Nonnull List<NavigationPoint> points, @Nonnull List<Step> steps, @Nonnegative long weight) {
+
+    public Route {
+        if (points == null || points.isEmpty()) throw new IllegalArgumentException("points cannot be null or empty");
+        if (steps == null) throw new IllegalArgumentException("steps cannot be null");
+        if (steps.size() != points.size() - 1) throw new IllegalArgumentException("steps must connect the points");
+        if (weight < 0) throw new IllegalArgumentException("weight cannot be negative");
+        points = List.copyOf(points);
+        steps = List.copyOf(steps);
+    }
+
+    /**
+     * Gets the navigation point this route starts at.
+     *
+     * @return start of this route
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public NavigationPoint start() {
+        return points.get(0);
+    }
+
+    /**
+     * Gets the navigation point this route leads to.
+     *
+     * @return destination of this route
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public NavigationPoint destination() {
+        return points.get(points.size() - 1);
+    }
+
+    /**
+     * A single step of a route, following one connection.
+     *
+     * @param from       navigation point the step starts at
+     * @param to         navigation point the step leads to
+     * @param connection connection that is followed
+     * @param hint       navigation hint of the connection when used from {@code from}
+     */
+    public record Step(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to, @Nonnull Connection connection,
+                       @Nonnull NavigationHint hint) {
+    }
+}
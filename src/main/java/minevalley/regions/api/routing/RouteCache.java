@@ -0,0 +1,342 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.Connection;
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import minevalley.regions.api.structure.Street.OneWayConnection;
+import minevalley.regions.api.structure.Street.TwoWayConnection;
+import org.bukkit.Location;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Least-recently-used cache of routes, keyed by start, destination and the {@link WeightOverlay} used as vehicle profile.
+ * <p>
+ * The cache keeps track of the connections every cached route uses, so edits of the road network only invalidate the
+ * routes they can actually affect:
+ * <ul>
+ *     <li>A {@link #invalidate(Connection) removed} connection invalidates exactly the routes that use it.</li>
+ *     <li>An {@link #invalidateAdded(Connection) added} connection invalidates the routes it could shorten. A route is kept
+ *     if even the straight-line lower bound of a detour via the new connection is not cheaper than the route.</li>
+ *     <li>A {@link #invalidate(NavigationPoint) removed} navigation point invalidates the routes that start or end there.</li>
+ *     <li>A changed overlay has to be {@link #invalidate(WeightOverlay) invalidated} as a whole.</li>
+ * </ul>
+ * Since routes are computed on other threads, every route is {@link #put put} together with the {@link #epoch()} that was
+ * current when its computation started. If anything was invalidated in the meantime, the route might be outdated and is
+ * not cached.
+ * <p>
+ * Navigation points, connections and overlays are compared by identity. Unreachable destinations are not cached.
+ * <p>
+ * This cache is thread-safe.
+ */
+@SuppressWarnings("unused")
+public final class RouteCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Route> routes;
+    private final Map<Connection, Set<Key>> keysByConnection = new IdentityHashMap<>();
+    private final Map<NavigationPoint, Set<Key>> keysByPoint = new IdentityHashMap<>();
+    private double weightPerBlock;
+    private long epoch;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache holding at most the given amount of routes.
+     *
+     * @param capacity       maximum amount of cached routes
+     * @param weightPerBlock smallest weight per block of any connection, as given by {@link RoutingGraph#weightPerBlock()}
+     * @throws IllegalArgumentException if the capacity is not positive or the weight per block is negative
+     */
+    public RouteCache(int capacity, @Nonnegative double weightPerBlock) throws IllegalArgumentException {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        if (!(weightPerBlock >= 0)) throw new IllegalArgumentException("Weight per block cannot be negative");
+        this.capacity = capacity;
+        this.weightPerBlock = weightPerBlock;
+        this.routes = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the cached route between the given navigation points. Counts as a hit or a miss.
+     *
+     * @param from    navigation point the route starts at
+     * @param to      navigation point the route leads to
+     * @param profile overlay the route was computed with, or null for the weights of the graph
+     * @return cached route, or null if there is none
+     */
+    @Nullable
+    public synchronized Route get(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to, @Nullable WeightOverlay profile) {
+        final Route route = routes.get(new Key(from, to, profile));
+        if (route == null) misses++;
+        else hits++;
+        return route;
+    }
+
+    /**
+     * Caches the given route, unless something was invalidated since the given epoch. If the cache is full, the least
+     * recently used route is evicted.
+     *
+     * @param profile overlay the route was computed with, or null for the weights of the graph
+     * @param route   route to cache, or null if the destination is unreachable
+     * @param epoch   {@link #epoch()} at the time the computation of the route started
+     * @return true, if the route was cached
+     */
+    public synchronized boolean put(@Nullable WeightOverlay profile, @Nullable Route route, long epoch) {
+        if (route == null || epoch != this.epoch) return false;
+        final Key key = new Key(route.start(), route.destination(), profile);
+        remove(key);
+        routes.put(key, route);
+        for (Route.Step step : route.steps()) link(keysByConnection, step.connection(), key);
+        link(keysByPoint, key.from(), key);
+        link(keysByPoint, key.to(), key);
+
+        if (routes.size() > capacity) {
+            final Iterator<Map.Entry<Key, Route>> eldest = routes.entrySet().iterator();
+            final Map.Entry<Key, Route> evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+        return true;
+    }
+
+    /**
+     * Invalidates all routes that use the given connection, e.g. because it has been removed.
+     *
+     * @param connection removed connection
+     * @return amount of invalidated routes
+     */
+    public synchronized int invalidate(@Nullable Connection connection) {
+        epoch++;
+        final Set<Key> keys = connection == null ? null : keysByConnection.get(connection);
+        return keys == null ? 0 : removeAll(keys);
+    }
+
+    /**
+     * Invalidates all routes that start or end at the given navigation point, e.g. because it has been removed.
+     *
+     * @param navigationPoint removed navigation point
+     * @return amount of invalidated routes
+     */
+    public synchronized int invalidate(@Nullable NavigationPoint navigationPoint) {
+        epoch++;
+        final Set<Key> keys = navigationPoint == null ? null : keysByPoint.get(navigationPoint);
+        return keys == null ? 0 : removeAll(keys);
+    }
+
+    /**
+     * Invalidates all routes computed with the given overlay, e.g. because its weights changed.
+     *
+     * @param profile changed overlay, or null for the routes computed with the weights of the graph
+     * @return amount of invalidated routes
+     */
+    public synchronized int invalidate(@Nullable WeightOverlay profile) {
+        epoch++;
+        final List<Key> keys = new ArrayList<>();
+        for (Key key : routes.keySet()) {
+            if (key.profile() == profile) keys.add(key);
+        }
+        return removeAll(keys);
+    }
+
+    /**
+     * Invalidates all routes that could become cheaper by using the given connection, which has just been added.
+     * <p>
+     * A route from {@code s} to {@code t} is kept if, for every direction {@code u → v} of the connection, the straight
+     * distances {@code s → u} and {@code v → t} scaled by the smallest weight per block, plus the weight of the connection,
+     * are not lower than the weight of the route.
+     *
+     * @param connection added connection
+     * @return amount of invalidated routes
+     */
+    public synchronized int invalidateAdded(@Nullable Connection connection) {
+        epoch++;
+        if (connection == null || routes.isEmpty()) return 0;
+        final List<NavigationPoint> ends = switch (connection) {
+            case OneWayConnection oneWay -> List.of(oneWay.from());
+            case TwoWayConnection twoWay -> List.of(twoWay.point1(), twoWay.point2());
+            // the ends of unknown connections cannot be told, so any route might become cheaper
+            default -> null;
+        };
+        if (ends == null) return removeAll(routes.keySet());
+        for (NavigationPoint from : ends) {
+            final NavigationPoint to = connection.getDestination(from);
+            final double distance = distance(from.location(), to.location());
+            if (distance > 0) weightPerBlock = Math.min(weightPerBlock, connection.weight() / distance);
+        }
+
+        final List<Key> keys = new ArrayList<>();
+        for (Map.Entry<Key, Route> entry : routes.entrySet()) {
+            final Route route = entry.getValue();
+            for (NavigationPoint from : ends) {
+                final double bound = weightPerBlock * distance(route.start().location(), from.location())
+                        + connection.weight()
+                        + weightPerBlock * distance(connection.getDestination(from).location(), route.destination().location());
+                if (bound < route.weight()) {
+                    keys.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return removeAll(keys);
+    }
+
+    /**
+     * Updates the smallest weight per block of any connection, e.g. after a new {@link RoutingGraph} has been published.
+     *
+     * @param weightPerBlock smallest weight per block, as given by {@link RoutingGraph#weightPerBlock()}
+     * @throws IllegalArgumentException if the weight per block is negative
+     */
+    public synchronized void setWeightPerBlock(@Nonnegative double weightPerBlock) throws IllegalArgumentException {
+        if (!(weightPerBlock >= 0)) throw new IllegalArgumentException("Weight per block cannot be negative");
+        this.weightPerBlock = weightPerBlock;
+    }
+
+    /**
+     * Removes all routes. The statistics are kept.
+     */
+    public synchronized void clear() {
+        epoch++;
+        routes.clear();
+        keysByConnection.clear();
+        keysByPoint.clear();
+    }
+
+    /**
+     * Gets the current epoch, which changes whenever something is invalidated. Pass it to {@link #put} once the route has
+     * been computed.
+     *
+     * @return current epoch
+     */
+    @Contract(pure = true)
+    public synchronized long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Gets the amount of cached routes.
+     *
+     * @return amount of cached routes
+     */
+    @Contract(pure = true)
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * Gets the maximum amount of cached routes.
+     *
+     * @return capacity of this cache
+     */
+    @Contract(pure = true)
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the amount of lookups that found a route.
+     *
+     * @return amount of hits
+     */
+    @Contract(pure = true)
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the amount of lookups that did not find a route.
+     *
+     * @return amount of misses
+     */
+    @Contract(pure = true)
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the amount of routes evicted because the cache was full. Invalidated routes are not counted.
+     *
+     * @return amount of evictions
+     */
+    @Contract(pure = true)
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the share of lookups that found a route.
+     *
+     * @return hit rate between 0 and 1, or 0 if there was no lookup yet
+     */
+    @Contract(pure = true)
+    public synchronized double getHitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Resets hits, misses and evictions to zero.
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    private int removeAll(@Nonnull Collection<Key> keys) {
+        // copied, since removing a key modifies the sets of the reverse indices
+        int removed = 0;
+        for (Key key : List.copyOf(keys)) {
+            if (remove(key)) removed++;
+        }
+        return removed;
+    }
+
+    private boolean remove(@Nonnull Key key) {
+        final Route route = routes.remove(key);
+        if (route == null) return false;
+        unlink(key, route);
+        return true;
+    }
+
+    private void unlink(@Nonnull Key key, @Nonnull Route route) {
+        for (Route.Step step : route.steps()) unlink(keysByConnection, step.connection(), key);
+        unlink(keysByPoint, key.from(), key);
+        unlink(keysByPoint, key.to(), key);
+    }
+
+    private static <T> void link(@Nonnull Map<T, Set<Key>> index, @Nonnull T value, @Nonnull Key key) {
+        index.computeIfAbsent(value, v -> new HashSet<>()).add(key);
+    }
+
+    private static <T> void unlink(@Nonnull Map<T, Set<Key>> index, @Nonnull T value, @Nonnull Key key) {
+        final Set<Key> keys = index.get(value);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) index.remove(value);
+    }
+
+    private static double distance(@Nonnull Location from, @Nonnull Location to) {
+        if (from.getWorld() != to.getWorld()) return 0;
+        final double dx = from.getX() - to.getX();
+        final double dy = from.getY() - to.getY();
+        final double dz = from.getZ() - to.getZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private record Key(NavigationPoint from, NavigationPoint to, WeightOverlay profile) {
+
+        // compared by identity, since the equality of navigation points depends on their connections
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && from == key.from && to == key.to && profile == key.profile;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(from) + System.identityHashCode(to)) + System.identityHashCode(profile);
+        }
+    }
+}
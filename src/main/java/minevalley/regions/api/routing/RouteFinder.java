@@ -0,0 +1,165 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.NavigationPoint;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A* search over a {@link RoutingGraph}.
+ * <p>
+ * The heuristic is the straight distance to the destination scaled by {@link RoutingGraph#weightPerBlock()}. Since no edge
+ * is cheaper per block, it never overestimates and is consistent, so every node is settled at most once. A
+ * {@link WeightOverlay} can only raise weights, which keeps the heuristic valid.
+ * <p>
+ * The search state is kept per thread and reused across searches: distances are only valid for nodes whose stamp matches
+ * the current search, so nothing has to be cleared between searches and a search does not allocate apart from the
+ * resulting route.
+ */
+final class RouteFinder {
+
+    private static final ThreadLocal<RouteFinder> FINDERS = ThreadLocal.withInitial(RouteFinder::new);
+
+    private int stamp;
+    private int[] stamps = new int[0];
+    private long[] distances = new long[0];
+    private int[] parentEdges = new int[0];
+    private int[] parents = new int[0];
+    private boolean[] settled = new boolean[0];
+
+    private long[] heapKeys = new long[16];
+    private int[] heapNodes = new int[16];
+    private int heapSize;
+
+    private RouteFinder() {
+    }
+
+    @Nullable
+    static Route find(@Nonnull RoutingGraph graph, @Nonnull NavigationPoint from, @Nonnull NavigationPoint to,
+                      @Nullable WeightOverlay overlay) throws IllegalArgumentException {
+        if (overlay != null && overlay.graph() != graph) {
+            throw new IllegalArgumentException("Overlay belongs to another routing graph");
+        }
+        final int start = graph.indexOf(from);
+        if (start < 0) throw new IllegalArgumentException("Start is not part of the routing graph");
+        final int target = graph.indexOf(to);
+        if (target < 0) throw new IllegalArgumentException("Destination is not part of the routing graph");
+        return FINDERS.get().search(graph, overlay == null ? graph.weights() : overlay.weights(), start, target);
+    }
+
+    @Nullable
+    private Route search(@Nonnull RoutingGraph graph, @Nonnull int[] weights, int start, int target) {
+        prepare(graph.nodeCount());
+        final double weightPerBlock = graph.weightPerBlock();
+
+        visit(start, 0, -1, -1);
+        push(heuristic(graph, start, target, weightPerBlock), start);
+        while (heapSize > 0) {
+            final int node = pop();
+            if (settled[node]) continue;
+            settled[node] = true;
+            if (node == target) return route(graph, start, target);
+
+            final long distance = distances[node];
+            for (int edge = graph.firstEdge(node), end = graph.endEdge(node); edge < end; edge++) {
+                if (weights[edge] == WeightOverlay.CLOSED) continue;
+                final int next = graph.target(edge);
+                final long candidate = distance + weights[edge];
+                if (stamps[next] == stamp && (settled[next] || distances[next] <= candidate)) continue;
+                visit(next, candidate, edge, node);
+                push(candidate + heuristic(graph, next, target, weightPerBlock), next);
+            }
+        }
+        return null;
+    }
+
+    private static long heuristic(@Nonnull RoutingGraph graph, int node, int target, double weightPerBlock) {
+        if (weightPerBlock == 0 || !graph.sameWorld(node, target)) return 0;
+        return (long) Math.floor(graph.distance(node, target) * weightPerBlock);
+    }
+
+    @Nonnull
+    private Route route(@Nonnull RoutingGraph graph, int start, int target) {
+        final List<Route.Step> steps = new ArrayList<>();
+        for (int node = target; node != start; node = parents[node]) {
+            final int edge = parentEdges[node];
+            steps.add(new Route.Step(graph.point(parents[node]), graph.point(node), graph.connection(edge),
+                    graph.hint(edge)));
+        }
+
+        final List<NavigationPoint> points = new ArrayList<>(steps.size() + 1);
+        points.add(graph.point(start));
+        final List<Route.Step> ordered = new ArrayList<>(steps.size());
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            ordered.add(steps.get(i));
+            points.add(steps.get(i).to());
+        }
+        return new Route(points, ordered, distances[target]);
+    }
+
+    private void prepare(int nodeCount) {
+        if (stamps.length < nodeCount) {
+            stamps = new int[nodeCount];
+            distances = new long[nodeCount];
+            parentEdges = new int[nodeCount];
+            parents = new int[nodeCount];
+            settled = new boolean[nodeCount];
+            stamp = 0;
+        }
+        if (++stamp == 0) {
+            // the stamp wrapped around, so stale stamps could match again
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        heapSize = 0;
+    }
+
+    private void visit(int node, long distance, int edge, int parent) {
+        if (stamps[node] != stamp) {
+            stamps[node] = stamp;
+            settled[node] = false;
+        }
+        distances[node] = distance;
+        parentEdges[node] = edge;
+        parents[node] = parent;
+    }
+
+    private void push(long key, int node) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize << 1);
+            heapNodes = Arrays.copyOf(heapNodes, heapSize << 1);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (heapKeys[parent] <= key) break;
+            heapKeys[i] = heapKeys[parent];
+            heapNodes[i] = heapNodes[parent];
+            i = parent;
+        }
+        heapKeys[i] = key;
+        heapNodes[i] = node;
+    }
+
+    private int pop() {
+        final int node = heapNodes[0];
+        final long key = heapKeys[--heapSize];
+        final int last = heapNodes[heapSize];
+        int i = 0;
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+            if (key <= heapKeys[child]) break;
+            heapKeys[i] = heapKeys[child];
+            heapNodes[i] = heapNodes[child];
+            i = child;
+        }
+        heapKeys[i] = key;
+        heapNodes[i] = last;
+        return node;
+    }
+}
@@ -0,0 +1,161 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Answers route requests on a {@link RoutingGraph} off the main thread.
+ * <p>
+ * The engine either works on a single graph, or reads the {@link RoutingGraphStore#current() current} graph of a
+ * {@link RoutingGraphStore}, which is replaced as a whole whenever the road network changes. Every request works on the
+ * graph that was current when it was submitted, so publishing a new graph never affects requests in progress. Since the
+ * graph is immutable and every thread reuses its own search state, requests run in parallel without any locking.
+ * <p>
+ * The navigation points of a request have to be part of the graph that is current when the request is submitted.
+ */
+@SuppressWarnings("unused")
+public final class RoutingEngine {
+
+    private final Supplier<RoutingGraph> graph;
+    private final Executor executor;
+
+    /**
+     * Creates an engine on the given graph that runs requests on the common fork join pool.
+     *
+     * @param graph graph to find routes on
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public RoutingEngine(@Nonnull RoutingGraph graph) throws IllegalArgumentException {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an engine on the given graph that runs requests on the given executor.
+     *
+     * @param graph    graph to find routes on
+     * @param executor executor to run requests on
+     * @throws IllegalArgumentException if the graph or executor is null
+     */
+    public RoutingEngine(@Nonnull RoutingGraph graph, @Nonnull Executor executor) throws IllegalArgumentException {
+        if (graph == null) throw new IllegalArgumentException("Graph cannot be null");
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        this.graph = () -> graph;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an engine on the current graph of the given store that runs requests on the common fork join pool.
+     *
+     * @param store store to read the current graph from
+     * @throws IllegalArgumentException if the store is null
+     */
+    public RoutingEngine(@Nonnull RoutingGraphStore store) throws IllegalArgumentException {
+        this(store, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an engine on the current graph of the given store that runs requests on the given executor.
+     *
+     * @param store    store to read the current graph from
+     * @param executor executor to run requests on
+     * @throws IllegalArgumentException if the store or executor is null
+     */
+    public RoutingEngine(@Nonnull RoutingGraphStore store, @Nonnull Executor executor) throws IllegalArgumentException {
+        if (store == null) throw new IllegalArgumentException("Store cannot be null");
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        this.graph = store::current;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the current graph.
+     *
+     * @return current graph
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public RoutingGraph getGraph() {
+        return graph.get();
+    }
+
+    /**
+     * Finds the cheapest route between the given navigation points on the calling thread.
+     *
+     * @param from navigation point to start at
+     * @param to   navigation point to arrive at
+     * @return cheapest route, or null if the destination cannot be reached from the start
+     * @throws IllegalArgumentException if either navigation point is null or not part of the current graph
+     */
+    @Nullable
+    @Contract(pure = true)
+    public Route findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to) throws IllegalArgumentException {
+        return findRoute(from, to, null);
+    }
+
+    /**
+     * Finds the cheapest route between the given navigation points on the calling thread, using the weights of the given
+     * overlay.
+     *
+     * @param from    navigation point to start at
+     * @param to      navigation point to arrive at
+     * @param overlay overlay to take the weights from, or null to use the weights of the graph
+     * @return cheapest route, or null if the destination cannot be reached from the start
+     * @throws IllegalArgumentException if either navigation point is null or not part of the current graph, or the overlay
+     *                                  belongs to another graph
+     */
+    @Nullable
+    @Contract(pure = true)
+    public Route findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to, @Nullable WeightOverlay overlay)
+            throws IllegalArgumentException {
+        if (from == null) throw new IllegalArgumentException("Start cannot be null");
+        if (to == null) throw new IllegalArgumentException("Destination cannot be null");
+        return RouteFinder.find(graph.get(), from, to, overlay);
+    }
+
+    /**
+     * Finds the cheapest route between the given navigation points on the executor of this engine.
+     * <p>
+     * The returned future completes with null if the destination cannot be reached from the start, and exceptionally with
+     * an {@link IllegalArgumentException} if either navigation point is not part of the current graph.
+     *
+     * @param from navigation point to start at
+     * @param to   navigation point to arrive at
+     * @return future of the cheapest route
+     * @throws IllegalArgumentException if either navigation point is null
+     */
+    @Nonnull
+    public CompletableFuture<Route> findRouteAsync(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to)
+            throws IllegalArgumentException {
+        return findRouteAsync(from, to, null);
+    }
+
+    /**
+     * Finds the cheapest route between the given navigation points on the executor of this engine, using the weights of
+     * the given overlay.
+     * <p>
+     * The returned future completes with null if the destination cannot be reached from the start, and exceptionally with
+     * an {@link IllegalArgumentException} if either navigation point is not part of the current graph or the overlay
+     * belongs to another graph. Changes to the overlay while the route is computed may or may not be taken into account.
+     *
+     * @param from    navigation point to start at
+     * @param to      navigation point to arrive at
+     * @param overlay overlay to take the weights from, or null to use the weights of the graph
+     * @return future of the cheapest route
+     * @throws IllegalArgumentException if either navigation point is null
+     */
+    @Nonnull
+    public CompletableFuture<Route> findRouteAsync(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to,
+                                                   @Nullable WeightOverlay overlay) throws IllegalArgumentException {
+        if (from == null) throw new IllegalArgumentException("Start cannot be null");
+        if (to == null) throw new IllegalArgumentException("Destination cannot be null");
+        final RoutingGraph graph = this.graph.get();
+        return CompletableFuture.supplyAsync(() -> RouteFinder.find(graph, from, to, overlay), executor);
+    }
+}
@@ -0,0 +1,313 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.Connection;
+import minevalley.regions.api.structure.Street.NavigationHint;
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import org.bukkit.Location;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Immutable, compiled copy of the road graph formed by {@link NavigationPoint}s and their {@link Connection}s.
+ * <p>
+ * The graph is stored in compressed adjacency arrays: every navigation point is a node with a dense index, and the edges
+ * leaving node {@code n} are the entries {@code offsets[n]} (inclusive) to {@code offsets[n + 1]} (exclusive) of the edge
+ * arrays. Each edge stores its target node, its {@link Connection#weight() weight} and its {@link NavigationHint}, so a
+ * search neither calls into the connections nor allocates per edge. Dynamic weights, e.g. congestion or closures, are
+ * applied with a {@link WeightOverlay} instead of changing the graph.
+ * <p>
+ * The graph is compiled on the main thread from the live navigation points and can afterwards be searched from any
+ * thread. Changes to the live navigation points are not reflected; a new graph has to be compiled instead.
+ * <p>
+ * <b>Note:</b> Navigation points are records whose equality depends on their connections, which in turn refer back to
+ * the navigation points. They are therefore always looked up by identity.
+ */
+@SuppressWarnings("unused")
+public final class RoutingGraph {
+
+    private static final NavigationHint[] HINTS = NavigationHint.values();
+    private static final int[] NO_EDGES = new int[0];
+
+    private final long version;
+    private final NavigationPoint[] points;
+    private final Map<NavigationPoint, Integer> indices;
+    private final UUID[] worlds;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final byte[] hints;
+    private final Connection[] connections;
+    private final int[] sources;
+    private final Map<Connection, int[]> edgesByConnection;
+    private final double weightPerBlock;
+
+    RoutingGraph(long version, @Nonnull NavigationPoint[] points, @Nonnull int[] offsets, @Nonnull int[] targets,
+                 @Nonnull int[] weights, @Nonnull byte[] hints, @Nonnull Connection[] connections) {
+        this.version = version;
+        this.points = points;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.hints = hints;
+        this.connections = connections;
+
+        this.indices = new IdentityHashMap<>(points.length);
+        this.worlds = new UUID[points.length];
+        this.xs = new double[points.length];
+        this.ys = new double[points.length];
+        this.zs = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            final Location location = points[i].location();
+            indices.put(points[i], i);
+            worlds[i] = location.getWorld() == null ? null : location.getWorld().getUID();
+            xs[i] = location.getX();
+            ys[i] = location.getY();
+            zs[i] = location.getZ();
+        }
+
+        this.sources = new int[targets.length];
+        this.edgesByConnection = new IdentityHashMap<>(connections.length);
+        for (int node = 0; node < points.length; node++) {
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                sources[edge] = node;
+                final int[] edges = edgesByConnection.get(connections[edge]);
+                if (edges == null) {
+                    edgesByConnection.put(connections[edge], new int[]{edge});
+                } else {
+                    final int[] extended = Arrays.copyOf(edges, edges.length + 1);
+                    extended[edges.length] = edge;
+                    edgesByConnection.put(connections[edge], extended);
+                }
+            }
+        }
+
+        // the smallest weight per block of any edge keeps the A* heuristic admissible
+        double weightPerBlock = Double.MAX_VALUE;
+        for (int node = 0; node < points.length; node++) {
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                final double distance = distance(node, targets[edge]);
+                if (distance > 0) weightPerBlock = Math.min(weightPerBlock, weights[edge] / distance);
+            }
+        }
+        this.weightPerBlock = weightPerBlock == Double.MAX_VALUE ? 0 : Math.max(0, weightPerBlock);
+    }
+
+    /**
+     * Compiles the given navigation points and their connections into a graph.
+     * <p>
+     * Connections leading to navigation points that are not part of the given collection are left out.
+     * <p>
+     * <b>Note:</b> This reads the live navigation points and therefore has to be called on the main thread.
+     *
+     * @param version          version of the graph, e.g. a counter incremented on every change of the road network
+     * @param navigationPoints all navigation points
+     * @return compiled graph
+     * @throws IllegalArgumentException if the navigation points are null or contain null, or a connection cannot tell its
+     *                                  destination
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public static RoutingGraph compile(long version, @Nonnull Collection<NavigationPoint> navigationPoints)
+            throws IllegalArgumentException {
+        if (navigationPoints == null) throw new IllegalArgumentException("Navigation points cannot be null");
+        final Map<NavigationPoint, Integer> indices = new IdentityHashMap<>(navigationPoints.size());
+        final List<NavigationPoint> points = new ArrayList<>(navigationPoints.size());
+        for (NavigationPoint point : navigationPoints) {
+            if (point == null) throw new IllegalArgumentException("Navigation points cannot contain null");
+            if (indices.putIfAbsent(point, points.size()) == null) points.add(point);
+        }
+
+        final int[] offsets = new int[points.size() + 1];
+        final List<Connection> edges = new ArrayList<>();
+        final List<Integer> edgeTargets = new ArrayList<>();
+        for (int node = 0; node < points.size(); node++) {
+            final NavigationPoint point = points.get(node);
+            for (Connection connection : point.connections()) {
+                if (!connection.isUsableFromHere(point)) continue;
+                final Integer target = indices.get(destination(connection, point));
+                if (target == null) continue;
+                edges.add(connection);
+                edgeTargets.add(target);
+            }
+            offsets[node + 1] = edges.size();
+        }
+
+        final int[] targets = new int[edges.size()];
+        final int[] weights = new int[edges.size()];
+        final byte[] hints = new byte[edges.size()];
+        for (int node = 0; node < points.size(); node++) {
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                final Connection connection = edges.get(edge);
+                targets[edge] = edgeTargets.get(edge);
+                weights[edge] = Math.max(0, connection.weight());
+                final NavigationHint hint = connection.getNavigationHint(points.get(node));
+                hints[edge] = (byte) (hint == null ? NavigationHint.NONE : hint).ordinal();
+            }
+        }
+        return new RoutingGraph(version, points.toArray(new NavigationPoint[0]), offsets, targets, weights, hints,
+                edges.toArray(new Connection[0]));
+    }
+
+    /**
+     * Gets the version this graph was compiled with.
+     *
+     * @return version of this graph
+     */
+    @Contract(pure = true)
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Gets the amount of nodes (navigation points) of this graph.
+     *
+     * @return amount of nodes
+     */
+    @Contract(pure = true)
+    public int nodeCount() {
+        return points.length;
+    }
+
+    /**
+     * Gets the amount of directed edges of this graph. A two-way connection results in two edges.
+     *
+     * @return amount of edges
+     */
+    @Contract(pure = true)
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Gets the index of the given navigation point.
+     *
+     * @param navigationPoint navigation point to get the index of
+     * @return index of the node, or -1 if the navigation point is not part of this graph
+     */
+    @Contract(pure = true)
+    public int indexOf(@Nullable NavigationPoint navigationPoint) {
+        final Integer index = navigationPoint == null ? null : indices.get(navigationPoint);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the navigation point of the given node.
+     *
+     * @param node index of the node
+     * @return navigation point of the node
+     * @throws IndexOutOfBoundsException if there is no such node
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public NavigationPoint point(@Nonnegative int node) throws IndexOutOfBoundsException {
+        return points[node];
+    }
+
+    /**
+     * Gets the lower bound on the weight per block of distance of any edge, which scales the A* heuristic.
+     *
+     * @return smallest weight per block
+     */
+    @Contract(pure = true)
+    public double weightPerBlock() {
+        return weightPerBlock;
+    }
+
+    /**
+     * Finds the cheapest route between the given navigation points.
+     *
+     * @param from navigation point to start at
+     * @param to   navigation point to arrive at
+     * @return cheapest route, or null if the destination cannot be reached from the start
+     * @throws IllegalArgumentException if either navigation point is not part of this graph
+     * @see RouteFinder
+     */
+    @Nullable
+    @Contract(pure = true)
+    public Route findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to) throws IllegalArgumentException {
+        return RouteFinder.find(this, from, to, null);
+    }
+
+    /**
+     * Finds the cheapest route between the given navigation points, using the weights of the given overlay.
+     *
+     * @param from    navigation point to start at
+     * @param to      navigation point to arrive at
+     * @param overlay overlay to take the weights from, or null to use the weights of this graph
+     * @return cheapest route, or null if the destination cannot be reached from the start
+     * @throws IllegalArgumentException if either navigation point is not part of this graph, or the overlay belongs to
+     *                                  another graph
+     */
+    @Nullable
+    @Contract(pure = true)
+    public Route findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to, @Nullable WeightOverlay overlay)
+            throws IllegalArgumentException {
+        return RouteFinder.find(this, from, to, overlay);
+    }
+
+    @Nullable
+    private static NavigationPoint destination(@Nonnull Connection connection, @Nonnull NavigationPoint from)
+            throws IllegalArgumentException {
+        try {
+            return connection.getDestination(from);
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalArgumentException("Connection " + connection.getClass().getName()
+                    + " cannot tell its destination, so it cannot be routed", e);
+        }
+    }
+
+        int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    int source(int edge) {
+        return sources[edge];
+    }
+
+    int target(int edge) {
+        return targets[edge];
+    }
+
+    @Nonnull
+    int[] weights() {
+        return weights;
+    }
+
+    @Nonnull
+    int[] edges(@Nonnull Connection connection) {
+        final int[] edges = edgesByConnection.get(connection);
+        return edges == null ? NO_EDGES : edges;
+    }
+
+    @Nonnull
+    NavigationHint hint(int edge) {
+        return HINTS[hints[edge]];
+    }
+
+    @Nonnull
+    Connection connection(int edge) {
+        return connections[edge];
+    }
+
+    boolean sameWorld(int node, int other) {
+        return Objects.equals(worlds[node], worlds[other]);
+    }
+
+    double distance(int node, int other) {
+        final double dx = xs[node] - xs[other];
+        final double dy = ys[node] - ys[other];
+        final double dz = zs[node] - zs[other];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -0,0 +1,131 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Copy-on-write holder of the current {@link RoutingGraph}, publishing a new immutable version of the road network after
+ * every edit.
+ * <p>
+ * Edits of navigation points and connections happen on the main thread inside a transaction: {@link #begin()} opens one,
+ * the edits {@link #markDirty() mark} the store as dirty, and the outermost {@link #commit()} compiles and publishes a new
+ * graph if anything changed. Transactions can be nested, so a batch of edits results in a single new version, no matter
+ * how many single edits open their own transaction along the way.
+ * <p>
+ * Readers call {@link #current()} from any thread, which is a single volatile read and never takes a lock. The graph they
+ * get is a consistent snapshot, which they can traverse while the main thread keeps editing.
+ */
+@SuppressWarnings("unused")
+public final class RoutingGraphStore {
+
+    private final Supplier<? extends Collection<NavigationPoint>> navigationPoints;
+    private volatile RoutingGraph current;
+    private long version;
+    private int depth;
+    private boolean dirty;
+
+    /**
+     * Creates a store that compiles the navigation points returned by the given supplier.
+     *
+     * @param navigationPoints supplier of all live navigation points, called on the main thread
+     * @throws IllegalArgumentException if the supplier is null
+     */
+    public RoutingGraphStore(@Nonnull Supplier<? extends Collection<NavigationPoint>> navigationPoints)
+            throws IllegalArgumentException {
+        if (navigationPoints == null) throw new IllegalArgumentException("Navigation points cannot be null");
+        this.navigationPoints = navigationPoints;
+        this.current = RoutingGraph.compile(version, navigationPoints.get());
+    }
+
+    /**
+     * Gets the latest published graph. This method can be called from any thread.
+     *
+     * @return latest graph
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public RoutingGraph current() {
+        return current;
+    }
+
+    /**
+     * Gets the version of the latest published graph.
+     *
+     * @return latest version
+     */
+    @Contract(pure = true)
+    public long version() {
+        return current.version();
+    }
+
+    /**
+     * Gets whether a transaction is open.
+     *
+     * @return true, if a transaction is open
+     */
+    @Contract(pure = true)
+    public boolean isInTransaction() {
+        return depth > 0;
+    }
+
+    /**
+     * Opens a transaction. Every call has to be followed by a call of {@link #commit()}.
+     * <p>
+     * <b>Note:</b> This method has to be called on the main thread.
+     */
+    public void begin() {
+        depth++;
+    }
+
+    /**
+     * Marks the current graph as outdated, so a new one is published when the outermost transaction is committed.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Closes the innermost transaction. If it was the outermost one and the graph is outdated, a new graph is compiled and
+     * published with the next version.
+     * <p>
+     * <b>Note:</b> This method has to be called on the main thread.
+     *
+     * @return the newly published graph, or null if no graph was published
+     * @throws IllegalStateException if no transaction is open
+     */
+    @Nullable
+    public RoutingGraph commit() throws IllegalStateException {
+        if (depth == 0) throw new IllegalStateException("No transaction is open");
+        if (--depth > 0 || !dirty) return null;
+        dirty = false;
+        final RoutingGraph graph = RoutingGraph.compile(++version, navigationPoints.get());
+        current = graph;
+        return graph;
+    }
+
+    /**
+     * Runs the given edits in a single transaction.
+     *
+     * @param edits edits to run
+     * @return the newly published graph, or null if no graph was published
+     * @throws IllegalArgumentException if the edits are null
+     */
+    @Nullable
+    public RoutingGraph transaction(@Nonnull Runnable edits) throws IllegalArgumentException {
+        if (edits == null) throw new IllegalArgumentException("Edits cannot be null");
+        RoutingGraph published = null;
+        begin();
+        try {
+            edits.run();
+        } finally {
+            // the edits that did happen before a failure are published as well
+            published = commit();
+        }
+        return published;
+    }
+}
@@ -0,0 +1,219 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.structure.Street.Connection;
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Dynamic weights for the edges of a {@link RoutingGraph}, e.g. to account for congestion or closed roads, without
+ * changing the graph itself.
+ * <p>
+ * An overlay holds one weight per edge of the graph it is bound to, starting with the weights of the graph. Searches read
+ * the weights straight from the overlay, so applying an overlay neither allocates nor calls into the connections.
+ * <p>
+ * Weights can only be raised above the weights of the graph, never lowered, since the heuristic of the search relies on
+ * the cheapest weight per block of the graph. Closed edges are skipped entirely.
+ * <p>
+ * When the graph is recompiled, the overlay can be {@link #rebase(RoutingGraph) rebased} onto the new graph, which keeps
+ * the weights of all connections that still exist.
+ * <p>
+ * <b>Note:</b> An overlay is meant to be modified from a single thread. Searches running on other threads at the same time
+ * may see some changes but not others; every single weight they see is valid though.
+ */
+@SuppressWarnings("unused")
+public final class WeightOverlay {
+
+    static final int CLOSED = Integer.MAX_VALUE;
+
+    private final RoutingGraph graph;
+    private final int[] weights;
+
+    /**
+     * Creates an overlay for the given graph, starting with the weights of the graph.
+     *
+     * @param graph graph to bind the overlay to
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public WeightOverlay(@Nonnull RoutingGraph graph) throws IllegalArgumentException {
+        if (graph == null) throw new IllegalArgumentException("Graph cannot be null");
+        this.graph = graph;
+        this.weights = graph.weights().clone();
+    }
+
+    private WeightOverlay(@Nonnull RoutingGraph graph, @Nonnull int[] weights) {
+        this.graph = graph;
+        this.weights = weights;
+    }
+
+    /**
+     * Gets the graph this overlay is bound to.
+     *
+     * @return graph of this overlay
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public RoutingGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Sets the weight of the given connection in all directions it can be used in.
+     *
+     * @param connection connection to set the weight of
+     * @param weight     new weight, at least the weight of the connection in the graph
+     * @return true, if the connection is part of the graph
+     * @throws IllegalArgumentException if the connection is null or the weight is lower than the weight in the graph
+     */
+    public boolean setWeight(@Nonnull Connection connection, @Nonnegative int weight) throws IllegalArgumentException {
+        return setWeight(connection, null, weight);
+    }
+
+    /**
+     * Sets the weight of the given connection when used from the given navigation point, e.g. to account for congestion in
+     * one direction of a two-way connection.
+     *
+     * @param connection connection to set the weight of
+     * @param from       navigation point the connection is used from, or null for all directions
+     * @param weight     new weight, at least the weight of the connection in the graph
+     * @return true, if the connection is part of the graph and usable from the navigation point
+     * @throws IllegalArgumentException if the connection is null or the weight is lower than the weight in the graph
+     */
+    public boolean setWeight(@Nonnull Connection connection, @Nullable NavigationPoint from, @Nonnegative int weight)
+            throws IllegalArgumentException {
+        if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+        if (weight == CLOSED) throw new IllegalArgumentException("Weight is reserved for closed connections");
+        if (from != null) {
+            final int edge = edge(graph, connection, from);
+            if (edge < 0) return false;
+            if (weight < graph.weights()[edge]) {
+                throw new IllegalArgumentException("Weight cannot be lower than the weight in the graph");
+            }
+            weights[edge] = weight;
+            return true;
+        }
+        final int[] edges = graph.edges(connection);
+        for (int edge : edges) {
+            if (weight < graph.weights()[edge]) {
+                throw new IllegalArgumentException("Weight cannot be lower than the weight in the graph");
+            }
+        }
+        for (int edge : edges) weights[edge] = weight;
+        return edges.length > 0;
+    }
+
+    /**
+     * Multiplies the weight of the given connection in the graph by the given factor, e.g. to account for congestion.
+     *
+     * @param connection connection to scale the weight of
+     * @param factor     factor to multiply the weight in the graph with, at least 1
+     * @return true, if the connection is part of the graph
+     * @throws IllegalArgumentException if the connection is null or the factor is lower than 1
+     */
+    public boolean scaleWeight(@Nonnull Connection connection, double factor) throws IllegalArgumentException {
+        if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+        if (!(factor >= 1)) throw new IllegalArgumentException("Factor cannot be lower than 1");
+        final int[] edges = graph.edges(connection);
+        for (int edge : edges) {
+            weights[edge] = (int) Math.min(CLOSED - 1, Math.round(graph.weights()[edge] * factor));
+        }
+        return edges.length > 0;
+    }
+
+    /**
+     * Closes the given connection in all directions, so that no route uses it.
+     *
+     * @param connection connection to close
+     * @return true, if the connection is part of the graph
+     * @throws IllegalArgumentException if the connection is null
+     */
+    public boolean close(@Nonnull Connection connection) throws IllegalArgumentException {
+        if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+        final int[] edges = graph.edges(connection);
+        for (int edge : edges) weights[edge] = CLOSED;
+        return edges.length > 0;
+    }
+
+    /**
+     * Gets whether the given connection is closed when used from the given navigation point.
+     *
+     * @param connection connection to check
+     * @param from       navigation point the connection is used from
+     * @return true, if the connection is part of the graph and closed in that direction
+     */
+    @Contract(pure = true)
+    public boolean isClosed(@Nullable Connection connection, @Nullable NavigationPoint from) {
+        final int edge = connection == null || from == null ? -1 : edge(graph, connection, from);
+        return edge >= 0 && weights[edge] == CLOSED;
+    }
+
+    /**
+     * Gets the weight of the given connection when used from the given navigation point.
+     *
+     * @param connection connection to get the weight of
+     * @param from       navigation point the connection is used from
+     * @return weight of the connection, or -1 if it is closed in that direction or not part of the graph
+     */
+    @Contract(pure = true)
+    public int getWeight(@Nullable Connection connection, @Nullable NavigationPoint from) {
+        final int edge = connection == null || from == null ? -1 : edge(graph, connection, from);
+        return edge < 0 || weights[edge] == CLOSED ? -1 : weights[edge];
+    }
+
+    /**
+     * Resets the given connection to its weight in the graph, reopening it if it was closed.
+     *
+     * @param connection connection to reset
+     * @return true, if the connection is part of the graph
+     */
+    public boolean reset(@Nullable Connection connection) {
+        if (connection == null) return false;
+        final int[] edges = graph.edges(connection);
+        for (int edge : edges) weights[edge] = graph.weights()[edge];
+        return edges.length > 0;
+    }
+
+    /**
+     * Resets all connections to their weights in the graph.
+     */
+    public void clear() {
+        System.arraycopy(graph.weights(), 0, weights, 0, weights.length);
+    }
+
+    /**
+     * Creates an overlay for the given graph that keeps the weights of this overlay for all connections that are part of
+     * both graphs. Connections are matched by identity and direction. If the weight of a connection rose in the new graph,
+     * the higher weight is kept.
+     *
+     * @param graph graph to bind the new overlay to
+     * @return new overlay
+     * @throws IllegalArgumentException if the graph is null
+     */
+    @Nonnull
+    @Contract("_ -> new")
+    public WeightOverlay rebase(@Nonnull RoutingGraph graph) throws IllegalArgumentException {
+        if (graph == null) throw new IllegalArgumentException("Graph cannot be null");
+        final int[] rebased = graph.weights().clone();
+        for (int edge = 0; edge < rebased.length; edge++) {
+            final int previous = edge(this.graph, graph.connection(edge), graph.point(graph.source(edge)));
+            if (previous < 0) continue;
+            rebased[edge] = weights[previous] == CLOSED ? CLOSED : Math.max(rebased[edge], weights[previous]);
+        }
+        return new WeightOverlay(graph, rebased);
+    }
+
+    @Nonnull
+    int[] weights() {
+        return weights;
+    }
+
+    private static int edge(@Nonnull RoutingGraph graph, @Nonnull Connection connection, @Nonnull NavigationPoint from) {
+        for (int edge : graph.edges(connection)) {
+            if (graph.point(graph.source(edge)) == from) return edge;
+        }
+        return -1;
+    }
+}
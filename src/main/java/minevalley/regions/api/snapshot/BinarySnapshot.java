@@ -0,0 +1,781 @@
+package minevalley.regions.api.snapshot;
+
+import minevalley.core.api.Registrant;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.ChunkKeySet;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.residence.Residence;
+import minevalley.regions.api.structure.District;
+import minevalley.regions.api.structure.Street;
+import minevalley.regions.api.structure.Street.NavigationHint;
+import minevalley.regions.api.structure.Street.NavigationPoint;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, versioned binary copy of the whole regions model, meant to let the provider start up without rebuilding
+ * everything from the database.
+ * <p>
+ * A snapshot covers the geometry of all regions, the state of all residences, the graph of all navigation points and the
+ * chunks of all districts. It is {@link #capture captured} and {@link #write(Path, RegistrantCodec) written} on shutdown, and
+ * {@link #read(Path, RegistrantCodec) read} on boot by memory-mapping the file. The provider can then come up from the
+ * snapshot and reconcile with the database in the background.
+ * <p>
+ * The file starts with a header consisting of a magic number, the format version, the {@link #version() model version},
+ * the length of the payload and its CRC-32 checksum. Reading a file whose header or checksum does not match fails, so a
+ * truncated or outdated snapshot is never loaded. Worlds and strings (registrant keys and navigation point names) are
+ * stored once in tables and referred to by their index.
+ * <p>
+ * Registrants are stored as the keys produced by a {@link RegistrantCodec}, since they are implemented by the core.
+ * Navigation hints are stored by their ordinal, so changing {@link NavigationHint} requires a new {@link #FORMAT_VERSION}.
+ */
+@SuppressWarnings("unused")
+public final class BinarySnapshot {
+
+    /**
+     * Version of the binary format written by this class. Files of other versions are rejected.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x4D565253; // "MVRS"
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    private static final int NONE = -1;
+
+    private final long version;
+    private final List<RegionRecord> regions;
+    private final List<ResidenceSnapshot> residences;
+    private final List<NavigationPointRecord> navigationPoints;
+    private final List<ConnectionRecord> connections;
+    private final List<DistrictRecord> districts;
+
+    private BinarySnapshot(long version, List<RegionRecord> regions, List<ResidenceSnapshot> residences,
+                           List<NavigationPointRecord> navigationPoints, List<ConnectionRecord> connections,
+                           List<DistrictRecord> districts) {
+        this.version = version;
+        this.regions = List.copyOf(regions);
+        this.residences = List.copyOf(residences);
+        this.navigationPoints = List.copyOf(navigationPoints);
+        this.connections = List.copyOf(connections);
+        this.districts = List.copyOf(districts);
+    }
+
+    /**
+     * Captures the given regions, residences, navigation points and districts.
+     * <p>
+     * Every connection of the given navigation points has to lead to another given navigation point. Connections are
+     * captured once, even though both of their navigation points refer to them.
+     * <p>
+     * <b>Note:</b> This reads the live objects and therefore has to be called on the main thread.
+     *
+     * @param version          version of the model, e.g. the version of the current {@link RegionsSnapshot}
+     * @param regions          all existing regions
+     * @param residences       all existing residences
+     * @param navigationPoints all existing navigation points
+     * @param districts        all existing districts
+     * @return snapshot of the given objects
+     * @throws IllegalArgumentException if any of the collections is null, a navigation point has no world or a connection
+     *                                  leads to a navigation point that is not part of the snapshot
+     */
+    @Nonnull
+    @Contract("_, _, _, _, _ -> new")
+    public static BinarySnapshot capture(long version, @Nonnull Collection<? extends Region> regions,
+                                         @Nonnull Collection<? extends Residence> residences,
+                                         @Nonnull Collection<NavigationPoint> navigationPoints,
+                                         @Nonnull Collection<? extends District> districts) throws IllegalArgumentException {
+        if (regions == null) throw new IllegalArgumentException("Regions cannot be null");
+        if (residences == null) throw new IllegalArgumentException("Residences cannot be null");
+        if (navigationPoints == null) throw new IllegalArgumentException("Navigation points cannot be null");
+        if (districts == null) throw new IllegalArgumentException("Districts cannot be null");
+
+        final List<RegionRecord> regionRecords = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            regionRecords.add(new RegionRecord(region.id(), worlds(region.included()), boxes(region.included()),
+                    worlds(region.excluded()), boxes(region.excluded())));
+        }
+
+        final List<ResidenceSnapshot> residenceRecords = new ArrayList<>(residences.size());
+        for (Residence residence : residences) residenceRecords.add(ResidenceSnapshot.of(residence));
+
+        final Map<NavigationPoint, Integer> indices = new IdentityHashMap<>(navigationPoints.size());
+        final List<NavigationPoint> points = new ArrayList<>(navigationPoints.size());
+        final List<NavigationPointRecord> pointRecords = new ArrayList<>(navigationPoints.size());
+        for (NavigationPoint point : navigationPoints) {
+            if (indices.putIfAbsent(point, pointRecords.size()) != null) continue;
+            points.add(point);
+            final Location location = point.location();
+            if (location.getWorld() == null) throw new IllegalArgumentException("Navigation points must have a world");
+            pointRecords.add(new NavigationPointRecord(point.street() == null ? NONE : point.street().id(),
+                    location.getWorld().getUID(), location.getX(), location.getY(), location.getZ(),
+                    location.getYaw(), location.getPitch(), point.name()));
+        }
+
+        final Set<Street.Connection> captured = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<ConnectionRecord> connectionRecords = new ArrayList<>();
+        // iterated in snapshot order, so the connections are restored in the order the navigation points hold them
+        for (NavigationPoint point : points) {
+            for (Street.Connection connection : point.connections()) {
+                if (captured.add(connection)) connectionRecords.add(ConnectionRecord.of(connection, indices));
+            }
+        }
+
+        final List<DistrictRecord> districtRecords = new ArrayList<>(districts.size());
+        for (District district : districts) {
+            final ChunkKeySet chunkKeys = district.chunkKeys();
+            if (chunkKeys.isEmpty()) continue;
+            districtRecords.add(new DistrictRecord(district.id(), district.world().getUID(), chunkKeys));
+        }
+
+        return new BinarySnapshot(version, regionRecords, residenceRecords, pointRecords, connectionRecords, districtRecords);
+    }
+
+    /**
+     * Reads the snapshot stored in the given file by memory-mapping it.
+     *
+     * @param path  file to read the snapshot from
+     * @param codec codec to decode the registrants with
+     * @return read snapshot
+     * @throws IllegalArgumentException if the path or codec is null
+     * @throws IOException              if the file could not be read, is not a snapshot of the current format or is corrupt
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public static BinarySnapshot read(@Nonnull Path path, @Nonnull RegistrantCodec codec)
+            throws IllegalArgumentException, IOException {
+        if (path == null) throw new IllegalArgumentException("Path cannot be null");
+        if (codec == null) throw new IllegalArgumentException("Codec cannot be null");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException("Regions snapshot is truncated");
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) throw new IOException("File is not a regions snapshot");
+            final int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported regions snapshot format " + formatVersion);
+            }
+            final long version = buffer.getLong();
+            final int length = buffer.getInt();
+            final int checksum = buffer.getInt();
+            if (length < 0 || length != buffer.remaining()) throw new IOException("Regions snapshot is truncated");
+
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if ((int) crc.getValue() != checksum) throw new IOException("Regions snapshot is corrupt");
+
+            try {
+                return decode(version, buffer, codec);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Regions snapshot is corrupt", e);
+            }
+        }
+    }
+
+    /**
+     * Writes this snapshot to the given file.
+     * <p>
+     * The snapshot is written to a temporary file next to the given one first, which then replaces the given file. A
+     * crash while writing therefore never leaves a partially written snapshot behind.
+     *
+     * @param path  file to write the snapshot to
+     * @param codec codec to encode the registrants with
+     * @throws IllegalArgumentException if the path or codec is null
+     * @throws IOException              if the file could not be written
+     */
+    public void write(@Nonnull Path path, @Nonnull RegistrantCodec codec) throws IllegalArgumentException, IOException {
+        if (path == null) throw new IllegalArgumentException("Path cannot be null");
+        if (codec == null) throw new IllegalArgumentException("Codec cannot be null");
+        final ByteBuffer payload = encode(codec);
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(version)
+                .putInt(payload.remaining())
+                .putInt((int) crc.getValue())
+                .flip();
+
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (payload.hasRemaining()) channel.write(payload);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the version of the model this snapshot was captured from.
+     *
+     * @return model version
+     */
+    @Contract(pure = true)
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Gets the geometry of all regions.
+     *
+     * @return unmodifiable list of the regions
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<RegionRecord> regions() {
+        return regions;
+    }
+
+    /**
+     * Gets the state of all residences.
+     * <p>
+     * Registrants that could not be decoded are left out.
+     *
+     * @return unmodifiable list of the residences
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<ResidenceSnapshot> residences() {
+        return residences;
+    }
+
+    /**
+     * Gets all navigation points. Connections refer to them by their index in this list.
+     *
+     * @return unmodifiable list of the navigation points
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<NavigationPointRecord> navigationPoints() {
+        return navigationPoints;
+    }
+
+    /**
+     * Gets all connections between the navigation points.
+     *
+     * @return unmodifiable list of the connections
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<ConnectionRecord> connections() {
+        return connections;
+    }
+
+    /**
+     * Gets the chunks of all districts.
+     *
+     * @return unmodifiable list of the districts
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<DistrictRecord> districts() {
+        return districts;
+    }
+
+    /**
+     * Recreates the navigation points and their connections.
+     * <p>
+     * Each connection is added to both of its navigation points, just like when it was created originally.
+     *
+     * @param streets resolves the streets by their id
+     * @param worlds  resolves the worlds by their id, e.g. {@code Bukkit::getWorld}
+     * @return navigation points in the order of {@link #navigationPoints()}
+     * @throws IllegalArgumentException if a resolver is null, or a street or world could not be resolved
+     */
+    @Nonnull
+    @Contract("_, _ -> new")
+    public List<NavigationPoint> restoreNavigationPoints(@Nonnull IntFunction<Street> streets,
+                                                         @Nonnull Function<UUID, World> worlds)
+            throws IllegalArgumentException {
+        if (streets == null) throw new IllegalArgumentException("Street resolver cannot be null");
+        if (worlds == null) throw new IllegalArgumentException("World resolver cannot be null");
+        final List<NavigationPoint> points = new ArrayList<>(navigationPoints.size());
+        for (NavigationPointRecord record : navigationPoints) {
+            final Street street = record.streetId() == NONE ? null : streets.apply(record.streetId());
+            if (street == null && record.streetId() != NONE) {
+                throw new IllegalArgumentException("Unknown street " + record.streetId());
+            }
+            final World world = worlds.apply(record.world());
+            if (world == null) throw new IllegalArgumentException("Unknown world " + record.world());
+            points.add(new NavigationPoint(street, new Location(world, record.x(), record.y(), record.z(), record.yaw(),
+                    record.pitch()), record.name(), new ArrayList<>()));
+        }
+        for (ConnectionRecord record : connections) {
+            final NavigationPoint from = points.get(record.from());
+            final NavigationPoint to = points.get(record.to());
+            final Street.Connection connection = record.backward() == null
+                    ? new Street.OneWayConnection(from, to, record.speedLimit(), record.forward())
+                    : new Street.TwoWayConnection(from, to, record.speedLimit(), record.forward(), record.backward());
+            connection.add();
+        }
+        return points;
+    }
+
+    @Nonnull
+    private ByteBuffer encode(@Nonnull RegistrantCodec codec) {
+        final Table<UUID> worlds = new Table<>();
+        final Table<String> strings = new Table<>();
+        final Encoder out = new Encoder();
+
+        out.putInt(regions.size());
+        for (RegionRecord region : regions) {
+            out.putInt(region.id());
+            out.putInts(indices(worlds, region.includedWorlds()));
+            out.putInts(region.included());
+            out.putInts(indices(worlds, region.excludedWorlds()));
+            out.putInts(region.excluded());
+        }
+
+        out.putInt(residences.size());
+        for (ResidenceSnapshot residence : residences) {
+            out.putInt(residence.id());
+            out.putByte(residence.type().ordinal());
+            out.putInts(residence.regionIds());
+            out.putInt(residence.owner() == null ? NONE : strings.indexOf(codec.encode(residence.owner())));
+            out.putInt(residence.admins().size());
+            for (Registrant admin : residence.admins()) out.putInt(strings.indexOf(codec.encode(admin)));
+            out.putInt(residence.permissioned().size());
+            for (Registrant permissioned : residence.permissioned()) out.putInt(strings.indexOf(codec.encode(permissioned)));
+            out.putByte(residence.locked() ? 1 : 0);
+            out.putInt(residence.holderId());
+        }
+
+        out.putInt(navigationPoints.size());
+        for (NavigationPointRecord point : navigationPoints) {
+            out.putInt(point.streetId());
+            out.putInt(worlds.indexOf(point.world()));
+            out.putDouble(point.x());
+            out.putDouble(point.y());
+            out.putDouble(point.z());
+            out.putFloat(point.yaw());
+            out.putFloat(point.pitch());
+            out.putInt(point.name() == null ? NONE : strings.indexOf(point.name()));
+        }
+
+        out.putInt(connections.size());
+        for (ConnectionRecord connection : connections) {
+            out.putInt(connection.from());
+            out.putInt(connection.to());
+            out.putInt(connection.speedLimit());
+            out.putByte(connection.forward().ordinal());
+            out.putByte(connection.backward() == null ? NONE : connection.backward().ordinal());
+        }
+
+        out.putInt(districts.size());
+        for (DistrictRecord district : districts) {
+            out.putInt(district.id());
+            out.putInt(worlds.indexOf(district.world()));
+            out.putLongs(district.chunkKeys().toArray());
+        }
+
+        // the tables are only complete after all records have been encoded, so they are prepended
+        final Encoder tables = new Encoder();
+        tables.putInt(worlds.size());
+        for (UUID world : worlds.values()) {
+            tables.putLong(world.getMostSignificantBits());
+            tables.putLong(world.getLeastSignificantBits());
+        }
+        tables.putInt(strings.size());
+        for (String string : strings.values()) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            tables.putInt(bytes.length);
+            tables.putBytes(bytes);
+        }
+        tables.putBytes(out.buffer.flip());
+        return tables.buffer.flip();
+    }
+
+    @Nonnull
+    private static BinarySnapshot decode(long version, @Nonnull ByteBuffer in, @Nonnull RegistrantCodec codec) {
+        final UUID[] worlds = new UUID[count(in, 16)];
+        for (int i = 0; i < worlds.length; i++) worlds[i] = new UUID(in.getLong(), in.getLong());
+        final String[] strings = new String[count(in, 4)];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[count(in, 1)];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        final Registrant[] registrants = new Registrant[strings.length];
+        final boolean[] decoded = new boolean[strings.length];
+        final IntFunction<Registrant> registrant = index -> {
+            if (!decoded[index]) {
+                registrants[index] = codec.decode(strings[index]);
+                decoded[index] = true;
+            }
+            return registrants[index];
+        };
+
+        final int regionCount = count(in, 20);
+        final List<RegionRecord> regions = new ArrayList<>(regionCount);
+        for (int i = 0; i < regionCount; i++) {
+            regions.add(new RegionRecord(in.getInt(), worlds(worlds, getInts(in)), getInts(in), worlds(worlds, getInts(in)),
+                    getInts(in)));
+        }
+
+        final ResidenceSnapshot.Type[] types = ResidenceSnapshot.Type.values();
+        final int residenceCount = count(in, 22);
+        final List<ResidenceSnapshot> residences = new ArrayList<>(residenceCount);
+        for (int i = 0; i < residenceCount; i++) {
+            final int id = in.getInt();
+            final ResidenceSnapshot.Type type = types[in.get()];
+            final int[] regionIds = getInts(in);
+            final int owner = in.getInt();
+            final List<Registrant> admins = getRegistrants(in, registrant);
+            final List<Registrant> permissioned = getRegistrants(in, registrant);
+            residences.add(new ResidenceSnapshot(id, type, regionIds, owner == NONE ? null : registrant.apply(owner),
+                    admins, permissioned, in.get() != 0, in.getInt()));
+        }
+
+        final int pointCount = count(in, 44);
+        final List<NavigationPointRecord> navigationPoints = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            final int streetId = in.getInt();
+            final UUID world = worlds[in.getInt()];
+            final double x = in.getDouble(), y = in.getDouble(), z = in.getDouble();
+            final float yaw = in.getFloat(), pitch = in.getFloat();
+            final int name = in.getInt();
+            navigationPoints.add(new NavigationPointRecord(streetId, world, x, y, z, yaw, pitch,
+                    name == NONE ? null : strings[name]));
+        }
+
+        final NavigationHint[] hints = NavigationHint.values();
+        final int connectionCount = count(in, 14);
+        final List<ConnectionRecord> connections = new ArrayList<>(connectionCount);
+        for (int i = 0; i < connectionCount; i++) {
+            final int from = Objects.checkIndex(in.getInt(), pointCount);
+            final int to = Objects.checkIndex(in.getInt(), pointCount);
+            final int speedLimit = in.getInt();
+            final NavigationHint forward = hints[in.get()];
+            final byte backward = in.get();
+            connections.add(new ConnectionRecord(from, to, speedLimit, forward, backward == NONE ? null : hints[backward]));
+        }
+
+        final int districtCount = count(in, 12);
+        final List<DistrictRecord> districts = new ArrayList<>(districtCount);
+        for (int i = 0; i < districtCount; i++) {
+            final int id = in.getInt();
+            final UUID world = worlds[in.getInt()];
+            final long[] chunkKeys = new long[count(in, 8)];
+            in.asLongBuffer().get(chunkKeys);
+            in.position(in.position() + chunkKeys.length * 8);
+            districts.add(new DistrictRecord(id, world, ChunkKeySet.of(chunkKeys)));
+        }
+        if (in.hasRemaining()) throw new IllegalArgumentException("Unexpected trailing bytes");
+
+        return new BinarySnapshot(version, regions, residences, navigationPoints, connections, districts);
+    }
+
+    @Nonnull
+    private static int[] getInts(@Nonnull ByteBuffer in) {
+        final int[] values = new int[count(in, 4)];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * 4);
+        return values;
+    }
+
+    @Nonnull
+    private static List<Registrant> getRegistrants(@Nonnull ByteBuffer in, @Nonnull IntFunction<Registrant> registrant) {
+        final int count = count(in, 4);
+        final List<Registrant> registrants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Registrant decoded = registrant.apply(in.getInt());
+            if (decoded != null) registrants.add(decoded);
+        }
+        return registrants;
+    }
+
+    private static int count(@Nonnull ByteBuffer in, int minimumBytesPerElement) throws IllegalArgumentException {
+        final int count = in.getInt();
+        if (count < 0 || (long) count * minimumBytesPerElement > in.remaining()) {
+            throw new IllegalArgumentException("Invalid element count " + count);
+        }
+        return count;
+    }
+
+    @Nonnull
+    private static UUID[] worlds(@Nonnull List<Area> areas) {
+        final UUID[] worlds = new UUID[areas.size()];
+        for (int i = 0; i < worlds.length; i++) worlds[i] = areas.get(i).world().getUID();
+        return worlds;
+    }
+
+    @Nonnull
+    private static UUID[] worlds(@Nonnull UUID[] table, @Nonnull int[] indices) throws IndexOutOfBoundsException {
+        final UUID[] worlds = new UUID[indices.length];
+        for (int i = 0; i < worlds.length; i++) worlds[i] = table[indices[i]];
+        return worlds;
+    }
+
+    @Nonnull
+    private static int[] indices(@Nonnull Table<UUID> table, @Nonnull UUID[] worlds) {
+        final int[] indices = new int[worlds.length];
+        for (int i = 0; i < indices.length; i++) indices[i] = table.indexOf(worlds[i]);
+        return indices;
+    }
+
+    @Nonnull
+    private static int[] boxes(@Nonnull List<Area> areas) {
+        final int[] boxes = new int[areas.size() * 6];
+        for (int i = 0; i < areas.size(); i++) {
+            final Block min = areas.get(i).minBlock();
+            final Block max = areas.get(i).maxBlock();
+            boxes[i * 6] = min.getX();
+            boxes[i * 6 + 1] = min.getY();
+            boxes[i * 6 + 2] = min.getZ();
+            boxes[i * 6 + 3] = max.getX();
+            boxes[i * 6 + 4] = max.getY();
+            boxes[i * 6 + 5] = max.getZ();
+        }
+        return boxes;
+    }
+
+    /**
+     * Converts registrants to keys that can be stored in a snapshot, and back.
+     * <p>
+     * Keys have to be stable across restarts, e.g. the registrant's type and database id.
+     */
+    public interface RegistrantCodec {
+
+        /**
+         * Gets the key of the given registrant.
+         *
+         * @param registrant registrant to encode
+         * @return stable key of the registrant
+         */
+        @Nonnull
+        String encode(@Nonnull Registrant registrant);
+
+        /**
+         * Gets the registrant with the given key.
+         *
+         * @param key key of the registrant
+         * @return registrant, or null if it does not exist anymore
+         */
+        @Nullable
+        Registrant decode(@Nonnull String key);
+    }
+
+    /**
+     * Geometry of a region. The areas are stored as consecutive groups of six coordinates: the smallest x, y and z
+     * coordinates followed by the largest x, y and z coordinates. The world of every area is stored separately, at the
+     * index of the area.
+     *
+     * @param id             id of the region
+     * @param includedWorlds ids of the worlds the included areas lie in
+     * @param included       coordinates of the included areas
+     * @param excludedWorlds ids of the worlds the excluded areas lie in
+     * @param excluded       coordinates of the excluded areas
+     */
+    public record RegionRecord(int id, @Nonnull UUID[] includedWorlds, @Nonnull int[] included,
+                               @Nonnull UUID[] excludedWorlds, @Nonnull int[] excluded) {
+
+        public RegionRecord {
+            if (included == null || included.length % 6 != 0) {
+                throw new IllegalArgumentException("included must consist of groups of 6 coordinates");
+            }
+            if (excluded == null || excluded.length % 6 != 0) {
+                throw new IllegalArgumentException("excluded must consist of groups of 6 coordinates");
+            }
+            if (includedWorlds == null || includedWorlds.length != included.length / 6) {
+                throw new IllegalArgumentException("includedWorlds must contain the world of every included area");
+            }
+            if (excludedWorlds == null || excludedWorlds.length != excluded.length / 6) {
+                throw new IllegalArgumentException("excludedWorlds must contain the world of every excluded area");
+            }
+            if (Arrays.asList(includedWorlds).contains(null) || Arrays.asList(excludedWorlds).contains(null)) {
+                throw new IllegalArgumentException("worlds cannot be null");
+            }
+        }
+
+        /**
+         * Gets the amount of included areas.
+         *
+         * @return amount of included areas
+         */
+        @Contract(pure = true)
+        public int includedCount() {
+            return included.length / 6;
+        }
+
+        /**
+         * Gets the amount of excluded areas.
+         *
+         * @return amount of excluded areas
+         */
+        @Contract(pure = true)
+        public int excludedCount() {
+            return excluded.length / 6;
+        }
+    }
+
+    /**
+     * Position of a navigation point.
+     *
+     * @param streetId id of the street the navigation point belongs to, or -1 if it belongs to none
+     * @param world    id of the world the navigation point lies in
+     * @param x        x coordinate
+     * @param y        y coordinate
+     * @param z        z coordinate
+     * @param yaw      yaw of the location
+     * @param pitch    pitch of the location
+     * @param name     name of the navigation point
+     */
+    public record NavigationPointRecord(int streetId, @Nonnull UUID world, double x, double y, double z, float yaw,
+                                        float pitch, @Nullable String name) {
+
+        public NavigationPointRecord {
+            if (world == null) throw new IllegalArgumentException("world cannot be null");
+        }
+    }
+
+    /**
+     * Connection between two navigation points, referred to by their index in {@link #navigationPoints()}.
+     *
+     * @param from       index of the first navigation point
+     * @param to         index of the second navigation point
+     * @param speedLimit speed limit of the connection
+     * @param forward    navigation hint from the first to the second navigation point
+     * @param backward   navigation hint from the second to the first navigation point, or null for one-way connections
+     */
+    public record ConnectionRecord(@Nonnegative int from, @Nonnegative int to, @Nonnegative int speedLimit,
+                                   @Nonnull NavigationHint forward, @Nullable NavigationHint backward) {
+
+        public ConnectionRecord {
+            if (forward == null) throw new IllegalArgumentException("forward cannot be null");
+        }
+
+        @Nonnull
+        private static ConnectionRecord of(@Nonnull Street.Connection connection,
+                                           @Nonnull Map<NavigationPoint, Integer> indices) throws IllegalArgumentException {
+            return switch (connection) {
+                case Street.OneWayConnection oneWay -> new ConnectionRecord(index(indices, oneWay.from()),
+                        index(indices, oneWay.to()), oneWay.speedLimit(), oneWay.navigationHint(), null);
+                case Street.TwoWayConnection twoWay -> new ConnectionRecord(index(indices, twoWay.point1()),
+                        index(indices, twoWay.point2()), twoWay.speedLimit(), twoWay.point1To2(), twoWay.point2To1());
+                default -> throw new IllegalArgumentException("Unsupported connection " + connection.getClass().getName());
+            };
+        }
+
+        private static int index(@Nonnull Map<NavigationPoint, Integer> indices, @Nonnull NavigationPoint point) {
+            final Integer index = indices.get(point);
+            if (index == null) {
+                throw new IllegalArgumentException("Connection leads to a navigation point that is not part of the snapshot");
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Chunks of a district.
+     *
+     * @param id        id of the district
+     * @param world     id of the world the district lies in
+     * @param chunkKeys keys of the chunks that make up the district
+     */
+    public record DistrictRecord(int id, @Nonnull UUID world, @Nonnull ChunkKeySet chunkKeys) {
+
+        public DistrictRecord {
+            if (world == null) throw new IllegalArgumentException("world cannot be null");
+            if (chunkKeys == null) throw new IllegalArgumentException("chunkKeys cannot be null");
+        }
+    }
+
+    /**
+     * Assigns consecutive indices to distinct values.
+     */
+    private static final class Table<T> {
+
+        private final Map<T, Integer> indices = new LinkedHashMap<>();
+
+        int indexOf(@Nonnull T value) {
+            return indices.computeIfAbsent(value, v -> indices.size());
+        }
+
+        int size() {
+            return indices.size();
+        }
+
+        @Nonnull
+        Collection<T> values() {
+            return indices.keySet();
+        }
+    }
+
+    /**
+     * Growable heap buffer to encode the payload into.
+     */
+    private static final class Encoder {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        void putByte(int value) {
+            ensure(1).put((byte) value);
+        }
+
+        void putInt(int value) {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(8).putLong(value);
+        }
+
+        void putFloat(float value) {
+            ensure(4).putFloat(value);
+        }
+
+        void putDouble(double value) {
+            ensure(8).putDouble(value);
+        }
+
+        void putInts(@Nonnull int[] values) {
+            putInt(values.length);
+            ensure(values.length * 4).asIntBuffer().put(values);
+            buffer.position(buffer.position() + values.length * 4);
+        }
+
+        void putLongs(@Nonnull long[] values) {
+            putInt(values.length);
+            ensure(values.length * 8).asLongBuffer().put(values);
+            buffer.position(buffer.position() + values.length * 8);
+        }
+
+        void putBytes(@Nonnull byte[] values) {
+            ensure(values.length).put(values);
+        }
+
+        void putBytes(@Nonnull ByteBuffer values) {
+            ensure(values.remaining()).put(values);
+        }
+
+        @Nonnull
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                final ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, buffer.position() + bytes));
+                buffer = grown.put(buffer.flip());
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package minevalley.regions.api.snapshot;
+
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.ChunkKeySet;
+import minevalley.regions.api.core.CompiledRegion;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.residence.Residence;
+import minevalley.regions.api.structure.District;
+import minevalley.regions.api.util.Int2ObjectHashMap;
+import minevalley.regions.api.util.Long2IntHashMap;
+import minevalley.regions.api.util.Long2ObjectHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable, read-only view of all regions, residences and districts at a specific point in time.
+ * <p>
+ * In contrast to the live objects, a snapshot can be queried from any thread without taking a lock. It only refers to
+ * worlds by their id and to regions, residences and districts by their ids, so it neither touches Bukkit objects nor
+ * the mutable residence state.
+ * <p>
+ * Snapshots are taken on the main thread via {@link #capture(long, Collection, Collection, Collection)} and are versioned,
+ * so readers can tell whether something changed since the last snapshot they saw. To avoid compiling every region again,
+ * a new snapshot can be derived from the previous one (see
+ * {@link #capture(long, Collection, Collection, Collection, RegionsSnapshot, IntPredicate)}).
+ *
+ * @see minevalley.regions.api.Regions#snapshot()
+ */
+@SuppressWarnings("unused")
+public final class RegionsSnapshot {
+
+    /**
+     * Id returned for positions that are not covered by any residence or district.
+     */
+    public static final int NONE = -1;
+
+    private static final Comparator<Entry> BY_SIZE = Comparator.comparingLong(Entry::volume).thenComparingInt(Entry::regionId);
+
+    private final long version;
+    private final Map<UUID, Long2ObjectHashMap<Entry[]>> regionsByChunk;
+    private final Int2ObjectHashMap<CompiledRegion[]> regions;
+    private final Int2ObjectHashMap<ResidenceSnapshot> residences;
+    private final Int2ObjectHashMap<ResidenceSnapshot> residencesByRegion;
+    private final Collection<ResidenceSnapshot> residenceList;
+    private final Map<UUID, Long2IntHashMap> districtsByChunk;
+
+    private RegionsSnapshot(long version, Map<UUID, Long2ObjectHashMap<Entry[]>> regionsByChunk,
+                            Int2ObjectHashMap<CompiledRegion[]> regions, Int2ObjectHashMap<ResidenceSnapshot> residences,
+                            Int2ObjectHashMap<ResidenceSnapshot> residencesByRegion,
+                            Map<UUID, Long2IntHashMap> districtsByChunk) {
+        this.version = version;
+        this.regionsByChunk = regionsByChunk;
+        this.regions = regions;
+        this.residences = residences;
+        this.residencesByRegion = residencesByRegion;
+        this.residenceList = Collections.unmodifiableList(residences.values());
+        this.districtsByChunk = districtsByChunk;
+    }
+
+    /**
+     * Takes a snapshot of the given regions, residences and districts.
+     * <p>
+     * <b>Note:</b> This reads the live objects and therefore has to be called on the main thread.
+     *
+     * @param version    version of the snapshot
+     * @param regions    all existing regions
+     * @param residences all existing residences
+     * @param districts  all existing districts
+     * @return snapshot of the given objects
+     * @throws IllegalArgumentException if any of the collections is null
+     */
+    @Nonnull
+    @Contract("_, _, _, _ -> new")
+    public static RegionsSnapshot capture(long version, @Nonnull Collection<Region> regions,
+                                          @Nonnull Collection<Residence> residences,
+                                          @Nonnull Collection<District> districts) throws IllegalArgumentException {
+        return capture(version, regions, residences, districts, null, regionId -> true);
+    }
+
+    /**
+     * Takes a snapshot of the given regions, residences and districts, reusing the compiled geometry of the previous
+     * snapshot for every region that did not change since.
+     * <p>
+     * <b>Note:</b> This reads the live objects and therefore has to be called on the main thread.
+     *
+     * @param version    version of the snapshot
+     * @param regions    all existing regions
+     * @param residences all existing residences
+     * @param districts  all existing districts
+     * @param previous   previous snapshot, or null to compile every region
+     * @param changed    tells whether the areas of the region with the given id changed since the previous snapshot
+     * @return snapshot of the given objects
+     * @throws IllegalArgumentException if any of the collections or the predicate is null
+     */
+    @Nonnull
+    @Contract("_, _, _, _, _, _ -> new")
+    public static RegionsSnapshot capture(long version, @Nonnull Collection<Region> regions,
+                                          @Nonnull Collection<Residence> residences,
+                                          @Nonnull Collection<District> districts, @Nullable RegionsSnapshot previous,
+                                          @Nonnull IntPredicate changed) throws IllegalArgumentException {
+        if (regions == null) throw new IllegalArgumentException("Regions cannot be null");
+        if (residences == null) throw new IllegalArgumentException("Residences cannot be null");
+        if (districts == null) throw new IllegalArgumentException("Districts cannot be null");
+        if (changed == null) throw new IllegalArgumentException("Predicate cannot be null");
+
+        final Int2ObjectHashMap<CompiledRegion[]> compiledRegions = new Int2ObjectHashMap<>(regions.size());
+        final Map<UUID, Map<Long, List<Entry>>> entries = new HashMap<>();
+        for (Region region : regions) {
+            final Map<UUID, List<Area>> areasByWorld = new LinkedHashMap<>(2);
+            for (Area area : region.included()) {
+                areasByWorld.computeIfAbsent(area.world().getUID(), uid -> new ArrayList<>()).add(area);
+            }
+            final CompiledRegion[] reused = previous == null || changed.test(region.id()) ? null : previous.regions.get(region.id());
+            final CompiledRegion[] compiled = reused != null && reused.length == areasByWorld.size()
+                    ? reused : new CompiledRegion[areasByWorld.size()];
+            compiledRegions.put(region.id(), compiled);
+
+            long volume = 0;
+            for (int i = 0; i < region.included().size(); i++) volume += region.included().get(i).volume();
+            int i = 0;
+            for (List<Area> areas : areasByWorld.values()) {
+                final World world = areas.get(0).world();
+                if (compiled != reused) compiled[i] = CompiledRegion.compile(region, world);
+                final Entry entry = new Entry(region.id(), compiled[i++], volume);
+                // regions usually lie in a single world, whose chunk keys are cached by the region itself
+                final ChunkKeySet chunkKeys = compiled.length == 1 ? region.chunkKeys() : chunkKeys(areas);
+                final Map<Long, List<Entry>> chunks = entries.computeIfAbsent(world.getUID(), uid -> new HashMap<>());
+                chunkKeys.forEach(key -> chunks.computeIfAbsent(key, k -> new ArrayList<>()).add(entry));
+            }
+        }
+
+        final Map<UUID, Long2ObjectHashMap<Entry[]>> regionsByChunk = new HashMap<>();
+        entries.forEach((world, chunks) -> {
+            final Long2ObjectHashMap<Entry[]> buckets = new Long2ObjectHashMap<>(chunks.size());
+            chunks.forEach((key, bucket) -> {
+                final Entry[] sorted = bucket.toArray(new Entry[0]);
+                Arrays.sort(sorted, BY_SIZE);
+                buckets.put(key, sorted);
+            });
+            regionsByChunk.put(world, buckets);
+        });
+
+        final Int2ObjectHashMap<ResidenceSnapshot> residenceSnapshots = new Int2ObjectHashMap<>(residences.size());
+        final Int2ObjectHashMap<ResidenceSnapshot> residencesByRegion = new Int2ObjectHashMap<>(residences.size());
+        for (Residence residence : residences) {
+            final ResidenceSnapshot snapshot = ResidenceSnapshot.of(residence);
+            residenceSnapshots.put(snapshot.id(), snapshot);
+            for (int regionId : snapshot.regionIds()) residencesByRegion.put(regionId, snapshot);
+        }
+
+        final Map<UUID, Long2IntHashMap> districtsByChunk = new HashMap<>();
+        for (District district : districts) {
+            final ChunkKeySet keys = district.chunkKeys();
+            if (keys.isEmpty()) continue;
+            final Long2IntHashMap chunks = districtsByChunk.computeIfAbsent(district.world().getUID(),
+                    uid -> new Long2IntHashMap(NONE));
+            for (int i = 0; i < keys.size(); i++) chunks.put(keys.get(i), district.id());
+        }
+
+        return new RegionsSnapshot(version, regionsByChunk, compiledRegions, residenceSnapshots, residencesByRegion,
+                districtsByChunk);
+    }
+
+    /**
+     * Gets the version of this snapshot. Newer snapshots have higher versions.
+     *
+     * @return version of this snapshot
+     */
+    @Contract(pure = true)
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Passes the ids of all regions in which the given block coordinates lie in to the given consumer, ordered by the
+     * regions' size (smallest first).
+     *
+     * @param world    id of the world of the block
+     * @param x        x coordinate of the block
+     * @param y        y coordinate of the block
+     * @param z        z coordinate of the block
+     * @param consumer consumer to pass the region ids to
+     */
+    public void forEachRegionId(@Nonnull UUID world, int x, int y, int z, @Nonnull IntConsumer consumer) {
+        final Entry[] bucket = bucket(world, x, z);
+        if (bucket == null) return;
+        for (Entry entry : bucket) {
+            if (entry.compiled().contains(x, y, z)) consumer.accept(entry.regionId());
+        }
+    }
+
+    /**
+     * Gets the ids of all regions in which the given block coordinates lie in, ordered by the regions' size (smallest first).
+     *
+     * @param world id of the world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return array of region ids
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public int[] getRegionIds(@Nonnull UUID world, int x, int y, int z) {
+        final Entry[] bucket = bucket(world, x, z);
+        if (bucket == null) return new int[0];
+        int size = 0;
+        final int[] ids = new int[bucket.length];
+        for (Entry entry : bucket) {
+            if (entry.compiled().contains(x, y, z)) ids[size++] = entry.regionId();
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Gets the compiled geometry of the region with the given id in the world of its first included area.
+     *
+     * @param regionId id of the region
+     * @return compiled region, or null if there is no such region
+     */
+    @Nullable
+    @Contract(pure = true)
+    public CompiledRegion getRegion(int regionId) {
+        final CompiledRegion[] compiled = regions.get(regionId);
+        return compiled == null || compiled.length == 0 ? null : compiled[0];
+    }
+
+    /**
+     * Gets the compiled geometry of the region with the given id in the given world.
+     *
+     * @param regionId id of the region
+     * @param world    id of the world
+     * @return compiled region, or null if there is no such region or it does not include any area in the given world
+     */
+    @Nullable
+    @Contract(pure = true)
+    public CompiledRegion getRegion(int regionId, @Nonnull UUID world) {
+        final CompiledRegion[] compiled = regions.get(regionId);
+        if (compiled == null) return null;
+        for (CompiledRegion region : compiled) {
+            if (region.worldId().equals(world)) return region;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the most dominant residence at the given block coordinates. Apartments dominate the plots they lie on.
+     *
+     * @param world id of the world of the block
+     * @param x     x coordinate of the block
+     * @param y     y coordinate of the block
+     * @param z     z coordinate of the block
+     * @return the most dominant residence, or null if there is none
+     */
+    @Nullable
+    @Contract(pure = true)
+    public ResidenceSnapshot getDominantResidence(@Nonnull UUID world, int x, int y, int z) {
+        final Entry[] bucket = bucket(world, x, z);
+        if (bucket == null) return null;
+        ResidenceSnapshot plot = null;
+        for (Entry entry : bucket) {
+            if (!entry.compiled().contains(x, y, z)) continue;
+            final ResidenceSnapshot residence = residencesByRegion.get(entry.regionId());
+            if (residence == null) continue;
+            if (residence.type() == ResidenceSnapshot.Type.APARTMENT) return residence;
+            if (plot == null) plot = residence;
+        }
+        return plot;
+    }
+
+    /**
+     * Gets the residence with the given id.
+     *
+     * @param residenceId id of the residence
+     * @return residence, or null if there is no such residence
+     */
+    @Nullable
+    @Contract(pure = true)
+    public ResidenceSnapshot getResidence(int residenceId) {
+        return residences.get(residenceId);
+    }
+
+    /**
+     * Gets the residence that consists of the region with the given id.
+     *
+     * @param regionId id of the region
+     * @return residence, or null if the region is not part of a residence
+     */
+    @Nullable
+    @Contract(pure = true)
+    public ResidenceSnapshot getResidenceByRegion(int regionId) {
+        return residencesByRegion.get(regionId);
+    }
+
+    /**
+     * Gets all residences.
+     *
+     * @return unmodifiable collection of all residences
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public Collection<ResidenceSnapshot> getResidences() {
+        return residenceList;
+    }
+
+    /**
+     * Gets the id of the district that contains the given chunk.
+     *
+     * @param world  id of the world of the chunk
+     * @param chunkX x coordinate of the chunk
+     * @param chunkZ z coordinate of the chunk
+     * @return id of the district, or {@link #NONE}
+     */
+    @Contract(pure = true)
+    public int getDistrictId(@Nonnull UUID world, int chunkX, int chunkZ) {
+        final Long2IntHashMap chunks = districtsByChunk.get(world);
+        return chunks == null ? NONE : chunks.get(Chunk.getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Gets the amount of regions in this snapshot.
+     *
+     * @return amount of regions
+     */
+    @Contract(pure = true)
+    public int regionCount() {
+        return regions.size();
+    }
+
+    @Nonnull
+    private static ChunkKeySet chunkKeys(@Nonnull List<Area> areas) {
+        final ChunkKeySet[] sets = new ChunkKeySet[areas.size()];
+        for (int i = 0; i < sets.length; i++) sets[i] = areas.get(i).chunkKeys();
+        return ChunkKeySet.union(sets);
+    }
+
+    @Nullable
+    private Entry[] bucket(@Nonnull UUID world, int x, int z) {
+        final Long2ObjectHashMap<Entry[]> buckets = regionsByChunk.get(world);
+        return buckets == null ? null : buckets.get(Chunk.getChunkKey(x >> 4, z >> 4));
+    }
+
+    private record Entry(int regionId, CompiledRegion compiled, long volume) {
+    }
+}
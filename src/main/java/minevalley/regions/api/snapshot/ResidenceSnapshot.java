@@ -0,0 +1,84 @@
+package minevalley.regions.api.snapshot;
+
+import minevalley.core.api.Registrant;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.residence.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of the state of a residence at the time a {@link RegionsSnapshot} was taken.
+ *
+ * @param id            id of the residence
+ * @param type          whether the residence is a plot or an apartment
+ * @param regionIds     ids of all the regions this residence consists of
+ * @param owner         owner of a plot or renter of an apartment. This is null, if the apartment is not rented.
+ * @param admins        registrants with administrator permission
+ * @param permissioned  registrants with permission
+ * @param locked        whether the residence is locked
+ * @param holderId      id of the apartment block or plot an apartment belongs to, or -1 for plots
+ */
+@SuppressWarnings("unused")
+public record ResidenceSnapshot(int id, @Nonnull Type type, @Nonnull int[] regionIds, @Nullable Registrant owner,
+                                @Nonnull List<Registrant> admins, @Nonnull List<Registrant> permissioned,
+                                boolean locked, int holderId) {
+
+    public ResidenceSnapshot {
+        if (type == null) throw new IllegalArgumentException("type cannot be null");
+        if (regionIds == null) throw new IllegalArgumentException("regionIds cannot be null");
+        if (admins == null) throw new IllegalArgumentException("admins cannot be null");
+        if (permissioned == null) throw new IllegalArgumentException("permissioned cannot be null");
+        regionIds = regionIds.clone();
+        admins = List.copyOf(admins);
+        permissioned = List.copyOf(permissioned);
+    }
+
+    /**
+     * Copies the current state of the given residence.
+     * <p>
+     * <b>Note:</b> This reads the live residence and therefore has to be called on the main thread.
+     *
+     * @param residence residence to copy
+     * @return snapshot of the residence
+     * @throws IllegalArgumentException if the residence is null or neither a plot nor an apartment
+     */
+    @Nonnull
+    public static ResidenceSnapshot of(@Nonnull Residence residence) throws IllegalArgumentException {
+        if (residence instanceof Plot plot) {
+            final List<Region> regions = new ArrayList<>();
+            for (PlotTile tile : plot.getTiles()) regions.add(tile.region());
+            regions.addAll(plot.getMergeRegions());
+            return new ResidenceSnapshot(plot.id(), Type.PLOT, regions.stream().mapToInt(Region::id).toArray(),
+                    plot.getOwner(), plot.getAdmins(), plot.getPermissioned(), plot.isLocked(), -1);
+        }
+        if (residence instanceof Apartment apartment) {
+            final int holderId = switch (apartment.getHolder()) {
+                case ApartmentBlock block -> block.id();
+                case Plot plot -> plot.id();
+                default -> -1;
+            };
+            return new ResidenceSnapshot(apartment.id(), Type.APARTMENT, new int[]{apartment.region().id()},
+                    apartment.getRenter(), apartment.getAdmins(), apartment.getPermissioned(), apartment.isLocked(), holderId);
+        }
+        throw new IllegalArgumentException("Residence must either be a plot or an apartment");
+    }
+
+    /**
+     * Gets the ids of all the regions this residence consists of.
+     *
+     * @return copy of the region ids
+     */
+    @Nonnull
+    @Override
+    public int[] regionIds() {
+        return regionIds.clone();
+    }
+
+    public enum Type {
+        PLOT,
+        APARTMENT
+    }
+}
@@ -0,0 +1,85 @@
+package minevalley.regions.api.snapshot;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import java.util.function.LongFunction;
+
+/**
+ * Copy-on-write holder of the current {@link RegionsSnapshot}.
+ * <p>
+ * The provider {@link #markDirty() marks} the holder as dirty whenever a region, residence or district changes, and calls
+ * {@link #publish()} once per tick on the main thread. A new snapshot is only taken if something changed since the last one.
+ * Readers call {@link #get()} from any thread, which is a single volatile read and never takes a lock.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class SnapshotPublisher {
+
+    private final LongFunction<RegionsSnapshot> factory;
+    private volatile RegionsSnapshot current;
+    private long version;
+    private boolean dirty;
+
+    /**
+     * Creates a publisher that takes snapshots using the given factory, which is passed the version of the new snapshot.
+     *
+     * @param factory factory taking a new snapshot of the given version
+     * @throws IllegalArgumentException if the factory is null
+     */
+    public SnapshotPublisher(@Nonnull LongFunction<RegionsSnapshot> factory) throws IllegalArgumentException {
+        if (factory == null) throw new IllegalArgumentException("Factory cannot be null");
+        this.factory = factory;
+        this.current = factory.apply(version);
+    }
+
+    /**
+     * Creates a publisher that takes snapshots using the given factory, but starts with the given snapshot instead of
+     * taking one right away. This lets the factory be a method of an object that is still being constructed.
+     *
+     * @param factory factory taking a new snapshot of the given version
+     * @param initial snapshot to publish until the first {@link #publish()}
+     * @throws IllegalArgumentException if the factory or the initial snapshot is null
+     */
+    public SnapshotPublisher(@Nonnull LongFunction<RegionsSnapshot> factory, @Nonnull RegionsSnapshot initial)
+            throws IllegalArgumentException {
+        if (factory == null) throw new IllegalArgumentException("Factory cannot be null");
+        if (initial == null) throw new IllegalArgumentException("Initial snapshot cannot be null");
+        this.factory = factory;
+        this.current = initial;
+        this.version = initial.version();
+    }
+
+    /**
+     * Gets the latest published snapshot. This method can be called from any thread.
+     *
+     * @return latest snapshot
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public RegionsSnapshot get() {
+        return current;
+    }
+
+    /**
+     * Marks the current snapshot as outdated, so a new one is taken on the next {@link #publish()}.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Takes and publishes a new snapshot, if the current one is outdated.
+     * <p>
+     * <b>Note:</b> This method has to be called on the main thread.
+     *
+     * @return true, if a new snapshot was published
+     */
+    public boolean publish() {
+        if (!dirty) return false;
+        dirty = false;
+        current = factory.apply(++version);
+        return true;
+    }
+}
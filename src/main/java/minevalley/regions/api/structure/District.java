@@ -2,7 +2,9 @@ package minevalley.regions.api.structure;
 
 import minevalley.core.api.localization.PlayerLocation;
 import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.core.ChunkKeySet;
 import org.bukkit.Chunk;
+import org.bukkit.World;
 import org.jetbrains.annotations.Contract;
 
 import javax.annotation.Nonnull;
@@ -20,6 +22,21 @@ public interface District extends PlayerLocation {
     @Contract(pure = true)
     int id();
 
+    /**
+     * Gets the world this district lies in.
+     * <p>
+     * Implementations should keep a reference to the world, since the default implementation might load a chunk.
+     *
+     * @return world of this district
+     * @throws IllegalStateException if this district does not consist of any chunk
+     */
+    @Nonnull
+    @Contract(pure = true)
+    default World world() throws IllegalStateException {
+        return chunks().findFirst().map(Chunk::getWorld)
+                .orElseThrow(() -> new IllegalStateException("District does not consist of any chunk"));
+    }
+
     /**
      * Gets a stream of all the chunks that make up this district.
      *
@@ -29,6 +46,19 @@ public interface District extends PlayerLocation {
     @Contract(pure = true)
     Stream<Chunk> chunks();
 
+    /**
+     * Gets the keys of all the chunks that make up this district.
+     * <p>
+     * Implementations should precompute this set, so it can be used without loading any chunk.
+     *
+     * @return set of the keys of the chunks that make up this district
+     */
+    @Nonnull
+    @Contract(pure = true)
+    default ChunkKeySet chunkKeys() {
+        return ChunkKeySet.of(chunks().mapToLong(Chunk::getChunkKey).toArray());
+    }
+
     /**
      * Gets the description of this district.
      *
@@ -2,13 +2,18 @@ package minevalley.regions.api.structure;
 
 import lombok.Setter;
 import minevalley.core.api.localization.PlayerLocation;
+import minevalley.regions.api.routing.Route;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.jetbrains.annotations.Contract;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @SuppressWarnings("unused")
 public interface Street {
@@ -64,6 +69,82 @@ public interface Street {
         public static NavigationPoint getNearest(Location location) {
             return helper.getNearest(location);
         }
+
+        /**
+         * Gets the navigation point nearest to the given coordinates.
+         * <p>
+         * The distance is measured in two dimensions, ignoring the height. In contrast to {@link #getNearest(Location)}, no
+         * location has to be created, which makes this suitable for frequent calls, e.g. on every GPS refresh.
+         *
+         * @param world world of the coordinates
+         * @param x     x coordinate
+         * @param z     z coordinate
+         * @return nearest navigation point, or null if there is no navigation point in the world
+         * @throws IllegalArgumentException if the world is null
+         */
+        @Nullable
+        public static NavigationPoint getNearest(@Nonnull World world, double x, double z) throws IllegalArgumentException {
+            return helper.getNearest(world, x, z);
+        }
+
+        /**
+         * Finds the cheapest route between the given navigation points.
+         * <p>
+         * The route is computed off the main thread. The returned future completes with null if the destination cannot be
+         * reached from the start.
+         *
+         * @param from navigation point to start at
+         * @param to   navigation point to arrive at
+         * @return future of the cheapest route
+         * @throws IllegalArgumentException if either navigation point is null
+         */
+        @Nonnull
+        public static CompletableFuture<Route> findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to)
+                throws IllegalArgumentException {
+            return helper.findRoute(from, to);
+        }
+
+        /**
+         * Adds the given connection to both of its navigation points and publishes the change to routing.
+         *
+         * @param connection connection to add
+         * @throws IllegalArgumentException if the connection is null
+         */
+        public static void addConnection(@Nonnull Connection connection) throws IllegalArgumentException {
+            helper.addConnection(connection);
+        }
+
+        /**
+         * Removes the given connection from both of its navigation points and publishes the change to routing.
+         *
+         * @param connection connection to remove
+         * @throws IllegalArgumentException if the connection is null
+         */
+        public static void removeConnection(@Nonnull Connection connection) throws IllegalArgumentException {
+            helper.removeConnection(connection);
+        }
+
+        /**
+         * Runs the given edits of navigation points and connections as a single transaction, so that routing only sees the
+         * road network before or after all of them, and publishes a single new version of it.
+         * <p>
+         * Transactions can be nested; the outermost one publishes the new version.
+         *
+         * @param edits edits to run
+         * @throws IllegalArgumentException if the edits are null
+         */
+        public static void runTransaction(@Nonnull Runnable edits) throws IllegalArgumentException {
+            helper.runTransaction(edits);
+        }
+
+        static void connectionAdded(@Nonnull Connection connection) {
+            // connections are also edited without a helper, e.g. while a snapshot is restored
+            if (helper != null) helper.onConnectionAdded(connection);
+        }
+
+        static void connectionRemoved(@Nonnull Connection connection) {
+            if (helper != null) helper.onConnectionRemoved(connection);
+        }
     }
 
     interface IStreetHelper {
@@ -77,12 +158,137 @@ public interface Street {
         void removeNavigationPoint(NavigationPoint navigationPoint);
 
         NavigationPoint getNearest(Location location);
+
+        /**
+         * Gets the navigation point nearest to the given coordinates, measured in two dimensions.
+         * <p>
+         * The default scans all navigation points. Implementations are expected to answer this from a
+         * {@link minevalley.regions.api.index.NavigationPointIndex NavigationPointIndex} instead.
+         *
+         * @param world world of the coordinates
+         * @param x     x coordinate
+         * @param z     z coordinate
+         * @return nearest navigation point, or null if there is no navigation point in the world
+         * @throws IllegalArgumentException if the world is null
+         */
+        @Nullable
+        default NavigationPoint getNearest(@Nonnull World world, double x, double z) throws IllegalArgumentException {
+            if (world == null) throw new IllegalArgumentException("World cannot be null");
+            NavigationPoint nearest = null;
+            double nearestDistance = Double.POSITIVE_INFINITY;
+            for (NavigationPoint navigationPoint : getAllNavigationPoints()) {
+                final Location location = navigationPoint.location();
+                if (location.getWorld() != world) continue;
+                final double dx = location.getX() - x;
+                final double dz = location.getZ() - z;
+                final double distance = dx * dx + dz * dz;
+                if (distance < nearestDistance) {
+                    nearest = navigationPoint;
+                    nearestDistance = distance;
+                }
+            }
+            return nearest;
+        }
+
+        /**
+         * Adds the given connection to both of its navigation points.
+         *
+         * @param connection connection to add
+         * @throws IllegalArgumentException if the connection is null
+         */
+        default void addConnection(@Nonnull Connection connection) throws IllegalArgumentException {
+            if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+            connection.add();
+        }
+
+        /**
+         * Removes the given connection from both of its navigation points.
+         *
+         * @param connection connection to remove
+         * @throws IllegalArgumentException if the connection is null
+         */
+        default void removeConnection(@Nonnull Connection connection) throws IllegalArgumentException {
+            if (connection == null) throw new IllegalArgumentException("Connection cannot be null");
+            connection.remove();
+        }
+
+        /**
+         * Called whenever a connection has been added to a navigation point, also if it was added directly instead of
+         * through this helper, so implementations can keep their routing up to date. Does nothing by default.
+         *
+         * @param connection added connection
+         */
+        default void onConnectionAdded(@Nonnull Connection connection) {
+        }
+
+        /**
+         * Called whenever a connection has been removed from its navigation points, also if it was removed directly
+         * instead of through this helper, so implementations can keep their routing up to date. Does nothing by default.
+         *
+         * @param connection removed connection
+         */
+        default void onConnectionRemoved(@Nonnull Connection connection) {
+        }
+
+        /**
+         * Runs the given edits of navigation points and connections as a single transaction.
+         * <p>
+         * The default just runs the edits. Implementations are expected to publish a single new
+         * {@link minevalley.regions.api.routing.RoutingGraphStore RoutingGraphStore} version per outermost transaction.
+         *
+         * @param edits edits to run
+         * @throws IllegalArgumentException if the edits are null
+         */
+        default void runTransaction(@Nonnull Runnable edits) throws IllegalArgumentException {
+            if (edits == null) throw new IllegalArgumentException("Edits cannot be null");
+            edits.run();
+        }
+
+        /**
+         * Finds the cheapest route between the given navigation points off the main thread.
+         * <p>
+         * Implementations are expected to keep a {@link minevalley.regions.api.routing.RoutingEngine RoutingEngine} on a
+         * {@link minevalley.regions.api.routing.RoutingGraphStore RoutingGraphStore}, so the graph is only compiled when
+         * the road network changes, as {@link minevalley.regions.api.memory.InMemoryStreetHelper InMemoryStreetHelper}
+         * does.
+         *
+         * @param from navigation point to start at
+         * @param to   navigation point to arrive at
+         * @return future of the cheapest route, completing with null if the destination cannot be reached
+         * @throws IllegalArgumentException if either navigation point is null
+         */
+        @Nonnull
+        CompletableFuture<Route> findRoute(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to)
+                throws IllegalArgumentException;
     }
 
+    /**
+     * A point of the road network that can be navigated to.
+     * <p>
+     * The connections are held in a copy-on-write list, so they can be iterated from other threads while the main thread
+     * adds or removes connections. They can only be changed through {@link #addConnection(Connection)} and
+     * {@link Connection#remove()}; the list passed to the constructor is copied.
+     */
     @SuppressWarnings("ConstantValue")
     record NavigationPoint(Street street, Location location, String name,
                            List<Connection> connections) implements PlayerLocation {
 
+        public NavigationPoint {
+            connections = connections == null ? new CopyOnWriteArrayList<>() : new CopyOnWriteArrayList<>(connections);
+        }
+
+        /**
+         * Gets the connections of this navigation point.
+         *
+         * @return unmodifiable view of the connections, whose iterators never fail due to concurrent changes
+         */
+        @Nonnull
+        @Override
+        @Contract(pure = true)
+        public List<Connection> connections() {
+            return Collections.unmodifiableList(connections);
+        }
+
         public double distance(@Nonnull Location location) throws IllegalArgumentException {
             if (location == null) throw new IllegalArgumentException("Location cannot be null");
             if (this.location.getWorld() != location.getWorld()) {
@@ -95,17 +301,36 @@ public interface Street {
             return distance(navigationPoint.location());
         }
 
+        /**
+         * Adds the given connection to this navigation point only. The street helper is notified about the change.
+         *
+         * @param connection connection to add
+         */
         public void addConnection(Connection connection) {
+            attachConnection(connection);
+            StreetHelper.connectionAdded(connection);
+        }
+
+        private void attachConnection(Connection connection) {
             connections.add(connection);
         }
 
         private void removeConnection(Connection connection) {
-            connections.remove(connection);
+            // compared by identity, since the equality of connections depends on their navigation points
+            connections.removeIf(candidate -> candidate == connection);
         }
     }
 
     interface Connection {
 
+        /**
+         * Gets the weight of this connection, i.e. its length multiplied by its speed limit.
+         * <p>
+         * The weight is computed once when the connection is created, since pathfinders query it for every edge they relax.
+         *
+         * @return weight of this connection
+         */
+        @Contract(pure = true)
         int weight();
 
         @SuppressWarnings("BooleanMethodIsAlwaysInverted")
@@ -113,6 +338,28 @@ public interface Street {
 
         NavigationHint getNavigationHint(NavigationPoint from);
 
+        /**
+         * Gets the navigation point this connection leads to, when used from the given navigation point.
+         *
+         * @param from navigation point to use this connection from
+         * @return navigation point this connection leads to, or null if it is not usable from the given navigation point
+         * @throws UnsupportedOperationException if this connection cannot tell its destination, which is the case for
+         *                                       implementations that do not override this method
+         */
+        @Nullable
+        default NavigationPoint getDestination(NavigationPoint from) throws UnsupportedOperationException {
+            throw new UnsupportedOperationException("Connection cannot tell its destination");
+        }
+
+        /**
+         * Adds this connection to both of its navigation points. The street helper is notified about the change.
+         *
+         * @throws UnsupportedOperationException if this connection cannot be added again once it has been removed
+         */
+        default void add() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException("Connection cannot be added again");
+        }
+
         void remove();
     }
 
@@ -130,10 +377,12 @@ public interface Street {
     }
 
     record OneWayConnection(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to,
-                            @Nonnegative int speedLimit, @Nonnull NavigationHint navigationHint) implements Connection {
-        @Override
-        public int weight() {
-            return (int) Math.round(from.distance(to) * speedLimit);
+                            @Nonnegative int speedLimit, @Nonnull NavigationHint navigationHint,
+                            @Nonnegative int weight) implements Connection {
+
+        public OneWayConnection(@Nonnull NavigationPoint from, @Nonnull NavigationPoint to,
+                                @Nonnegative int speedLimit, @Nonnull NavigationHint navigationHint) {
+            this(from, to, speedLimit, navigationHint, (int) Math.round(from.distance(to) * speedLimit));
         }
 
         @Override
@@ -147,20 +396,38 @@ public interface Street {
             return navigationHint;
         }
 
+        @Nullable
+        @Override
+        public NavigationPoint getDestination(NavigationPoint from) {
+            return isUsableFromHere(from) ? to : null;
+        }
+
+        @Override
+        public void add() {
+            from.attachConnection(this);
+            to.attachConnection(this);
+            StreetHelper.connectionAdded(this);
+        }
+
         @Override
         public void remove() {
             from.removeConnection(this);
             to.removeConnection(this);
+            StreetHelper.connectionRemoved(this);
         }
     }
 
     record TwoWayConnection(@Nonnull NavigationPoint point1, @Nonnull NavigationPoint point2,
                             @Nonnegative int speedLimit,
                             @Nonnull NavigationHint point1To2,
-                            @Nonnull NavigationHint point2To1) implements Connection {
-        @Override
-        public int weight() {
-            return (int) Math.round(point1.distance(point2) * speedLimit);
+                            @Nonnull NavigationHint point2To1,
+                            @Nonnegative int weight) implements Connection {
+
+        public TwoWayConnection(@Nonnull NavigationPoint point1, @Nonnull NavigationPoint point2,
+                                @Nonnegative int speedLimit,
+                                @Nonnull NavigationHint point1To2,
+                                @Nonnull NavigationHint point2To1) {
+            this(point1, point2, speedLimit, point1To2, point2To1, (int) Math.round(point1.distance(point2) * speedLimit));
         }
 
         @Override
@@ -174,10 +441,25 @@ public interface Street {
             return from == this.point1 ? point1To2 : point2To1;
         }
 
+        @Nullable
+        @Override
+        public NavigationPoint getDestination(NavigationPoint from) {
+            if (from == point1) return point2;
+            return from == point2 ? point1 : null;
+        }
+
+        @Override
+        public void add() {
+            point1.attachConnection(this);
+            point2.attachConnection(this);
+            StreetHelper.connectionAdded(this);
+        }
+
         @Override
         public void remove() {
             point1.removeConnection(this);
             point2.removeConnection(this);
+            StreetHelper.connectionRemoved(this);
         }
     }
 }
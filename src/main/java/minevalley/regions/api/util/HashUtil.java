@@ -0,0 +1,28 @@
+package minevalley.regions.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class HashUtil {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    static int mix(long key) {
+        final long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    static int mix(int key) {
+        final int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Gets the power of two table size that keeps the given amount of entries below a load factor of 0.5.
+     */
+    static int tableSize(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+        return Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+    }
+}
@@ -0,0 +1,229 @@
+package minevalley.regions.api.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Open addressing hash map with primitive {@code int} keys, meant to look up regions, residences and structures by their id.
+ * <p>
+ * Lookups neither box the key nor allocate. Values must not be null, since a null value marks an empty slot.
+ * <p>
+ * The table is kept below a load factor of 0.5, so its footprint is predictable: {@code n} entries take a table of the
+ * next power of two above {@code 2n} slots, each slot costing one {@code int} and one reference (about 8 bytes with
+ * compressed references). 40,000 entries therefore take 131,072 slots, which is roughly 1 MiB.
+ * <p>
+ * <b>Note:</b> This map is not thread-safe.
+ *
+ * @param <V> type of the values
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class Int2ObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public Int2ObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Int2ObjectHashMap(int expectedSize) {
+        final int capacity = HashUtil.tableSize(expectedSize);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the value mapped to the given key.
+     *
+     * @param key key to look up
+     * @return mapped value, or null if the key is not mapped
+     */
+    @Nullable
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = HashUtil.mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) return (V) value;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the given key is mapped.
+     *
+     * @param key key to check
+     * @return true, if the key is mapped
+     */
+    @Contract(pure = true)
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param key   key to map
+     * @param value value to map the key to
+     * @return previously mapped value, or null
+     * @throws IllegalArgumentException if the value is null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(int key, @Nonnull V value) throws IllegalArgumentException {
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        int slot = HashUtil.mix(key) & mask;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return (V) current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >> 1) rehash((mask + 1) << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     *
+     * @param key key to remove
+     * @return previously mapped value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = HashUtil.mix(key) & mask;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                size--;
+                return (V) current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Removes all mappings whose value matches the given filter.
+     *
+     * @param filter filter to test the values with
+     * @return true, if any mapping was removed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(@Nonnull Predicate<? super V> filter) {
+        int[] matches = null;
+        int count = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] == null || !filter.test((V) values[slot])) continue;
+            if (matches == null) matches = new int[Math.min(size, 8)];
+            else if (count == matches.length) matches = Arrays.copyOf(matches, count << 1);
+            matches[count++] = keys[slot];
+        }
+        for (int i = 0; i < count; i++) remove(matches[i]);
+        return count > 0;
+    }
+
+    /**
+     * Gets the amount of mapped keys.
+     *
+     * @return size of this map
+     */
+    @Contract(pure = true)
+    public int size() {
+        return size;
+    }
+
+    @Contract(pure = true)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Passes every mapped value to the given consumer.
+     *
+     * @param consumer consumer to pass the values to
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(@Nonnull Consumer<? super V> consumer) {
+        for (Object value : values) {
+            if (value != null) consumer.accept((V) value);
+        }
+    }
+
+    /**
+     * Copies all mapped values into a new list.
+     *
+     * @return modifiable list of the mapped values, in no particular order
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public List<V> values() {
+        final List<V> list = new ArrayList<>(size);
+        forEachValue(list::add);
+        return list;
+    }
+
+    private void shiftKeys(int slot) {
+        int last;
+        while (true) {
+            slot = ((last = slot) + 1) & mask;
+            Object current;
+            while (true) {
+                if ((current = values[slot]) == null) {
+                    values[last] = null;
+                    return;
+                }
+                final int home = HashUtil.mix(keys[slot]) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) break;
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = keys[slot];
+            values[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = HashUtil.mix(oldKeys[i]) & mask;
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
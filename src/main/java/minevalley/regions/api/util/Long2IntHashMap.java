@@ -0,0 +1,181 @@
+package minevalley.regions.api.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive {@code long} keys and primitive {@code int} values.
+ * <p>
+ * Lookups neither box the key or value nor allocate. A dedicated missing value is returned for keys that are not mapped
+ * and marks empty slots, so it cannot be mapped itself.
+ * <p>
+ * <b>Note:</b> This map is not thread-safe.
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class Long2IntHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public Long2IntHashMap(int missingValue) {
+        this(missingValue, DEFAULT_CAPACITY);
+    }
+
+    public Long2IntHashMap(int missingValue, int expectedSize) {
+        final int capacity = HashUtil.tableSize(expectedSize);
+        this.missingValue = missingValue;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        if (missingValue != 0) Arrays.fill(values, missingValue);
+    }
+
+    /**
+     * Gets the value returned for keys that are not mapped.
+     *
+     * @return missing value
+     */
+    @Contract(pure = true)
+    public int missingValue() {
+        return missingValue;
+    }
+
+    /**
+     * Gets the value mapped to the given key.
+     *
+     * @param key key to look up
+     * @return mapped value, or the {@link #missingValue() missing value} if the key is not mapped
+     */
+    @Contract(pure = true)
+    public int get(long key) {
+        int slot = HashUtil.mix(key) & mask;
+        int value;
+        while ((value = values[slot]) != missingValue) {
+            if (keys[slot] == key) return value;
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Checks whether the given key is mapped.
+     *
+     * @param key key to check
+     * @return true, if the key is mapped
+     */
+    @Contract(pure = true)
+    public boolean containsKey(long key) {
+        return get(key) != missingValue;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param key   key to map
+     * @param value value to map the key to
+     * @return previously mapped value, or the {@link #missingValue() missing value}
+     * @throws IllegalArgumentException if the value is the missing value
+     */
+    public int put(long key, int value) throws IllegalArgumentException {
+        if (value == missingValue) throw new IllegalArgumentException("Value cannot be the missing value");
+        int slot = HashUtil.mix(key) & mask;
+        int current;
+        while ((current = values[slot]) != missingValue) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >> 1) rehash((mask + 1) << 1);
+        return missingValue;
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     *
+     * @param key key to remove
+     * @return previously mapped value, or the {@link #missingValue() missing value}
+     */
+    public int remove(long key) {
+        int slot = HashUtil.mix(key) & mask;
+        int current;
+        while ((current = values[slot]) != missingValue) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                size--;
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Gets the amount of mapped keys.
+     *
+     * @return size of this map
+     */
+    @Contract(pure = true)
+    public int size() {
+        return size;
+    }
+
+    @Contract(pure = true)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(values, missingValue);
+        size = 0;
+    }
+
+    private void shiftKeys(int slot) {
+        int last;
+        while (true) {
+            slot = ((last = slot) + 1) & mask;
+            int current;
+            while (true) {
+                if ((current = values[slot]) == missingValue) {
+                    values[last] = missingValue;
+                    return;
+                }
+                final int home = HashUtil.mix(keys[slot]) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) break;
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = keys[slot];
+            values[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        if (missingValue != 0) Arrays.fill(values, missingValue);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == missingValue) continue;
+            int slot = HashUtil.mix(oldKeys[i]) & mask;
+            while (values[slot] != missingValue) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package minevalley.regions.api.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map with primitive {@code long} keys.
+ * <p>
+ * Lookups neither box the key nor allocate. Values must not be null, since a null value marks an empty slot.
+ * <p>
+ * <b>Note:</b> This map is not thread-safe.
+ *
+ * @param <V> type of the values
+ */
+@ApiStatus.Internal
+@SuppressWarnings("unused")
+public final class Long2ObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public Long2ObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Long2ObjectHashMap(int expectedSize) {
+        final int capacity = HashUtil.tableSize(expectedSize);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the value mapped to the given key.
+     *
+     * @param key key to look up
+     * @return mapped value, or null if the key is not mapped
+     */
+    @Nullable
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = HashUtil.mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) return (V) value;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the given key is mapped.
+     *
+     * @param key key to check
+     * @return true, if the key is mapped
+     */
+    @Contract(pure = true)
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param key   key to map
+     * @param value value to map the key to
+     * @return previously mapped value, or null
+     * @throws IllegalArgumentException if the value is null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, @Nonnull V value) throws IllegalArgumentException {
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        int slot = HashUtil.mix(key) & mask;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return (V) current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >> 1) rehash((mask + 1) << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     *
+     * @param key key to remove
+     * @return previously mapped value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = HashUtil.mix(key) & mask;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                size--;
+                return (V) current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the amount of mapped keys.
+     *
+     * @return size of this map
+     */
+    @Contract(pure = true)
+    public int size() {
+        return size;
+    }
+
+    @Contract(pure = true)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Passes every mapped value to the given consumer.
+     *
+     * @param consumer consumer to pass the values to
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(@Nonnull Consumer<? super V> consumer) {
+        for (Object value : values) {
+            if (value != null) consumer.accept((V) value);
+        }
+    }
+
+    private void shiftKeys(int slot) {
+        int last;
+        while (true) {
+            slot = ((last = slot) + 1) & mask;
+            Object current;
+            while (true) {
+                if ((current = values[slot]) == null) {
+                    values[last] = null;
+                    return;
+                }
+                final int home = HashUtil.mix(keys[slot]) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) break;
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = keys[slot];
+            values[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = HashUtil.mix(oldKeys[i]) & mask;
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
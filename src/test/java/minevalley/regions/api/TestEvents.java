@@ -0,0 +1,90 @@
+package minevalley.regions.api;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.event.Event;
+import org.bukkit.plugin.PluginManager;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Records the events called during tests, by installing a server whose plugin manager only remembers the events it is
+ * passed. The server is installed directly, since {@link Bukkit#setServer(Server)} needs a complete server.
+ */
+public final class TestEvents {
+
+    private static final List<Event> CALLED = new ArrayList<>();
+    private static Consumer<? super Event> listener;
+
+    private TestEvents() {
+    }
+
+    /**
+     * Forgets the events called so far and records the events called from now on.
+     *
+     * @return unmodifiable view of the called events, in the order they were called
+     */
+    @Nonnull
+    public static List<Event> record() {
+        return record(event -> {
+        });
+    }
+
+    /**
+     * Forgets the events called so far and records the events called from now on, passing each of them to the given
+     * listener, e.g. to cancel it.
+     *
+     * @param listener listener to pass the called events to
+     * @return unmodifiable view of the called events, in the order they were called
+     */
+    @Nonnull
+    public static synchronized List<Event> record(@Nonnull Consumer<? super Event> listener) {
+        if (Bukkit.getServer() == null) install();
+        CALLED.clear();
+        TestEvents.listener = listener;
+        return Collections.unmodifiableList(CALLED);
+    }
+
+    private static void install() {
+        final PluginManager pluginManager = proxy(PluginManager.class, (proxy, method, args) -> switch (method.getName()) {
+            case "callEvent" -> {
+                CALLED.add((Event) args[0]);
+                listener.accept((Event) args[0]);
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        final Server server = proxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getPluginManager" -> pluginManager;
+            case "getLogger" -> Logger.getLogger(TestEvents.class.getName());
+            case "isPrimaryThread" -> true;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        try {
+            final Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot install the test server", e);
+        }
+    }
+
+    @Nonnull
+    private static <T> T proxy(@Nonnull Class<T> type, @Nonnull InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TestEvents.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> type.getSimpleName();
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+}
@@ -0,0 +1,72 @@
+package minevalley.regions.api;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Creates worlds for tests, which only know their id, name and the coordinates of their blocks and chunks. Worlds are
+ * compared by identity.
+ */
+public final class TestWorlds {
+
+    private TestWorlds() {
+    }
+
+    /**
+     * Creates a world with the given name, whose id is derived from the name.
+     *
+     * @param name name of the world
+     * @return new world
+     */
+    @Nonnull
+    public static World world(@Nonnull String name) {
+        final UUID id = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        return (World) Proxy.newProxyInstance(TestWorlds.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUID" -> id;
+                    case "getName", "toString" -> name;
+                    case "getBlockAt" -> block((World) proxy, (int) args[0], (int) args[1], (int) args[2]);
+                    case "getChunkAt" -> chunk((World) proxy, (int) args[0], (int) args[1]);
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> id.hashCode();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Nonnull
+    private static Block block(@Nonnull World world, int x, int y, int z) {
+        return (Block) Proxy.newProxyInstance(TestWorlds.class.getClassLoader(), new Class<?>[]{Block.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getWorld" -> world;
+                    case "getX" -> x;
+                    case "getY" -> y;
+                    case "getZ" -> z;
+                    case "equals" -> args[0] instanceof Block block && block.getWorld() == world && block.getX() == x
+                            && block.getY() == y && block.getZ() == z;
+                    case "hashCode" -> (x * 31 + y) * 31 + z;
+                    case "toString" -> "Block{" + world + ", " + x + ", " + y + ", " + z + "}";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Nonnull
+    private static Chunk chunk(@Nonnull World world, int x, int z) {
+        return (Chunk) Proxy.newProxyInstance(TestWorlds.class.getClassLoader(), new Class<?>[]{Chunk.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getWorld" -> world;
+                    case "getX" -> x;
+                    case "getZ" -> z;
+                    case "equals" -> args[0] instanceof Chunk chunk && chunk.getWorld() == world && chunk.getX() == x
+                            && chunk.getZ() == z;
+                    case "hashCode" -> x * 31 + z;
+                    case "toString" -> "Chunk{" + world + ", " + x + ", " + z + "}";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,131 @@
+package minevalley.regions.api.core;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.memory.SimpleArea;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AreaSpliteratorTest {
+
+    private final World world = TestWorlds.world("world");
+
+    @Test
+    void enumeratesBlocksInOrder() {
+        final Random random = new Random(19);
+        for (int run = 0; run < 100; run++) {
+            final int[] bounds = randomBounds(random);
+            final List<Long> expected = keys(bounds);
+            final AreaSpliterator spliterator = spliterator(bounds);
+            assertEquals(expected.size(), spliterator.estimateSize());
+
+            // a few keys one by one, the rest at once
+            final List<Long> actual = new ArrayList<>();
+            final LongConsumer collect = actual::add;
+            for (int i = random.nextInt(expected.size() + 1); i > 0; i--) assertTrue(spliterator.tryAdvance(collect));
+            spliterator.forEachRemaining(collect);
+            assertEquals(expected, actual, "run " + run);
+            assertEquals(0, spliterator.estimateSize());
+            assertFalse(spliterator.tryAdvance((LongConsumer) key -> fail("exhausted")));
+        }
+    }
+
+    @Test
+    void splitsIntoOrderedHalves() {
+        final Random random = new Random(23);
+        for (int run = 0; run < 100; run++) {
+            final int[] bounds = randomBounds(random);
+            final List<Long> expected = keys(bounds);
+            final AreaSpliterator spliterator = spliterator(bounds);
+            if (random.nextBoolean()) {
+                spliterator.tryAdvance((LongConsumer) key -> {
+                });
+                expected.remove(0);
+            }
+
+            final List<Long> actual = new ArrayList<>();
+            split(spliterator, random, actual);
+            assertEquals(expected, actual, "run " + run);
+        }
+    }
+
+    @Test
+    void doesNotSplitSingleBlock() {
+        final AreaSpliterator spliterator = new AreaSpliterator(3, 4, 5, 3, 4, 5);
+        assertNull(spliterator.trySplit());
+        assertTrue(spliterator.tryAdvance((LongConsumer) key -> assertEquals(Block.getBlockKey(3, 4, 5), key)));
+    }
+
+    @Test
+    void streamsBlockKeysOfArea() {
+        final Area area = new SimpleArea(world, -40, -10, 30, 25, 70, -17);
+        final long[] sequential = area.blockKeys().toArray();
+        assertEquals(area.volume(), sequential.length);
+        assertArrayEquals(sequential, area.blockKeys(true).toArray());
+        for (long key : sequential) {
+            assertTrue(area.contains(Block.getBlockKeyX(key), Block.getBlockKeyY(key), Block.getBlockKeyZ(key)));
+        }
+        assertEquals(sequential.length, Arrays.stream(sequential).distinct().count());
+    }
+
+    @Test
+    void slicesAreaByChunk() {
+        final Random random = new Random(29);
+        for (int run = 0; run < 50; run++) {
+            final int[] bounds = randomBounds(random);
+            final Area area = new SimpleArea(world, bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+            final Set<Long> chunks = new HashSet<>();
+            long volume = 0;
+            for (Iterator<ChunkSlice> slices = area.chunkSlices(); slices.hasNext(); ) {
+                final ChunkSlice slice = slices.next();
+                assertTrue(chunks.add(slice.chunkKey()), "run " + run);
+                assertTrue(area.chunkKeys().contains(slice.chunkKey()), "run " + run);
+                assertTrue(area.contains(slice.minX(), slice.minY(), slice.minZ()), "run " + run);
+                assertTrue(area.contains(slice.maxX(), slice.maxY(), slice.maxZ()), "run " + run);
+                volume += slice.volume();
+            }
+            assertEquals(area.chunkKeys().size(), chunks.size(), "run " + run);
+            assertEquals(area.volume(), volume, "run " + run);
+        }
+    }
+
+    // splits at random and collects the parts in order, prefix first
+    private static void split(Spliterator.OfLong spliterator, Random random, List<Long> keys) {
+        final long size = spliterator.estimateSize();
+        final Spliterator.OfLong prefix = random.nextInt(4) == 0 ? null : spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining((LongConsumer) keys::add);
+            return;
+        }
+        assertEquals(size, prefix.estimateSize() + spliterator.estimateSize());
+        split(prefix, random, keys);
+        split(spliterator, random, keys);
+    }
+
+    private static int[] randomBounds(Random random) {
+        final int x = random.nextInt(100) - 50;
+        final int y = random.nextInt(100) - 20;
+        final int z = random.nextInt(100) - 50;
+        return new int[]{x, y, z, x + random.nextInt(40), y + random.nextInt(5), z + random.nextInt(40)};
+    }
+
+    private static AreaSpliterator spliterator(int[] bounds) {
+        return new AreaSpliterator(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    // y changes slowest and x fastest
+    private static List<Long> keys(int[] bounds) {
+        final List<Long> keys = new ArrayList<>();
+        for (int y = bounds[1]; y <= bounds[4]; y++) {
+            for (int z = bounds[2]; z <= bounds[5]; z++) {
+                for (int x = bounds[0]; x <= bounds[3]; x++) keys.add(Block.getBlockKey(x, y, z));
+            }
+        }
+        return keys;
+    }
+}
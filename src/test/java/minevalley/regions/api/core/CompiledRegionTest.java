@@ -0,0 +1,91 @@
+package minevalley.regions.api.core;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.memory.SimpleArea;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledRegionTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World other = TestWorlds.world("other");
+
+    @Test
+    void containsMatchesAreas() {
+        final Random random = new Random(1);
+        for (int run = 0; run < 200; run++) {
+            final List<Area> included = new ArrayList<>();
+            final List<Area> excluded = new ArrayList<>();
+            for (int i = 1 + random.nextInt(5); i > 0; i--) included.add(randomArea(random));
+            for (int i = random.nextInt(5); i > 0; i--) excluded.add(randomArea(random));
+            final CompiledRegion region = CompiledRegion.compile(included, excluded, world);
+
+            for (int x = -34; x < 34; x++) {
+                for (int y = -2; y < 42; y += 3) {
+                    for (int z = -34; z < 34; z++) {
+                        assertEquals(contains(included, excluded, x, y, z), region.contains(x, y, z),
+                                "run " + run + " at " + x + ", " + y + ", " + z);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void excludedAreasCutHoles() {
+        final CompiledRegion region = CompiledRegion.compile(List.of(new SimpleArea(world, 0, 0, 0, 15, 15, 15)),
+                List.of(new SimpleArea(world, 5, 5, 5, 10, 10, 10)), world);
+
+        assertTrue(region.contains(0, 0, 0));
+        assertTrue(region.contains(15, 15, 15));
+        assertTrue(region.contains(4, 7, 7));
+        assertFalse(region.contains(5, 5, 5));
+        assertFalse(region.contains(10, 10, 10));
+        assertTrue(region.contains(11, 10, 10));
+        assertFalse(region.contains(16, 0, 0));
+        assertFalse(region.contains(0, -1, 0));
+    }
+
+    @Test
+    void ignoresAreasInOtherWorlds() {
+        final CompiledRegion region = CompiledRegion.compile(
+                List.of(new SimpleArea(world, 0, 0, 0, 15, 15, 15), new SimpleArea(other, 20, 0, 20, 30, 15, 30)),
+                List.of(new SimpleArea(other, 0, 0, 0, 15, 15, 15)), world);
+
+        assertEquals(world.getUID(), region.worldId());
+        assertTrue(region.contains(world, 7, 7, 7));
+        assertFalse(region.contains(other, 7, 7, 7));
+        assertFalse(region.contains(null, 7, 7, 7));
+        assertFalse(region.contains(25, 7, 25));
+    }
+
+    @Test
+    void emptyWithoutIncludedAreasInWorld() {
+        final CompiledRegion region = CompiledRegion.compile(List.of(new SimpleArea(other, 0, 0, 0, 15, 15, 15)),
+                List.of(), world);
+
+        assertFalse(region.contains(7, 7, 7));
+        assertEquals(0, region.cells());
+    }
+
+    private Area randomArea(Random random) {
+        return new SimpleArea(world, random.nextInt(60) - 30, random.nextInt(40), random.nextInt(60) - 30,
+                random.nextInt(60) - 30, random.nextInt(40), random.nextInt(60) - 30);
+    }
+
+    private static boolean contains(List<Area> included, List<Area> excluded, int x, int y, int z) {
+        for (Area area : excluded) {
+            if (area.contains(x, y, z)) return false;
+        }
+        for (Area area : included) {
+            if (area.contains(x, y, z)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,119 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.index.DominantResidenceTable.Candidate;
+import minevalley.regions.api.memory.InMemoryRegionsProvider;
+import minevalley.regions.api.memory.SimpleArea;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static minevalley.regions.api.index.DominantResidenceTable.MIXED;
+import static minevalley.regions.api.index.DominantResidenceTable.NO_RESIDENCE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DominantResidenceTableTest {
+
+    private final World world = TestWorlds.world("world");
+    private final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+    private final List<Candidate> candidates = new ArrayList<>();
+    private int resolved;
+
+    // every candidate is reported for every chunk, most dominant first
+    private final DominantResidenceTable.Resolver resolver = (world, chunkX, chunkZ) -> {
+        resolved++;
+        return candidates;
+    };
+
+    @Test
+    void matchesFirstCandidateContainingBlock() {
+        final Random random = new Random(17);
+        for (int i = 0; i < 10; i++) {
+            final List<Area> excluded = random.nextBoolean() ? List.of() : List.of(randomArea(random));
+            candidates.add(new Candidate(i, provider.createRegion(List.of(randomArea(random)), excluded)));
+        }
+        final DominantResidenceTable table = new DominantResidenceTable(resolver);
+
+        for (int x = -40; x < 40; x++) {
+            for (int y = 0; y < 40; y += 3) {
+                for (int z = -40; z < 40; z += 2) {
+                    assertEquals(expected(x, y, z), table.get(world, x, y, z), "at " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void collapsesCoveredAndEmptySections() {
+        final Region apartment = region(4, 4, 4, 7, 7, 7);
+        final Region plot = region(0, 0, 0, 31, 31, 31);
+        candidates.add(new Candidate(2, apartment));
+        candidates.add(new Candidate(1, plot));
+        final DominantResidenceTable table = new DominantResidenceTable(resolver);
+
+        assertEquals(MIXED, table.getUniform(world, 0, 0, 0));
+        assertEquals(2, table.get(world, 5, 5, 5));
+        assertEquals(1, table.get(world, 8, 5, 5));
+        assertEquals(1, table.getUniform(world, 20, 20, 20));
+        assertEquals(NO_RESIDENCE, table.getUniform(world, 40, 5, 5));
+        assertEquals(NO_RESIDENCE, table.get(world, 40, 5, 5));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    void rebuildsInvalidatedSections() {
+        final Region plot = region(0, 0, 0, 15, 15, 15);
+        candidates.add(new Candidate(1, plot));
+        final DominantResidenceTable table = new DominantResidenceTable(resolver);
+        assertEquals(1, table.get(world, 5, 5, 5));
+        assertEquals(1, table.get(world, 6, 6, 6));
+        assertEquals(1, resolved);
+
+        candidates.clear();
+        assertEquals(1, table.get(world, 5, 5, 5), "sections are kept until invalidated");
+        table.invalidateResidence(1);
+        assertEquals(NO_RESIDENCE, table.get(world, 5, 5, 5));
+        assertEquals(2, resolved);
+
+        candidates.add(new Candidate(3, plot));
+        table.invalidate(plot);
+        assertEquals(3, table.get(world, 5, 5, 5));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void dropsSectionsBeyondBound() {
+        candidates.add(new Candidate(1, region(0, 0, 0, 63, 15, 15)));
+        final DominantResidenceTable table = new DominantResidenceTable(resolver, 2);
+        table.get(world, 0, 0, 0);
+        table.get(world, 16, 0, 0);
+        assertEquals(2, table.size());
+
+        assertEquals(1, table.get(world, 32, 0, 0));
+        assertEquals(1, table.size());
+        assertEquals(1, table.get(world, 0, 0, 0));
+        assertEquals(2, table.size());
+        assertThrows(IllegalArgumentException.class, () -> new DominantResidenceTable(resolver, 0));
+    }
+
+    private int expected(int x, int y, int z) {
+        for (Candidate candidate : candidates) {
+            if (candidate.region().contains(world, x, y, z)) return candidate.residenceId();
+        }
+        return NO_RESIDENCE;
+    }
+
+    private Region region(int x1, int y1, int z1, int x2, int y2, int z2) {
+        return provider.createRegion(List.of(new SimpleArea(world, x1, y1, z1, x2, y2, z2)), List.of());
+    }
+
+    private Area randomArea(Random random) {
+        return new SimpleArea(world, random.nextInt(80) - 40, random.nextInt(40), random.nextInt(80) - 40,
+                random.nextInt(80) - 40, random.nextInt(40), random.nextInt(80) - 40);
+    }
+}
@@ -0,0 +1,110 @@
+package minevalley.regions.api.index;
+
+import minevalley.core.api.Registrant;
+import minevalley.core.api.corporation.RealEstateGroup;
+import minevalley.regions.api.residence.Apartment;
+import minevalley.regions.api.residence.ApartmentBlock;
+import minevalley.regions.api.residence.Plot;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static minevalley.regions.api.residence.Residence.Permission.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OwnershipIndexTest {
+
+    private final Registrant alice = proxy(Registrant.class, Map.of());
+    private final Registrant bob = proxy(Registrant.class, Map.of());
+    private final Registrant carol = proxy(Registrant.class, Map.of());
+    private final OwnershipIndex index = new OwnershipIndex();
+
+    @Test
+    void indexesOwnersAdminsAndPermissioned() {
+        final Plot plot = proxy(Plot.class, Map.of("id", 1, "getOwner", alice, "getAdmins", List.of(bob),
+                "getPermissioned", List.of(carol)));
+        final Apartment apartment = proxy(Apartment.class, Map.of("id", 2, "getRenter", alice,
+                "getAdmins", List.of(), "getPermissioned", List.of(bob)));
+        index.add(plot);
+        index.add(apartment);
+
+        assertEquals(List.of(plot, apartment), index.getResidences(alice));
+        assertEquals(Set.of(plot), Set.copyOf(index.getResidences(bob, ADMINISTRATOR)));
+        assertEquals(Set.of(apartment), Set.copyOf(index.getResidences(bob, PERMISSIONED)));
+        assertEquals(Set.of(plot), Set.copyOf(index.getResidences(carol, PERMISSIONED)));
+        assertTrue(index.getResidences(carol, OWNER).isEmpty());
+        assertEquals(ADMINISTRATOR, index.getPermission(plot, bob));
+        assertNull(index.getPermission(apartment, carol));
+    }
+
+    @Test
+    void movesRegistrantsBetweenPermissions() {
+        final Plot plot = proxy(Plot.class, Map.of("id", 1, "getOwner", alice, "getAdmins", List.of(),
+                "getPermissioned", List.of(bob)));
+        index.add(plot);
+
+        index.setPermission(plot, bob, ADMINISTRATOR);
+        assertTrue(index.getResidences(bob, PERMISSIONED).isEmpty());
+        assertEquals(Set.of(plot), Set.copyOf(index.getResidences(bob, ADMINISTRATOR)));
+
+        // ownership transfer
+        index.setPermission(plot, alice, null);
+        index.setPermission(plot, carol, OWNER);
+        assertTrue(index.getResidences(alice).isEmpty());
+        assertEquals(List.of(plot), index.getResidences(carol));
+
+        index.remove(plot);
+        assertTrue(index.getResidences(carol).isEmpty());
+        assertTrue(index.getResidences(bob, ADMINISTRATOR).isEmpty());
+        assertNull(index.getPermission(plot, bob));
+    }
+
+    @Test
+    void reindexesChangedResidences() {
+        final Map<String, Object> values = new HashMap<>(Map.of("id", 1, "getOwner", alice, "getAdmins", List.of(bob),
+                "getPermissioned", List.of()));
+        final Plot plot = proxy(Plot.class, values);
+        index.add(plot);
+
+        values.put("getOwner", carol);
+        values.put("getAdmins", List.of());
+        index.add(plot);
+        assertTrue(index.getResidences(alice).isEmpty());
+        assertTrue(index.getResidences(bob, ADMINISTRATOR).isEmpty());
+        assertEquals(List.of(plot), index.getResidences(carol));
+    }
+
+    @Test
+    void indexesApartmentBlocksByOwner() {
+        final RealEstateGroup first = proxy(RealEstateGroup.class, Map.of());
+        final RealEstateGroup second = proxy(RealEstateGroup.class, Map.of());
+        final List<ApartmentBlock> blocks = new ArrayList<>();
+        for (int id = 0; id < 5; id++) {
+            final ApartmentBlock block = proxy(ApartmentBlock.class, Map.of("id", id, "getOwner", first));
+            blocks.add(block);
+            index.add(block);
+        }
+
+        assertEquals(blocks, index.getApartmentBlocks(first));
+        assertEquals(blocks.subList(1, 3), index.getApartmentBlocks(first, 1, 2));
+        assertEquals(blocks.subList(4, 5), index.getApartmentBlocks(first, 4, 10));
+
+        index.setOwner(blocks.get(0), second);
+        assertEquals(List.of(blocks.get(0)), index.getApartmentBlocks(second));
+        assertEquals(blocks.subList(1, 5), index.streamApartmentBlocks(first).toList());
+
+        index.setOwner(blocks.get(0), null);
+        assertTrue(index.getApartmentBlocks(second).isEmpty());
+    }
+
+    // implements the given interface with the given return values, keyed by method name
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(OwnershipIndexTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> values.get(method.getName());
+                }));
+    }
+}
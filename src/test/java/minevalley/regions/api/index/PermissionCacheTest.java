@@ -0,0 +1,115 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.residence.Residence;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static minevalley.regions.api.residence.Residence.Permission.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionCacheTest {
+
+    private final Residence first = residence(1);
+    private final Residence second = residence(2);
+    private final Map<String, Residence.Permission> permissions = new HashMap<>();
+    private int resolved;
+
+    // looks the permission up by user and residence id, e.g. "alice@1"
+    private final PermissionCache.Resolver<String> resolver = (user, residence) -> {
+        resolved++;
+        return permissions.get(user + "@" + residence.id());
+    };
+
+    @Test
+    void cachesDecisions() {
+        final PermissionCache<String> cache = new PermissionCache<>(resolver);
+        permissions.put("alice@1", ADMINISTRATOR);
+
+        assertEquals(ADMINISTRATOR, cache.getPermission("alice", first));
+        assertEquals(ADMINISTRATOR, cache.getPermission("alice", first));
+        assertNull(cache.getPermission("alice", second));
+        assertNull(cache.getPermission("alice", second));
+        assertEquals(2, resolved);
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.decisionCount());
+
+        assertTrue(cache.hasPermission("alice", first, PERMISSIONED));
+        assertTrue(cache.hasPermission("alice", first, ADMINISTRATOR));
+        assertFalse(cache.hasPermission("alice", first, OWNER));
+        assertFalse(cache.hasPermission("alice", second, PERMISSIONED));
+        assertEquals(2, resolved);
+    }
+
+    @Test
+    void invalidatesResidence() {
+        final PermissionCache<String> cache = new PermissionCache<>(resolver);
+        permissions.put("alice@1", PERMISSIONED);
+        permissions.put("bob@2", OWNER);
+        cache.getPermission("alice", first);
+        cache.getPermission("bob", second);
+
+        permissions.put("alice@1", OWNER);
+        permissions.put("bob@2", null);
+        assertEquals(PERMISSIONED, cache.getPermission("alice", first), "decisions are kept until invalidated");
+        cache.invalidate(first);
+        assertEquals(OWNER, cache.getPermission("alice", first));
+        assertEquals(OWNER, cache.getPermission("bob", second), "other residences stay cached");
+        assertEquals(3, resolved);
+    }
+
+    @Test
+    void invalidatesUsersAndEverything() {
+        final PermissionCache<String> cache = new PermissionCache<>(resolver);
+        permissions.put("alice@1", PERMISSIONED);
+        permissions.put("bob@1", PERMISSIONED);
+        cache.getPermission("alice", first);
+        cache.getPermission("bob", first);
+
+        permissions.put("alice@1", ADMINISTRATOR);
+        permissions.put("bob@1", ADMINISTRATOR);
+        cache.invalidateUser("alice");
+        assertEquals(1, cache.size());
+        assertEquals(ADMINISTRATOR, cache.getPermission("alice", first));
+        assertEquals(PERMISSIONED, cache.getPermission("bob", first));
+
+        cache.invalidateAll();
+        assertEquals(ADMINISTRATOR, cache.getPermission("bob", first));
+        assertEquals(4, resolved);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.decisionCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyActiveUser() {
+        final PermissionCache<String> cache = new PermissionCache<>(3, resolver);
+        cache.getPermission("alice", first);
+        cache.getPermission("alice", second);
+        cache.getPermission("bob", first);
+        cache.getPermission("alice", first);
+        cache.getPermission("carol", first);
+
+        assertEquals(3, cache.decisionCount());
+        assertEquals(2, cache.size());
+        assertEquals(4, resolved);
+        cache.getPermission("alice", second);
+        assertEquals(4, resolved, "alice was active more recently than bob");
+        cache.getPermission("bob", first);
+        assertEquals(5, resolved);
+        assertThrows(IllegalArgumentException.class, () -> new PermissionCache<>(0, resolver));
+    }
+
+    private static Residence residence(int id) {
+        return (Residence) Proxy.newProxyInstance(PermissionCacheTest.class.getClassLoader(), new Class<?>[]{Residence.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "id" -> id;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> id;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
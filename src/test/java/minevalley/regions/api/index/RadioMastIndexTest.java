@@ -0,0 +1,213 @@
+package minevalley.regions.api.index;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.structure.RadioMast;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadioMastIndexTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World other = TestWorlds.world("other");
+
+    @Test
+    void findsNearestMast() {
+        final Random random = new Random(3);
+        for (int run = 0; run < 20; run++) {
+            final RadioMastIndex index = new RadioMastIndex(4 + random.nextInt(6));
+            final List<RadioMast> masts = new ArrayList<>();
+            for (int i = 1 + random.nextInt(30); i > 0; i--) {
+                final RadioMast mast = mast(random.nextBoolean() ? world : other, random.nextInt(4000) - 2000,
+                        random.nextInt(4000) - 2000, random.nextInt(300));
+                masts.add(mast);
+                index.add(mast);
+            }
+            for (int query = 0; query < 200; query++) {
+                final int x = random.nextInt(5000) - 2500;
+                final int z = random.nextInt(5000) - 2500;
+                final RadioMast nearest = index.getNearest(world, x, z);
+                final long expected = nearestDistance(masts, world, x, z);
+                assertEquals(expected, nearest == null ? -1 : squaredDistance(nearest, x, z), "run " + run);
+                if (nearest != null) assertSame(world, nearest.world());
+            }
+        }
+    }
+
+    @Test
+    void findsCoveringMasts() {
+        final Random random = new Random(5);
+        for (int run = 0; run < 20; run++) {
+            final RadioMastIndex index = new RadioMastIndex(4 + random.nextInt(6));
+            final List<RadioMast> masts = new ArrayList<>();
+            for (int i = 1 + random.nextInt(30); i > 0; i--) {
+                final RadioMast mast = mast(random.nextBoolean() ? world : other, random.nextInt(2000) - 1000,
+                        random.nextInt(2000) - 1000, random.nextInt(400));
+                masts.add(mast);
+                index.add(mast);
+            }
+            final List<RadioMast> buffer = new ArrayList<>();
+            for (int query = 0; query < 500; query++) {
+                final int x = random.nextInt(3000) - 1500;
+                final int z = random.nextInt(3000) - 1500;
+                final Set<RadioMast> expected = covering(masts, world, x, z);
+                assertEquals(expected.size(), index.getCovering(world, x, z, buffer), "run " + run);
+                assertEquals(expected, new HashSet<>(buffer), "run " + run);
+
+                final Set<RadioMast> visited = new HashSet<>();
+                index.forEachCovering(world, x, z, visited::add);
+                assertEquals(expected, visited, "run " + run);
+            }
+        }
+    }
+
+    @Test
+    void removesMasts() {
+        final RadioMastIndex index = new RadioMastIndex();
+        final RadioMast near = mast(world, 0, 0, 100);
+        final RadioMast far = mast(world, 1000, 0, 100);
+        index.add(near);
+        index.add(far);
+        index.add(near);
+        assertEquals(2, index.size());
+        assertSame(near, index.getNearest(world, 10, 10));
+
+        assertTrue(index.remove(near));
+        assertFalse(index.remove(near));
+        assertFalse(index.remove(null));
+        assertEquals(List.of(far), index.getRadioMasts());
+        assertSame(far, index.getNearest(world, 10, 10));
+        assertEquals(0, index.getCovering(world, 10, 10, new ArrayList<>()));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.getNearest(world, 10, 10));
+    }
+
+    @Test
+    void tracksUsersInRange() {
+        final RadioMastIndex index = new RadioMastIndex();
+        final RadioMast first = mast(world, 0, 0, 100);
+        final RadioMast second = mast(world, 150, 0, 100);
+        final OnlineUser alice = user("alice");
+        final OnlineUser bob = user("bob");
+        index.add(first);
+        index.add(second);
+
+        assertTrue(index.updateUser(alice, world, 10, 0));
+        assertFalse(index.updateUser(alice, world, 10, 0), "same block column");
+        assertFalse(index.updateUser(alice, world, 20, 0), "same masts in range");
+        assertEquals(List.of(first), index.getMastsInRange(alice));
+        assertEquals(Set.of(alice), index.getUsersInRange(first));
+
+        assertTrue(index.updateUser(alice, world, 75, 0));
+        assertTrue(index.updateUser(bob, world, 200, 0));
+        assertEquals(Set.of(first, second), new HashSet<>(index.getMastsInRange(alice)));
+        assertEquals(Set.of(alice, bob), index.getUsersInRange(second));
+
+        assertTrue(index.updateUser(alice, other, 75, 0));
+        assertEquals(List.of(), index.getMastsInRange(alice));
+        assertEquals(Set.of(), index.getUsersInRange(first));
+        assertEquals(Set.of(bob), index.getUsersInRange(second));
+
+        assertTrue(index.removeUser(bob));
+        assertFalse(index.removeUser(bob));
+        assertEquals(Set.of(), index.getUsersInRange(second));
+        assertEquals(List.of(), index.getMastsInRange(bob));
+    }
+
+    @Test
+    void updatesUsersWhenMastsChange() {
+        final RadioMastIndex index = new RadioMastIndex();
+        final OnlineUser alice = user("alice");
+        index.updateUser(alice, world, 50, 50);
+        assertEquals(List.of(), index.getMastsInRange(alice));
+
+        // users are not moving, so the new mast has to be taken into account right away
+        final RadioMast mast = mast(world, 0, 0, 100);
+        index.add(mast);
+        assertEquals(List.of(mast), index.getMastsInRange(alice));
+        assertEquals(Set.of(alice), index.getUsersInRange(mast));
+
+        index.remove(mast);
+        assertEquals(List.of(), index.getMastsInRange(alice));
+        assertEquals(Set.of(), index.getUsersInRange(mast));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RadioMastIndex(3));
+        assertThrows(IllegalArgumentException.class, () -> new RadioMastIndex(17));
+        final RadioMastIndex index = new RadioMastIndex();
+        assertThrows(IllegalArgumentException.class, () -> index.add(null));
+        assertThrows(IllegalArgumentException.class, () -> index.getNearest(null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.getCovering(world, 0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> index.updateUser(null, world, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.updateUser(user("alice"), null, 0, 0));
+    }
+
+    private static long nearestDistance(List<RadioMast> masts, World world, int x, int z) {
+        long nearest = -1;
+        for (RadioMast mast : masts) {
+            if (mast.world() != world) continue;
+            final long distance = squaredDistance(mast, x, z);
+            if (nearest < 0 || distance < nearest) nearest = distance;
+        }
+        return nearest;
+    }
+
+    private static Set<RadioMast> covering(List<RadioMast> masts, World world, int x, int z) {
+        final Set<RadioMast> covering = new HashSet<>();
+        for (RadioMast mast : masts) {
+            if (mast.world() == world && mast.isInRange(x, z)) covering.add(mast);
+        }
+        return covering;
+    }
+
+    private static long squaredDistance(RadioMast mast, int x, int z) {
+        final long dx = mast.x() - x;
+        final long dz = mast.z() - z;
+        return dx * dx + dz * dz;
+    }
+
+    // measures the distance like the radio masts of the server, rounded to full blocks
+    private static RadioMast mast(World world, int x, int z, int range) {
+        return proxy(RadioMast.class, (proxy, method, args) -> switch (method.getName()) {
+            case "world" -> world;
+            case "x" -> x;
+            case "z" -> z;
+            case "range" -> range;
+            case "distance" -> distance(x, z, (int) args[0], (int) args[1]);
+            case "isInRange" -> distance(x, z, (int) args[0], (int) args[1]) <= range;
+            case "toString" -> "RadioMast{" + x + ", " + z + ", " + range + "}";
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static OnlineUser user(String name) {
+        return proxy(OnlineUser.class, (proxy, method, args) -> switch (method.getName()) {
+            case "toString" -> name;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static int distance(int x, int z, int otherX, int otherZ) {
+        return (int) Math.round(Math.hypot(x - otherX, z - otherZ));
+    }
+
+    // implements the given interface with the given handler, comparing by identity
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(RadioMastIndexTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+}
@@ -0,0 +1,129 @@
+package minevalley.regions.api.index;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.memory.InMemoryRegionsProvider;
+import minevalley.regions.api.memory.SimpleArea;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionIndexTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World nether = TestWorlds.world("nether");
+    private final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+
+    @Test
+    void findsRegionsContainingBlock() {
+        final Random random = new Random(13);
+        final RegionIndex index = new RegionIndex();
+        final List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final List<Area> included = new ArrayList<>();
+            final List<Area> excluded = new ArrayList<>();
+            for (int j = 1 + random.nextInt(3); j > 0; j--) included.add(randomArea(random));
+            for (int j = random.nextInt(3); j > 0; j--) excluded.add(randomArea(random));
+            final Region region = provider.createRegion(included, excluded);
+            regions.add(region);
+            index.add(region);
+        }
+
+        final List<Region> buffer = new ArrayList<>();
+        for (int x = -70; x < 70; x += 3) {
+            for (int y = -2; y < 42; y += 5) {
+                for (int z = -70; z < 70; z += 3) {
+                    final List<Region> expected = new ArrayList<>();
+                    for (Region region : regions) if (region.contains(world, x, y, z)) expected.add(region);
+                    index.getRegions(world, x, y, z, buffer);
+                    assertEquals(new HashSet<>(expected), new HashSet<>(buffer), "at " + x + ", " + y + ", " + z);
+                    assertEquals(expected.size(), buffer.size());
+                    for (int i = 1; i < buffer.size(); i++) assertTrue(volume(buffer.get(i - 1)) <= volume(buffer.get(i)));
+                    assertEquals(0, index.getRegions(nether, x, y, z, buffer));
+                }
+            }
+        }
+    }
+
+    @Test
+    void reindexesUpdatedRegions() {
+        final RegionIndex index = new RegionIndex();
+        final Region region = provider.createRegion(List.of(new SimpleArea(world, 0, 0, 0, 15, 15, 15)), List.of());
+        index.add(region);
+        assertTrue(index.hasRegions(world, 0, 0));
+        assertFalse(index.hasRegions(world, 2, 0));
+
+        region.update(List.of(new SimpleArea(world, 32, 0, 0, 47, 15, 15)), List.of());
+        index.update(region);
+        assertFalse(index.hasRegions(world, 0, 0));
+        assertEquals(List.of(region), index.getCandidates(world, 2, 0));
+        assertEquals(1, index.size());
+
+        assertTrue(index.remove(region));
+        assertFalse(index.remove(region));
+        assertFalse(index.hasRegions(world, 2, 0));
+        assertEquals(0, index.size());
+        assertEquals(0, index.getFootprint());
+    }
+
+    @Test
+    void ordersCandidatesBySize() {
+        final RegionIndex index = new RegionIndex();
+        final Region large = provider.createRegion(List.of(new SimpleArea(world, 0, 0, 0, 31, 31, 31)), List.of());
+        final Region small = provider.createRegion(List.of(new SimpleArea(world, 4, 4, 4, 5, 5, 5)), List.of());
+        final Region medium = provider.createRegion(List.of(new SimpleArea(world, 0, 0, 0, 9, 9, 9)), List.of());
+        index.add(large);
+        index.add(small);
+        index.add(medium);
+
+        assertEquals(List.of(small, medium, large), index.getCandidates(world, 0, 0));
+        assertEquals(List.of(large), index.getCandidates(world, 1, 1));
+        assertEquals(List.of(small, medium, large), index.getRegions(world.getBlockAt(4, 4, 4)));
+        assertEquals(List.of(large), index.getRegions(world.getBlockAt(20, 4, 4)));
+    }
+
+    @Test
+    void indexesRegionsInEachWorldOfTheirAreas() {
+        final RegionIndex index = new RegionIndex();
+        final Region region = region(1, new SimpleArea(world, 0, 0, 0, 15, 15, 15),
+                new SimpleArea(nether, 100, 0, 100, 115, 15, 115));
+        index.add(region);
+
+        assertEquals(List.of(region), index.getRegions(world.getBlockAt(5, 5, 5)));
+        assertEquals(List.of(region), index.getRegions(nether.getBlockAt(105, 5, 105)));
+        assertEquals(List.of(), index.getRegions(world.getBlockAt(105, 5, 105)));
+        assertEquals(List.of(), index.getRegions(nether.getBlockAt(5, 5, 5)));
+
+        index.remove(region.id());
+        assertFalse(index.hasRegions(world, 0, 0));
+        assertFalse(index.hasRegions(nether, 6, 6));
+    }
+
+    private Area randomArea(Random random) {
+        return new SimpleArea(world, random.nextInt(120) - 60, random.nextInt(40), random.nextInt(120) - 60,
+                random.nextInt(120) - 60, random.nextInt(40), random.nextInt(120) - 60);
+    }
+
+    private static long volume(Region region) {
+        long volume = 0;
+        for (Area area : region.included()) volume += area.volume();
+        return volume;
+    }
+
+    // the in-memory provider keeps regions in a single world, so this implements the remaining cases
+    private static Region region(int id, Area... included) {
+        return (Region) Proxy.newProxyInstance(RegionIndexTest.class.getClassLoader(), new Class<?>[]{Region.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "id" -> id;
+                    case "included" -> List.of(included);
+                    case "excluded" -> List.of();
+                    default -> InvocationHandler.invokeDefault(proxy, method, args);
+                });
+    }
+}
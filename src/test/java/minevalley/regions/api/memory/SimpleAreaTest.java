@@ -0,0 +1,41 @@
+package minevalley.regions.api.memory;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.core.ChunkKeySet;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleAreaTest {
+
+    private final World world = TestWorlds.world("world");
+
+    @Test
+    void normalizesCorners() {
+        final SimpleArea area = new SimpleArea(world, 10, 20, -5, -3, 4, 8);
+        assertEquals(-3, area.minX());
+        assertEquals(4, area.minY());
+        assertEquals(-5, area.minZ());
+        assertEquals(10, area.maxX());
+        assertEquals(20, area.maxY());
+        assertEquals(8, area.maxZ());
+        assertEquals(14L * 17 * 14, area.volume());
+        assertEquals(area, new SimpleArea(world, -3, 4, -5, 10, 20, 8));
+        assertEquals(area.hashCode(), new SimpleArea(world, -3, 4, -5, 10, 20, 8).hashCode());
+        assertNotEquals(area, new SimpleArea(TestWorlds.world("other"), -3, 4, -5, 10, 20, 8));
+    }
+
+    @Test
+    void cachesChunkKeys() {
+        final SimpleArea area = new SimpleArea(world, -1, 0, 0, 16, 0, 31);
+        assertSame(area.chunkKeys(), area.chunkKeys());
+        assertEquals(ChunkKeySet.ofRange(-1, 0, 1, 1), area.chunkKeys());
+        assertEquals(6, area.chunkKeys().size());
+    }
+
+    @Test
+    void rejectsMissingWorld() {
+        assertThrows(IllegalArgumentException.class, () -> new SimpleArea(null, 0, 0, 0, 1, 1, 1));
+    }
+}
@@ -0,0 +1,258 @@
+package minevalley.regions.api.movement;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.regions.api.TestEvents;
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.event.UserRadioMastHandoverEvent;
+import minevalley.regions.api.event.UserRadioSignalLostEvent;
+import minevalley.regions.api.index.RadioMastIndex;
+import minevalley.regions.api.structure.RadioMast;
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadioCoverageTrackerTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World other = TestWorlds.world("other");
+    private final OnlineUser alice = user("alice");
+    private final OnlineUser bob = user("bob");
+    private final List<Event> events = TestEvents.record();
+
+    @Test
+    void connectsWellInsideRange() {
+        final RadioMast mast = mast(world, 0, 0, 100);
+        final RadioCoverageTracker tracker = tracker(mast);
+
+        assertNull(tracker.update(alice, world, 90, 0), "signal below hysteresis");
+        assertNull(tracker.getMast(alice));
+        final RadioCoverageChange change = tracker.update(alice, world, 80, 0);
+        assertNotNull(change);
+        assertSame(alice, change.user());
+        assertNull(change.previous());
+        assertSame(mast, change.next());
+        assertSame(mast, tracker.getMast(alice));
+        assertEquals(Set.of(alice), tracker.getConnectedUsers(mast));
+
+        assertEquals(1, events.size());
+        final UserRadioMastHandoverEvent event = (UserRadioMastHandoverEvent) events.get(0);
+        assertNull(event.getPrevious());
+        assertSame(mast, event.getRadioMast());
+    }
+
+    @Test
+    void connectsToSmallMastsHalfwayInside() {
+        final RadioMast mast = mast(world, 0, 0, 20);
+        final RadioCoverageTracker tracker = tracker(mast);
+
+        assertNull(tracker.update(alice, world, 11, 0));
+        assertNotNull(tracker.update(alice, world, 10, 0));
+        assertSame(mast, tracker.getMast(alice));
+    }
+
+    @Test
+    void handsOverOnlyToMuchStrongerMast() {
+        final RadioMast west = mast(world, 0, 0, 100);
+        final RadioMast east = mast(world, 120, 0, 100);
+        final RadioCoverageTracker tracker = tracker(west, east);
+        tracker.update(alice, world, 50, 0);
+        assertSame(west, tracker.getMast(alice));
+
+        // east is stronger, but by less than the hysteresis
+        assertNull(tracker.update(alice, world, 65, 0));
+        assertSame(west, tracker.getMast(alice));
+
+        final RadioCoverageChange change = tracker.update(alice, world, 70, 0);
+        assertNotNull(change);
+        assertSame(west, change.previous());
+        assertSame(east, change.next());
+        assertEquals(Set.of(), tracker.getConnectedUsers(west));
+        assertEquals(Set.of(alice), tracker.getConnectedUsers(east));
+    }
+
+    @Test
+    void losesSignalOutOfRange() {
+        final RadioMast mast = mast(world, 0, 0, 100);
+        final RadioCoverageTracker tracker = tracker(mast);
+        tracker.update(alice, world, 0, 0);
+
+        assertNull(tracker.update(alice, world, 100, 0), "still in range");
+        final RadioCoverageChange change = tracker.update(alice, world, 101, 0);
+        assertNotNull(change);
+        assertTrue(change.isSignalLost());
+        assertNull(tracker.getMast(alice));
+        assertEquals(Set.of(), tracker.getConnectedUsers(mast));
+
+        final UserRadioSignalLostEvent event = (UserRadioSignalLostEvent) events.get(events.size() - 1);
+        assertSame(mast, event.getRadioMast());
+
+        tracker.update(alice, world, 0, 0);
+        assertNotNull(tracker.update(alice, other, 0, 0), "other world");
+        assertNull(tracker.getMast(alice));
+    }
+
+    @Test
+    void handsOverWhenLeavingRange() {
+        final RadioMast west = mast(world, 0, 0, 100);
+        final RadioMast east = mast(world, 195, 0, 100);
+        final RadioCoverageTracker tracker = tracker(west, east);
+        tracker.update(alice, world, 0, 0);
+
+        // barely in range of east, but west is out of range
+        final RadioCoverageChange change = tracker.update(alice, world, 101, 0);
+        assertNotNull(change);
+        assertSame(west, change.previous());
+        assertSame(east, change.next());
+    }
+
+    @Test
+    void addingMastConnectsUsersWithoutSignal() {
+        final RadioMast west = mast(world, 0, 0, 100);
+        final RadioCoverageTracker tracker = tracker(west);
+        tracker.update(alice, world, 0, 0);
+        tracker.update(bob, world, 300, 0);
+        assertNull(tracker.getMast(bob));
+
+        final RadioMast east = mast(world, 250, 0, 100);
+        final List<RadioCoverageChange> changes = tracker.addMast(east);
+        assertEquals(1, changes.size());
+        assertSame(bob, changes.get(0).user());
+        assertSame(east, tracker.getMast(bob));
+        assertSame(west, tracker.getMast(alice), "connected users are not handed over until they move");
+    }
+
+    @Test
+    void removingMastHandsUsersOver() {
+        final RadioMast west = mast(world, 0, 0, 100);
+        final RadioMast east = mast(world, 150, 0, 100);
+        final RadioCoverageTracker tracker = tracker(west, east);
+        tracker.update(alice, world, 60, 0);
+        tracker.update(bob, world, -50, 0);
+
+        final Map<OnlineUser, RadioCoverageChange> changes = new HashMap<>();
+        for (RadioCoverageChange change : tracker.removeMast(west)) changes.put(change.user(), change);
+        assertEquals(2, changes.size());
+        assertSame(east, changes.get(alice).next(), "no hysteresis after a removal");
+        assertTrue(changes.get(bob).isSignalLost());
+        assertEquals(Set.of(alice), tracker.getConnectedUsers(east));
+        assertEquals(List.of(), tracker.removeMast(west));
+    }
+
+    @Test
+    void forgetsRemovedUsers() {
+        final RadioMast mast = mast(world, 0, 0, 100);
+        final RadioMastIndex index = new RadioMastIndex();
+        index.add(mast);
+        final RadioCoverageTracker tracker = new RadioCoverageTracker(index);
+        tracker.update(alice, world, 0, 0);
+        tracker.update(bob, world, 10, 0);
+        final int called = events.size();
+
+        tracker.remove(alice);
+        assertNull(tracker.getMast(alice));
+        assertEquals(Set.of(bob), tracker.getConnectedUsers(mast));
+        assertEquals(Set.of(bob), index.getUsersInRange(mast));
+        assertEquals(called, events.size(), "removing a user is no change");
+
+        tracker.clear();
+        assertNull(tracker.getMast(bob));
+        assertEquals(Set.of(), tracker.getConnectedUsers(mast));
+        assertEquals(Set.of(), index.getUsersInRange(mast));
+    }
+
+    @Test
+    void connectionsStayConsistent() {
+        final Random random = new Random(13);
+        final List<RadioMast> masts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            masts.add(mast(world, random.nextInt(1000), random.nextInt(1000), 20 + random.nextInt(200)));
+        }
+        final RadioCoverageTracker tracker = tracker(masts.toArray(RadioMast[]::new));
+        final List<OnlineUser> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) users.add(user("user" + i));
+
+        for (int step = 0; step < 5000; step++) {
+            final OnlineUser user = users.get(random.nextInt(users.size()));
+            final int x = random.nextInt(1200) - 100;
+            final int z = random.nextInt(1200) - 100;
+            final RadioMast before = tracker.getMast(user);
+            final RadioCoverageChange change = tracker.update(user, world, x, z);
+            final RadioMast after = tracker.getMast(user);
+            if (change == null) {
+                assertSame(before, after, "step " + step);
+            } else {
+                assertSame(before, change.previous(), "step " + step);
+                assertSame(after, change.next(), "step " + step);
+            }
+            if (after != null) assertTrue(after.isInRange(x, z), "step " + step);
+            if (before != null && after != before && before.isInRange(x, z)) {
+                // handed over although still in range, so the new mast must be clearly stronger
+                assertTrue(signal(after, x, z) - signal(before, x, z) >= 16, "step " + step);
+            }
+        }
+        for (RadioMast mast : masts) {
+            for (OnlineUser user : tracker.getConnectedUsers(mast)) assertSame(mast, tracker.getMast(user));
+        }
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        final RadioMastIndex index = new RadioMastIndex();
+        assertThrows(IllegalArgumentException.class, () -> new RadioCoverageTracker(null));
+        assertThrows(IllegalArgumentException.class, () -> new RadioCoverageTracker(index, -1));
+        final RadioCoverageTracker tracker = new RadioCoverageTracker(index);
+        assertThrows(IllegalArgumentException.class, () -> tracker.update(null, world, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> tracker.update(alice, null, 0, 0));
+    }
+
+    private static RadioCoverageTracker tracker(RadioMast... masts) {
+        final RadioMastIndex index = new RadioMastIndex();
+        for (RadioMast mast : masts) index.add(mast);
+        return new RadioCoverageTracker(index);
+    }
+
+    private static int signal(RadioMast mast, int x, int z) {
+        return mast.range() - mast.distance(x, z);
+    }
+
+    // measures the distance like the radio masts of the server, rounded to full blocks
+    private static RadioMast mast(World world, int x, int z, int range) {
+        return proxy(RadioMast.class, (proxy, method, args) -> switch (method.getName()) {
+            case "world" -> world;
+            case "x" -> x;
+            case "z" -> z;
+            case "range" -> range;
+            case "distance" -> distance(x, z, (int) args[0], (int) args[1]);
+            case "isInRange" -> distance(x, z, (int) args[0], (int) args[1]) <= range;
+            case "toString" -> "RadioMast{" + x + ", " + z + ", " + range + "}";
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static OnlineUser user(String name) {
+        return proxy(OnlineUser.class, (proxy, method, args) -> switch (method.getName()) {
+            case "toString" -> name;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static int distance(int x, int z, int otherX, int otherZ) {
+        return (int) Math.round(Math.hypot(x - otherX, z - otherZ));
+    }
+
+    // implements the given interface with the given handler, comparing by identity
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(RadioCoverageTrackerTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+}
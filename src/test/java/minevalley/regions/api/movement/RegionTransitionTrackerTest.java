@@ -0,0 +1,248 @@
+package minevalley.regions.api.movement;
+
+import minevalley.core.api.user.OnlineUser;
+import minevalley.core.api.user.event.OnlineUserEvent;
+import minevalley.regions.api.TestEvents;
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.event.*;
+import minevalley.regions.api.index.RegionIndex;
+import minevalley.regions.api.memory.InMemoryRegionsProvider;
+import minevalley.regions.api.memory.SimpleArea;
+import minevalley.regions.api.structure.District;
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionTransitionTrackerTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World nether = TestWorlds.world("nether");
+    private final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+    private final OnlineUser alice = proxy(OnlineUser.class, Map.of("toString", "alice"));
+    private final District first = proxy(District.class, Map.of("id", 1));
+    private final District second = proxy(District.class, Map.of("id", 2));
+
+    // a in the first chunk, b overlapping it and reaching into the next chunks
+    private final Region a = provider.createRegion(List.of(new SimpleArea(world, 0, 0, 0, 15, 15, 15)), List.of());
+    private final Region b = provider.createRegion(List.of(new SimpleArea(world, 8, 0, 0, 40, 15, 15)), List.of());
+    private final RegionIndex index = index(a, b);
+
+    @Test
+    void reportsInitialRegions() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        final RegionTransition transition = tracker.check(alice, world, 10, 5, 5);
+        assertNotNull(transition);
+        assertTrue(transition.isInitial());
+        assertTrue(transition.isChunkChanged());
+        assertEquals(List.of(a, b), transition.getEntered());
+        assertEquals(List.of(), transition.getLeft());
+        assertEquals(List.of(), tracker.getRegions(alice), "nothing changes until accepted");
+
+        tracker.accept(transition);
+        assertEquals(List.of(a, b), tracker.getRegions(alice));
+        assertNull(tracker.check(alice, world, 10, 5, 5));
+    }
+
+    @Test
+    void reportsEnteredAndLeftRegions() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        tracker.accept(tracker.check(alice, world, 10, 5, 5));
+
+        final RegionTransition east = tracker.check(alice, world, 20, 5, 5);
+        assertNotNull(east);
+        assertFalse(east.isInitial());
+        assertEquals(List.of(a), east.getLeft());
+        assertEquals(List.of(), east.getEntered());
+        assertEquals(0, east.getFromChunkX());
+        assertEquals(1, east.getToChunkX());
+        tracker.accept(east);
+
+        final RegionTransition west = tracker.check(alice, world, -5, 5, 5);
+        assertNotNull(west);
+        assertEquals(List.of(b), west.getLeft());
+        assertEquals(-1, west.getToChunkX());
+    }
+
+    @Test
+    void reportsChangesUntilAccepted() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        tracker.accept(tracker.check(alice, world, 10, 5, 5));
+
+        final RegionTransition transition = tracker.check(alice, world, 20, 5, 5);
+        assertNotNull(transition);
+        transition.setCancelled(true);
+        final RegionTransition again = tracker.check(alice, world, 20, 5, 5);
+        assertNotNull(again);
+        assertEquals(transition.getLeft(), again.getLeft());
+        assertEquals(List.of(a, b), tracker.getRegions(alice));
+    }
+
+    @Test
+    void skipsMovesWithinSafeDistance() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        assertEquals(-1, tracker.getSafeDistance(alice));
+        tracker.accept(tracker.check(alice, world, 4, 5, 4));
+        // b begins four blocks away, so three blocks can be moved without entering it
+        assertEquals(3, tracker.getSafeDistance(alice));
+
+        assertNull(tracker.check(alice, world, 7, 8, 1));
+        final RegionTransition transition = tracker.check(alice, world, 8, 5, 4);
+        assertNotNull(transition);
+        assertEquals(List.of(b), transition.getEntered());
+    }
+
+    @Test
+    void updatesPositionWithoutChange() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(new RegionIndex());
+        tracker.accept(tracker.check(alice, world, 5, 64, 5));
+        assertEquals(5, tracker.getSafeDistance(alice));
+
+        // beyond the safe distance, but neither the regions nor the chunk change
+        assertNull(tracker.check(alice, world, 11, 64, 5));
+        assertEquals(4, tracker.getSafeDistance(alice));
+
+        final RegionTransition transition = tracker.check(alice, world, 16, 64, 5);
+        assertNotNull(transition);
+        assertTrue(transition.isChunkChanged());
+        assertFalse(transition.isRegionsChanged());
+    }
+
+    @Test
+    void rechecksAfterInvalidation() {
+        final RegionIndex index = new RegionIndex();
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        tracker.accept(tracker.check(alice, world, 10, 5, 5));
+        index.add(a);
+        assertNull(tracker.check(alice, world, 10, 5, 5), "the tracker does not know about the new region yet");
+
+        tracker.invalidate();
+        assertEquals(-1, tracker.getSafeDistance(alice));
+        final RegionTransition transition = tracker.check(alice, world, 10, 5, 5);
+        assertNotNull(transition);
+        assertEquals(List.of(a), transition.getEntered());
+    }
+
+    @Test
+    void startsOverInOtherWorld() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        tracker.accept(tracker.check(alice, world, 10, 5, 5));
+
+        final RegionTransition transition = tracker.check(alice, nether, 10, 5, 5);
+        assertNotNull(transition);
+        assertTrue(transition.isInitial());
+        tracker.accept(transition);
+        assertEquals(List.of(), tracker.getRegions(alice));
+
+        tracker.remove(alice);
+        assertEquals(-1, tracker.getSafeDistance(alice));
+        assertTrue(tracker.check(alice, world, 10, 5, 5).isInitial());
+    }
+
+    @Test
+    void matchesRegionsOnRandomWalk() {
+        final Random random = new Random(17);
+        final RegionIndex index = new RegionIndex();
+        final List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            final List<Area> included = new ArrayList<>();
+            final List<Area> excluded = new ArrayList<>();
+            for (int j = 1 + random.nextInt(3); j > 0; j--) included.add(randomArea(random));
+            for (int j = random.nextInt(2); j > 0; j--) excluded.add(randomArea(random));
+            final Region region = provider.createRegion(included, excluded);
+            regions.add(region);
+            index.add(region);
+        }
+
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        int x = 0, y = 20, z = 0;
+        for (int step = 0; step < 20000; step++) {
+            x = Math.max(-80, Math.min(80, x + random.nextInt(5) - 2));
+            y = Math.max(-5, Math.min(45, y + random.nextInt(3) - 1));
+            z = Math.max(-80, Math.min(80, z + random.nextInt(5) - 2));
+            final RegionTransition transition = tracker.check(alice, world, x, y, z);
+            if (transition != null) tracker.accept(transition);
+
+            final List<Region> expected = new ArrayList<>();
+            for (Region region : regions) if (region.contains(world, x, y, z)) expected.add(region);
+            expected.sort(Comparator.comparingInt(Region::id));
+            assertEquals(expected, tracker.getRegions(alice), "step " + step + " at " + x + ", " + y + ", " + z);
+        }
+    }
+
+    @Test
+    void mapsTransitionToEvents() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        final RegionTransition initial = tracker.check(alice, world, 10, 5, 5);
+        assertNotNull(initial);
+        assertEquals(List.of(UserEnterChunkEvent.class, UserEnterDistrictEvent.class, UserEnterRegionEvent.class,
+                UserEnterRegionEvent.class), types(initial.toEvents(first, first)), "initial transitions enter the district");
+        tracker.accept(initial);
+
+        final RegionTransition transition = tracker.check(alice, world, 20, 5, 5);
+        assertNotNull(transition);
+        final List<OnlineUserEvent> events = transition.toEvents(first, second);
+        assertEquals(List.of(UserLeaveRegionEvent.class, UserEnterChunkEvent.class, UserEnterDistrictEvent.class),
+                types(events));
+        assertSame(a, ((UserLeaveRegionEvent) events.get(0)).getRegion());
+        final UserEnterChunkEvent chunk = (UserEnterChunkEvent) events.get(1);
+        assertEquals(0, chunk.getFrom().getX());
+        assertEquals(1, chunk.getTo().getX());
+        assertSame(second, ((UserEnterDistrictEvent) events.get(2)).getDistrict());
+
+        assertEquals(List.of(UserLeaveRegionEvent.class, UserEnterChunkEvent.class), types(transition.toEvents(first, first)));
+        assertEquals(3, transition.toEvents(null, first).size());
+        assertEquals(2, transition.toEvents(first, null).size());
+    }
+
+    @Test
+    void stopsCallingEventsOnceCancelled() {
+        final RegionTransitionTracker tracker = new RegionTransitionTracker(index);
+        final RegionTransition initial = tracker.check(alice, world, 10, 5, 5);
+        assertNotNull(initial);
+        final List<Event> called = TestEvents.record();
+        assertTrue(initial.callEvents(null, first));
+        assertFalse(initial.isCancelled());
+        assertEquals(4, called.size());
+
+        final List<Event> cancelled = TestEvents.record(event -> {
+            if (event instanceof UserEnterChunkEvent chunk) chunk.setCancelled(true);
+        });
+        assertFalse(initial.callEvents(null, first));
+        assertTrue(initial.isCancelled());
+        assertEquals(1, cancelled.size(), "the regions must not be entered after the chunk was not");
+    }
+
+    private static RegionIndex index(Region... regions) {
+        final RegionIndex index = new RegionIndex();
+        for (Region region : regions) index.add(region);
+        return index;
+    }
+
+    private Area randomArea(Random random) {
+        final int x = random.nextInt(150) - 75;
+        final int y = random.nextInt(40);
+        final int z = random.nextInt(150) - 75;
+        return new SimpleArea(world, x, y, z, x + random.nextInt(30), y + random.nextInt(15), z + random.nextInt(30));
+    }
+
+    private static List<Class<?>> types(List<OnlineUserEvent> events) {
+        return events.stream().<Class<?>>map(Object::getClass).toList();
+    }
+
+    // implements the given interface with the given return values, keyed by method name
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(RegionTransitionTrackerTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> values.get(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,162 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.structure.Street.*;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest {
+
+    private final World world = TestWorlds.world("world");
+
+    // a - b - c along the x axis, d far away
+    private final NavigationPoint a = point(0, 0);
+    private final NavigationPoint b = point(100, 0);
+    private final NavigationPoint c = point(200, 0);
+    private final NavigationPoint d = point(0, 1000);
+    private final Connection ab = connect(new TwoWayConnection(a, b, 2, NavigationHint.NONE, NavigationHint.NONE));
+    private final Connection bc = connect(new TwoWayConnection(b, c, 2, NavigationHint.NONE, NavigationHint.NONE));
+    private final Connection cd = connect(new TwoWayConnection(c, d, 2, NavigationHint.NONE, NavigationHint.NONE));
+    private final RoutingGraph graph = RoutingGraph.compile(1, List.of(a, b, c, d));
+
+    @Test
+    void removedConnectionInvalidatesRoutesUsingIt() {
+        final RouteCache cache = cache();
+        cache.put(null, graph.findRoute(a, b), cache.epoch());
+        cache.put(null, graph.findRoute(a, c), cache.epoch());
+        cache.put(null, graph.findRoute(c, d), cache.epoch());
+
+        assertEquals(1, cache.invalidate(bc));
+        assertNotNull(cache.get(a, b, null));
+        assertNull(cache.get(a, c, null));
+        assertNotNull(cache.get(c, d, null));
+
+        assertEquals(0, cache.invalidate(bc));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void removedNavigationPointInvalidatesRoutesStartingOrEndingThere() {
+        final RouteCache cache = cache();
+        cache.put(null, graph.findRoute(a, c), cache.epoch());
+        cache.put(null, graph.findRoute(c, d), cache.epoch());
+        cache.put(null, graph.findRoute(a, b), cache.epoch());
+
+        assertEquals(2, cache.invalidate(c));
+        assertNull(cache.get(a, c, null));
+        assertNull(cache.get(c, d, null));
+        assertNotNull(cache.get(a, b, null));
+    }
+
+    @Test
+    void addedConnectionInvalidatesOnlyRoutesItCanShorten() {
+        final RouteCache cache = cache();
+        cache.put(null, graph.findRoute(a, c), cache.epoch());
+        cache.put(null, graph.findRoute(a, b), cache.epoch());
+
+        // a slow detour far away cannot beat either route, even in a straight line
+        final NavigationPoint e = point(1000, 1000);
+        final Connection de = new TwoWayConnection(d, e, 2, NavigationHint.NONE, NavigationHint.NONE);
+        assertEquals(0, cache.invalidateAdded(de));
+        assertEquals(2, cache.size());
+
+        // a fast shortcut from a to c can only shorten the route from a to c
+        final Connection ac = new OneWayConnection(a, c, 1, NavigationHint.NONE);
+        assertEquals(1, cache.invalidateAdded(ac));
+        assertNull(cache.get(a, c, null));
+        assertNotNull(cache.get(a, b, null));
+    }
+
+    @Test
+    void addedConnectionLowersWeightPerBlock() {
+        final RouteCache cache = cache();
+        cache.put(null, graph.findRoute(a, b), cache.epoch());
+
+        // a short connection next to the route cannot shorten it as long as every block costs at least 2
+        final Connection gh = new OneWayConnection(point(40, 30), point(60, 30), 2, NavigationHint.NONE);
+        assertEquals(0, cache.invalidateAdded(gh));
+
+        // with a speed limit of 1, this connection is cheaper per block than any other, so the same bound no longer holds
+        final NavigationPoint e = point(100, 500);
+        final NavigationPoint f = point(100, 10);
+        assertEquals(0, cache.invalidateAdded(new OneWayConnection(e, f, 1, NavigationHint.NONE)));
+        assertEquals(1, cache.invalidateAdded(gh));
+    }
+
+    @Test
+    void overlayInvalidatesItsRoutesOnly() {
+        final RouteCache cache = cache();
+        final WeightOverlay overlay = new WeightOverlay(graph);
+        cache.put(null, graph.findRoute(a, c), cache.epoch());
+        cache.put(overlay, graph.findRoute(a, c, overlay), cache.epoch());
+
+        assertEquals(1, cache.invalidate(overlay));
+        assertNull(cache.get(a, c, overlay));
+        assertNotNull(cache.get(a, c, null));
+    }
+
+    @Test
+    void rejectsRoutesComputedBeforeInvalidation() {
+        final RouteCache cache = cache();
+        final long epoch = cache.epoch();
+        final Route route = graph.findRoute(a, c);
+        cache.invalidate(cd);
+
+        assertFalse(cache.put(null, route, epoch));
+        assertNull(cache.get(a, c, null));
+        assertTrue(cache.put(null, route, cache.epoch()));
+        assertFalse(cache.put(null, null, cache.epoch()));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedRoute() {
+        final RouteCache cache = new RouteCache(2, graph.weightPerBlock());
+        cache.put(null, graph.findRoute(a, b), cache.epoch());
+        cache.put(null, graph.findRoute(a, c), cache.epoch());
+        assertNotNull(cache.get(a, b, null));
+        cache.put(null, graph.findRoute(a, d), cache.epoch());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get(a, b, null));
+        assertNull(cache.get(a, c, null));
+        assertNotNull(cache.get(a, d, null));
+
+        // the evicted route no longer counts as using its connections
+        assertEquals(1, cache.invalidate(bc));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        final RouteCache cache = cache();
+        cache.put(null, graph.findRoute(a, b), cache.epoch());
+        cache.get(a, b, null);
+        cache.get(a, c, null);
+        cache.get(a, b, null);
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2 / 3.0, cache.getHitRate(), 1e-9);
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitRate());
+    }
+
+    private RouteCache cache() {
+        return new RouteCache(16, graph.weightPerBlock());
+    }
+
+    private NavigationPoint point(int x, int z) {
+        return new NavigationPoint(null, new Location(world, x, 64, z), null, new ArrayList<>());
+    }
+
+    private static Connection connect(Connection connection) {
+        connection.add();
+        return connection;
+    }
+}
@@ -0,0 +1,214 @@
+package minevalley.regions.api.routing;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.structure.Street.*;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteFinderTest {
+
+    private final World world = TestWorlds.world("world");
+
+    @Test
+    void findsCheapestRoute() {
+        final Random random = new Random(7);
+        for (int run = 0; run < 20; run++) {
+            final List<NavigationPoint> points = randomNetwork(random, 50 + random.nextInt(100));
+            final RoutingGraph graph = RoutingGraph.compile(run, points);
+            for (int query = 0; query < 50; query++) {
+                final NavigationPoint from = points.get(random.nextInt(points.size()));
+                final NavigationPoint to = points.get(random.nextInt(points.size()));
+                final Route route = graph.findRoute(from, to);
+                assertEquals(dijkstra(from, to, null), route == null ? -1 : route.weight(), "run " + run);
+                if (route != null) assertValid(route, from, to, null);
+            }
+        }
+    }
+
+    @Test
+    void findsCheapestRouteWithOverlay() {
+        final Random random = new Random(11);
+        for (int run = 0; run < 20; run++) {
+            final List<NavigationPoint> points = randomNetwork(random, 50 + random.nextInt(100));
+            final RoutingGraph graph = RoutingGraph.compile(run, points);
+            final WeightOverlay overlay = new WeightOverlay(graph);
+            for (Connection connection : connections(points)) {
+                switch (random.nextInt(4)) {
+                    case 0 -> overlay.scaleWeight(connection, 1 + random.nextDouble() * 4);
+                    case 1 -> overlay.setWeight(connection, connection.weight() + random.nextInt(500));
+                    case 2 -> overlay.close(connection);
+                    default -> {
+                    }
+                }
+            }
+            for (int query = 0; query < 50; query++) {
+                final NavigationPoint from = points.get(random.nextInt(points.size()));
+                final NavigationPoint to = points.get(random.nextInt(points.size()));
+                final Route route = graph.findRoute(from, to, overlay);
+                assertEquals(dijkstra(from, to, overlay), route == null ? -1 : route.weight(), "run " + run);
+                if (route != null) assertValid(route, from, to, overlay);
+            }
+        }
+    }
+
+    @Test
+    void avoidsCongestedConnection() {
+        final NavigationPoint a = point(0, 0);
+        final NavigationPoint b = point(100, 0);
+        final NavigationPoint c = point(50, 10);
+        final Connection direct = connect(new TwoWayConnection(a, b, 1, NavigationHint.NONE, NavigationHint.NONE));
+        connect(new TwoWayConnection(a, c, 1, NavigationHint.TURN_LEFT, NavigationHint.NONE));
+        connect(new TwoWayConnection(c, b, 1, NavigationHint.TURN_RIGHT, NavigationHint.NONE));
+        final RoutingGraph graph = RoutingGraph.compile(1, List.of(a, b, c));
+
+        final Route free = graph.findRoute(a, b);
+        assertNotNull(free);
+        assertEquals(List.of(a, b), free.points());
+
+        final WeightOverlay overlay = new WeightOverlay(graph);
+        overlay.scaleWeight(direct, 3);
+        final Route congested = graph.findRoute(a, b, overlay);
+        assertNotNull(congested);
+        assertEquals(List.of(a, c, b), congested.points());
+        assertEquals(NavigationHint.TURN_LEFT, congested.steps().get(0).hint());
+        assertEquals(NavigationHint.TURN_RIGHT, congested.steps().get(1).hint());
+
+        overlay.close(direct);
+        overlay.close(congested.steps().get(0).connection());
+        assertNull(graph.findRoute(a, b, overlay));
+        assertNotNull(graph.findRoute(a, b), "overlay must not change the graph");
+    }
+
+    @Test
+    void respectsOneWayConnections() {
+        final NavigationPoint a = point(0, 0);
+        final NavigationPoint b = point(10, 0);
+        connect(new OneWayConnection(a, b, 1, NavigationHint.NONE));
+        final RoutingGraph graph = RoutingGraph.compile(1, List.of(a, b));
+
+        assertNotNull(graph.findRoute(a, b));
+        assertNull(graph.findRoute(b, a));
+        final Route same = graph.findRoute(a, a);
+        assertNotNull(same);
+        assertEquals(0, same.weight());
+        assertTrue(same.steps().isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownNavigationPoints() {
+        final NavigationPoint a = point(0, 0);
+        final RoutingGraph graph = RoutingGraph.compile(1, List.of(a));
+        assertThrows(IllegalArgumentException.class, () -> graph.findRoute(a, point(10, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.findRoute(a, a, new WeightOverlay(RoutingGraph.compile(2, List.of(a)))));
+    }
+
+    @Test
+    void rejectsConnectionsWithoutDestination() {
+        final NavigationPoint a = point(0, 0);
+        final NavigationPoint b = point(10, 0);
+        // implemented like connections written before getDestination existed
+        a.addConnection(new Connection() {
+            @Override
+            public int weight() {
+                return 10;
+            }
+
+            @Override
+            public boolean isUsableFromHere(NavigationPoint navigationPoint) {
+                return navigationPoint == a;
+            }
+
+            @Override
+            public NavigationHint getNavigationHint(NavigationPoint from) {
+                return NavigationHint.NONE;
+            }
+
+            @Override
+            public void remove() {
+            }
+        });
+        assertThrows(IllegalArgumentException.class, () -> RoutingGraph.compile(1, List.of(a, b)));
+    }
+
+    private List<NavigationPoint> randomNetwork(Random random, int size) {
+        final List<NavigationPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) points.add(point(random.nextInt(500), random.nextInt(500)));
+        for (int i = 0; i < size * 3; i++) {
+            final NavigationPoint from = points.get(random.nextInt(size));
+            final NavigationPoint to = points.get(random.nextInt(size));
+            if (from == to) continue;
+            final int speedLimit = 1 + random.nextInt(3);
+            connect(random.nextBoolean()
+                    ? new OneWayConnection(from, to, speedLimit, NavigationHint.NONE)
+                    : new TwoWayConnection(from, to, speedLimit, NavigationHint.NONE, NavigationHint.NONE));
+        }
+        return points;
+    }
+
+    private NavigationPoint point(int x, int z) {
+        return new NavigationPoint(null, new Location(world, x, 64, z), null, new ArrayList<>());
+    }
+
+    private static Connection connect(Connection connection) {
+        connection.add();
+        return connection;
+    }
+
+    private static Set<Connection> connections(List<NavigationPoint> points) {
+        final Set<Connection> connections = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (NavigationPoint point : points) connections.addAll(point.connections());
+        return connections;
+    }
+
+    private static int weight(Connection connection, NavigationPoint from, WeightOverlay overlay) {
+        return overlay == null ? connection.weight() : overlay.getWeight(connection, from);
+    }
+
+    private static void assertValid(Route route, NavigationPoint from, NavigationPoint to, WeightOverlay overlay) {
+        assertSame(from, route.start());
+        assertSame(to, route.destination());
+        long weight = 0;
+        NavigationPoint current = from;
+        for (Route.Step step : route.steps()) {
+            assertSame(current, step.from());
+            assertSame(step.to(), step.connection().getDestination(current));
+            assertEquals(step.connection().getNavigationHint(current), step.hint());
+            weight += weight(step.connection(), current, overlay);
+            current = step.to();
+        }
+        assertSame(to, current);
+        assertEquals(weight, route.weight());
+    }
+
+    // plain Dijkstra over the object graph as reference
+    private static long dijkstra(NavigationPoint from, NavigationPoint to, WeightOverlay overlay) {
+        final Map<NavigationPoint, Long> distances = new IdentityHashMap<>();
+        final Set<NavigationPoint> settled = Collections.newSetFromMap(new IdentityHashMap<>());
+        distances.put(from, 0L);
+        while (true) {
+            NavigationPoint next = null;
+            long distance = Long.MAX_VALUE;
+            for (Map.Entry<NavigationPoint, Long> entry : distances.entrySet()) {
+                if (!settled.contains(entry.getKey()) && entry.getValue() < distance) {
+                    next = entry.getKey();
+                    distance = entry.getValue();
+                }
+            }
+            if (next == null) return -1;
+            if (next == to) return distance;
+            settled.add(next);
+            for (Connection connection : next.connections()) {
+                if (!connection.isUsableFromHere(next)) continue;
+                final int weight = weight(connection, next, overlay);
+                if (weight < 0) continue;
+                distances.merge(connection.getDestination(next), distance + weight, Math::min);
+            }
+        }
+    }
+}
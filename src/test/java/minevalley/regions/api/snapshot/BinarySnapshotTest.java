@@ -0,0 +1,162 @@
+package minevalley.regions.api.snapshot;
+
+import minevalley.core.api.Registrant;
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.memory.InMemoryRegionsProvider;
+import minevalley.regions.api.memory.SimpleArea;
+import minevalley.regions.api.residence.Plot;
+import minevalley.regions.api.residence.PlotTile;
+import minevalley.regions.api.structure.Street.*;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World nether = TestWorlds.world("nether");
+    private final Map<UUID, World> worlds = Map.of(world.getUID(), world, nether.getUID(), nether);
+    private final Registrant alice = proxy(Registrant.class, Map.of("toString", "alice"));
+    private final Registrant bob = proxy(Registrant.class, Map.of("toString", "bob"));
+    private final BinarySnapshot.RegistrantCodec codec = new BinarySnapshot.RegistrantCodec() {
+        @Override
+        public String encode(Registrant registrant) {
+            return registrant.toString();
+        }
+
+        @Override
+        public Registrant decode(String key) {
+            return key.equals("alice") ? alice : key.equals("bob") ? bob : null;
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrip() throws IOException {
+        final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+        final Region tile = provider.createRegion(List.of(new SimpleArea(world, 0, 0, 0, 31, 100, 31)),
+                List.of(new SimpleArea(world, 10, 10, 10, 12, 12, 12), new SimpleArea(nether, 0, 0, 0, 5, 5, 5)));
+        final Region merge = provider.createRegion(List.of(new SimpleArea(nether, 40, 0, 40, 50, 10, 50)), List.of());
+        final PlotTile plotTile = proxy(PlotTile.class, Map.of("region", tile));
+        final Plot plot = proxy(Plot.class, Map.of("id", 7, "getTiles", List.of(plotTile),
+                "getMergeRegions", List.of(merge), "getOwner", alice, "getAdmins", List.of(bob),
+                "getPermissioned", List.of(alice, bob), "isLocked", true));
+
+        final NavigationPoint a = new NavigationPoint(null, new Location(world, 1, 2, 3, 90, 5), "A", new ArrayList<>());
+        final NavigationPoint b = new NavigationPoint(null, new Location(world, 10, 2, 3), null, new ArrayList<>());
+        final NavigationPoint c = new NavigationPoint(null, new Location(world, 10, 2, 30), "C", new ArrayList<>());
+        new TwoWayConnection(a, b, 50, NavigationHint.TURN_LEFT, NavigationHint.TURN_RIGHT).add();
+        new OneWayConnection(b, c, 30, NavigationHint.KEEP_TO_THE_LEFT).add();
+
+        final Path path = directory.resolve("regions.bin");
+        BinarySnapshot.capture(42, List.of(tile, merge), List.of(plot), List.of(a, b, c), List.of()).write(path, codec);
+        final BinarySnapshot read = BinarySnapshot.read(path, codec);
+
+        assertEquals(42, read.version());
+        assertEquals(2, read.regions().size());
+        final BinarySnapshot.RegionRecord tileRecord = read.regions().get(0);
+        assertEquals(tile.id(), tileRecord.id());
+        assertArrayEquals(new int[]{0, 0, 0, 31, 100, 31}, tileRecord.included());
+        assertArrayEquals(new int[]{10, 10, 10, 12, 12, 12, 0, 0, 0, 5, 5, 5}, tileRecord.excluded());
+        assertArrayEquals(new UUID[]{world.getUID()}, tileRecord.includedWorlds());
+        assertArrayEquals(new UUID[]{world.getUID(), nether.getUID()}, tileRecord.excludedWorlds());
+        assertArrayEquals(new UUID[]{nether.getUID()}, read.regions().get(1).includedWorlds());
+
+        assertEquals(1, read.residences().size());
+        final ResidenceSnapshot residence = read.residences().get(0);
+        assertEquals(7, residence.id());
+        assertEquals(ResidenceSnapshot.Type.PLOT, residence.type());
+        assertArrayEquals(new int[]{tile.id(), merge.id()}, residence.regionIds());
+        assertSame(alice, residence.owner());
+        assertEquals(List.of(bob), residence.admins());
+        assertEquals(List.of(alice, bob), residence.permissioned());
+        assertTrue(residence.locked());
+
+        assertEquals(3, read.navigationPoints().size());
+        assertEquals(2, read.connections().size());
+        final List<NavigationPoint> points = read.restoreNavigationPoints(id -> null, worlds::get);
+        assertEquals(90, points.get(0).location().getYaw());
+        assertEquals("A", points.get(0).name());
+        assertNull(points.get(1).name());
+        assertEquals(30, points.get(2).location().getZ());
+        assertEquals(2, points.get(1).connections().size());
+        final Connection restored = points.get(1).connections().get(1);
+        assertSame(points.get(2), restored.getDestination(points.get(1)));
+        assertNull(restored.getDestination(points.get(2)));
+        assertEquals(NavigationHint.KEEP_TO_THE_LEFT, restored.getNavigationHint(points.get(1)));
+        assertEquals(NavigationHint.TURN_RIGHT, points.get(0).connections().get(0).getNavigationHint(points.get(1)));
+
+        final InMemoryRegionsProvider loaded = InMemoryRegionsProvider.load(read, worlds::get);
+        assertEquals(List.of(tile.id()), ids(loaded.getRegions(world, 5, 5, 5)));
+        assertEquals(List.of(), ids(loaded.getRegions(world, 11, 11, 11)));
+        assertEquals(List.of(merge.id()), ids(loaded.getRegions(nether, 45, 5, 45)));
+        assertEquals(List.of(), ids(loaded.getRegions(world, 45, 5, 45)));
+    }
+
+    @Test
+    void rejectsCorruptFile() throws IOException {
+        final Path path = write();
+        final byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, codec));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        final Path path = write();
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, codec));
+        Files.write(path, Arrays.copyOf(bytes, 10));
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, codec));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        final Path path = write();
+        final byte[] bytes = Files.readAllBytes(path);
+        bytes[0] ^= 1;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, codec));
+
+        bytes[0] ^= 1;
+        bytes[7] = (byte) (BinarySnapshot.FORMAT_VERSION + 1);
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, codec));
+    }
+
+    private Path write() throws IOException {
+        final InMemoryRegionsProvider provider = new InMemoryRegionsProvider();
+        final Region region = provider.createRegion(List.of(new SimpleArea(world, 0, 0, 0, 15, 15, 15)), List.of());
+        final Path path = directory.resolve("regions.bin");
+        BinarySnapshot.capture(1, List.of(region), List.of(), List.of(), List.of()).write(path, codec);
+        return path;
+    }
+
+    private static List<Integer> ids(List<Region> regions) {
+        return regions.stream().map(Region::id).toList();
+    }
+
+    // implements the given interface with the given return values, keyed by method name
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(BinarySnapshotTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> values.get(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,59 @@
+package minevalley.regions.api.snapshot;
+
+import minevalley.regions.api.TestWorlds;
+import minevalley.regions.api.core.Area;
+import minevalley.regions.api.core.Region;
+import minevalley.regions.api.memory.SimpleArea;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionsSnapshotTest {
+
+    private final World world = TestWorlds.world("world");
+    private final World nether = TestWorlds.world("nether");
+
+    @Test
+    void indexesRegionsSpanningWorldsInEachWorld() {
+        final Region region = region(1, new SimpleArea(world, 0, 0, 0, 15, 15, 15),
+                new SimpleArea(nether, 100, 0, 100, 115, 15, 115));
+        final RegionsSnapshot snapshot = RegionsSnapshot.capture(1, List.of(region), List.of(), List.of());
+
+        assertArrayEquals(new int[]{region.id()}, snapshot.getRegionIds(world.getUID(), 5, 5, 5));
+        assertArrayEquals(new int[]{region.id()}, snapshot.getRegionIds(nether.getUID(), 105, 5, 105));
+        assertArrayEquals(new int[0], snapshot.getRegionIds(world.getUID(), 105, 5, 105));
+        assertArrayEquals(new int[0], snapshot.getRegionIds(nether.getUID(), 5, 5, 5));
+
+        assertEquals(world.getUID(), snapshot.getRegion(region.id()).worldId());
+        assertEquals(nether.getUID(), snapshot.getRegion(region.id(), nether.getUID()).worldId());
+        assertNull(snapshot.getRegion(region.id(), TestWorlds.world("end").getUID()));
+    }
+
+    @Test
+    void reusesUnchangedRegions() {
+        final Region region = region(1, new SimpleArea(world, 0, 0, 0, 15, 15, 15),
+                new SimpleArea(nether, 0, 0, 0, 15, 15, 15));
+        final RegionsSnapshot first = RegionsSnapshot.capture(1, List.of(region), List.of(), List.of());
+        final RegionsSnapshot second = RegionsSnapshot.capture(2, List.of(region), List.of(), List.of(), first,
+                regionId -> false);
+
+        assertSame(first.getRegion(region.id(), nether.getUID()), second.getRegion(region.id(), nether.getUID()));
+        assertArrayEquals(new int[]{region.id()}, second.getRegionIds(nether.getUID(), 5, 5, 5));
+    }
+
+    // the in-memory provider keeps regions in a single world, so this implements the remaining cases
+    private static Region region(int id, Area... included) {
+        return (Region) Proxy.newProxyInstance(RegionsSnapshotTest.class.getClassLoader(), new Class<?>[]{Region.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "id" -> id;
+                    case "included" -> List.of(included);
+                    case "excluded" -> List.of();
+                    default -> InvocationHandler.invokeDefault(proxy, method, args);
+                });
+    }
+}
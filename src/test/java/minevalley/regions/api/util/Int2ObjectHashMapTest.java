@@ -0,0 +1,53 @@
+package minevalley.regions.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Int2ObjectHashMapTest {
+
+    @Test
+    void behavesLikeHashMap() {
+        final Random random = new Random(9);
+        final Int2ObjectHashMap<String> map = new Int2ObjectHashMap<>();
+        final Map<Integer, String> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // few distinct keys, so that puts, overwrites and removes collide in the probe sequences
+            final int key = random.nextInt(2000) - 1000 << random.nextInt(20);
+            switch (random.nextInt(3)) {
+                case 0, 1 -> {
+                    final String value = "v" + i;
+                    assertEquals(reference.put(key, value), map.put(key, value));
+                }
+                default -> assertEquals(reference.remove(key), map.remove(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Integer, String> entry : reference.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(new HashSet<>(reference.values()), new HashSet<>(map.values()));
+        assertEquals(reference.size(), map.values().size());
+    }
+
+    @Test
+    void removesMatchingValues() {
+        final Int2ObjectHashMap<Integer> map = new Int2ObjectHashMap<>();
+        for (int key = 0; key < 1000; key++) map.put(key, key);
+
+        assertTrue(map.removeIf(value -> value % 3 == 0));
+        assertFalse(map.removeIf(value -> value % 3 == 0));
+        assertEquals(666, map.size());
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(key % 3 != 0, map.containsKey(key), "key " + key);
+        }
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThrows(IllegalArgumentException.class, () -> new Int2ObjectHashMap<>().put(1, null));
+    }
+}
@@ -0,0 +1,59 @@
+package minevalley.regions.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Long2IntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    void behavesLikeHashMap() {
+        final Random random = new Random(5);
+        final Long2IntHashMap map = new Long2IntHashMap(MISSING);
+        final Map<Long, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // few distinct keys, so that puts, overwrites and removes collide in the probe sequences
+            final long key = random.nextInt(2000) - 1000L << random.nextInt(40);
+            switch (random.nextInt(3)) {
+                case 0, 1 -> {
+                    final Integer previous = reference.put(key, i);
+                    assertEquals(previous == null ? MISSING : previous, map.put(key, i));
+                }
+                default -> {
+                    final Integer removed = reference.remove(key);
+                    assertEquals(removed == null ? MISSING : removed, map.remove(key));
+                }
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void returnsMissingValueForUnmappedKeys() {
+        final Long2IntHashMap map = new Long2IntHashMap(MISSING, 4);
+        assertEquals(MISSING, map.missingValue());
+        assertEquals(MISSING, map.get(7));
+        assertEquals(MISSING, map.remove(7));
+
+        map.put(7, 0);
+        assertEquals(0, map.get(7));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(MISSING, map.get(7));
+    }
+
+    @Test
+    void rejectsMissingValue() {
+        assertThrows(IllegalArgumentException.class, () -> new Long2IntHashMap(MISSING).put(1, MISSING));
+    }
+}
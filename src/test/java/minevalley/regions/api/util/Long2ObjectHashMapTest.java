@@ -0,0 +1,57 @@
+package minevalley.regions.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Long2ObjectHashMapTest {
+
+    @Test
+    void behavesLikeHashMap() {
+        final Random random = new Random(3);
+        final Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>();
+        final Map<Long, String> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // few distinct keys, so that puts, overwrites and removes collide in the probe sequences
+            final long key = random.nextInt(2000) - 1000L << random.nextInt(40);
+            switch (random.nextInt(3)) {
+                case 0, 1 -> {
+                    final String value = "v" + i;
+                    assertEquals(reference.put(key, value), map.put(key, value));
+                }
+                default -> assertEquals(reference.remove(key), map.remove(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Long, String> entry : reference.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        final List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(new HashSet<>(reference.values()), new HashSet<>(values));
+        assertEquals(reference.size(), values.size());
+    }
+
+    @Test
+    void growsAndClears() {
+        final Long2ObjectHashMap<Long> map = new Long2ObjectHashMap<>(2);
+        for (long key = 0; key < 10_000; key++) map.put(key * 31, key);
+        assertEquals(10_000, map.size());
+        assertEquals(42L, map.get(42 * 31));
+        assertNull(map.get(-1));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(42 * 31));
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThrows(IllegalArgumentException.class, () -> new Long2ObjectHashMap<>().put(1, null));
+    }
+}